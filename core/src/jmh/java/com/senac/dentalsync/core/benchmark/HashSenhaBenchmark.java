@@ -0,0 +1,58 @@
+package com.senac.dentalsync.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.senac.dentalsync.core.service.HashSenhaService;
+
+/**
+ * Hashes de senha por segundo em um núcleo (uma thread), para escolher dentalsync.senha.bcrypt-custo.
+ * Multiplicando pelo número de threads do pool de hash tem-se o teto de logins por segundo da instância.
+ * Uso: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=HashSenhaBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class HashSenhaBenchmark {
+
+    private static final String SENHA = "Senha@Forte123";
+
+    @Param({"10", "11", "12"})
+    private int custo;
+
+    private HashSenhaService hashSenhaService;
+    private String hash;
+
+    @Setup
+    public void preparar() {
+        // Executa na própria thread: mede só o BCrypt, sem a troca de thread do pool
+        hashSenhaService = new HashSenhaService(custo, Runnable::run, 60_000);
+        hash = hashSenhaService.encode(SENHA);
+    }
+
+    @Benchmark
+    public String gerarHash() {
+        return hashSenhaService.encode(SENHA);
+    }
+
+    @Benchmark
+    public boolean verificarSenha() {
+        return hashSenhaService.matches(SENHA, hash);
+    }
+}
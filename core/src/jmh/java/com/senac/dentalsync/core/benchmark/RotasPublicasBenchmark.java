@@ -0,0 +1,64 @@
+package com.senac.dentalsync.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.senac.dentalsync.core.config.RotasPublicas;
+
+/**
+ * Verificação de rota pública por requisição: a lista com startsWith("/api" + caminho) usada antes
+ * no AuthInterceptor contra a árvore de prefixos de RotasPublicas. O profiler de GC do perfil
+ * (gc.alloc.rate.norm) deve mostrar ~0 B/op na árvore.
+ * Uso: mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RotasPublicasBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RotasPublicasBenchmark {
+
+    // Rota protegida (percorre tudo), rota pública e rota pública atrás do prefixo do proxy
+    @Param({"/pedidos/123/itens", "/laboratorios/1", "/api/password/reset"})
+    private String uri;
+
+    @Benchmark
+    public boolean arvore() {
+        return RotasPublicas.dispensaVerificacao(uri);
+    }
+
+    @Benchmark
+    public boolean listaAnterior() {
+        String[] publicPaths = {
+            "/login",
+            "/logout",
+            "/auth/check",
+            "/login/verify-2fa",
+            "/login/request-recovery-code",
+            "/login/verify-recovery-code",
+            "/login/remember-me",
+            "/password/",
+            "/proteticos/cadastro",
+            "/laboratorios/",
+            "/security/reset-password-emergency",
+            "/material/notificacoes/estoque"
+        };
+        for (String path : publicPaths) {
+            if (uri.startsWith("/api" + path) || uri.startsWith(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,7 +1,7 @@
 package com.senac.dentalsync.core.config;
 
-import java.util.Optional;
-
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -9,8 +9,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 import com.senac.dentalsync.core.persistency.model.Protetico;
-import com.senac.dentalsync.core.service.ProteticoService;
 import com.senac.dentalsync.core.service.RememberMeService;
+import com.senac.dentalsync.core.service.StatusProteticoCache;
 
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,8 +20,10 @@ import jakarta.servlet.http.HttpSession;
 @Component
 public class AuthInterceptor implements HandlerInterceptor {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthInterceptor.class);
+
     @Autowired
-    private ProteticoService proteticoService;
+    private StatusProteticoCache statusProteticoCache;
     
     @Autowired
     private RememberMeService rememberMeService;
@@ -30,8 +32,8 @@ public class AuthInterceptor implements HandlerInterceptor {
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         String requestURI = request.getRequestURI();
         
-        // Pular validação para endpoints públicos
-        if (isPublicEndpoint(requestURI)) {
+        // Pular validação para endpoints públicos (ver RotasPublicas)
+        if (RotasPublicas.dispensaVerificacao(requestURI)) {
             return true;
         }
 
@@ -49,29 +51,25 @@ public class AuthInterceptor implements HandlerInterceptor {
             Protetico userData = (Protetico) session.getAttribute("USER_DATA");
             
             if (userData != null) {
-                // Verificar se o protético ainda está ativo no banco
-                Optional<Protetico> currentUserOpt = proteticoService.findByEmail(userData.getEmail());
+                // Situação do protético em cache curto (ver StatusProteticoCache), sem ir ao banco a cada requisição
+                StatusProteticoCache.Situacao situacao = statusProteticoCache.consultar(userData.getEmail());
                 
-                if (currentUserOpt.isPresent()) {
-                    Protetico currentUser = currentUserOpt.get();
-                    
+                if (situacao == StatusProteticoCache.Situacao.INATIVO) {
                     // Se o protético foi desativado, invalidar sessão
-                    if (currentUser.getIsActive() == null || !currentUser.getIsActive()) {
-                        System.out.println("🚫 Protético inativo interceptado - Request: " + requestURI + " - Email: " + currentUser.getEmail());
-                        
-                        // Invalidar sessão e cookies
-                        invalidateUserSession(currentUser.getEmail(), request, response);
-                        
-                        // Retornar erro 403 Forbidden
-                        response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                        response.setContentType("application/json");
-                        response.getWriter().write("{\"success\":false,\"message\":\"Conta desativada. Entre em contato com o administrador do sistema.\"}");
-                        
-                        return false; // Bloquear a requisição
-                    }
-                } else {
+                    log.info("Protético inativo interceptado: uri={} email={}", requestURI, userData.getEmail());
+                    
+                    // Invalidar sessão e cookies
+                    invalidateUserSession(userData.getEmail(), request, response);
+                    
+                    // Retornar erro 403 Forbidden
+                    response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                    response.setContentType("application/json");
+                    response.getWriter().write("{\"success\":false,\"message\":\"Conta desativada. Entre em contato com o administrador do sistema.\"}");
+                    
+                    return false; // Bloquear a requisição
+                } else if (situacao == StatusProteticoCache.Situacao.INEXISTENTE) {
                     // Usuário não encontrado no banco - sessão inválida
-                    System.out.println("🚫 Usuário não encontrado no banco - invalidando sessão: " + userData.getEmail());
+                    log.info("Usuário não encontrado no banco - invalidando sessão: {}", userData.getEmail());
                     invalidateUserSession(userData.getEmail(), request, response);
                     
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -86,34 +84,6 @@ public class AuthInterceptor implements HandlerInterceptor {
         return true; // Continuar com a requisição
     }
 
-    /**
-     * Verifica se o endpoint é público (não requer autenticação)
-     */
-    private boolean isPublicEndpoint(String requestURI) {
-        String[] publicPaths = {
-            "/login",
-            "/logout", 
-            "/auth/check",
-            "/login/verify-2fa",
-            "/login/request-recovery-code",
-            "/login/verify-recovery-code",
-            "/login/remember-me",
-            "/password/",
-            "/proteticos/cadastro",
-            "/laboratorios/",
-            "/security/reset-password-emergency",
-            "/material/notificacoes/estoque"
-        };
-        
-        for (String path : publicPaths) {
-            if (requestURI.startsWith("/api" + path) || requestURI.startsWith(path)) {
-                return true;
-            }
-        }
-        
-        return false;
-    }
-
     /**
      * Invalida sessão e cookies do usuário
      */
@@ -147,10 +117,10 @@ public class AuthInterceptor implements HandlerInterceptor {
             // Invalidar tokens de "lembrar de mim" no banco
             rememberMeService.removeRememberMeToken(email);
             
-            System.out.println("✅ Sessão invalidada para usuário inativo: " + email);
+            log.info("Sessão invalidada para usuário inativo: {}", email);
             
         } catch (Exception e) {
-            System.err.println("❌ Erro ao invalidar sessão: " + e.getMessage());
+            log.error("Erro ao invalidar sessão de {}", email, e);
         }
     }
 } 
\ No newline at end of file
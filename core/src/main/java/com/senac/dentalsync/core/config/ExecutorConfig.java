@@ -0,0 +1,127 @@
+package com.senac.dentalsync.core.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pools de threads da aplicação. Cada pool é limitado (threads e fila), para que uma carga
+ * alta não crie threads sem controle nem esgote o pool de conexões do banco
+ */
+@Configuration
+public class ExecutorConfig {
+
+    public static final String DASHBOARD_EXECUTOR = "dashboardExecutor";
+    public static final String NOTIFICACAO_EXECUTOR = "notificacaoExecutor";
+    public static final String EMAIL_EXECUTOR = "emailExecutor";
+    public static final String HASH_SENHA_EXECUTOR = "hashSenhaExecutor";
+    public static final String STT_EXECUTOR = "sttExecutor";
+
+    /**
+     * Seções do dashboard consultadas em paralelo. Fila cheia rejeita a tarefa
+     * e a seção usa o resultado parcial (ver ExecutorSecoesDashboard)
+     */
+    @Bean(name = DASHBOARD_EXECUTOR)
+    public ThreadPoolTaskExecutor dashboardExecutor(
+            @Value("${dentalsync.dashboard.executor.threads:4}") int threads,
+            @Value("${dentalsync.dashboard.executor.fila:50}") int fila) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(fila);
+        executor.setThreadNamePrefix("dashboard-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Envio das notificações de estoque (SSE). Uma thread só, para que os deltas cheguem em ordem
+     * e um cliente lento não segure a transação que alterou o estoque
+     */
+    @Bean(name = NOTIFICACAO_EXECUTOR)
+    public ThreadPoolTaskExecutor notificacaoExecutor(
+            @Value("${dentalsync.estoque.sse.fila:1000}") int fila) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(fila);
+        executor.setThreadNamePrefix("notificacao-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Workers da fila de emails (ver FilaEmailService). Poucas threads, cada uma enviando um lote
+     * por conexão SMTP; fila cheia deixa os emails no banco para a próxima varredura.
+     * No modo de threads virtuais os workers são virtuais, com os mesmos limites de threads e fila
+     * (cada worker segura uma conexão do banco e uma SMTP)
+     */
+    @Bean(name = EMAIL_EXECUTOR)
+    public ThreadPoolTaskExecutor emailExecutor(
+            @Value("${dentalsync.mail.fila.threads:2}") int threads,
+            @Value("${dentalsync.mail.fila.capacidade:20}") int fila,
+            @Value("${spring.threads.virtual.enabled:false}") boolean threadsVirtuais) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(fila);
+        executor.setThreadNamePrefix("email-");
+        if (threadsVirtuais) {
+            executor.setThreadFactory(Thread.ofVirtual().name("email-", 0).factory());
+        }
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Hash e verificação de senhas (BCrypt, só CPU). Por padrão uma thread por núcleo; fila cheia
+     * responde 503 (ver HashSenhaService)
+     */
+    @Bean(name = HASH_SENHA_EXECUTOR)
+    public ThreadPoolTaskExecutor hashSenhaExecutor(
+            @Value("${dentalsync.senha.executor.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+            @Value("${dentalsync.senha.executor.fila:50}") int fila) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(fila);
+        executor.setThreadNamePrefix("hash-senha-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Jobs de STT (/stt/jobs): cada worker fica preso na chamada ao n8n, então o número de threads limita
+     * as extrações simultâneas e a fila as pendentes; fila cheia responde 503 (ver JobSttService).
+     * No modo de threads virtuais os workers são virtuais, com os mesmos limites
+     */
+    @Bean(name = STT_EXECUTOR)
+    public ThreadPoolTaskExecutor sttExecutor(
+            @Value("${dentalsync.stt.jobs.threads:4}") int threads,
+            @Value("${dentalsync.stt.jobs.fila:100}") int fila,
+            @Value("${spring.threads.virtual.enabled:false}") boolean threadsVirtuais) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(fila);
+        executor.setThreadNamePrefix("stt-");
+        if (threadsVirtuais) {
+            executor.setThreadFactory(Thread.ofVirtual().name("stt-", 0).factory());
+        }
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
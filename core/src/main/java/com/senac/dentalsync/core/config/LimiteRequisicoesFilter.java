@@ -0,0 +1,62 @@
+package com.senac.dentalsync.core.config;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Limite de requisições em andamento para o modo de threads virtuais. Com threads de plataforma o
+ * próprio pool do Tomcat (server.tomcat.threads.max) segura a concorrência; com threads virtuais cada
+ * requisição ganha a sua thread e milhares ficariam esperando conexão do Hikari até o connection-timeout.
+ * Aqui as requisições além do limite esperam pouco e recebem 503 com Retry-After. As requisições
+ * assíncronas (SSE) liberam a vaga assim que a primeira passagem pelo filtro termina
+ */
+public class LimiteRequisicoesFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(LimiteRequisicoesFilter.class);
+
+    private final Semaphore vagas;
+    private final long esperaMs;
+
+    public LimiteRequisicoesFilter(int maxRequisicoes, long esperaMs) {
+        this.vagas = new Semaphore(maxRequisicoes);
+        this.esperaMs = esperaMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean obteve;
+        try {
+            obteve = vagas.tryAcquire(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            obteve = false;
+        }
+        if (!obteve) {
+            log.warn("Limite de requisições simultâneas atingido; recusando {} {}", request.getMethod(), request.getRequestURI());
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                "Servidor ocupado. Tente novamente em instantes.");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            vagas.release();
+        }
+    }
+
+    int getVagasLivres() {
+        return vagas.availablePermits();
+    }
+}
@@ -0,0 +1,103 @@
+package com.senac.dentalsync.core.config;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.senac.dentalsync.core.util.ArvorePrefixos;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Cadastro único das rotas públicas, usado pelo SecurityConfig (acesso sem login) e pelo AuthInterceptor
+ * (rotas em que a situação da conta não é verificada). Compilado uma vez em árvores de prefixos;
+ * a consulta por requisição não aloca nada
+ */
+public final class RotasPublicas {
+
+    /**
+     * PUBLICA: sem login e sem verificação da conta. SEM_LOGIN: só o Spring Security libera; com sessão,
+     * o interceptor ainda verifica a conta. SEM_VERIFICACAO: exige o que o Spring Security exigir,
+     * mas o interceptor não verifica a conta
+     */
+    public enum Alcance { PUBLICA, SEM_LOGIN, SEM_VERIFICACAO }
+
+    /**
+     * Rota exata ou, com {@code subarvore}, ela e tudo abaixo dela (como o padrão "/caminho/**")
+     */
+    record Rota(String caminho, boolean subarvore, Alcance alcance) {
+    }
+
+    // Prefixo do proxy (nginx); normalmente já chega removido, mas o interceptor aceita as duas formas
+    private static final String PREFIXO_API = "/api";
+
+    private static final List<Rota> ROTAS = List.of(
+        // Autenticação e recuperação de acesso
+        exata("/login", Alcance.PUBLICA),
+        exata("/logout", Alcance.PUBLICA),
+        exata("/auth/check", Alcance.PUBLICA),
+        exata("/login/verify-2fa", Alcance.PUBLICA),
+        exata("/login/request-recovery-code", Alcance.PUBLICA),
+        exata("/login/verify-recovery-code", Alcance.PUBLICA),
+        exata("/password/forgot", Alcance.PUBLICA),
+        exata("/password/verify-2fa", Alcance.PUBLICA),
+        exata("/password/request-email-link", Alcance.PUBLICA),
+        exata("/password/reset", Alcance.PUBLICA),
+        subarvore("/login", Alcance.SEM_VERIFICACAO),
+        subarvore("/password", Alcance.SEM_VERIFICACAO),
+        // Cadastro e operações de protéticos/laboratórios
+        exata("/proteticos/cadastro", Alcance.PUBLICA),
+        subarvore("/proteticos", Alcance.SEM_LOGIN),
+        subarvore("/laboratorios", Alcance.PUBLICA),
+        // Endpoint temporário de reset
+        exata("/security/reset-password-emergency", Alcance.PUBLICA),
+        // Notificações de estoque
+        exata("/material/notificacoes/estoque", Alcance.PUBLICA),
+        // Actuator e documentação da API
+        subarvore("/actuator", Alcance.SEM_VERIFICACAO),
+        subarvore("/swagger-ui", Alcance.SEM_VERIFICACAO),
+        subarvore("/v3/api-docs", Alcance.SEM_VERIFICACAO)
+    );
+
+    private static final ArvorePrefixos SEM_LOGIN = compilar(alcance -> alcance != Alcance.SEM_VERIFICACAO);
+    private static final ArvorePrefixos SEM_VERIFICACAO = compilar(alcance -> alcance != Alcance.SEM_LOGIN);
+
+    private RotasPublicas() {
+    }
+
+    /**
+     * Rota liberada sem login no Spring Security (caminho a partir do context path)
+     */
+    public static boolean liberadaSemLogin(HttpServletRequest request) {
+        return SEM_LOGIN.contem(request.getRequestURI(), request.getContextPath().length());
+    }
+
+    /**
+     * Rota em que o AuthInterceptor não verifica a situação da conta; aceita também o prefixo "/api"
+     */
+    public static boolean dispensaVerificacao(String uri) {
+        if (uri == null) {
+            return false;
+        }
+        if (SEM_VERIFICACAO.contem(uri)) {
+            return true;
+        }
+        return uri.startsWith(PREFIXO_API) && uri.length() > PREFIXO_API.length()
+            && uri.charAt(PREFIXO_API.length()) == '/'
+            && SEM_VERIFICACAO.contem(uri, PREFIXO_API.length());
+    }
+
+    private static Rota exata(String caminho, Alcance alcance) {
+        return new Rota(caminho, false, alcance);
+    }
+
+    private static Rota subarvore(String caminho, Alcance alcance) {
+        return new Rota(caminho, true, alcance);
+    }
+
+    private static ArvorePrefixos compilar(Predicate<Alcance> filtro) {
+        List<Rota> rotas = ROTAS.stream().filter(rota -> filtro.test(rota.alcance())).toList();
+        return new ArvorePrefixos(
+            rotas.stream().filter(rota -> !rota.subarvore()).map(Rota::caminho).toList(),
+            rotas.stream().filter(Rota::subarvore).map(Rota::caminho).toList());
+    }
+}
@@ -1,5 +1,6 @@
 package com.senac.dentalsync.core.config;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -9,14 +10,17 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.session.HttpSessionEventPublisher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+
+import com.senac.dentalsync.core.service.HashSenhaService;
+
 import java.util.Arrays;
+import java.util.concurrent.Executor;
 
 @Configuration
 @EnableWebSecurity
@@ -37,11 +41,7 @@ public class SecurityConfig {
             .cors().and()
             .csrf().disable()
             .authorizeHttpRequests()
-                .requestMatchers("/login", "/logout", "/auth/check", "/login/verify-2fa", "/login/request-recovery-code", "/login/verify-recovery-code",
-                        "/password/forgot", "/password/verify-2fa", "/password/request-email-link", "/password/reset").permitAll() // endpoints de autenticação e recuperação
-                .requestMatchers("/proteticos/**", "/laboratorios/**").permitAll() // permitir cadastro e operações
-                .requestMatchers("/security/reset-password-emergency").permitAll() // endpoint temporário de reset
-                .requestMatchers("/material/notificacoes/estoque").permitAll() // endpoint de notificações de estoque
+                .requestMatchers(RotasPublicas::liberadaSemLogin).permitAll() // rotas públicas (ver RotasPublicas)
                 .requestMatchers("/security/**").authenticated() // outros endpoints de segurança requerem autenticação
                 .anyRequest().authenticated()
             .and()
@@ -59,16 +59,26 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * BCrypt com custo configurável, executado no pool próprio de hash de senhas (ver HashSenhaService)
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Qualifier(ExecutorConfig.HASH_SENHA_EXECUTOR) Executor hashSenhaExecutor,
+            @Value("${dentalsync.senha.bcrypt-custo:10}") int custo,
+            @Value("${dentalsync.senha.espera-ms:5000}") long esperaMs) {
+        return new HashSenhaService(custo, hashSenhaExecutor, esperaMs);
     }
 
+    /**
+     * O ProteticoService também é UserDetailsPasswordService: o provider refaz o hash no login
+     * quando o custo gravado difere do configurado
+     */
     @Bean
-    public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
+    public AuthenticationManager authenticationManager(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
         AuthenticationManagerBuilder authenticationManagerBuilder =
                 http.getSharedObject(AuthenticationManagerBuilder.class);
-        authenticationManagerBuilder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
+        authenticationManagerBuilder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder);
         return authenticationManagerBuilder.build();
     }
 
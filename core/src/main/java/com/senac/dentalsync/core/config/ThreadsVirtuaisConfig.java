@@ -0,0 +1,33 @@
+package com.senac.dentalsync.core.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Modo de threads virtuais (spring.threads.virtual.enabled=true). O Spring Boot já atende as requisições
+ * do Tomcat em threads virtuais; aqui entra o limite de requisições simultâneas, calculado a partir do
+ * tamanho do pool do Hikari para não disputar mais conexões do que existem. Os workers da fila de emails
+ * (ExecutorConfig) e o cliente do n8n (GatewayStt) também passam a usar threads virtuais nesse modo
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ThreadsVirtuaisConfig {
+
+    @Bean
+    public FilterRegistrationBean<LimiteRequisicoesFilter> limiteRequisicoesFilter(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int conexoesBanco,
+            @Value("${dentalsync.threads-virtuais.requisicoes-por-conexao:2}") int requisicoesPorConexao,
+            @Value("${dentalsync.threads-virtuais.espera-ms:2000}") long esperaMs) {
+        FilterRegistrationBean<LimiteRequisicoesFilter> registro = new FilterRegistrationBean<>(
+            new LimiteRequisicoesFilter(conexoesBanco * requisicoesPorConexao, esperaMs));
+        registro.addUrlPatterns("/*");
+        // Antes do Spring Security: requisição recusada não chega a abrir sessão nem consultar o banco
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registro;
+    }
+}
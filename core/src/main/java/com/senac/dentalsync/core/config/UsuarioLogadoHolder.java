@@ -0,0 +1,78 @@
+package com.senac.dentalsync.core.config;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Guarda o protético logado já resolvido durante a requisição atual.
+ * Assim o mesmo registro de "protetico" é consultado no máximo uma vez por requisição,
+ * mesmo que vários services precisem dele (auditoria, laboratório, etc.).
+ * Fora de uma requisição HTTP (jobs, testes) não há cache e a busca é feita sempre.
+ */
+public final class UsuarioLogadoHolder {
+
+    private static final String ATRIBUTO_ID = UsuarioLogadoHolder.class.getName() + ".ID";
+    private static final String ATRIBUTO_ENTIDADE = UsuarioLogadoHolder.class.getName() + ".ENTIDADE";
+
+    private UsuarioLogadoHolder() {
+    }
+
+    /**
+     * Retorna o email do usuário autenticado no SecurityContext, se houver
+     */
+    public static Optional<String> getEmailAutenticado() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication.getName() == null || "anonymousUser".equals(authentication.getName())) {
+            return Optional.empty();
+        }
+        return Optional.of(authentication.getName());
+    }
+
+    /**
+     * Resolve o ID do protético logado, consultando o banco apenas na primeira chamada da requisição
+     */
+    public static Optional<Long> resolverId(Function<String, Optional<Long>> buscarIdPorEmail) {
+        return resolver(ATRIBUTO_ID, buscarIdPorEmail);
+    }
+
+    /**
+     * Resolve a entidade completa do protético logado, consultando o banco apenas na primeira chamada da requisição
+     */
+    public static <T> Optional<T> resolverEntidade(Function<String, Optional<T>> buscarPorEmail) {
+        return resolver(ATRIBUTO_ENTIDADE, buscarPorEmail);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Optional<T> resolver(String atributo, Function<String, Optional<T>> buscarPorEmail) {
+        Optional<String> emailOpt = getEmailAutenticado();
+        if (emailOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        String email = emailOpt.get();
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object cache = attributes.getAttribute(atributo, RequestAttributes.SCOPE_REQUEST);
+            // O cache só vale para o mesmo principal (o login troca a autenticação no meio da requisição)
+            if (cache instanceof Resolvido resolvido && resolvido.email().equals(email)) {
+                return Optional.ofNullable((T) resolvido.valor());
+            }
+        }
+
+        Optional<T> valor = buscarPorEmail.apply(email);
+
+        if (attributes != null) {
+            attributes.setAttribute(atributo, new Resolvido(email, valor.orElse(null)), RequestAttributes.SCOPE_REQUEST);
+        }
+        return valor;
+    }
+
+    private record Resolvido(String email, Object valor) {
+    }
+}
@@ -1,9 +1,7 @@
 package com.senac.dentalsync.core.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -14,11 +12,6 @@ public class WebConfig implements WebMvcConfigurer {
     @Autowired
     private AuthInterceptor authInterceptor;
 
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-    }
-
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -37,20 +30,8 @@ public class WebConfig implements WebMvcConfigurer {
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        // As rotas públicas são liberadas pelo próprio interceptor (RotasPublicas), sem padrões de exclusão aqui
         registry.addInterceptor(authInterceptor)
-                .addPathPatterns("/**") // Aplicar a todos os endpoints
-                .excludePathPatterns(
-                    "/login/**", 
-                    "/logout", 
-                    "/auth/check",
-                    "/password/**",
-                    "/proteticos/cadastro",
-                    "/laboratorios/**",
-                    "/security/reset-password-emergency",
-                    "/material/notificacoes/estoque",
-                    "/actuator/**", // Endpoints do Spring Boot Actuator
-                    "/swagger-ui/**", // Swagger UI
-                    "/v3/api-docs/**" // OpenAPI docs
-                );
+                .addPathPatterns("/**"); // Aplicar a todos os endpoints
     }
 }
\ No newline at end of file
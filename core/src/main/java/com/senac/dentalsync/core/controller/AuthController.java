@@ -13,11 +13,11 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.senac.dentalsync.core.persistency.model.Protetico;
 import com.senac.dentalsync.core.service.EmailService;
@@ -47,9 +47,6 @@ public class AuthController {
     @Autowired
     private EmailService emailService;
 
-    @Autowired
-    private PasswordEncoder passwordEncoder;
-
     @Autowired
     private TrustedDeviceService trustedDeviceService;
 
@@ -108,6 +105,12 @@ public class AuthController {
                 errorResponse.put("success", false);
                 errorResponse.put("message", "Email ou senha inválidos");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+            } catch (ResponseStatusException e) {
+                // Pool de hash de senhas saturado (ver HashSenhaService): o cliente pode tentar de novo
+                Map<String, Object> errorResponse = new HashMap<>();
+                errorResponse.put("success", false);
+                errorResponse.put("message", e.getReason());
+                return ResponseEntity.status(e.getStatusCode()).header("Retry-After", "1").body(errorResponse);
             }
             
             // Se chegou até aqui, a autenticação foi bem-sucedida
@@ -511,8 +514,8 @@ public class AuthController {
             user.setTwoFactorSecret(null);
             user.setTwoFactorEnabled(false);
             
-            // Salvar usando repository para evitar problemas de senha
-            proteticoService.save(user);
+            // Grava só os campos de 2FA, sem passar pelo save completo
+            proteticoService.atualizarTwoFactor(user);
             
             // Limpar dados temporários
             session.removeAttribute("TEMP_AUTH");
@@ -722,9 +725,8 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(errorResponse);
             }
             
-            // Atualizar senha
-            user.setSenha(passwordEncoder.encode(newPassword));
-            proteticoService.save(user);
+            // Atualizar senha (criptografa e grava só a coluna da senha)
+            proteticoService.atualizarSenha(user, newPassword);
             
             // Invalidar token
             emailService.invalidatePasswordResetToken(token);
@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,7 +13,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
 
+import com.senac.dentalsync.core.dto.PaginaCursorDTO;
 import com.senac.dentalsync.core.persistency.model.BaseEntity;
 import com.senac.dentalsync.core.service.BaseService;
 
@@ -40,6 +44,32 @@ public abstract class BaseController<T extends BaseEntity, ID> {
         return ResponseEntity.ok(getService().findAll(pageable));
     }
 
+    /**
+     * Listagem paginada por cursor, para as telas de lista não carregarem a tabela inteira.
+     * A primeira chamada define a ordenação; as seguintes enviam apenas o proximoCursor recebido
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<PaginaCursorDTO<T>> findAllCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(defaultValue = "id") String ordenarPor,
+            @RequestParam(defaultValue = "DESC") Sort.Direction direcao,
+            @RequestParam(required = false) BaseService.Situacao situacao) {
+        try {
+            return ResponseEntity.ok(getService().findAllCursor(cursor, tamanho, ordenarPor, direcao,
+                situacao != null ? situacao : getSituacaoPadraoCursor()));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Situação listada por padrão em /cursor; segue o mesmo critério do GET da listagem
+     */
+    protected BaseService.Situacao getSituacaoPadraoCursor() {
+        return BaseService.Situacao.ATIVOS;
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<T> findById(@PathVariable ID id) {
         return getService().findById(id)
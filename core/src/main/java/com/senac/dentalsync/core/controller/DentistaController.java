@@ -2,6 +2,8 @@ package com.senac.dentalsync.core.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -70,4 +72,9 @@ public class DentistaController extends BaseController<Dentista, Long> {
         List<HistoricoDentistaDTO> historico = pedidoService.buscarHistoricoPorDentista(id);
         return ResponseEntity.ok(historico);
     }
+
+    @GetMapping("/{id}/historico/paginado")
+    public ResponseEntity<Page<HistoricoDentistaDTO>> getHistoricoDentistaPaginado(@PathVariable Long id, Pageable pageable) {
+        return ResponseEntity.ok(pedidoService.buscarHistoricoPorDentista(id, pageable));
+    }
 } 
\ No newline at end of file
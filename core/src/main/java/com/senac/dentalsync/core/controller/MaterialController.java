@@ -1,19 +1,28 @@
 package com.senac.dentalsync.core.controller;
 
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.senac.dentalsync.core.persistency.model.Material;
+import com.senac.dentalsync.core.persistency.model.MovimentacaoEstoque;
 import com.senac.dentalsync.core.service.BaseService;
+import com.senac.dentalsync.core.service.CanalNotificacaoEstoque;
 import com.senac.dentalsync.core.service.MaterialService;
+import com.senac.dentalsync.core.service.RetentativaConcorrencia;
+
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping("/material")
@@ -22,6 +31,12 @@ public class MaterialController extends BaseController<Material, Long> {
     @Autowired
     private MaterialService materialService;
 
+    @Autowired
+    private RetentativaConcorrencia retentativaConcorrencia;
+
+    @Autowired
+    private CanalNotificacaoEstoque canalNotificacaoEstoque;
+
     @Override
     protected BaseService<Material, Long> getService() {
         return materialService;
@@ -35,6 +50,35 @@ public class MaterialController extends BaseController<Material, Long> {
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
-    }    
-    
+    }
+
+    /**
+     * Canal SSE das notificações de estoque: um "snapshot" ao conectar e "delta" a cada mudança de faixa
+     */
+    @GetMapping(value = "/notificacoes/estoque/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamNotificacaoEstoque(HttpServletResponse response) {
+        // Sem isso o nginx acumula os eventos no buffer do proxy
+        response.setHeader("X-Accel-Buffering", "no");
+        return canalNotificacaoEstoque.conectarUsuarioLogado();
+    }
+
+    /**
+     * Livro de movimentações do material (baixas por pedido, cadastro e ajustes), mais recentes primeiro
+     */
+    @GetMapping("/{id}/movimentacoes")
+    public ResponseEntity<List<MovimentacaoEstoque>> getMovimentacoes(@PathVariable Long id,
+            @RequestParam(defaultValue = "50") int limite) {
+        return ResponseEntity.ok(materialService.listarMovimentacoes(id, Math.max(1, Math.min(limite, 200))));
+    }
+
+    /**
+     * Contadores de disputa pelo estoque (conflitos de concorrência ao salvar pedidos)
+     */
+    @GetMapping("/estoque/contencao")
+    public ResponseEntity<Map<String, Long>> getContencaoEstoque() {
+        return ResponseEntity.ok(Map.of(
+            "conflitos", retentativaConcorrencia.getConflitos(),
+            "recuperados", retentativaConcorrencia.getRecuperados(),
+            "esgotados", retentativaConcorrencia.getEsgotados()));
+    }
 }
@@ -3,6 +3,8 @@ package com.senac.dentalsync.core.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -110,6 +112,11 @@ public class PacienteController extends BaseController<Paciente, Long> {
         return ResponseEntity.ok(historico);
     }
 
+    @GetMapping("/{id}/historico/paginado")
+    public ResponseEntity<Page<HistoricoPacienteDTO>> getHistoricoPacientePaginado(@PathVariable Long id, Pageable pageable) {
+        return ResponseEntity.ok(pedidoService.buscarHistoricoPorPaciente(id, pageable));
+    }
+
     // Endpoints para consultas apenas inativas (uso administrativo)
     @GetMapping("/inactive/email/{email}")
     public ResponseEntity<Paciente> findByEmailInactive(@PathVariable @Valid String email) {
@@ -62,6 +62,12 @@ public class PedidoController extends BaseController<Pedido, Long> {
         // Sobrescrever para retornar todos os pedidos, incluindo inativos
         return ResponseEntity.ok(getService().findAllIncludingInactive());
     }
+
+    @Override
+    protected BaseService.Situacao getSituacaoPadraoCursor() {
+        // Mesmo critério do GET /pedidos: inclui pedidos inativos
+        return BaseService.Situacao.TODOS;
+    }
     
     @Override
     @PostMapping
@@ -8,6 +8,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -87,4 +89,9 @@ public class ProteticoController extends BaseController<Protetico, Long> {
         List<HistoricoProteticoDTO> historico = pedidoService.buscarHistoricoPorProtetico(id);
         return ResponseEntity.ok(historico);
     }
+
+    @GetMapping("/{id}/historico/paginado")
+    public ResponseEntity<Page<HistoricoProteticoDTO>> getHistoricoProteticoPaginado(@PathVariable Long id, Pageable pageable) {
+        return ResponseEntity.ok(pedidoService.buscarHistoricoPorProtetico(id, pageable));
+    }
 } 
\ No newline at end of file
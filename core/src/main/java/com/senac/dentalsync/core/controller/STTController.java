@@ -1,10 +1,22 @@
 package com.senac.dentalsync.core.controller;
 
+import com.senac.dentalsync.core.config.UsuarioLogadoHolder;
+import com.senac.dentalsync.core.event.CadastroAlteradoEvent;
+import com.senac.dentalsync.core.service.JobSttService;
+import com.senac.dentalsync.core.service.ResolvedorNomesStt;
 import com.senac.dentalsync.core.service.STTService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -12,10 +24,115 @@ import java.util.Map;
 public class STTController {
 
     private final STTService sttService;
+    private final JobSttService jobSttService;
+    private final ResolvedorNomesStt resolvedorNomesStt;
+    private final long esperaMaximaMs;
+    private final long sseTimeoutMs;
     
     @Autowired
-    public STTController(STTService sttService) {
+    public STTController(STTService sttService,
+                         JobSttService jobSttService,
+                         ResolvedorNomesStt resolvedorNomesStt,
+                         @Value("${dentalsync.stt.jobs.espera-maxima-ms:30000}") long esperaMaximaMs,
+                         @Value("${dentalsync.stt.jobs.sse-timeout-ms:120000}") long sseTimeoutMs) {
         this.sttService = sttService;
+        this.jobSttService = jobSttService;
+        this.resolvedorNomesStt = resolvedorNomesStt;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.sseTimeoutMs = sseTimeoutMs;
+    }
+
+    /**
+     * Cadastros cujo nome mais se parece com o nome ditado (índice em memória, sem consulta ao banco).
+     * tipo restringe a busca a PACIENTE, DENTISTA, PROTETICO ou SERVICO
+     */
+    @GetMapping("/resolve")
+    public ResponseEntity<?> resolverNome(@RequestParam String nome,
+            @RequestParam(required = false) CadastroAlteradoEvent.Tipo tipo,
+            @RequestParam(defaultValue = "5") int limite) {
+        if (nome.isBlank()) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Nome não pode estar vazio"));
+        }
+        return ResponseEntity.ok(resolvedorNomesStt.resolver(nome, tipo, Math.max(1, Math.min(limite, 20))));
+    }
+
+    /**
+     * Enfileira a extração e responde 202 com o id do job na hora. Com "rascunho" (padrão true) o job
+     * também confere os IDs extraídos e devolve o pedido pronto para POST /pedidos
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> criarJob(@RequestBody Map<String, Object> request) {
+        Object texto = request.get("text");
+        boolean rascunho = !Boolean.FALSE.equals(request.get("rascunho"));
+        try {
+            JobSttService.Job job = jobSttService.criar(texto != null ? texto.toString() : null, rascunho,
+                emailAutenticado());
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("id", job.getId());
+            body.put("status", job.getStatus());
+            body.put("resultado", "/stt/jobs/" + job.getId());
+            body.put("eventos", "/stt/jobs/" + job.getId() + "/eventos");
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Estado do job. Com esperaMs > 0 a resposta segura até o job terminar ou o tempo acabar (long-poll),
+     * sem prender uma thread do servidor enquanto espera
+     */
+    @GetMapping("/jobs/{id}")
+    public DeferredResult<ResponseEntity<?>> consultarJob(@PathVariable String id,
+            @RequestParam(defaultValue = "0") long esperaMs) {
+        JobSttService.Job job = jobSttService.buscar(id, emailAutenticado()).orElse(null);
+        if (job == null) {
+            DeferredResult<ResponseEntity<?>> naoEncontrado = new DeferredResult<>();
+            naoEncontrado.setResult(ResponseEntity.notFound().build());
+            return naoEncontrado;
+        }
+        if (job.isConcluido() || esperaMs <= 0) {
+            DeferredResult<ResponseEntity<?>> imediato = new DeferredResult<>();
+            imediato.setResult(ResponseEntity.ok(visao(job)));
+            return imediato;
+        }
+
+        DeferredResult<ResponseEntity<?>> resultado = new DeferredResult<>(Math.min(esperaMs, esperaMaximaMs));
+        resultado.onTimeout(() -> resultado.setResult(ResponseEntity.ok(visao(job))));
+        job.getConclusao().thenAccept(concluido -> resultado.setResult(ResponseEntity.ok(visao(concluido))));
+        return resultado;
+    }
+
+    /**
+     * Canal SSE do job: um evento "status" ao conectar e um "resultado" quando terminar
+     */
+    @GetMapping(value = "/jobs/{id}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> eventosJob(@PathVariable String id, HttpServletResponse response) {
+        JobSttService.Job job = jobSttService.buscar(id, emailAutenticado()).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // Sem isso o nginx acumula os eventos no buffer do proxy
+        response.setHeader("X-Accel-Buffering", "no");
+
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        try {
+            emitter.send(SseEmitter.event().name("status").data(Map.of("id", job.getId(), "status", job.getStatus())));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return ResponseEntity.ok(emitter);
+        }
+        job.getConclusao().thenAccept(concluido -> {
+            try {
+                emitter.send(SseEmitter.event().name("resultado").data(visao(concluido)));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // Cliente já desconectou; o container encerra a requisição assíncrona
+            }
+        });
+        return ResponseEntity.ok(emitter);
     }
 
     @PostMapping("/process")
@@ -146,6 +263,34 @@ public class STTController {
         }
     }
     
+    // Os jobs são separados por dono: sem usuário autenticado não há como criar nem consultar
+    private static String emailAutenticado() {
+        return UsuarioLogadoHolder.getEmailAutenticado()
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Usuário não autenticado"));
+    }
+
+    private Map<String, Object> visao(JobSttService.Job job) {
+        Map<String, Object> visao = new LinkedHashMap<>();
+        visao.put("id", job.getId());
+        visao.put("status", job.getStatus());
+        if (job.getResultado() != null) {
+            visao.put("resultado", job.getResultado());
+        }
+        if (job.getRascunho() != null) {
+            visao.put("rascunho", job.getRascunho());
+        }
+        if (job.getErro() != null) {
+            String errorMessage = job.getErro().getMessage();
+            String errorType = determineErrorType(errorMessage);
+            visao.put("erro", Map.of(
+                "details", getErrorMessage(errorType, errorMessage != null ? errorMessage : "Erro ao processar texto"),
+                "type", errorType,
+                "suggestion", sttService.getErrorSuggestion(errorType)
+            ));
+        }
+        return visao;
+    }
+
     private String determineErrorType(String errorMessage) {
         if (errorMessage == null) return "INTERNAL_ERROR";
         
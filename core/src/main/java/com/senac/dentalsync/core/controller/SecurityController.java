@@ -100,8 +100,7 @@ public class SecurityController {
             }
 
             // Atualizar a senha
-            currentUser.setSenha(newPassword); // Senha em texto plano - o service vai criptografar
-            proteticoService.save(currentUser);
+            proteticoService.atualizarSenha(currentUser, newPassword); // o service criptografa
 
             // Atualizar dados na sessão
             session.setAttribute("USER_DATA", currentUser);
@@ -121,7 +120,9 @@ public class SecurityController {
      * Inicia o processo de configuração do 2FA
      */
     @PostMapping("/2fa/setup")
-    public ResponseEntity<Map<String, Object>> setupTwoFactor(HttpServletRequest request) {
+    public ResponseEntity<Map<String, Object>> setupTwoFactor(
+            @RequestParam(required = false) String secretKey,
+            HttpServletRequest request) {
         Map<String, Object> response = new HashMap<>();
         
         try {
@@ -141,11 +142,11 @@ public class SecurityController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
             }
 
-            // Gerar dados para configuração do 2FA
-            TwoFactorService.TwoFactorSetupData setupData = twoFactorService.generateSetupData(
-                currentUser.getEmail(), 
-                "DentalSync"
-            );
+            // Tela recarregada com uma configuração ainda pendente: devolve a mesma (mesmo QR Code);
+            // senão, gera dados novos para configuração do 2FA
+            TwoFactorService.TwoFactorSetupData setupData = twoFactorService
+                .buscarSetupPendente(currentUser.getEmail(), secretKey)
+                .orElseGet(() -> twoFactorService.generateSetupData(currentUser.getEmail(), "DentalSync"));
 
             response.put("success", true);
             response.put("secretKey", setupData.getSecretKey());
@@ -199,7 +200,8 @@ public class SecurityController {
             // Ativar 2FA
             currentUser.setTwoFactorSecret(secretKey);
             currentUser.setTwoFactorEnabled(true);
-            proteticoService.save(currentUser);
+            proteticoService.atualizarTwoFactor(currentUser);
+            twoFactorService.descartarSetupsPendentes(currentUser.getEmail());
 
             // Atualizar dados na sessão
             session.setAttribute("USER_DATA", currentUser);
@@ -258,7 +260,7 @@ public class SecurityController {
             // Desativar 2FA
             currentUser.setTwoFactorSecret(null);
             currentUser.setTwoFactorEnabled(false);
-            proteticoService.save(currentUser);
+            proteticoService.atualizarTwoFactor(currentUser);
 
             // Atualizar dados na sessão
             session.setAttribute("USER_DATA", currentUser);
@@ -0,0 +1,24 @@
+package com.senac.dentalsync.core.dto;
+
+import java.math.BigDecimal;
+
+import com.senac.dentalsync.core.persistency.model.StatusMaterial;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Material com estoque baixo ou zerado, só com os campos exibidos nas notificações
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertaEstoqueDTO {
+    private Long id;
+    private String nome;
+    private BigDecimal quantidade;
+    private String unidadeMedida;
+    private BigDecimal estoqueMinimo;
+    private StatusMaterial status;
+}
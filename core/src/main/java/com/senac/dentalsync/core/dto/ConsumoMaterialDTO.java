@@ -0,0 +1,19 @@
+package com.senac.dentalsync.core.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Quantidade de um material consumida por um serviço (linha de servico_material sem carregar as entidades)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConsumoMaterialDTO {
+    private Long servicoId;
+    private Long materialId;
+    private BigDecimal quantidade;
+}
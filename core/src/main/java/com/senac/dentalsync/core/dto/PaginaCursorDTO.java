@@ -0,0 +1,31 @@
+package com.senac.dentalsync.core.dto;
+
+import java.util.List;
+
+public class PaginaCursorDTO<T> {
+    private List<T> itens;
+    private String proximoCursor;
+    private boolean temMais;
+    private int tamanho;
+
+    public PaginaCursorDTO() {}
+
+    public PaginaCursorDTO(List<T> itens, String proximoCursor, boolean temMais, int tamanho) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+        this.temMais = temMais;
+        this.tamanho = tamanho;
+    }
+
+    public List<T> getItens() { return itens; }
+    public void setItens(List<T> itens) { this.itens = itens; }
+
+    public String getProximoCursor() { return proximoCursor; }
+    public void setProximoCursor(String proximoCursor) { this.proximoCursor = proximoCursor; }
+
+    public boolean isTemMais() { return temMais; }
+    public void setTemMais(boolean temMais) { this.temMais = temMais; }
+
+    public int getTamanho() { return tamanho; }
+    public void setTamanho(int tamanho) { this.tamanho = tamanho; }
+}
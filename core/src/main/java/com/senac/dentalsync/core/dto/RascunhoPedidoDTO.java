@@ -0,0 +1,22 @@
+package com.senac.dentalsync.core.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pedido montado a partir da extração do STT, com os IDs já conferidos nas tabelas. O campo "pedido" tem
+ * o formato aceito por POST /pedidos; "nomes" traz o nome de cada registro encontrado para exibição
+ * (cliente, dentista, protetico e servico:ID) e "pendencias" o que faltou ou não foi encontrado
+ */
+@Data
+@NoArgsConstructor
+public class RascunhoPedidoDTO {
+    private PedidoDTO pedido = new PedidoDTO();
+    private Map<String, String> nomes = new LinkedHashMap<>();
+    private List<String> pendencias = new ArrayList<>();
+}
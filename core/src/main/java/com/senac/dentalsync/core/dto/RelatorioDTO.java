@@ -14,4 +14,6 @@ public class RelatorioDTO {
     private List<PedidosPorTipoDTO> pedidosPorTipo;
     private List<StatusPedidosDTO> statusPedidos;
     private List<PedidosRecentesDTO> pedidosRecentes;
+    // Seções que não responderam no prazo e vieram com valores parciais (vazia quando está tudo completo)
+    private List<String> secoesIndisponiveis;
 }
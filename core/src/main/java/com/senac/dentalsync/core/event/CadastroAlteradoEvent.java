@@ -0,0 +1,50 @@
+package com.senac.dentalsync.core.event;
+
+import java.util.Optional;
+
+import com.senac.dentalsync.core.persistency.model.BaseEntity;
+import com.senac.dentalsync.core.persistency.model.Dentista;
+import com.senac.dentalsync.core.persistency.model.Paciente;
+import com.senac.dentalsync.core.persistency.model.Protetico;
+import com.senac.dentalsync.core.persistency.model.Servico;
+
+/**
+ * Publicado quando um paciente, dentista, protético ou serviço é salvo, desativado ou excluído.
+ * Guarda só o nome e a situação (a entidade pode mudar depois do commit); ativo == false indica que o
+ * registro saiu dos ativos
+ */
+public record CadastroAlteradoEvent(Tipo tipo, Long id, String nome, boolean ativo) {
+
+    public enum Tipo { PACIENTE, DENTISTA, PROTETICO, SERVICO }
+
+    /**
+     * Evento do registro salvo; vazio para entidades que não são cadastros com nome
+     */
+    public static Optional<CadastroAlteradoEvent> de(BaseEntity registro) {
+        Tipo tipo;
+        String nome;
+        if (registro instanceof Paciente paciente) {
+            tipo = Tipo.PACIENTE;
+            nome = paciente.getNome();
+        } else if (registro instanceof Dentista dentista) {
+            tipo = Tipo.DENTISTA;
+            nome = dentista.getNome();
+        } else if (registro instanceof Protetico protetico) {
+            tipo = Tipo.PROTETICO;
+            nome = protetico.getNome();
+        } else if (registro instanceof Servico servico) {
+            tipo = Tipo.SERVICO;
+            nome = servico.getNome();
+        } else {
+            return Optional.empty();
+        }
+        if (registro.getId() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new CadastroAlteradoEvent(tipo, registro.getId(), nome, Boolean.TRUE.equals(registro.getIsActive())));
+    }
+
+    public static CadastroAlteradoEvent removido(Tipo tipo, Long id) {
+        return new CadastroAlteradoEvent(tipo, id, null, false);
+    }
+}
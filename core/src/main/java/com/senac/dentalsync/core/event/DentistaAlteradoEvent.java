@@ -0,0 +1,10 @@
+package com.senac.dentalsync.core.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publicado quando um dentista entra ou sai do conjunto de dentistas ativos
+ * (cadastro, ativação/desativação ou exclusão)
+ */
+public record DentistaAlteradoEvent(Long id, LocalDateTime createdAt, boolean ativoAntes, boolean ativoDepois) {
+}
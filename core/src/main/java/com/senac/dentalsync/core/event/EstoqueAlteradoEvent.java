@@ -0,0 +1,9 @@
+package com.senac.dentalsync.core.event;
+
+import java.util.Set;
+
+/**
+ * Publicado quando a quantidade ou o cadastro de materiais muda (baixa por pedido, edição, exclusão)
+ */
+public record EstoqueAlteradoEvent(Set<Long> materialIds) {
+}
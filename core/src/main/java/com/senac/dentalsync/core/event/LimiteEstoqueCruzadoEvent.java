@@ -0,0 +1,12 @@
+package com.senac.dentalsync.core.event;
+
+import com.senac.dentalsync.core.dto.AlertaEstoqueDTO;
+import com.senac.dentalsync.core.persistency.model.StatusMaterial;
+
+/**
+ * Publicado quando um material muda de faixa de estoque (ex.: EM_ESTOQUE -> BAIXO_ESTOQUE).
+ * atual == null indica que o material foi excluído; material traz os dados já atualizados
+ */
+public record LimiteEstoqueCruzadoEvent(Long materialId, StatusMaterial anterior, StatusMaterial atual,
+                                        AlertaEstoqueDTO material) {
+}
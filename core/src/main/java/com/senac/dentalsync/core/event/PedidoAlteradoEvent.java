@@ -0,0 +1,34 @@
+package com.senac.dentalsync.core.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.senac.dentalsync.core.persistency.model.Pedido;
+import com.senac.dentalsync.core.persistency.model.Servico;
+
+/**
+ * Publicado quando um pedido é criado, alterado ou removido.
+ * anterior == null indica criação; atual == null indica remoção
+ */
+public record PedidoAlteradoEvent(Estado anterior, Estado atual) {
+
+    /**
+     * Recorte do pedido relevante para os indicadores (não guarda a entidade, que pode mudar depois do commit)
+     */
+    public record Estado(Long id, LocalDateTime createdAt, Pedido.Status status, List<Long> servicoIds) {
+
+        public static Estado de(Pedido pedido) {
+            List<Long> servicoIds = pedido.getServicos() == null ? List.of()
+                : pedido.getServicos().stream().map(Servico::getId).toList();
+            return new Estado(pedido.getId(), pedido.getCreatedAt(), pedido.getStatus(), servicoIds);
+        }
+    }
+
+    public static PedidoAlteradoEvent criado(Pedido pedido) {
+        return new PedidoAlteradoEvent(null, Estado.de(pedido));
+    }
+
+    public static PedidoAlteradoEvent removido(Pedido pedido) {
+        return new PedidoAlteradoEvent(Estado.de(pedido), null);
+    }
+}
@@ -2,6 +2,8 @@ package com.senac.dentalsync.core.persistency.model;
 
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+
 import jakarta.persistence.Entity;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
@@ -32,6 +34,7 @@ public class Dentista extends BaseEntity {
     private String cro;
 
     @ManyToMany
+    @BatchSize(size = 50)
     @JoinTable(
         name = "dentista_clinica",
         joinColumns = @JoinColumn(name = "dentista_id"),
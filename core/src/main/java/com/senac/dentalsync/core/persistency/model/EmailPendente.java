@@ -0,0 +1,75 @@
+package com.senac.dentalsync.core.persistency.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Email na fila de saída (ver FilaEmailService). A linha é gravada na requisição e enviada depois
+ * pelos workers; falhas voltam para PENDENTE com nova tentativa agendada até o limite, e então
+ * ficam em FALHOU para análise
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "email_pendente", indexes = {
+    @Index(name = "idx_email_pendente_status_proxima", columnList = "status, proxima_tentativa_em"),
+    @Index(name = "idx_email_pendente_reserva", columnList = "reserva")
+})
+public class EmailPendente {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String destinatario;
+
+    @Column(nullable = false)
+    private String assunto;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String corpo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(nullable = false)
+    private Integer tentativas;
+
+    @Column(name = "proxima_tentativa_em", nullable = false)
+    private LocalDateTime proximaTentativaEm;
+
+    // Identifica o lote que está enviando a linha (status ENVIANDO)
+    @Column(length = 36)
+    private String reserva;
+
+    @Column(name = "reservado_em")
+    private LocalDateTime reservadoEm;
+
+    @Column(name = "ultimo_erro", length = 500)
+    private String ultimoErro;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "enviado_em")
+    private LocalDateTime enviadoEm;
+
+    public enum Status {
+        PENDENTE, ENVIANDO, ENVIADO, FALHOU
+    }
+}
@@ -0,0 +1,53 @@
+package com.senac.dentalsync.core.persistency.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contador agregado do dashboard, mantido incrementalmente a cada escrita de pedido/dentista
+ * (ver IndicadorDashboardService). Não estende BaseEntity: não é um cadastro e não tem auditoria
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "indicador_dashboard", uniqueConstraints = @UniqueConstraint(columnNames = {"tipo", "chave"}))
+public class IndicadorDashboard {
+
+    /** Chave usada para registros sem data de criação */
+    public static final String SEM_DATA = "SEM_DATA";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 40)
+    private Tipo tipo;
+
+    // Mês (yyyy-MM), status ou id do serviço, conforme o tipo
+    @Column(nullable = false, length = 60)
+    private String chave;
+
+    @Column(nullable = false)
+    private Long valor;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Tipo {
+        PEDIDOS_POR_MES, PEDIDOS_POR_STATUS, PEDIDOS_POR_SERVICO, DENTISTAS_ATIVOS_POR_MES
+    }
+}
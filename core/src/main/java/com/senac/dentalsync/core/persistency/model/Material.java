@@ -9,6 +9,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -33,6 +34,10 @@ public class Material extends BaseEntity {
     @Enumerated(EnumType.STRING)
     private StatusMaterial status;
 
+    // Controle otimista: uma edição baseada em dados antigos (ex.: quantidade já baixada por um pedido) é recusada
+    @Version
+    private Long versao;
+
     @Transient
     private BigDecimal qtdUsada;
 }
@@ -0,0 +1,68 @@
+package com.senac.dentalsync.core.persistency.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Linha do livro de movimentações de estoque: só recebe inserções, nunca é alterada.
+ * Material e pedido ficam como ids sem chave estrangeira, pois ambos podem ser excluídos
+ * fisicamente e o histórico precisa continuar existindo
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "movimentacao_estoque", indexes = {
+    @Index(name = "idx_movimentacao_estoque_material", columnList = "material_id, created_at"),
+    @Index(name = "idx_movimentacao_estoque_pedido", columnList = "pedido_id")
+})
+public class MovimentacaoEstoque {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "material_id", nullable = false)
+    private Long materialId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private Tipo tipo;
+
+    // Variação do estoque: negativa para saídas, positiva para entradas
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal quantidade;
+
+    @Column(name = "pedido_id")
+    private Long pedidoId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "created_by")
+    @JsonIgnore
+    private Protetico createdBy;
+
+    public enum Tipo {
+        CADASTRO, AJUSTE_MANUAL, BAIXA_PEDIDO
+    }
+}
@@ -3,10 +3,15 @@ package com.senac.dentalsync.core.persistency.model;
 import java.time.LocalDate;
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
@@ -20,10 +25,35 @@ import lombok.NoArgsConstructor;
 @Data
 @Entity
 @Table(name = "pedidos")
+// Plano de busca das listagens: relacionamentos que o JSON do pedido sempre expõe, em um único SELECT
+@NamedEntityGraph(
+    name = Pedido.GRAFO_DETALHES,
+    attributeNodes = {
+        @NamedAttributeNode("cliente"),
+        @NamedAttributeNode("dentista"),
+        @NamedAttributeNode("clinica"),
+        @NamedAttributeNode("protetico"),
+        @NamedAttributeNode(value = "servicos", subgraph = "servicos")
+    },
+    subgraphs = @NamedSubgraph(name = "servicos", attributeNodes = @NamedAttributeNode("categoriaServico"))
+)
+// Variante sem a coleção de serviços, para consultas com LIMIT (a coleção vem em lote via @BatchSize)
+@NamedEntityGraph(
+    name = Pedido.GRAFO_RESUMO,
+    attributeNodes = {
+        @NamedAttributeNode("cliente"),
+        @NamedAttributeNode("dentista"),
+        @NamedAttributeNode("clinica"),
+        @NamedAttributeNode("protetico")
+    }
+)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Pedido extends BaseEntity {
 
+    public static final String GRAFO_DETALHES = "Pedido.detalhes";
+    public static final String GRAFO_RESUMO = "Pedido.resumo";
+
     @ManyToOne
     @JoinColumn(name = "cliente_id")
     @NotNull(message = "O cliente é obrigatório")
@@ -44,6 +74,7 @@ public class Pedido extends BaseEntity {
     private Protetico protetico;
 
     @ManyToMany
+    @BatchSize(size = 50)
     @JoinTable(
         name = "pedido_servico",
         joinColumns = @JoinColumn(name = "pedido_id"),
@@ -0,0 +1,50 @@
+package com.senac.dentalsync.core.persistency.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Token de "Lembrar de mim" de um dispositivo. Só o SHA-256 do token fica no banco (o valor em si
+ * vive apenas no cookie), com índice único para a busca no login; um protético pode ter vários
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "remember_me_token", indexes = {
+    @Index(name = "uk_remember_me_token_hash", columnList = "token_hash", unique = true),
+    @Index(name = "idx_remember_me_token_expira_em", columnList = "expira_em")
+})
+public class RememberMeToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "protetico_id", nullable = false)
+    private Protetico protetico;
+
+    // SHA-256 do token em hexadecimal minúsculo
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -3,6 +3,8 @@ package com.senac.dentalsync.core.persistency.model;
 import java.math.BigDecimal;
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
@@ -47,6 +49,7 @@ public class Servico extends BaseEntity {
     private String descricao;
     
     @OneToMany(mappedBy = "servico", cascade = jakarta.persistence.CascadeType.REMOVE)
+    @BatchSize(size = 50)
     @JsonManagedReference
     private List<ServicoMaterial> materiais;
 }
@@ -0,0 +1,44 @@
+package com.senac.dentalsync.core.persistency.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Valor temporário compartilhado entre as instâncias da aplicação (ver TokenStoreBanco)
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "token_temporario",
+    uniqueConstraints = @UniqueConstraint(name = "uk_token_temporario_tipo_chave", columnNames = {"tipo", "chave"}),
+    indexes = @Index(name = "idx_token_temporario_expira_em", columnList = "expira_em"))
+public class TokenTemporario {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 40)
+    private String tipo;
+
+    @Column(nullable = false)
+    private String chave;
+
+    @Column(nullable = false)
+    private String valor;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+}
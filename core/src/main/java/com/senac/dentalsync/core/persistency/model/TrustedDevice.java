@@ -0,0 +1,53 @@
+package com.senac.dentalsync.core.persistency.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Dispositivo confiável (dispensa o 2FA até expirar). Um protético pode ter vários; o fingerprint
+ * e o token ficam como SHA-256. Registrar de novo o mesmo dispositivo só renova a linha existente
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "trusted_device",
+    uniqueConstraints = @UniqueConstraint(name = "uk_trusted_device_protetico_fingerprint",
+                                          columnNames = {"protetico_id", "fingerprint_hash"}),
+    indexes = @Index(name = "idx_trusted_device_expira_em", columnList = "expira_em"))
+public class TrustedDevice {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "protetico_id", nullable = false)
+    private Protetico protetico;
+
+    @Column(name = "fingerprint_hash", nullable = false, length = 64)
+    private String fingerprintHash;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
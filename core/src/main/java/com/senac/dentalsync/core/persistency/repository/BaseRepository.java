@@ -2,6 +2,10 @@ package com.senac.dentalsync.core.persistency.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.NoRepositoryBean;
 
@@ -9,4 +13,27 @@ import org.springframework.data.repository.NoRepositoryBean;
 public interface BaseRepository<T, ID> extends JpaRepository<T, ID> {
     List<T> findAllByIsActiveTrue();
     List<T> findAllByIsActiveFalse();
-} 
\ No newline at end of file
+
+    /**
+     * Paginação por keyset (seek) filtrando pela situação; a posição vem do cursor da página anterior
+     */
+    Window<T> findAllByIsActive(Boolean isActive, ScrollPosition posicao, Sort sort, Limit limite);
+
+    /**
+     * Paginação por keyset (seek) incluindo ativos e inativos
+     */
+    Window<T> findAllBy(ScrollPosition posicao, Sort sort, Limit limite);
+
+    // Ordenação por createdAt: datados pelo keyset (createdAt, id) e, depois, os sem data só por id
+    Window<T> findAllByIsActiveAndCreatedAtIsNotNull(Boolean isActive, ScrollPosition posicao, Sort sort, Limit limite);
+
+    Window<T> findAllByCreatedAtIsNotNull(ScrollPosition posicao, Sort sort, Limit limite);
+
+    Window<T> findAllByIsActiveAndCreatedAtIsNull(Boolean isActive, ScrollPosition posicao, Sort sort, Limit limite);
+
+    Window<T> findAllByCreatedAtIsNull(ScrollPosition posicao, Sort sort, Limit limite);
+
+    boolean existsByIsActiveAndCreatedAtIsNull(Boolean isActive);
+
+    boolean existsByCreatedAtIsNull();
+}
@@ -4,6 +4,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.senac.dentalsync.core.persistency.model.Dentista;
@@ -34,4 +40,22 @@ public interface DentistaRepository extends BaseRepository<Dentista, Long> {
     Long countByIsActiveTrue();
     Long countByIsActiveTrueAndCreatedAtBefore(LocalDateTime data);
     Long countByIsActiveTrueAndCreatedAtBetween(LocalDateTime dataInicio, LocalDateTime dataFim);
-} 
\ No newline at end of file
+
+    // Reconstrução dos indicadores do dashboard: dentistas ativos agrupados pelo mês de cadastro
+    @Query("SELECT YEAR(d.createdAt), MONTH(d.createdAt), COUNT(d) FROM Dentista d WHERE d.isActive = true " +
+           "GROUP BY YEAR(d.createdAt), MONTH(d.createdAt)")
+    List<Object[]> contarAtivosPorMesDeCriacao();
+
+    // Situação gravada antes de uma alteração (FlushMode COMMIT: ignora a entidade já modificada no contexto)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT d.isActive FROM Dentista d WHERE d.id = :id")
+    Optional<Boolean> findIsActiveGravadoById(@Param("id") Long id);
+
+    // Só o nome do registro ativo, para conferir os IDs vindos do STT sem carregar a entidade
+    @Query("SELECT d.nome FROM Dentista d WHERE d.id = :id AND d.isActive = true")
+    Optional<String> findNomeByIdAndIsActiveTrue(@Param("id") Long id);
+
+    // Id e nome de todos os ativos, para montar o índice de nomes do STT sem carregar as entidades
+    @Query("SELECT d.id, d.nome FROM Dentista d WHERE d.isActive = true")
+    List<Object[]> findIdENomeAtivos();
+}
@@ -0,0 +1,85 @@
+package com.senac.dentalsync.core.persistency.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.senac.dentalsync.core.persistency.model.EmailPendente;
+
+@Repository
+public interface EmailPendenteRepository extends JpaRepository<EmailPendente, Long> {
+
+    @Query("SELECT e.id FROM EmailPendente e " +
+           "WHERE e.status = com.senac.dentalsync.core.persistency.model.EmailPendente.Status.PENDENTE " +
+           "AND e.proximaTentativaEm <= :agora ORDER BY e.proximaTentativaEm, e.id")
+    List<Long> findIdsProntos(@Param("agora") LocalDateTime agora, Pageable pageable);
+
+    // Reserva condicional: com várias instâncias, cada linha fica com um único lote
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailPendente e " +
+           "SET e.status = com.senac.dentalsync.core.persistency.model.EmailPendente.Status.ENVIANDO, " +
+           "e.reserva = :reserva, e.reservadoEm = :agora " +
+           "WHERE e.id IN :ids AND e.status = com.senac.dentalsync.core.persistency.model.EmailPendente.Status.PENDENTE")
+    int reservar(@Param("ids") Collection<Long> ids, @Param("reserva") String reserva, @Param("agora") LocalDateTime agora);
+
+    List<EmailPendente> findByReservaOrderById(String reserva);
+
+    // O corpo (códigos 2FA, links de redefinição de senha) é apagado assim que o email sai da fila
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailPendente e " +
+           "SET e.status = com.senac.dentalsync.core.persistency.model.EmailPendente.Status.ENVIADO, " +
+           "e.enviadoEm = :agora, e.reserva = null, e.corpo = '' WHERE e.id IN :ids")
+    int marcarEnviados(@Param("ids") Collection<Long> ids, @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailPendente e SET e.status = :status, e.tentativas = :tentativas, " +
+           "e.proximaTentativaEm = :proximaTentativaEm, e.ultimoErro = :erro, e.reserva = null WHERE e.id = :id")
+    int registrarFalha(@Param("id") Long id, @Param("status") EmailPendente.Status status,
+                       @Param("tentativas") int tentativas, @Param("proximaTentativaEm") LocalDateTime proximaTentativaEm,
+                       @Param("erro") String erro);
+
+    // Desistência: o email não será mais enviado, então o corpo também é apagado
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailPendente e " +
+           "SET e.status = com.senac.dentalsync.core.persistency.model.EmailPendente.Status.FALHOU, " +
+           "e.tentativas = :tentativas, e.ultimoErro = :erro, e.reserva = null, e.corpo = '' WHERE e.id = :id")
+    int marcarFalhou(@Param("id") Long id, @Param("tentativas") int tentativas, @Param("erro") String erro);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EmailPendente e " +
+           "WHERE e.status IN (com.senac.dentalsync.core.persistency.model.EmailPendente.Status.ENVIADO, " +
+           "com.senac.dentalsync.core.persistency.model.EmailPendente.Status.FALHOU) " +
+           "AND e.createdAt < :limite")
+    int deleteFinalizadosAntes(@Param("limite") LocalDateTime limite);
+
+    // Devolve à fila linhas de um lote que não terminou (ex.: aplicação reiniciada no meio do envio)
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailPendente e " +
+           "SET e.status = com.senac.dentalsync.core.persistency.model.EmailPendente.Status.PENDENTE, e.reserva = null " +
+           "WHERE e.status = com.senac.dentalsync.core.persistency.model.EmailPendente.Status.ENVIANDO " +
+           "AND e.reservadoEm < :limite")
+    int liberarReservasAntigas(@Param("limite") LocalDateTime limite);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailPendente e " +
+           "SET e.status = com.senac.dentalsync.core.persistency.model.EmailPendente.Status.PENDENTE, e.reserva = null " +
+           "WHERE e.reserva = :reserva")
+    int liberarReserva(@Param("reserva") String reserva);
+
+    long countByStatus(EmailPendente.Status status);
+}
@@ -0,0 +1,22 @@
+package com.senac.dentalsync.core.persistency.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.senac.dentalsync.core.persistency.model.IndicadorDashboard;
+
+@Repository
+public interface IndicadorDashboardRepository extends JpaRepository<IndicadorDashboard, Long> {
+
+    // Incremento atômico no banco; retorna 0 se o contador ainda não existe
+    @Modifying
+    @Query("UPDATE IndicadorDashboard i SET i.valor = i.valor + :delta, i.updatedAt = :agora " +
+           "WHERE i.tipo = :tipo AND i.chave = :chave")
+    int incrementar(@Param("tipo") IndicadorDashboard.Tipo tipo, @Param("chave") String chave,
+                    @Param("delta") long delta, @Param("agora") LocalDateTime agora);
+}
@@ -1,11 +1,19 @@
 package com.senac.dentalsync.core.persistency.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.senac.dentalsync.core.dto.AlertaEstoqueDTO;
 import com.senac.dentalsync.core.persistency.model.Material;
+import com.senac.dentalsync.core.persistency.model.Protetico;
 import com.senac.dentalsync.core.persistency.model.StatusMaterial;
 
 @Repository
@@ -25,5 +33,37 @@ public interface MaterialRepository extends BaseRepository<Material, Long> {
     List<Material> findByCategoriaMaterial_IdAndIsActiveTrue(Long categoriaId);
     
     Optional<Material> findByNomeAndIsActiveTrue(String nome);
-    
+
+    /**
+     * Desconta o estoque em um único UPDATE condicional: só altera a linha se houver quantidade suficiente
+     * (retorna 0 caso contrário), já recalcula o status com a mesma regra de MaterialService e incrementa
+     * a versão, invalidando edições abertas sobre a quantidade anterior.
+     * O status vem antes da quantidade no SET: o MySQL aplica as atribuições em ordem e veria o valor novo
+     */
+    @Modifying
+    @Query("UPDATE Material m SET " +
+           "m.status = CASE " +
+           "  WHEN m.estoqueMinimo IS NULL THEN m.status " +
+           "  WHEN m.quantidade - :quantidade = 0 THEN com.senac.dentalsync.core.persistency.model.StatusMaterial.SEM_ESTOQUE " +
+           "  WHEN m.quantidade - :quantidade <= m.estoqueMinimo THEN com.senac.dentalsync.core.persistency.model.StatusMaterial.BAIXO_ESTOQUE " +
+           "  ELSE com.senac.dentalsync.core.persistency.model.StatusMaterial.EM_ESTOQUE END, " +
+           "m.quantidade = m.quantidade - :quantidade, " +
+           "m.versao = COALESCE(m.versao, 0) + 1, " +
+           "m.updatedAt = :agora, " +
+           "m.updatedBy = :usuario " +
+           "WHERE m.id = :id AND m.quantidade >= :quantidade")
+    int descontarEstoque(@Param("id") Long id, @Param("quantidade") BigDecimal quantidade,
+                         @Param("agora") LocalDateTime agora, @Param("usuario") Protetico usuario);
+
+    // Quantidade gravada antes de uma edição, para registrar o ajuste no livro de movimentações
+    @Query("SELECT m.quantidade FROM Material m WHERE m.id = :id")
+    Optional<BigDecimal> findQuantidadeById(@Param("id") Long id);
+
+    @Query("SELECT new com.senac.dentalsync.core.dto.AlertaEstoqueDTO(m.id, m.nome, m.quantidade, m.unidadeMedida, m.estoqueMinimo, m.status) " +
+           "FROM Material m WHERE m.status IN :status")
+    List<AlertaEstoqueDTO> findAlertasByStatusIn(@Param("status") Collection<StatusMaterial> status);
+
+    @Query("SELECT new com.senac.dentalsync.core.dto.AlertaEstoqueDTO(m.id, m.nome, m.quantidade, m.unidadeMedida, m.estoqueMinimo, m.status) " +
+           "FROM Material m WHERE m.id IN :ids")
+    List<AlertaEstoqueDTO> findAlertasByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,16 @@
+package com.senac.dentalsync.core.persistency.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.senac.dentalsync.core.persistency.model.MovimentacaoEstoque;
+
+@Repository
+public interface MovimentacaoEstoqueRepository extends JpaRepository<MovimentacaoEstoque, Long> {
+
+    // Movimentações mais recentes primeiro (índice material_id, created_at)
+    List<MovimentacaoEstoque> findByMaterialIdOrderByCreatedAtDescIdDesc(Long materialId, Pageable pageable);
+}
@@ -3,6 +3,9 @@ package com.senac.dentalsync.core.persistency.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import com.senac.dentalsync.core.persistency.model.Paciente;
 
 public interface PacienteRepository extends BaseRepository<Paciente, Long> {
@@ -22,4 +25,12 @@ public interface PacienteRepository extends BaseRepository<Paciente, Long> {
     Optional<Paciente> findByNomeAndIsActiveFalse(String nome);
     Optional<Paciente> findByEmailAndIsActiveFalse(String email);
     List<Paciente> findByNomeContainingAndIsActiveFalse(String nome);
-} 
\ No newline at end of file
+
+    // Só o nome do registro ativo, para conferir os IDs vindos do STT sem carregar a entidade
+    @Query("SELECT p.nome FROM Paciente p WHERE p.id = :id AND p.isActive = true")
+    Optional<String> findNomeByIdAndIsActiveTrue(@Param("id") Long id);
+
+    // Id e nome de todos os ativos, para montar o índice de nomes do STT sem carregar as entidades
+    @Query("SELECT p.id, p.nome FROM Paciente p WHERE p.isActive = true")
+    List<Object[]> findIdENomeAtivos();
+}
@@ -3,14 +3,26 @@ package com.senac.dentalsync.core.persistency.repository;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
-import com.senac.dentalsync.core.dto.PedidosPorMesDTO;
-import com.senac.dentalsync.core.dto.PedidosPorTipoDTO;
-import com.senac.dentalsync.core.dto.StatusPedidosDTO;
+import com.senac.dentalsync.core.dto.HistoricoDentistaDTO;
+import com.senac.dentalsync.core.dto.HistoricoPacienteDTO;
+import com.senac.dentalsync.core.dto.HistoricoProteticoDTO;
 import com.senac.dentalsync.core.persistency.model.Dentista;
 import com.senac.dentalsync.core.persistency.model.Paciente;
 import com.senac.dentalsync.core.persistency.model.Pedido;
@@ -18,47 +30,123 @@ import com.senac.dentalsync.core.persistency.model.Protetico;
 
 @Repository
 public interface PedidoRepository extends BaseRepository<Pedido, Long> {
-    
+
+    // Colunas calculadas dos históricos: nome do primeiro serviço (menor id) e soma dos valores dos serviços,
+    // ambas resolvidas no banco por subconsulta correlacionada ao pedido. "Serviço não informado" só para
+    // pedido sem serviços; serviço sem nome continua vindo null
+    String HISTORICO_PRIMEIRO_SERVICO =
+        "CASE WHEN p.servicos IS EMPTY THEN 'Serviço não informado' ELSE " +
+        "(SELECT s.nome FROM Servico s WHERE s.id = " +
+        "(SELECT MIN(s1.id) FROM Pedido p1 JOIN p1.servicos s1 WHERE p1.id = p.id)) END";
+    String HISTORICO_VALOR_TOTAL =
+        "COALESCE((SELECT SUM(COALESCE(s2.valorTotal, s2.preco)) FROM Pedido p2 JOIN p2.servicos s2 " +
+        "WHERE p2.id = p.id), 0)";
+    String HISTORICO_ORDENACAO = " ORDER BY p.dataEntrega DESC, p.id DESC";
+
+    // Os finders abaixo usam o grafo Pedido.detalhes para trazer cliente, dentista, clínica,
+    // protético e serviços no mesmo SELECT, evitando um SELECT por pedido na serialização
+
+    @Override
+    @EntityGraph(Pedido.GRAFO_DETALHES)
+    List<Pedido> findAll();
+
+    @Override
+    @EntityGraph(Pedido.GRAFO_DETALHES)
+    Optional<Pedido> findById(Long id);
+
+    @Override
+    @EntityGraph(Pedido.GRAFO_DETALHES)
+    List<Pedido> findAllByIsActiveTrue();
+
+    @Override
+    @EntityGraph(Pedido.GRAFO_DETALHES)
+    List<Pedido> findAllByIsActiveFalse();
+
+    // Consultas paginadas não podem buscar a coleção junto (o LIMIT seria aplicado em memória)
+    @Override
+    @EntityGraph(Pedido.GRAFO_RESUMO)
+    Window<Pedido> findAllByIsActive(Boolean isActive, ScrollPosition posicao, Sort sort, Limit limite);
+
+    @Override
+    @EntityGraph(Pedido.GRAFO_RESUMO)
+    Window<Pedido> findAllBy(ScrollPosition posicao, Sort sort, Limit limite);
+
+    @EntityGraph(Pedido.GRAFO_DETALHES)
     List<Pedido> findByDentista(Dentista dentista);
     
+    @EntityGraph(Pedido.GRAFO_DETALHES)
     List<Pedido> findByCliente(Paciente cliente);
     
+    @EntityGraph(Pedido.GRAFO_DETALHES)
     List<Pedido> findByProtetico(Protetico protetico);
     
+    @EntityGraph(Pedido.GRAFO_DETALHES)
     List<Pedido> findByDataEntrega(LocalDate dataEntrega);
     
+    @EntityGraph(Pedido.GRAFO_DETALHES)
     List<Pedido> findByPrioridade(Pedido.Prioridade prioridade);
 
     // Métodos para o relatório
     Long countByStatus(Pedido.Status status);
     Long countByCreatedAtBefore(LocalDateTime data);
 
-    @Query(value = "SELECT EXTRACT(MONTH FROM created_at) as mes, COUNT(*) as total " +
-           "FROM pedidos " +
-           "WHERE created_at >= :dataReferencia " +
-           "GROUP BY EXTRACT(MONTH FROM created_at) " +
-           "ORDER BY EXTRACT(MONTH FROM created_at)", nativeQuery = true)
-    List<Object[]> findPedidosPorMes(@Param("dataReferencia") LocalDateTime dataReferencia);
-
-    @Query("SELECT new com.senac.dentalsync.core.dto.PedidosPorTipoDTO(" +
-           "s.nome, " +
-           "COUNT(p) * 100.0 / (SELECT COUNT(p2) FROM Pedido p2)) " +
-           "FROM Pedido p JOIN p.servicos s " +
-           "GROUP BY s.nome")
-    List<PedidosPorTipoDTO> findPedidosPorTipo();
-
-    @Query("SELECT new com.senac.dentalsync.core.dto.StatusPedidosDTO(" +
-           "CAST(p.status AS string), " +
-           "COUNT(p) * 100.0 / (SELECT COUNT(p2) FROM Pedido p2)) " +
-           "FROM Pedido p " +
-           "GROUP BY p.status")
-    List<StatusPedidosDTO> findStatusPedidos();
+    // Agregações completas usadas apenas para reconstruir os indicadores do dashboard (IndicadorDashboardService)
+    @Query("SELECT YEAR(p.createdAt), MONTH(p.createdAt), COUNT(p) FROM Pedido p " +
+           "GROUP BY YEAR(p.createdAt), MONTH(p.createdAt)")
+    List<Object[]> contarPorMesDeCriacao();
+
+    @Query("SELECT p.status, COUNT(p) FROM Pedido p GROUP BY p.status")
+    List<Object[]> contarPorStatus();
+
+    @Query("SELECT s.id, COUNT(p) FROM Pedido p JOIN p.servicos s GROUP BY s.id")
+    List<Object[]> contarPorServico();
+
+    // Estado gravado no banco antes de uma alteração. FlushMode COMMIT: não descarrega a entidade
+    // já modificada no contexto de persistência, senão a consulta devolveria o valor novo
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT p.status FROM Pedido p WHERE p.id = :id")
+    Optional<Pedido.Status> findStatusGravadoById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT p.createdAt FROM Pedido p WHERE p.id = :id")
+    Optional<LocalDateTime> findCreatedAtGravadoById(@Param("id") Long id);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT s.id FROM Pedido p JOIN p.servicos s WHERE p.id = :id")
+    List<Long> findServicoIdsGravadosById(@Param("id") Long id);
+
+    // Sem JOIN FETCH da coleção: com LIMIT o Hibernate paginaria em memória.
+    // Os serviços dos 8 pedidos chegam em um único SELECT via @BatchSize
     @Query("SELECT p FROM Pedido p " +
            "JOIN FETCH p.dentista " +
            "JOIN FETCH p.cliente " +
-           "JOIN FETCH p.servicos " +
+           "JOIN FETCH p.protetico " +
+           "LEFT JOIN FETCH p.clinica " +
+           "WHERE p.servicos IS NOT EMPTY " +
            "ORDER BY p.createdAt DESC " +
            "LIMIT 8")
     List<Pedido> findPedidosRecentes();
-} 
\ No newline at end of file
+
+    // Históricos: projeção direta no DTO, sem carregar as entidades do pedido
+
+    @Query(value = "SELECT new com.senac.dentalsync.core.dto.HistoricoProteticoDTO(" +
+           HISTORICO_PRIMEIRO_SERVICO + ", p.cliente.nome, p.dentista.nome, p.dataEntrega, " +
+           HISTORICO_VALOR_TOTAL + ") " +
+           "FROM Pedido p WHERE p.protetico.id = :proteticoId" + HISTORICO_ORDENACAO,
+           countQuery = "SELECT COUNT(p) FROM Pedido p WHERE p.protetico.id = :proteticoId")
+    Page<HistoricoProteticoDTO> findHistoricoPorProtetico(@Param("proteticoId") Long proteticoId, Pageable pageable);
+
+    @Query(value = "SELECT new com.senac.dentalsync.core.dto.HistoricoPacienteDTO(" +
+           HISTORICO_PRIMEIRO_SERVICO + ", p.dentista.nome, p.dataEntrega, " +
+           HISTORICO_VALOR_TOTAL + ") " +
+           "FROM Pedido p WHERE p.cliente.id = :pacienteId" + HISTORICO_ORDENACAO,
+           countQuery = "SELECT COUNT(p) FROM Pedido p WHERE p.cliente.id = :pacienteId")
+    Page<HistoricoPacienteDTO> findHistoricoPorPaciente(@Param("pacienteId") Long pacienteId, Pageable pageable);
+
+    @Query(value = "SELECT new com.senac.dentalsync.core.dto.HistoricoDentistaDTO(" +
+           HISTORICO_PRIMEIRO_SERVICO + ", p.cliente.nome, p.dataEntrega, " +
+           HISTORICO_VALOR_TOTAL + ") " +
+           "FROM Pedido p WHERE p.dentista.id = :dentistaId" + HISTORICO_ORDENACAO,
+           countQuery = "SELECT COUNT(p) FROM Pedido p WHERE p.dentista.id = :dentistaId")
+    Page<HistoricoDentistaDTO> findHistoricoPorDentista(@Param("dentistaId") Long dentistaId, Pageable pageable);
+}
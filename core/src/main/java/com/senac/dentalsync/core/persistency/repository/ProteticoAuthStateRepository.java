@@ -0,0 +1,40 @@
+package com.senac.dentalsync.core.persistency.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.senac.dentalsync.core.persistency.model.Protetico;
+
+/**
+ * Gravações pontuais dos dados de autenticação do protético (senha e 2FA), direto por UPDATE.
+ * Não passam pelo ProteticoService.save(): sem verificação de duplicidade, sem reler o registro
+ * para comparar a senha e sem carimbo de auditoria (updated_by não é alterado)
+ */
+@Repository
+public interface ProteticoAuthStateRepository extends org.springframework.data.repository.Repository<Protetico, Long> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Protetico p SET p.twoFactorSecret = :secret, p.twoFactorEnabled = :enabled, p.updatedAt = :agora " +
+           "WHERE p.id = :id")
+    int atualizarTwoFactor(@Param("id") Long id, @Param("secret") String secret, @Param("enabled") Boolean enabled,
+                           @Param("agora") LocalDateTime agora);
+
+    // A senha já deve vir criptografada
+    @Transactional
+    @Modifying
+    @Query("UPDATE Protetico p SET p.senha = :senha, p.updatedAt = :agora WHERE p.id = :id")
+    int atualizarSenha(@Param("id") Long id, @Param("senha") String senha, @Param("agora") LocalDateTime agora);
+
+    // Hash refeito no login (custo do BCrypt alterado); o provider só conhece o email
+    @Transactional
+    @Modifying
+    @Query("UPDATE Protetico p SET p.senha = :senha, p.updatedAt = :agora WHERE p.email = :email")
+    int atualizarSenhaPorEmail(@Param("email") String email, @Param("senha") String senha,
+                               @Param("agora") LocalDateTime agora);
+}
@@ -3,6 +3,8 @@ package com.senac.dentalsync.core.persistency.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.senac.dentalsync.core.persistency.model.Protetico;
@@ -20,9 +22,29 @@ public interface ProteticoRepository extends BaseRepository<Protetico, Long> {
     Optional<Protetico> findFirstByTelefoneAndIsActiveTrue(String telefone);
     List<Protetico> findByCroContainingAndIsActiveTrue(String cro);
     
+    // Busca só o ID do protético ativo (usado na auditoria sem carregar laboratório/created_by)
+    @Query("SELECT p.id FROM Protetico p WHERE p.email = :email AND p.isActive = true")
+    Optional<Long> findIdByEmailAndIsActiveTrue(@Param("email") String email);
+
+    // Situação do protético para o AuthInterceptor (null conta como inativo, como em isActive)
+    @Query("SELECT COALESCE(p.isActive, false) FROM Protetico p WHERE p.email = :email")
+    Optional<Boolean> findIsActiveByEmail(@Param("email") String email);
+
+    // Laboratório do protético ativo, sem carregar as entidades (canal de notificações por laboratório)
+    @Query("SELECT p.laboratorio.id FROM Protetico p WHERE p.email = :email AND p.isActive = true")
+    Optional<Long> findLaboratorioIdByEmailAndIsActiveTrue(@Param("email") String email);
+    
     // Métodos para buscar apenas protéticos inativos
     Optional<Protetico> findByEmailAndIsActiveFalse(String email);
     Optional<Protetico> findFirstByCroAndIsActiveFalse(String cro);
     Optional<Protetico> findFirstByTelefoneAndIsActiveFalse(String telefone);
     List<Protetico> findByCroContainingAndIsActiveFalse(String cro);
-}
\ No newline at end of file
+
+    // Só o nome do registro ativo, para conferir os IDs vindos do STT sem carregar a entidade
+    @Query("SELECT p.nome FROM Protetico p WHERE p.id = :id AND p.isActive = true")
+    Optional<String> findNomeByIdAndIsActiveTrue(@Param("id") Long id);
+
+    // Id e nome de todos os ativos, para montar o índice de nomes do STT sem carregar as entidades
+    @Query("SELECT p.id, p.nome FROM Protetico p WHERE p.isActive = true")
+    List<Object[]> findIdENomeAtivos();
+}
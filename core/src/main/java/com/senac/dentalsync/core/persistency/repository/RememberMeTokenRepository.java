@@ -0,0 +1,33 @@
+package com.senac.dentalsync.core.persistency.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.senac.dentalsync.core.persistency.model.RememberMeToken;
+
+@Repository
+public interface RememberMeTokenRepository extends JpaRepository<RememberMeToken, Long> {
+
+    // Busca pelo índice único do hash, já trazendo o protético (usado para montar a sessão)
+    @Query("SELECT t FROM RememberMeToken t JOIN FETCH t.protetico WHERE t.tokenHash = :tokenHash")
+    Optional<RememberMeToken> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    @Modifying
+    @Query("DELETE FROM RememberMeToken t WHERE t.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") String tokenHash);
+
+    @Modifying
+    @Query("DELETE FROM RememberMeToken t WHERE t.protetico.id IN " +
+           "(SELECT p.id FROM Protetico p WHERE p.email = :email)")
+    int deleteByProteticoEmail(@Param("email") String email);
+
+    @Modifying
+    @Query("DELETE FROM RememberMeToken t WHERE t.expiraEm <= :agora")
+    int deleteExpirados(@Param("agora") LocalDateTime agora);
+}
@@ -1,5 +1,6 @@
 package com.senac.dentalsync.core.persistency.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.senac.dentalsync.core.dto.ConsumoMaterialDTO;
 import com.senac.dentalsync.core.persistency.model.ServicoMaterial;
 import com.senac.dentalsync.core.persistency.model.ServicoMaterialId;
 
@@ -18,6 +20,11 @@ public interface ServicoMaterialRepository extends JpaRepository<ServicoMaterial
     @Query("SELECT sm FROM ServicoMaterial sm WHERE sm.servico.id = :servicoId")
     List<ServicoMaterial> findByServicoId(@Param("servicoId") Long servicoId);
 
+    // Consumo de todos os serviços de um pedido em uma única consulta, só com as colunas da tabela de ligação
+    @Query("SELECT new com.senac.dentalsync.core.dto.ConsumoMaterialDTO(sm.id.servicoId, sm.id.materialId, sm.quantidade) " +
+           "FROM ServicoMaterial sm WHERE sm.id.servicoId IN :servicoIds")
+    List<ConsumoMaterialDTO> findConsumoByServicoIdIn(@Param("servicoIds") Collection<Long> servicoIds);
+
     @Query("SELECT sm FROM ServicoMaterial sm WHERE sm.material.id = :materialId")
     List<ServicoMaterial> findByMaterialId(@Param("materialId") Long materialId);
     
@@ -1,8 +1,11 @@
 package com.senac.dentalsync.core.persistency.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.senac.dentalsync.core.persistency.model.Servico;
@@ -16,5 +19,16 @@ public interface ServicoRepository extends BaseRepository<Servico, Long>{
     Optional<Servico> findByNomeAndIsActiveTrue(String nome);
     
     List<Servico> findByCategoriaServico_IdAndIsActiveTrue(Long categoriaId);
-    
+
+    // Apenas id e nome, para rotular indicadores sem carregar as entidades
+    @Query("SELECT s.id, s.nome FROM Servico s WHERE s.id IN :ids")
+    List<Object[]> findNomesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Id e nome apenas dos ativos, para conferir os serviços vindos do STT
+    @Query("SELECT s.id, s.nome FROM Servico s WHERE s.id IN :ids AND s.isActive = true")
+    List<Object[]> findNomesByIdInAndIsActiveTrue(@Param("ids") Collection<Long> ids);
+
+    // Id e nome de todos os ativos, para montar o índice de nomes do STT sem carregar as entidades
+    @Query("SELECT s.id, s.nome FROM Servico s WHERE s.isActive = true")
+    List<Object[]> findIdENomeAtivos();
 }
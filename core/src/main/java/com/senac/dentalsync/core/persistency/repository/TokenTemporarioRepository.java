@@ -0,0 +1,45 @@
+package com.senac.dentalsync.core.persistency.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.senac.dentalsync.core.persistency.model.TokenTemporario;
+
+@Repository
+public interface TokenTemporarioRepository extends JpaRepository<TokenTemporario, Long> {
+
+    @Query("SELECT t.valor FROM TokenTemporario t WHERE t.tipo = :tipo AND t.chave = :chave AND t.expiraEm > :agora")
+    Optional<String> findValorValido(@Param("tipo") String tipo, @Param("chave") String chave,
+                                     @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE TokenTemporario t SET t.valor = :valor, t.expiraEm = :expiraEm WHERE t.tipo = :tipo AND t.chave = :chave")
+    int atualizar(@Param("tipo") String tipo, @Param("chave") String chave,
+                  @Param("valor") String valor, @Param("expiraEm") LocalDateTime expiraEm);
+
+    // Remoção condicional em um DELETE: só uma de várias requisições concorrentes recebe 1
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TokenTemporario t WHERE t.tipo = :tipo AND t.chave = :chave " +
+           "AND t.valor = :valor AND t.expiraEm > :agora")
+    int deleteSeIgual(@Param("tipo") String tipo, @Param("chave") String chave,
+                      @Param("valor") String valor, @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TokenTemporario t WHERE t.tipo = :tipo AND t.chave = :chave")
+    int deleteByTipoAndChave(@Param("tipo") String tipo, @Param("chave") String chave);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TokenTemporario t WHERE t.expiraEm <= :agora")
+    int deleteExpirados(@Param("agora") LocalDateTime agora);
+}
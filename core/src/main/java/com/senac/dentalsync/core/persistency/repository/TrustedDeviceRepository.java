@@ -0,0 +1,57 @@
+package com.senac.dentalsync.core.persistency.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.senac.dentalsync.core.persistency.model.TrustedDevice;
+
+@Repository
+public interface TrustedDeviceRepository extends JpaRepository<TrustedDevice, Long> {
+
+    // Validade do dispositivo do protético (vazio se não estiver registrado), sem carregar entidades
+    @Query("SELECT MAX(d.expiraEm) FROM TrustedDevice d " +
+           "WHERE d.protetico.email = :email AND d.fingerprintHash = :fingerprintHash")
+    Optional<LocalDateTime> findExpiraEm(@Param("email") String email, @Param("fingerprintHash") String fingerprintHash);
+
+    @Query("SELECT d.tokenHash FROM TrustedDevice d " +
+           "WHERE d.protetico.email = :email AND d.fingerprintHash = :fingerprintHash AND d.expiraEm > :agora")
+    List<String> findTokenHashesValidos(@Param("email") String email, @Param("fingerprintHash") String fingerprintHash,
+                                        @Param("agora") LocalDateTime agora);
+
+    List<TrustedDevice> findByProteticoEmail(String email);
+
+    // Renova o dispositivo já registrado; 0 quando ainda não existe
+    @Transactional
+    @Modifying
+    @Query("UPDATE TrustedDevice d SET d.tokenHash = :tokenHash, d.expiraEm = :expiraEm, d.createdAt = :agora " +
+           "WHERE d.protetico.id = :proteticoId AND d.fingerprintHash = :fingerprintHash")
+    int renovar(@Param("proteticoId") Long proteticoId, @Param("fingerprintHash") String fingerprintHash,
+                @Param("tokenHash") String tokenHash, @Param("expiraEm") LocalDateTime expiraEm,
+                @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TrustedDevice d WHERE d.protetico.id IN " +
+           "(SELECT p.id FROM Protetico p WHERE p.email = :email)")
+    int deleteByProteticoEmail(@Param("email") String email);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TrustedDevice d WHERE d.fingerprintHash = :fingerprintHash AND d.expiraEm <= :agora " +
+           "AND d.protetico.id IN (SELECT p.id FROM Protetico p WHERE p.email = :email)")
+    int deleteExpirado(@Param("email") String email, @Param("fingerprintHash") String fingerprintHash,
+                       @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TrustedDevice d WHERE d.expiraEm <= :agora")
+    int deleteExpirados(@Param("agora") LocalDateTime agora);
+}
@@ -1,14 +1,23 @@
 package com.senac.dentalsync.core.service;
 
+import com.senac.dentalsync.core.config.UsuarioLogadoHolder;
+import com.senac.dentalsync.core.dto.PaginaCursorDTO;
+import com.senac.dentalsync.core.event.CadastroAlteradoEvent;
 import com.senac.dentalsync.core.persistency.model.BaseEntity;
 import com.senac.dentalsync.core.persistency.model.Protetico;
 import com.senac.dentalsync.core.persistency.repository.BaseRepository;
 import com.senac.dentalsync.core.persistency.repository.ProteticoRepository;
+import com.senac.dentalsync.core.util.CursorPaginacaoUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -16,43 +25,75 @@ import java.util.Optional;
 
 public abstract class BaseService<T extends BaseEntity, ID> {
 
+    private static final Logger log = LoggerFactory.getLogger(BaseService.class);
+
+    /**
+     * Canal da trilha de auditoria (quem criou/alterou/desativou cada registro).
+     * Pode ser desligado sem afetar os demais logs: logging.level.com.senac.dentalsync.auditoria=OFF
+     */
+    protected static final Logger AUDITORIA = LoggerFactory.getLogger("com.senac.dentalsync.auditoria");
+
+    /**
+     * Situação dos registros listados na paginação por cursor
+     */
+    public enum Situacao { ATIVOS, INATIVOS, TODOS }
+
+    private static final int TAMANHO_PAGINA_PADRAO = 50;
+    private static final int TAMANHO_PAGINA_MAXIMO = 200;
+
     @Autowired
     protected ProteticoRepository proteticoRepository;
 
+    @Autowired(required = false)
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${dentalsync.paginacao.tamanho-padrao:" + TAMANHO_PAGINA_PADRAO + "}")
+    private int tamanhoPaginaPadrao = TAMANHO_PAGINA_PADRAO;
+
+    @Value("${dentalsync.paginacao.tamanho-maximo:" + TAMANHO_PAGINA_MAXIMO + "}")
+    private int tamanhoPaginaMaximo = TAMANHO_PAGINA_MAXIMO;
+
     protected abstract BaseRepository<T, ID> getRepository();
     
     /**
-     * Busca o protético logado através do SecurityContext
+     * Busca o protético logado através do SecurityContext.
+     * A entidade é carregada uma única vez por requisição (ver UsuarioLogadoHolder)
      * @return Protetico logado ou null se não encontrado
      */
     protected Protetico getUsuarioLogado() {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication != null && authentication.isAuthenticated() && 
-                !authentication.getName().equals("anonymousUser")) {
-                
-                String emailUsuarioLogado = authentication.getName();
-                System.out.println("🔍 Buscando usuário logado: " + emailUsuarioLogado);
-                
-                Optional<Protetico> proteticoOpt = proteticoRepository.findByEmailAndIsActiveTrue(emailUsuarioLogado);
-                if (proteticoOpt.isPresent()) {
-                    Protetico protetico = proteticoOpt.get();
-                    System.out.println("✅ Usuário logado encontrado: " + protetico.getNome() + " (ID: " + protetico.getId() + ")");
-                    return protetico;
-                } else {
-                    System.out.println("❌ Usuário logado não encontrado no banco: " + emailUsuarioLogado);
-                }
-            } else {
-                System.out.println("❌ Nenhum usuário autenticado");
+            Optional<Protetico> proteticoOpt = UsuarioLogadoHolder.resolverEntidade(
+                email -> proteticoRepository.findByEmailAndIsActiveTrue(email));
+            if (proteticoOpt.isPresent()) {
+                return proteticoOpt.get();
             }
+            log.debug("Usuário logado não encontrado ou não autenticado");
         } catch (Exception e) {
-            System.out.println("❌ Erro ao buscar usuário logado: " + e.getMessage());
+            log.warn("Erro ao buscar usuário logado: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Retorna uma referência JPA (lazy) ao protético logado para preencher created_by/updated_by.
+     * Só o ID é consultado (uma vez por requisição); a referência em si não gera SELECT
+     * @return referência ao Protetico logado ou null se não houver usuário autenticado
+     */
+    protected Protetico getReferenciaUsuarioLogado() {
+        try {
+            Optional<Long> idOpt = UsuarioLogadoHolder.resolverId(
+                email -> proteticoRepository.findIdByEmailAndIsActiveTrue(email));
+            if (idOpt.isPresent()) {
+                return proteticoRepository.getReferenceById(idOpt.get());
+            }
+        } catch (Exception e) {
+            log.warn("Erro ao buscar usuário logado: {}", e.getMessage());
         }
         return null;
     }
 
     public T save(T entity) {
-        Protetico usuarioLogado = getUsuarioLogado();
+        Protetico usuarioLogado = getReferenciaUsuarioLogado();
         
         if (entity.getId() == null) {
             // Nova entidade
@@ -64,11 +105,7 @@ public abstract class BaseService<T extends BaseEntity, ID> {
                 entity.setIsActive(true);
             }
             
-            if (usuarioLogado != null) {
-                System.out.println("📝 Criando nova entidade - created_by: " + usuarioLogado.getNome() + " (ID: " + usuarioLogado.getId() + ")");
-            } else {
-                System.out.println("⚠️ Criando nova entidade sem usuário logado (created_by será null)");
-            }
+            registrarAuditoria("CRIAR", entity, usuarioLogado);
         } else {
             // Entidade existente - apenas atualizar updated_by
             // Garantir que isActive seja true se não foi especificado explicitamente
@@ -76,17 +113,48 @@ public abstract class BaseService<T extends BaseEntity, ID> {
                 entity.setIsActive(true);
             }
             
-            if (usuarioLogado != null) {
-                System.out.println("📝 Atualizando entidade - updated_by: " + usuarioLogado.getNome() + " (ID: " + usuarioLogado.getId() + ")");
-            } else {
-                System.out.println("⚠️ Atualizando entidade sem usuário logado (updated_by será null)");
-            }
+            registrarAuditoria("ATUALIZAR", entity, usuarioLogado);
         }
         
         entity.setUpdatedAt(LocalDateTime.now());
         entity.setUpdatedBy(usuarioLogado);
         
-        return getRepository().save(entity);
+        T salvo = getRepository().save(entity);
+        if (salvo != null) {
+            // Mantém o índice de nomes e o cache de respostas do STT (só para paciente, dentista, protético e serviço)
+            CadastroAlteradoEvent.de(salvo).ifPresent(this::publicarEvento);
+        }
+        return salvo;
+    }
+
+    /**
+     * Registra uma linha na trilha de auditoria; não monta a mensagem se o canal estiver desligado
+     */
+    protected void registrarAuditoria(String acao, BaseEntity entity, Protetico usuarioLogado) {
+        if (!AUDITORIA.isInfoEnabled()) {
+            return;
+        }
+        AUDITORIA.info("acao={} entidade={} id={} usuario={}",
+            acao, entity.getClass().getSimpleName(), entity.getId(),
+            usuarioLogado != null ? usuarioLogado.getId() : null);
+    }
+
+    /**
+     * Publica um evento de domínio (ex.: para manter os indicadores do dashboard).
+     * Em testes unitários sem contexto Spring não há publisher e o evento é ignorado
+     */
+    protected void publicarEvento(Object evento) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(evento);
+        }
+    }
+
+    /**
+     * Chamado depois da exclusão lógica em delete(); as subclasses acrescentam aqui os eventos
+     * próprios da entidade (ex.: contadores do dashboard)
+     */
+    protected void aposDesativar(T registro, boolean ativoAntes) {
+        CadastroAlteradoEvent.de(registro).ifPresent(this::publicarEvento);
     }
 
     public List<T> findAll() {
@@ -108,6 +176,74 @@ public abstract class BaseService<T extends BaseEntity, ID> {
         return getRepository().findAll(pageable);
     }
 
+    /**
+     * Lista uma página por keyset: a consulta continua depois do último registro da página anterior,
+     * então o custo não cresce com a posição na lista e nunca traz mais que o tamanho máximo configurado.
+     * @param cursor cursor devolvido pela página anterior (null para a primeira página)
+     * @param tamanho quantidade desejada; limitada ao máximo configurado
+     * @param ordenarPor "id" ou "createdAt" (ignorado quando há cursor, que já carrega a ordenação)
+     * @param direcao direção da ordenação (ignorada quando há cursor)
+     * @param situacao quais registros listar
+     */
+    public PaginaCursorDTO<T> findAllCursor(String cursor, Integer tamanho, String ordenarPor,
+                                            Sort.Direction direcao, Situacao situacao) {
+        CursorPaginacaoUtil.Cursor posicao = cursor == null || cursor.isBlank()
+            ? CursorPaginacaoUtil.inicio(ordenarPor, direcao)
+            : CursorPaginacaoUtil.decodificar(cursor);
+        int limite = normalizarTamanhoPagina(tamanho);
+        Sort sort = CursorPaginacaoUtil.ordenacao(posicao);
+
+        Window<T> janela = buscarJanela(posicao, situacao, sort, Limit.of(limite));
+
+        List<T> itens = janela.getContent();
+        String proximoCursor = null;
+        if (janela.hasNext() && !itens.isEmpty()) {
+            proximoCursor = CursorPaginacaoUtil.codificar(posicao, itens.get(itens.size() - 1));
+        } else if (posicao.porData() && !posicao.semData() && existemSemData(situacao)) {
+            // Acabaram os datados: a próxima página começa o trecho dos registros sem createdAt
+            proximoCursor = CursorPaginacaoUtil.codificarInicioSemData(posicao.direcao());
+        }
+        return new PaginaCursorDTO<>(itens, proximoCursor, proximoCursor != null, limite);
+    }
+
+    private Window<T> buscarJanela(CursorPaginacaoUtil.Cursor posicao, Situacao situacao, Sort sort, Limit limite) {
+        BaseRepository<T, ID> repository = getRepository();
+        if (!posicao.porData()) {
+            return switch (situacao) {
+                case ATIVOS -> repository.findAllByIsActive(true, posicao.posicao(), sort, limite);
+                case INATIVOS -> repository.findAllByIsActive(false, posicao.posicao(), sort, limite);
+                case TODOS -> repository.findAllBy(posicao.posicao(), sort, limite);
+            };
+        }
+        if (posicao.semData()) {
+            return switch (situacao) {
+                case ATIVOS -> repository.findAllByIsActiveAndCreatedAtIsNull(true, posicao.posicao(), sort, limite);
+                case INATIVOS -> repository.findAllByIsActiveAndCreatedAtIsNull(false, posicao.posicao(), sort, limite);
+                case TODOS -> repository.findAllByCreatedAtIsNull(posicao.posicao(), sort, limite);
+            };
+        }
+        return switch (situacao) {
+            case ATIVOS -> repository.findAllByIsActiveAndCreatedAtIsNotNull(true, posicao.posicao(), sort, limite);
+            case INATIVOS -> repository.findAllByIsActiveAndCreatedAtIsNotNull(false, posicao.posicao(), sort, limite);
+            case TODOS -> repository.findAllByCreatedAtIsNotNull(posicao.posicao(), sort, limite);
+        };
+    }
+
+    private boolean existemSemData(Situacao situacao) {
+        return switch (situacao) {
+            case ATIVOS -> getRepository().existsByIsActiveAndCreatedAtIsNull(true);
+            case INATIVOS -> getRepository().existsByIsActiveAndCreatedAtIsNull(false);
+            case TODOS -> getRepository().existsByCreatedAtIsNull();
+        };
+    }
+
+    private int normalizarTamanhoPagina(Integer tamanho) {
+        if (tamanho == null || tamanho <= 0) {
+            return Math.min(tamanhoPaginaPadrao, tamanhoPaginaMaximo);
+        }
+        return Math.min(tamanho, tamanhoPaginaMaximo);
+    }
+
     public Optional<T> findById(ID id) {
         return getRepository().findById(id);
     }
@@ -116,7 +252,8 @@ public abstract class BaseService<T extends BaseEntity, ID> {
         Optional<T> entity = findById(id);
         if (entity.isPresent()) {
             T entityToUpdate = entity.get();
-            Protetico usuarioLogado = getUsuarioLogado();
+            boolean ativoAntes = Boolean.TRUE.equals(entityToUpdate.getIsActive());
+            Protetico usuarioLogado = getReferenciaUsuarioLogado();
             
             // SOFT DELETE ATIVADO - Para os triggers de backup funcionarem
             
@@ -134,13 +271,10 @@ public abstract class BaseService<T extends BaseEntity, ID> {
             entityToUpdate.setUpdatedAt(LocalDateTime.now());
             entityToUpdate.setUpdatedBy(usuarioLogado);
             
-            if (usuarioLogado != null) {
-                System.out.println("🗑️ Desativando entidade - updated_by: " + usuarioLogado.getNome() + " (ID: " + usuarioLogado.getId() + ")");
-            } else {
-                System.out.println("⚠️ Desativando entidade sem usuário logado (updated_by será null)");
-            }
+            registrarAuditoria("DESATIVAR", entityToUpdate, usuarioLogado);
             
             getRepository().save(entityToUpdate);
+            aposDesativar(entityToUpdate, ativoAntes);
 
             // DELETE REAL comentado - agora usando SOFT DELETE
             // getRepository().delete(entityToUpdate);
@@ -0,0 +1,165 @@
+package com.senac.dentalsync.core.service;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.senac.dentalsync.core.event.CadastroAlteradoEvent;
+import com.senac.dentalsync.core.util.HashUtil;
+
+/**
+ * Cache das respostas do STT (n8n + IA) por conteúdo do texto. A chave é o SHA-256 do texto normalizado
+ * (minúsculas, espaços colapsados, sem pontuação no fim), então reenvios do mesmo ditado reaproveitam a
+ * extração. Textos iguais chegando juntos viram uma única chamada ao webhook: os demais esperam a
+ * resposta (ou o erro) da primeira. Só respostas de sucesso são guardadas. Os IDs extraídos vêm dos
+ * cadastros ativos no n8n, então qualquer paciente, dentista, protético ou serviço salvo ou excluído
+ * esvazia o cache
+ */
+@Component
+public class CacheRespostaStt {
+
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+    private static final Pattern PONTUACAO_FINAL = Pattern.compile("[\\s.,;:!?]+$");
+
+    private final long ttlNanos;
+    private final int maxEntradas;
+    private final LongSupplier relogio;
+
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Object>> emAndamento = new ConcurrentHashMap<>();
+
+    // Incrementada a cada limpeza: uma consulta iniciada antes dela não guarda a resposta (pode estar velha)
+    private final AtomicLong geracao = new AtomicLong();
+
+    @Autowired
+    public CacheRespostaStt(@Value("${dentalsync.stt.cache.ttl-ms:600000}") long ttlMs,
+                            @Value("${dentalsync.stt.cache.max-entradas:500}") int maxEntradas) {
+        this(ttlMs, maxEntradas, System::nanoTime);
+    }
+
+    CacheRespostaStt(long ttlMs, int maxEntradas, LongSupplier relogio) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxEntradas = maxEntradas;
+        this.relogio = relogio;
+    }
+
+    /**
+     * Devolve a resposta guardada para o texto ou executa a consulta (uma só por texto ao mesmo tempo)
+     */
+    public Object obter(String texto, Callable<Object> consulta) throws Exception {
+        String chave = chave(texto);
+        Object guardada = buscar(chave);
+        if (guardada != null) {
+            return guardada;
+        }
+
+        CompletableFuture<Object> minha = new CompletableFuture<>();
+        CompletableFuture<Object> emCurso = emAndamento.putIfAbsent(chave, minha);
+        if (emCurso != null) {
+            return aguardar(emCurso);
+        }
+        try {
+            // Outra chamada pode ter terminado entre a busca e o registro desta
+            long geracaoInicial = geracao.get();
+            guardada = buscar(chave);
+            Object resposta = guardada != null ? guardada : consulta.call();
+            if (guardada == null) {
+                guardar(chave, resposta, geracaoInicial);
+            }
+            minha.complete(resposta);
+            return resposta;
+        } catch (Exception | Error e) {
+            minha.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, minha);
+        }
+    }
+
+    /**
+     * Descarta todas as respostas guardadas
+     */
+    public void limpar() {
+        geracao.incrementAndGet();
+        entradas.clear();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCadastroAlterado(CadastroAlteradoEvent evento) {
+        limpar();
+    }
+
+    static String chave(String texto) {
+        String normalizado = Normalizer.normalize(texto, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        normalizado = ESPACOS.matcher(normalizado).replaceAll(" ");
+        normalizado = PONTUACAO_FINAL.matcher(normalizado).replaceAll("").trim();
+        return HashUtil.sha256Hex(normalizado);
+    }
+
+    int tamanho() {
+        return entradas.size();
+    }
+
+    private Object buscar(String chave) {
+        Entrada entrada = entradas.get(chave);
+        if (entrada != null && relogio.getAsLong() - entrada.criadaEm() < ttlNanos) {
+            return entrada.resposta();
+        }
+        return null;
+    }
+
+    private void guardar(String chave, Object resposta, long geracaoInicial) {
+        if (ttlNanos <= 0 || maxEntradas <= 0 || resposta == null) {
+            return;
+        }
+        long agora = relogio.getAsLong();
+        if (entradas.size() >= maxEntradas) {
+            liberarEspaco(agora);
+        }
+        entradas.put(chave, new Entrada(resposta, agora));
+        if (geracao.get() != geracaoInicial) {
+            // Limpeza no meio da consulta: a resposta pode ter sido montada com os cadastros antigos
+            entradas.remove(chave);
+        }
+    }
+
+    private void liberarEspaco(long agora) {
+        entradas.values().removeIf(entrada -> agora - entrada.criadaEm() >= ttlNanos);
+        if (entradas.size() >= maxEntradas) {
+            // Todas ainda válidas: recomeça do zero em vez de crescer sem limite
+            entradas.clear();
+        }
+    }
+
+    private static Object aguardar(CompletableFuture<Object> emCurso) throws Exception {
+        try {
+            return emCurso.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof Exception excecao) {
+                throw excecao;
+            }
+            throw (Error) causa;
+        }
+    }
+
+    private record Entrada(Object resposta, long criadaEm) {
+    }
+}
@@ -0,0 +1,151 @@
+package com.senac.dentalsync.core.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.senac.dentalsync.core.config.ExecutorConfig;
+import com.senac.dentalsync.core.config.UsuarioLogadoHolder;
+import com.senac.dentalsync.core.event.LimiteEstoqueCruzadoEvent;
+import com.senac.dentalsync.core.persistency.repository.ProteticoRepository;
+
+/**
+ * Canal SSE das notificações de estoque, agrupado por laboratório do protético conectado.
+ * Ao conectar o cliente recebe um evento "snapshot" (mesmo formato de /material/notificacoes/estoque);
+ * depois só recebe "delta" quando um material muda de faixa (ver DetectorLimiteEstoque).
+ * Os envios passam por uma única thread, na ordem em que aconteceram, fora da transação que alterou o estoque
+ */
+@Service
+public class CanalNotificacaoEstoque {
+
+    private static final Logger log = LoggerFactory.getLogger(CanalNotificacaoEstoque.class);
+
+    // Grupo dos protéticos sem laboratório vinculado
+    static final Long SEM_LABORATORIO = 0L;
+
+    private final DetectorLimiteEstoque detectorLimiteEstoque;
+    private final ProteticoRepository proteticoRepository;
+    private final Executor executor;
+    private final long timeoutMs;
+    private final int maxConexoes;
+
+    private final Map<Long, Set<SseEmitter>> conexoesPorLaboratorio = new ConcurrentHashMap<>();
+    private final AtomicInteger conexoes = new AtomicInteger();
+
+    public CanalNotificacaoEstoque(DetectorLimiteEstoque detectorLimiteEstoque,
+                                   ProteticoRepository proteticoRepository,
+                                   @Qualifier(ExecutorConfig.NOTIFICACAO_EXECUTOR) Executor executor,
+                                   @Value("${dentalsync.estoque.sse.timeout-ms:1800000}") long timeoutMs,
+                                   @Value("${dentalsync.estoque.sse.max-conexoes:500}") int maxConexoes) {
+        this.detectorLimiteEstoque = detectorLimiteEstoque;
+        this.proteticoRepository = proteticoRepository;
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+        this.maxConexoes = maxConexoes;
+    }
+
+    /**
+     * Abre o canal para o protético logado, no grupo do laboratório dele
+     */
+    public SseEmitter conectarUsuarioLogado() {
+        String email = UsuarioLogadoHolder.getEmailAutenticado()
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Usuário não autenticado"));
+        return conectar(proteticoRepository.findLaboratorioIdByEmailAndIsActiveTrue(email).orElse(SEM_LABORATORIO));
+    }
+
+    public SseEmitter conectar(Long laboratorioId) {
+        if (conexoes.incrementAndGet() > maxConexoes) {
+            conexoes.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Limite de conexões de notificação atingido. Tente novamente mais tarde.");
+        }
+        Long chave = laboratorioId != null ? laboratorioId : SEM_LABORATORIO;
+        SseEmitter emitter = novoEmitter(timeoutMs);
+        conexoesPorLaboratorio.computeIfAbsent(chave, k -> ConcurrentHashMap.newKeySet()).add(emitter);
+
+        Runnable remover = () -> remover(chave, emitter);
+        emitter.onCompletion(remover);
+        emitter.onTimeout(remover);
+        emitter.onError(erro -> remover.run());
+
+        // O snapshot entra na mesma fila dos deltas: um delta anterior ao snapshot já está refletido nele
+        despachar(() -> enviar(chave, emitter, SseEmitter.event().name("snapshot")
+            .data(detectorLimiteEstoque.getNotificacoes())));
+        return emitter;
+    }
+
+    /**
+     * Material não tem vínculo com laboratório, então a mudança vai para todos os grupos
+     */
+    @EventListener
+    public void onLimiteEstoqueCruzado(LimiteEstoqueCruzadoEvent evento) {
+        if (conexoes.get() == 0) {
+            return;
+        }
+        despachar(() -> conexoesPorLaboratorio.forEach((laboratorioId, emitters) ->
+            emitters.forEach(emitter -> enviar(laboratorioId, emitter, SseEmitter.event().name("delta").data(evento)))));
+    }
+
+    /**
+     * Comentário periódico: mantém a conexão aberta em proxies e descarta clientes que já saíram
+     */
+    @Scheduled(fixedRateString = "${dentalsync.estoque.sse.heartbeat-ms:25000}")
+    public void heartbeat() {
+        if (conexoes.get() == 0) {
+            return;
+        }
+        despachar(() -> conexoesPorLaboratorio.forEach((laboratorioId, emitters) ->
+            emitters.forEach(emitter -> enviar(laboratorioId, emitter, SseEmitter.event().comment("ping")))));
+    }
+
+    public int getConexoes() {
+        return conexoes.get();
+    }
+
+    // Ponto de extensão para os testes capturarem os eventos enviados
+    protected SseEmitter novoEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+
+    private void despachar(Runnable envio) {
+        try {
+            executor.execute(envio);
+        } catch (RejectedExecutionException e) {
+            // Fila cheia: um delta perdido deixaria os clientes inconsistentes, então todos reconectam
+            // e recebem um snapshot novo
+            log.warn("Fila de notificações de estoque cheia; encerrando {} conexões", conexoes.get());
+            conexoesPorLaboratorio.forEach((laboratorioId, emitters) -> emitters.forEach(SseEmitter::complete));
+        }
+    }
+
+    private void enviar(Long laboratorioId, SseEmitter emitter, SseEmitter.SseEventBuilder evento) {
+        try {
+            emitter.send(evento);
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado: sai do grupo; o container já encerra a requisição assíncrona
+            remover(laboratorioId, emitter);
+        }
+    }
+
+    private void remover(Long laboratorioId, SseEmitter emitter) {
+        Set<SseEmitter> emitters = conexoesPorLaboratorio.get(laboratorioId);
+        if (emitters != null && emitters.remove(emitter)) {
+            conexoes.decrementAndGet();
+        }
+    }
+}
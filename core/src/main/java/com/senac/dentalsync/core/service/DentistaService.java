@@ -8,6 +8,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.senac.dentalsync.core.event.CadastroAlteradoEvent;
+import com.senac.dentalsync.core.event.DentistaAlteradoEvent;
+import com.senac.dentalsync.core.event.PedidoAlteradoEvent;
 import com.senac.dentalsync.core.persistency.model.Dentista;
 import com.senac.dentalsync.core.persistency.model.Clinica;
 import com.senac.dentalsync.core.persistency.model.Pedido;
@@ -88,13 +91,16 @@ public class DentistaService extends BaseService<Dentista, Long> {
             }
             
             Dentista dentista = dentistaOpt.get();
+            boolean ativoAntes = Boolean.TRUE.equals(dentista.getIsActive());
             
             // Usar reflection para contornar problema do Lombok
             java.lang.reflect.Field isActiveField = dentista.getClass().getSuperclass().getDeclaredField("isActive");
             isActiveField.setAccessible(true);
             isActiveField.set(dentista, status);
             
-            return super.save(dentista);
+            Dentista salvo = super.save(dentista);
+            publicarEvento(new DentistaAlteradoEvent(id, dentista.getCreatedAt(), ativoAntes, Boolean.TRUE.equals(status)));
+            return salvo;
         } catch (NoSuchFieldException | IllegalAccessException e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Erro ao atualizar status: " + e.getMessage());
         }
@@ -113,16 +119,35 @@ public class DentistaService extends BaseService<Dentista, Long> {
         
         // Buscar todos os pedidos do dentista e deletá-los primeiro
         List<Pedido> pedidos = pedidoRepository.findByDentista(dentista);
+        pedidos.forEach(pedido -> publicarEvento(PedidoAlteradoEvent.removido(pedido)));
         pedidoRepository.deleteAll(pedidos);
         
         // Agora pode deletar o dentista (o relacionamento com clínicas é deletado automaticamente pelo JPA)
         dentistaRepository.deleteById(id);
+        publicarEvento(CadastroAlteradoEvent.removido(CadastroAlteradoEvent.Tipo.DENTISTA, id));
+        publicarEvento(new DentistaAlteradoEvent(id, dentista.getCreatedAt(), Boolean.TRUE.equals(dentista.getIsActive()), false));
+    }
+
+    /**
+     * Exclusão lógica pelo BaseService: o dentista sai dos ativos como no updateStatus
+     */
+    @Override
+    protected void aposDesativar(Dentista dentista, boolean ativoAntes) {
+        super.aposDesativar(dentista, ativoAntes);
+        publicarEvento(new DentistaAlteradoEvent(dentista.getId(), dentista.getCreatedAt(), ativoAntes, false));
     }
 
     @Override
     public Dentista save(Dentista entity) {
         try {
-            return super.save(entity);
+            boolean ativoAntes = entity.getId() != null
+                && dentistaRepository.findIsActiveGravadoById(entity.getId()).orElse(false);
+            Dentista salvo = super.save(entity);
+            if (salvo != null) {
+                publicarEvento(new DentistaAlteradoEvent(salvo.getId(), salvo.getCreatedAt(), ativoAntes,
+                    Boolean.TRUE.equals(salvo.getIsActive())));
+            }
+            return salvo;
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
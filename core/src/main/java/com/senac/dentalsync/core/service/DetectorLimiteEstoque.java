@@ -0,0 +1,182 @@
+package com.senac.dentalsync.core.service;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.senac.dentalsync.core.dto.AlertaEstoqueDTO;
+import com.senac.dentalsync.core.event.EstoqueAlteradoEvent;
+import com.senac.dentalsync.core.event.LimiteEstoqueCruzadoEvent;
+import com.senac.dentalsync.core.persistency.model.StatusMaterial;
+import com.senac.dentalsync.core.persistency.repository.MaterialRepository;
+
+/**
+ * Mantém em memória os materiais com estoque baixo ou zerado, que alimentam as notificações.
+ * Cada alteração de estoque publica um EstoqueAlteradoEvent; depois do commit só os materiais
+ * afetados são relidos e, se algum mudou de faixa, é publicado um LimiteEstoqueCruzadoEvent.
+ * Assim a consulta de notificações (feita periodicamente pelo frontend) não vai ao banco.
+ * Se uma atualização falhar, a próxima leitura recarrega tudo; a recarga também roda periodicamente
+ */
+@Service
+public class DetectorLimiteEstoque {
+
+    private static final Logger log = LoggerFactory.getLogger(DetectorLimiteEstoque.class);
+
+    private static final Set<StatusMaterial> FAIXAS_ALERTA =
+        EnumSet.of(StatusMaterial.BAIXO_ESTOQUE, StatusMaterial.SEM_ESTOQUE);
+
+    private static final Comparator<AlertaEstoqueDTO> POR_NOME = Comparator.comparing(
+        AlertaEstoqueDTO::getNome, Comparator.nullsLast(Comparator.<String>naturalOrder()));
+
+    @Autowired
+    private MaterialRepository materialRepository;
+
+    @Autowired(required = false)
+    private ApplicationEventPublisher eventPublisher;
+
+    // Foto imutável substituída a cada alteração; null enquanto precisar ser (re)carregada
+    private volatile Situacao situacao;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEstoqueAlterado(EstoqueAlteradoEvent evento) {
+        if (evento.materialIds() == null || evento.materialIds().isEmpty()) {
+            return;
+        }
+        try {
+            reler(evento.materialIds());
+        } catch (Exception e) {
+            situacao = null;
+            log.warn("Falha ao atualizar alertas de estoque, recarga agendada: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Notificações de estoque no formato de /material/notificacoes/estoque
+     */
+    public Map<String, Object> getNotificacoes() {
+        Situacao atual = situacao;
+        if (atual == null) {
+            atual = recarregar();
+        }
+        Map<String, Object> notificacoes = new HashMap<>();
+        notificacoes.put("semEstoque", atual.semEstoque().size());
+        notificacoes.put("baixoEstoque", atual.baixoEstoque().size());
+        notificacoes.put("total", atual.semEstoque().size() + atual.baixoEstoque().size());
+        notificacoes.put("materiaisSemEstoque", atual.semEstoque());
+        notificacoes.put("materiaisBaixoEstoque", atual.baixoEstoque());
+        return notificacoes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarNaInicializacao() {
+        reconciliar();
+    }
+
+    @Scheduled(fixedDelayString = "${dentalsync.estoque.notificacoes.reconciliacao-ms:300000}",
+               initialDelayString = "${dentalsync.estoque.notificacoes.reconciliacao-ms:300000}")
+    public void reconciliar() {
+        try {
+            recarregar();
+        } catch (Exception e) {
+            situacao = null;
+            log.warn("Falha ao carregar alertas de estoque: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Relê todos os materiais em alerta; mudanças de faixa feitas fora da aplicação também são publicadas
+     */
+    public synchronized Situacao recarregar() {
+        List<AlertaEstoqueDTO> alertas = materialRepository.findAlertasByStatusIn(FAIXAS_ALERTA);
+        Situacao anterior = situacao;
+        if (anterior == null) {
+            situacao = Situacao.de(indexar(alertas));
+            return situacao;
+        }
+        Set<Long> ids = new HashSet<>(anterior.alertas().keySet());
+        alertas.forEach(alerta -> ids.add(alerta.getId()));
+        return atualizar(ids, alertas);
+    }
+
+    /**
+     * Relê os materiais e aplica na foto segurando o lock: releituras de commits simultâneos do mesmo
+     * material não podem se aplicar fora de ordem (uma leitura antiga sobrescrevendo uma mais nova)
+     */
+    private synchronized void reler(Collection<Long> ids) {
+        atualizar(ids, materialRepository.findAlertasByIdIn(ids));
+    }
+
+    private synchronized Situacao atualizar(Collection<Long> ids, List<AlertaEstoqueDTO> relidos) {
+        Situacao anterior = situacao;
+        if (anterior == null) {
+            // Ainda não carregado: a carga completa já reflete a alteração
+            return recarregar();
+        }
+        Map<Long, AlertaEstoqueDTO> atuais = indexar(relidos);
+        Map<Long, AlertaEstoqueDTO> alertas = new HashMap<>(anterior.alertas());
+
+        for (Long id : ids) {
+            AlertaEstoqueDTO antes = alertas.get(id);
+            AlertaEstoqueDTO depois = atuais.get(id);
+            if (depois != null && FAIXAS_ALERTA.contains(depois.getStatus())) {
+                alertas.put(id, depois);
+            } else {
+                alertas.remove(id);
+            }
+
+            StatusMaterial statusAntes = antes != null ? antes.getStatus() : StatusMaterial.EM_ESTOQUE;
+            StatusMaterial statusDepois = depois != null ? depois.getStatus() : null;
+            if (statusAntes != statusDepois && (antes != null || FAIXAS_ALERTA.contains(statusDepois))) {
+                log.info("Material {} mudou de faixa de estoque: {} -> {}", id, statusAntes, statusDepois);
+                publicar(new LimiteEstoqueCruzadoEvent(id, statusAntes, statusDepois, depois));
+            }
+        }
+        situacao = Situacao.de(alertas);
+        return situacao;
+    }
+
+    private void publicar(Object evento) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(evento);
+        }
+    }
+
+    private static Map<Long, AlertaEstoqueDTO> indexar(List<AlertaEstoqueDTO> alertas) {
+        Map<Long, AlertaEstoqueDTO> porId = new HashMap<>();
+        alertas.forEach(alerta -> porId.put(alerta.getId(), alerta));
+        return porId;
+    }
+
+    /**
+     * Materiais em alerta e as listas já ordenadas por nome, prontas para a resposta
+     */
+    public record Situacao(Map<Long, AlertaEstoqueDTO> alertas,
+                           List<AlertaEstoqueDTO> semEstoque, List<AlertaEstoqueDTO> baixoEstoque) {
+
+        static Situacao de(Map<Long, AlertaEstoqueDTO> alertas) {
+            return new Situacao(Map.copyOf(alertas),
+                filtrar(alertas.values(), StatusMaterial.SEM_ESTOQUE),
+                filtrar(alertas.values(), StatusMaterial.BAIXO_ESTOQUE));
+        }
+
+        private static List<AlertaEstoqueDTO> filtrar(Collection<AlertaEstoqueDTO> alertas, StatusMaterial status) {
+            return alertas.stream().filter(alerta -> alerta.getStatus() == status).sorted(POR_NOME).toList();
+        }
+    }
+}
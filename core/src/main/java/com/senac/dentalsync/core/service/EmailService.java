@@ -1,28 +1,23 @@
 package com.senac.dentalsync.core.service;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
-import jakarta.mail.internet.MimeMessage;
-
 @Service
 public class EmailService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
     
+    // Envio assíncrono: o email é gravado na fila e enviado pelos workers
     @Autowired
-    private JavaMailSender mailSender;
-    
-    @Value("${dentalsync.mail.from:noreply@dentalsync.com}")
-    private String fromEmail;
-    
-    @Value("${dentalsync.mail.fromName:DentalSync Security}")
-    private String fromName;
+    private FilaEmailService filaEmailService;
     
     @Value("${spring.mail.username:}")
     private String emailUsername;
@@ -36,33 +31,28 @@ public class EmailService {
     @Value("${dentalsync.frontend.reset-password-path}")
     private String resetPasswordPath;
     
-    // Armazenamento temporário dos códigos (em produção usar Redis ou banco)
-    private Map<String, String> tempCodes = new HashMap<>();
-    private Map<String, Long> codeTimestamps = new HashMap<>();
+    // Códigos de recuperação (email -> código) e tokens de reset de senha (token -> email), com validade
+    @Autowired
+    private TokenStore tokenStore;
     
-    // Armazenamento temporário dos tokens de reset de senha
-    private Map<String, String> passwordResetTokens = new HashMap<>(); // token -> email
-    private Map<String, Long> passwordResetTimestamps = new HashMap<>(); // token -> timestamp
+    private static final String TIPO_CODIGO_RECUPERACAO = "RECUPERACAO_2FA";
+    private static final String TIPO_RESET_SENHA = "RESET_SENHA";
     
     private static final int CODE_EXPIRY_MINUTES = 10;
     private static final int PASSWORD_RESET_TOKEN_EXPIRY_MINUTES = 30;
     
+    private static final SecureRandom RANDOM = new SecureRandom();
+    
     /**
      * Gera um código de 6 dígitos para recuperação de 2FA e envia por email
      */
     public String generateRecoveryCode(String email) {
-        Random random = new Random();
-        String code = String.format("%06d", random.nextInt(1000000));
+        String code = String.format("%06d", RANDOM.nextInt(1000000));
         
-        // Armazenar código temporariamente
-        tempCodes.put(email, code);
-        codeTimestamps.put(email, System.currentTimeMillis());
+        // Armazenar código temporariamente (substitui um código anterior do mesmo email)
+        tokenStore.salvar(TIPO_CODIGO_RECUPERACAO, email, code, Duration.ofMinutes(CODE_EXPIRY_MINUTES));
         
-        System.out.println("=== ENVIANDO CÓDIGO DE RECUPERAÇÃO 2FA ===");
-        System.out.println("Email: " + email);
-        System.out.println("Código: " + code);
-        System.out.println("Válido por " + CODE_EXPIRY_MINUTES + " minutos");
-        System.out.println("===============================");
+        log.debug("Código de recuperação 2FA gerado para {} (válido por {} minutos)", email, CODE_EXPIRY_MINUTES);
         
         // Enviar email real
         sendRecoveryEmail(email, code);
@@ -74,42 +64,28 @@ public class EmailService {
      * Valida o código de recuperação
      */
     public boolean validateRecoveryCode(String email, String code) {
-        String storedCode = tempCodes.get(email);
-        Long timestamp = codeTimestamps.get(email);
-        
-        if (storedCode == null || timestamp == null) {
-            System.out.println("Código não encontrado para: " + email);
+        if (email == null || code == null) {
             return false;
         }
-        
-        // Verificar se o código expirou
-        long currentTime = System.currentTimeMillis();
-        long elapsedMinutes = (currentTime - timestamp) / (1000 * 60);
-        
-        if (elapsedMinutes > CODE_EXPIRY_MINUTES) {
-            System.out.println("Código expirado para: " + email);
-            tempCodes.remove(email);
-            codeTimestamps.remove(email);
+        if (tokenStore.buscar(TIPO_CODIGO_RECUPERACAO, email).isEmpty()) {
+            log.debug("Código não encontrado ou expirado para: {}", email);
             return false;
         }
         
-        // Verificar se o código está correto
-        boolean isValid = storedCode.equals(code);
+        // Remove o código só se ele estiver correto: vale uma única vez, mesmo com requisições simultâneas
+        boolean isValid = tokenStore.removerSeIgual(TIPO_CODIGO_RECUPERACAO, email, code);
         
         if (isValid) {
-            // Remover código após uso
-            tempCodes.remove(email);
-            codeTimestamps.remove(email);
-            System.out.println("Código válido usado para: " + email);
+            log.debug("Código válido usado para: {}", email);
         } else {
-            System.out.println("Código inválido para: " + email);
+            log.debug("Código inválido para: {}", email);
         }
         
         return isValid;
     }
     
     /**
-     * Envia email real com código de recuperação
+     * Coloca na fila de envio o email com código de recuperação
      */
     private void sendRecoveryEmail(String toEmail, String code) {
         try {
@@ -118,43 +94,20 @@ public class EmailService {
                 emailPassword == null || emailPassword.trim().isEmpty()) {
                 
                 // Modo de desenvolvimento - simular envio
-                System.out.println("🔧 MODO DESENVOLVIMENTO - Simulando envio de email");
-                System.out.println("📧 Para: " + toEmail);
-                System.out.println("📋 Código: " + code);
-                System.out.println("💡 Configure EMAIL_USERNAME e EMAIL_PASSWORD para envio real");
-                System.out.println("✅ Email 'enviado' com sucesso (simulado)");
+                log.info("MODO DESENVOLVIMENTO - simulando envio do código de recuperação para {}. Configure EMAIL_USERNAME e EMAIL_PASSWORD para envio real", toEmail);
                 return;
             }
             
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+            filaEmailService.enfileirar(toEmail, "🔐 Código de Recuperação - DentalSync", createRecoveryEmailHtml(code));
             
-            // Configurar remetente
-            helper.setFrom(fromEmail, fromName);
-            
-            // Configurar destinatário
-            helper.setTo(toEmail);
-            
-            // Configurar assunto
-            helper.setSubject("🔐 Código de Recuperação - DentalSync");
-            
-            // Criar conteúdo HTML do email
-            String htmlContent = createRecoveryEmailHtml(code);
-            helper.setText(htmlContent, true);
-            
-            // Enviar email
-            mailSender.send(message);
-            
-            System.out.println("✅ Email de recuperação enviado com sucesso para: " + toEmail);
+            log.info("Email de recuperação enfileirado para: {}", toEmail);
             
         } catch (Exception e) {
-            System.err.println("❌ ERRO ao enviar email para: " + toEmail);
-            System.err.println("Erro: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Erro ao enviar email para: {}", toEmail, e);
             
             // Em desenvolvimento, continuar mesmo com erro de email
             if (emailUsername == null || emailUsername.trim().isEmpty()) {
-                System.out.println("⚠️ Continuando em modo desenvolvimento...");
+                log.warn("Continuando em modo desenvolvimento...");
                 return;
             }
             
@@ -235,18 +188,10 @@ public class EmailService {
         // Gerar token único usando UUID + timestamp
         String token = java.util.UUID.randomUUID().toString() + "-" + System.currentTimeMillis();
         
-        // Armazenar token temporariamente
-        passwordResetTokens.put(token, email);
-        passwordResetTimestamps.put(token, System.currentTimeMillis());
+        // Armazenar token temporariamente (os expirados são removidos pela limpeza periódica do TokenStore)
+        tokenStore.salvar(TIPO_RESET_SENHA, token, email, Duration.ofMinutes(PASSWORD_RESET_TOKEN_EXPIRY_MINUTES));
         
-        // Limpar tokens expirados
-        cleanExpiredPasswordResetTokens();
-        
-        System.out.println("=== TOKEN DE RESET DE SENHA GERADO ===");
-        System.out.println("Email: " + email);
-        System.out.println("Token: " + token);
-        System.out.println("Válido por " + PASSWORD_RESET_TOKEN_EXPIRY_MINUTES + " minutos");
-        System.out.println("===============================");
+        log.debug("Token de reset de senha gerado para {} (válido por {} minutos)", email, PASSWORD_RESET_TOKEN_EXPIRY_MINUTES);
         
         return token;
     }
@@ -255,31 +200,19 @@ public class EmailService {
      * Valida token de reset de senha
      */
     public boolean validatePasswordResetToken(String email, String token) {
-        String storedEmail = passwordResetTokens.get(token);
-        Long timestamp = passwordResetTimestamps.get(token);
+        Optional<String> storedEmail = buscarEmailDoToken(token);
         
-        if (storedEmail == null || timestamp == null) {
-            System.out.println("Token de reset não encontrado: " + token);
+        if (storedEmail.isEmpty()) {
+            log.debug("Token de reset não encontrado ou expirado");
             return false;
         }
         
-        if (!storedEmail.equals(email)) {
-            System.out.println("Email não corresponde ao token: " + email);
+        if (!storedEmail.get().equals(email)) {
+            log.debug("Email não corresponde ao token: {}", email);
             return false;
         }
         
-        // Verificar se o token expirou
-        long currentTime = System.currentTimeMillis();
-        long elapsedMinutes = (currentTime - timestamp) / (1000 * 60);
-        
-        if (elapsedMinutes > PASSWORD_RESET_TOKEN_EXPIRY_MINUTES) {
-            System.out.println("Token de reset expirado: " + token);
-            passwordResetTokens.remove(token);
-            passwordResetTimestamps.remove(token);
-            return false;
-        }
-        
-        System.out.println("Token de reset válido para: " + email);
+        log.debug("Token de reset válido para: {}", email);
         return true;
     }
     
@@ -287,40 +220,29 @@ public class EmailService {
      * Valida token e retorna o email associado
      */
     public String validatePasswordResetTokenAndGetEmail(String token) {
-        String email = passwordResetTokens.get(token);
-        Long timestamp = passwordResetTimestamps.get(token);
-        
-        if (email == null || timestamp == null) {
-            System.out.println("Token de reset não encontrado: " + token);
-            return null;
-        }
-        
-        // Verificar se o token expirou
-        long currentTime = System.currentTimeMillis();
-        long elapsedMinutes = (currentTime - timestamp) / (1000 * 60);
+        Optional<String> email = buscarEmailDoToken(token);
         
-        if (elapsedMinutes > PASSWORD_RESET_TOKEN_EXPIRY_MINUTES) {
-            System.out.println("Token de reset expirado: " + token);
-            passwordResetTokens.remove(token);
-            passwordResetTimestamps.remove(token);
+        if (email.isEmpty()) {
+            log.debug("Token de reset não encontrado ou expirado");
             return null;
         }
         
-        System.out.println("Token de reset válido - email: " + email);
-        return email;
+        log.debug("Token de reset válido - email: {}", email.get());
+        return email.get();
     }
     
     /**
      * Invalida um token de reset de senha
      */
     public void invalidatePasswordResetToken(String token) {
-        passwordResetTokens.remove(token);
-        passwordResetTimestamps.remove(token);
-        System.out.println("Token de reset invalidado: " + token);
+        if (token != null) {
+            tokenStore.remover(TIPO_RESET_SENHA, token);
+        }
+        log.debug("Token de reset invalidado");
     }
     
     /**
-     * Envia email com link de reset de senha
+     * Coloca na fila de envio o email com link de reset de senha
      */
     public void sendPasswordResetEmail(String toEmail, String resetToken) {
         try {
@@ -329,43 +251,20 @@ public class EmailService {
                 emailPassword == null || emailPassword.trim().isEmpty()) {
                 
                 // Modo de desenvolvimento - simular envio
-                System.out.println("🔧 MODO DESENVOLVIMENTO - Simulando envio de email de reset");
-                System.out.println("📧 Para: " + toEmail);
-                System.out.println("🔗 Link: " + frontendUrl + resetPasswordPath + "?token=" + resetToken);
-                System.out.println("💡 Configure EMAIL_USERNAME e EMAIL_PASSWORD para envio real");
-                System.out.println("✅ Email de reset 'enviado' com sucesso (simulado)");
+                log.info("MODO DESENVOLVIMENTO - simulando envio de email de reset para {}. Configure EMAIL_USERNAME e EMAIL_PASSWORD para envio real", toEmail);
                 return;
             }
             
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            // Configurar remetente
-            helper.setFrom(fromEmail, fromName);
-            
-            // Configurar destinatário
-            helper.setTo(toEmail);
-            
-            // Configurar assunto
-            helper.setSubject("🔐 Redefinição de Senha - DentalSync");
+            filaEmailService.enfileirar(toEmail, "🔐 Redefinição de Senha - DentalSync", createPasswordResetEmailHtml(resetToken));
             
-            // Criar conteúdo HTML do email
-            String htmlContent = createPasswordResetEmailHtml(resetToken);
-            helper.setText(htmlContent, true);
-            
-            // Enviar email
-            mailSender.send(message);
-            
-            System.out.println("✅ Email de reset de senha enviado com sucesso para: " + toEmail);
+            log.info("Email de reset de senha enfileirado para: {}", toEmail);
             
         } catch (Exception e) {
-            System.err.println("❌ ERRO ao enviar email de reset para: " + toEmail);
-            System.err.println("Erro: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Erro ao enviar email de reset para: {}", toEmail, e);
             
             // Em desenvolvimento, continuar mesmo com erro de email
             if (emailUsername == null || emailUsername.trim().isEmpty()) {
-                System.out.println("⚠️ Continuando em modo desenvolvimento...");
+                log.warn("Continuando em modo desenvolvimento...");
                 return;
             }
             
@@ -435,19 +334,10 @@ public class EmailService {
         return html.toString();
     }
     
-    /**
-     * Remove tokens de reset expirados
-     */
-    private void cleanExpiredPasswordResetTokens() {
-        long currentTime = System.currentTimeMillis();
-        
-        passwordResetTimestamps.entrySet().removeIf(entry -> {
-            long elapsedMinutes = (currentTime - entry.getValue()) / (1000 * 60);
-            if (elapsedMinutes > PASSWORD_RESET_TOKEN_EXPIRY_MINUTES) {
-                passwordResetTokens.remove(entry.getKey());
-                return true;
-            }
-            return false;
-        });
+    private Optional<String> buscarEmailDoToken(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        return tokenStore.buscar(TIPO_RESET_SENHA, token);
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
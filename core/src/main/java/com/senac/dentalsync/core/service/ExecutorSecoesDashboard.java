@@ -0,0 +1,89 @@
+package com.senac.dentalsync.core.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.senac.dentalsync.core.config.ExecutorConfig;
+
+/**
+ * Executa as seções do dashboard em paralelo no pool limitado "dashboardExecutor".
+ * Cada seção tem seu próprio prazo, contado a partir do início; se estourar, falhar ou for
+ * rejeitada pelo pool, a seção devolve o valor parcial informado e o restante da resposta segue.
+ * Assim a latência fica próxima da seção mais lenta (limitada ao maior prazo), e não da soma de todas
+ */
+@Component
+public class ExecutorSecoesDashboard {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutorSecoesDashboard.class);
+
+    private final Executor executor;
+
+    public ExecutorSecoesDashboard(@Qualifier(ExecutorConfig.DASHBOARD_EXECUTOR) Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Dispara a seção imediatamente; o resultado é lido com Secao.obter
+     */
+    public <T> Secao<T> iniciar(String nome, Duration timeout, Supplier<T> tarefa, T parcial) {
+        long prazo = System.nanoTime() + timeout.toNanos();
+        CompletableFuture<T> futuro;
+        try {
+            futuro = CompletableFuture.supplyAsync(tarefa, executor);
+        } catch (RejectedExecutionException e) {
+            futuro = CompletableFuture.failedFuture(e);
+        }
+        return new Secao<>(nome, futuro, prazo, parcial);
+    }
+
+    public static final class Secao<T> {
+
+        private final String nome;
+        private final CompletableFuture<T> futuro;
+        private final long prazo;
+        private final T parcial;
+
+        private Secao(String nome, CompletableFuture<T> futuro, long prazo, T parcial) {
+            this.nome = nome;
+            this.futuro = futuro;
+            this.prazo = prazo;
+            this.parcial = parcial;
+        }
+
+        /**
+         * Aguarda a seção até o seu prazo. Se não houver resultado, registra o nome
+         * em indisponiveis e devolve o valor parcial
+         */
+        public T obter(Collection<String> indisponiveis) {
+            try {
+                T resultado = futuro.get(Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (resultado != null) {
+                    return resultado;
+                }
+                log.warn("Seção {} do dashboard sem resultado, usando valor parcial", nome);
+            } catch (TimeoutException e) {
+                futuro.cancel(true);
+                log.warn("Seção {} do dashboard excedeu o prazo, usando valor parcial", nome);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Seção {} do dashboard interrompida, usando valor parcial", nome);
+            } catch (ExecutionException e) {
+                log.warn("Seção {} do dashboard falhou, usando valor parcial: {}", nome, e.getCause().getMessage());
+            }
+            indisponiveis.add(nome);
+            return parcial;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.senac.dentalsync.core.service;
+
+import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.senac.dentalsync.core.config.ExecutorConfig;
+import com.senac.dentalsync.core.persistency.model.EmailPendente;
+import com.senac.dentalsync.core.persistency.repository.EmailPendenteRepository;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Fila de saída de emails. A requisição só grava o email na tabela email_pendente e segue; os workers
+ * (EMAIL_EXECUTOR) reservam lotes e enviam cada lote em uma única conexão SMTP. Falhas são reagendadas
+ * com backoff exponencial e, esgotadas as tentativas, o email fica em FALHOU. Como a fila está no banco,
+ * emails aceitos não se perdem se a aplicação reiniciar, e várias instâncias podem dividir o envio
+ */
+@Service
+public class FilaEmailService {
+
+    private static final Logger log = LoggerFactory.getLogger(FilaEmailService.class);
+
+    private static final int TAMANHO_MAXIMO_ERRO = 500;
+
+    private final EmailPendenteRepository emailPendenteRepository;
+    private final JavaMailSender mailSender;
+    private final Executor executor;
+    private final String fromEmail;
+    private final String fromName;
+    private final int lote;
+    private final int maxTentativas;
+    private final long backoffInicialMs;
+    private final long backoffMaximoMs;
+    private final long reservaExpiraMs;
+    private final long retencaoMs;
+
+    private final AtomicBoolean despachando = new AtomicBoolean();
+
+    public FilaEmailService(EmailPendenteRepository emailPendenteRepository,
+                            JavaMailSender mailSender,
+                            @Qualifier(ExecutorConfig.EMAIL_EXECUTOR) Executor executor,
+                            @Value("${dentalsync.mail.from:noreply@dentalsync.com}") String fromEmail,
+                            @Value("${dentalsync.mail.fromName:DentalSync Security}") String fromName,
+                            @Value("${dentalsync.mail.fila.lote:20}") int lote,
+                            @Value("${dentalsync.mail.fila.max-tentativas:5}") int maxTentativas,
+                            @Value("${dentalsync.mail.fila.backoff-inicial-ms:30000}") long backoffInicialMs,
+                            @Value("${dentalsync.mail.fila.backoff-maximo-ms:3600000}") long backoffMaximoMs,
+                            @Value("${dentalsync.mail.fila.reserva-expira-ms:600000}") long reservaExpiraMs,
+                            @Value("${dentalsync.mail.fila.retencao-ms:604800000}") long retencaoMs) {
+        this.emailPendenteRepository = emailPendenteRepository;
+        this.mailSender = mailSender;
+        this.executor = executor;
+        this.fromEmail = fromEmail;
+        this.fromName = fromName;
+        this.lote = lote;
+        this.maxTentativas = maxTentativas;
+        this.backoffInicialMs = backoffInicialMs;
+        this.backoffMaximoMs = backoffMaximoMs;
+        this.reservaExpiraMs = reservaExpiraMs;
+        this.retencaoMs = retencaoMs;
+    }
+
+    /**
+     * Grava o email na fila e acorda os workers (após o commit, se houver transação). Não espera o SMTP
+     */
+    public EmailPendente enfileirar(String destinatario, String assunto, String corpoHtml) {
+        LocalDateTime agora = LocalDateTime.now();
+        EmailPendente email = new EmailPendente();
+        email.setDestinatario(destinatario);
+        email.setAssunto(assunto);
+        email.setCorpo(corpoHtml);
+        email.setStatus(EmailPendente.Status.PENDENTE);
+        email.setTentativas(0);
+        email.setProximaTentativaEm(agora);
+        email.setCreatedAt(agora);
+        EmailPendente salvo = emailPendenteRepository.save(email);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acordar();
+                }
+            });
+        } else {
+            acordar();
+        }
+        return salvo;
+    }
+
+    /**
+     * Reserva os emails prontos em lotes e entrega cada lote a um worker. Roda periodicamente
+     * (novas tentativas e emails de outras instâncias) e logo após cada enfileiramento
+     */
+    @Scheduled(fixedDelayString = "${dentalsync.mail.fila.intervalo-ms:5000}")
+    public void despachar() {
+        if (!despachando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            LocalDateTime agora = LocalDateTime.now();
+            int liberados = emailPendenteRepository.liberarReservasAntigas(agora.minus(Duration.ofMillis(reservaExpiraMs)));
+            if (liberados > 0) {
+                log.warn("{} email(s) presos em envio voltaram para a fila", liberados);
+            }
+
+            List<Long> ids = emailPendenteRepository.findIdsProntos(agora, PageRequest.of(0, lote));
+            while (!ids.isEmpty()) {
+                String reserva = UUID.randomUUID().toString();
+                if (emailPendenteRepository.reservar(ids, reserva, agora) > 0) {
+                    List<EmailPendente> reservados = emailPendenteRepository.findByReservaOrderById(reserva);
+                    try {
+                        executor.execute(() -> enviarLote(reservados));
+                    } catch (RejectedExecutionException e) {
+                        // Workers ocupados: o lote volta para a fila e sai na próxima varredura
+                        emailPendenteRepository.liberarReserva(reserva);
+                        return;
+                    }
+                }
+                if (ids.size() < lote) {
+                    return;
+                }
+                ids = emailPendenteRepository.findIdsProntos(agora, PageRequest.of(0, lote));
+            }
+        } catch (Exception e) {
+            log.warn("Falha ao despachar a fila de emails: {}", e.getMessage());
+        } finally {
+            despachando.set(false);
+        }
+    }
+
+    /**
+     * Apaga os emails enviados ou desistidos criados há mais de retencao-ms; o corpo deles já foi apagado
+     * ao sair da fila, o que resta (destinatário, assunto, erro) só serve para acompanhar envios recentes
+     */
+    @Scheduled(fixedDelayString = "${dentalsync.mail.fila.limpeza-ms:3600000}")
+    public void removerFinalizados() {
+        try {
+            int removidos = emailPendenteRepository.deleteFinalizadosAntes(
+                LocalDateTime.now().minus(Duration.ofMillis(retencaoMs)));
+            if (removidos > 0) {
+                log.info("{} email(s) finalizados removidos da fila", removidos);
+            }
+        } catch (Exception e) {
+            log.warn("Falha ao limpar a fila de emails: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Envia o lote em uma única conexão SMTP; só os emails recusados são reagendados
+     */
+    void enviarLote(List<EmailPendente> emails) {
+        Map<MimeMessage, EmailPendente> porMensagem = new LinkedHashMap<>();
+        for (EmailPendente email : emails) {
+            try {
+                porMensagem.put(montarMensagem(email), email);
+            } catch (MessagingException | UnsupportedEncodingException e) {
+                // Endereço ou conteúdo inválido não melhora com nova tentativa
+                moverParaFalhas(email, email.getTentativas() + 1, e);
+            }
+        }
+        if (porMensagem.isEmpty()) {
+            return;
+        }
+
+        try {
+            mailSender.send(porMensagem.keySet().toArray(new MimeMessage[0]));
+            marcarEnviados(porMensagem.values());
+        } catch (MailSendException e) {
+            Map<Object, Exception> falhas = e.getFailedMessages();
+            List<EmailPendente> enviados = new ArrayList<>();
+            porMensagem.forEach((mensagem, email) -> {
+                if (falhas.isEmpty() || falhas.containsKey(mensagem)) {
+                    registrarFalha(email, falhas.getOrDefault(mensagem, e));
+                } else {
+                    enviados.add(email);
+                }
+            });
+            marcarEnviados(enviados);
+        } catch (MailException e) {
+            porMensagem.values().forEach(email -> registrarFalha(email, e));
+        }
+    }
+
+    long backoffMs(int tentativas) {
+        long atraso = backoffInicialMs << Math.min(tentativas - 1, 30);
+        return atraso <= 0 ? backoffMaximoMs : Math.min(atraso, backoffMaximoMs);
+    }
+
+    private MimeMessage montarMensagem(EmailPendente email) throws MessagingException, UnsupportedEncodingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(fromEmail, fromName);
+        helper.setTo(email.getDestinatario());
+        helper.setSubject(email.getAssunto());
+        helper.setText(email.getCorpo(), true);
+        return message;
+    }
+
+    private void marcarEnviados(Collection<EmailPendente> emails) {
+        if (emails.isEmpty()) {
+            return;
+        }
+        emailPendenteRepository.marcarEnviados(emails.stream().map(EmailPendente::getId).toList(), LocalDateTime.now());
+        log.info("{} email(s) enviados", emails.size());
+    }
+
+    private void registrarFalha(EmailPendente email, Exception erro) {
+        int tentativas = email.getTentativas() + 1;
+        if (tentativas >= maxTentativas) {
+            moverParaFalhas(email, tentativas, erro);
+            return;
+        }
+        LocalDateTime proxima = LocalDateTime.now().plus(Duration.ofMillis(backoffMs(tentativas)));
+        emailPendenteRepository.registrarFalha(email.getId(), EmailPendente.Status.PENDENTE, tentativas, proxima,
+            resumir(erro));
+        log.warn("Falha ao enviar email {} para {} (tentativa {}), nova tentativa em {}: {}",
+            email.getId(), email.getDestinatario(), tentativas, proxima, erro.getMessage());
+    }
+
+    private void moverParaFalhas(EmailPendente email, int tentativas, Exception erro) {
+        emailPendenteRepository.marcarFalhou(email.getId(), tentativas, resumir(erro));
+        log.error("Email {} para {} desistido após {} tentativa(s): {}",
+            email.getId(), email.getDestinatario(), tentativas, erro.getMessage());
+    }
+
+    private void acordar() {
+        try {
+            executor.execute(this::despachar);
+        } catch (RejectedExecutionException e) {
+            // Workers ocupados: a varredura periódica envia
+        }
+    }
+
+    private static String resumir(Exception erro) {
+        String mensagem = erro.getClass().getSimpleName() + ": " + erro.getMessage();
+        return mensagem.length() > TAMANHO_MAXIMO_ERRO ? mensagem.substring(0, TAMANHO_MAXIMO_ERRO) : mensagem;
+    }
+}
@@ -0,0 +1,185 @@
+package com.senac.dentalsync.core.service;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.senac.dentalsync.core.util.Disjuntor;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Cliente do webhook de STT do n8n. Um único HttpClient HTTP/1.1 mantém as conexões abertas
+ * (keep-alive) entre as chamadas, com prazo de conexão e prazo total por chamada. As chamadas
+ * simultâneas são limitadas (quem não consegue vaga a tempo recebe SERVICE_UNAVAILABLE em vez de
+ * segurar a thread do Tomcat) e um disjuntor para de chamar o n8n depois de falhas seguidas.
+ * Os erros saem como RuntimeException com os códigos já tratados pelo STTController.
+ * No modo de threads virtuais as tarefas internas do HttpClient também rodam em threads virtuais
+ */
+@Component
+public class GatewayStt {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayStt.class);
+
+    private final ObjectMapper objectMapper;
+    private final URI webhookUri;
+    private final Duration timeout;
+    private final long esperaVagaMs;
+    private final Semaphore vagas;
+    private final Disjuntor disjuntor;
+    private final HttpClient httpClient;
+    private final ExecutorService executorVirtual;
+
+    @Autowired
+    public GatewayStt(ObjectMapper objectMapper,
+                      @Value("${n8n.webhook.base-url}") String baseUrl,
+                      @Value("${n8n.webhook.endpoint}") String endpoint,
+                      @Value("${n8n.webhook.timeout:30000}") long timeoutMs,
+                      @Value("${n8n.webhook.connect-timeout-ms:2000}") long connectTimeoutMs,
+                      @Value("${n8n.webhook.max-concorrentes:8}") int maxConcorrentes,
+                      @Value("${n8n.webhook.espera-vaga-ms:200}") long esperaVagaMs,
+                      @Value("${n8n.webhook.circuito.falhas:5}") int falhasParaAbrir,
+                      @Value("${n8n.webhook.circuito.aberto-ms:30000}") long abertoMs,
+                      @Value("${spring.threads.virtual.enabled:false}") boolean threadsVirtuais) {
+        this(objectMapper, URI.create(baseUrl + endpoint), timeoutMs, connectTimeoutMs, maxConcorrentes,
+            esperaVagaMs, new Disjuntor(falhasParaAbrir, abertoMs), threadsVirtuais);
+    }
+
+    GatewayStt(ObjectMapper objectMapper, URI webhookUri, long timeoutMs, long connectTimeoutMs,
+               int maxConcorrentes, long esperaVagaMs, Disjuntor disjuntor, boolean threadsVirtuais) {
+        this.objectMapper = objectMapper;
+        this.webhookUri = webhookUri;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.esperaVagaMs = esperaVagaMs;
+        this.vagas = new Semaphore(maxConcorrentes);
+        this.disjuntor = disjuntor;
+        this.executorVirtual = threadsVirtuais ? Executors.newVirtualThreadPerTaskExecutor() : null;
+        HttpClient.Builder builder = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs));
+        if (executorVirtual != null) {
+            builder.executor(executorVirtual);
+        }
+        this.httpClient = builder.build();
+    }
+
+    /**
+     * Envia a mensagem no corpo de um POST JSON ({"message": ...}) e devolve a resposta lida uma única vez:
+     * lista ou mapa conforme o JSON recebido, ou {"rawResponse": corpo} quando não for JSON
+     */
+    public Object enviar(String mensagem) {
+        if (!obterVaga()) {
+            throw new RuntimeException("SERVICE_UNAVAILABLE: limite de chamadas simultâneas ao n8n atingido");
+        }
+        try {
+            if (!disjuntor.permitir()) {
+                throw new RuntimeException("SERVICE_UNAVAILABLE: chamadas ao n8n suspensas após falhas seguidas");
+            }
+            return chamar(mensagem);
+        } finally {
+            vagas.release();
+        }
+    }
+
+    Disjuntor getDisjuntor() {
+        return disjuntor;
+    }
+
+    @PreDestroy
+    public void fechar() {
+        httpClient.close();
+        if (executorVirtual != null) {
+            executorVirtual.close();
+        }
+    }
+
+    private boolean obterVaga() {
+        try {
+            return vagas.tryAcquire(esperaVagaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Object chamar(String mensagem) {
+        HttpResponse<byte[]> resposta;
+        try {
+            resposta = httpClient.send(requisicao(mensagem), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (HttpConnectTimeoutException | ConnectException e) {
+            disjuntor.registrarFalha();
+            throw new RuntimeException("SERVICE_UNAVAILABLE", e);
+        } catch (HttpTimeoutException e) {
+            disjuntor.registrarFalha();
+            throw new RuntimeException("TIMEOUT_ERROR", e);
+        } catch (IOException e) {
+            disjuntor.registrarFalha();
+            throw new RuntimeException("Erro na comunicação com o webhook: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            // Sem resposta: conta como falha para não prender a chamada de teste do disjuntor
+            disjuntor.registrarFalha();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Chamada ao webhook interrompida", e);
+        } catch (RuntimeException e) {
+            // Erro inesperado do cliente HTTP: também conta, senão a chamada de teste deixaria o disjuntor
+            // preso em MEIO_ABERTO recusando tudo
+            disjuntor.registrarFalha();
+            throw e;
+        }
+
+        int status = resposta.statusCode();
+        byte[] corpo = resposta.body();
+        if (status >= 500) {
+            disjuntor.registrarFalha();
+            log.warn("Webhook de STT respondeu {}", status);
+            throw new RuntimeException("Erro na resposta do webhook: " + status);
+        }
+        // O n8n respondeu: mesmo um erro do lado do cliente mostra que o serviço está de pé
+        disjuntor.registrarSucesso();
+
+        if (status == 404) {
+            String texto = new String(corpo, StandardCharsets.UTF_8);
+            throw new RuntimeException(texto.contains("not registered") ? "WEBHOOK_NOT_REGISTERED" : "WEBHOOK_NOT_FOUND");
+        }
+        if (status != 200 || corpo.length == 0) {
+            throw new RuntimeException("Erro na resposta do webhook: " + status);
+        }
+        return ler(corpo);
+    }
+
+    private HttpRequest requisicao(String mensagem) throws IOException {
+        return HttpRequest.newBuilder(webhookUri)
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .header("Accept", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(Map.of("message", mensagem))))
+            .build();
+    }
+
+    private Object ler(byte[] corpo) {
+        try {
+            return objectMapper.readValue(corpo, Object.class);
+        } catch (IOException e) {
+            return Map.of("rawResponse", new String(corpo, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.senac.dentalsync.core.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Hash de senhas com BCrypt de custo configurável (dentalsync.senha.bcrypt-custo).
+ * Cada hash/verificação roda no pool próprio (ver ExecutorConfig.HASH_SENHA_EXECUTOR): uma rajada de logins
+ * fica limitada a poucas threads de CPU e, com a fila cheia ou a espera estourada, a requisição recebe 503
+ * em vez de segurar as threads do Tomcat. Hashes gravados com outro custo são refeitos no login
+ * (upgradeEncoding + ProteticoService.updatePassword)
+ */
+public class HashSenhaService implements PasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(HashSenhaService.class);
+
+    private static final Pattern CUSTO_BCRYPT = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final int custo;
+    private final Executor executor;
+    private final long esperaMs;
+
+    public HashSenhaService(int custo, Executor executor, long esperaMs) {
+        this.bcrypt = new BCryptPasswordEncoder(custo);
+        this.custo = custo;
+        this.executor = executor;
+        this.esperaMs = esperaMs;
+    }
+
+    @Override
+    public String encode(CharSequence senha) {
+        return executar(() -> bcrypt.encode(senha));
+    }
+
+    @Override
+    public boolean matches(CharSequence senha, String hash) {
+        return executar(() -> bcrypt.matches(senha, hash));
+    }
+
+    /**
+     * Refaz o hash quando o custo gravado difere do configurado (para cima ou para baixo)
+     */
+    @Override
+    public boolean upgradeEncoding(String hash) {
+        int custoGravado = custoDo(hash);
+        return custoGravado > 0 && custoGravado != custo;
+    }
+
+    public int getCusto() {
+        return custo;
+    }
+
+    /**
+     * Custo de um hash BCrypt ($2a$10$... -> 10); -1 se não for BCrypt
+     */
+    static int custoDo(String hash) {
+        if (hash == null) {
+            return -1;
+        }
+        Matcher matcher = CUSTO_BCRYPT.matcher(hash);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    private <T> T executar(Callable<T> tarefa) {
+        FutureTask<T> futuro = new FutureTask<>(tarefa);
+        try {
+            executor.execute(futuro);
+        } catch (RejectedExecutionException e) {
+            log.warn("Fila de hash de senha cheia; recusando a requisição");
+            throw ocupado();
+        }
+        try {
+            return futuro.get(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Ainda na fila: sai dela sem rodar; já rodando: termina sozinha, o pool é limitado
+            futuro.cancel(false);
+            log.warn("Hash de senha não concluído em {} ms; recusando a requisição", esperaMs);
+            throw ocupado();
+        } catch (InterruptedException e) {
+            futuro.cancel(false);
+            Thread.currentThread().interrupt();
+            throw ocupado();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException erro) {
+                throw erro;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ResponseStatusException ocupado() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+            "Servidor ocupado no momento. Tente novamente em instantes.");
+    }
+}
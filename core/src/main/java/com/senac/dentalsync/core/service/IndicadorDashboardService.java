@@ -0,0 +1,191 @@
+package com.senac.dentalsync.core.service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.senac.dentalsync.core.event.DentistaAlteradoEvent;
+import com.senac.dentalsync.core.event.PedidoAlteradoEvent;
+import com.senac.dentalsync.core.persistency.model.IndicadorDashboard;
+import com.senac.dentalsync.core.persistency.repository.DentistaRepository;
+import com.senac.dentalsync.core.persistency.repository.IndicadorDashboardRepository;
+import com.senac.dentalsync.core.persistency.repository.PedidoRepository;
+import com.senac.dentalsync.core.persistency.repository.ServicoRepository;
+
+/**
+ * Mantém os contadores do dashboard (tabela indicador_dashboard).
+ * Cada escrita de pedido/dentista publica um evento; depois do commit o delta é aplicado aos contadores,
+ * então o dashboard lê algumas dezenas de linhas em vez de varrer pedidos e dentistas.
+ * Se um delta falhar, ou na inicialização, os contadores são reconstruídos a partir das tabelas de origem;
+ * a reconstrução também roda de madrugada para corrigir qualquer desvio
+ */
+@Service
+public class IndicadorDashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicadorDashboardService.class);
+
+    @Autowired
+    private IndicadorDashboardRepository indicadorDashboardRepository;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private DentistaRepository dentistaRepository;
+
+    @Autowired
+    private ServicoRepository servicoRepository;
+
+    private TransactionTemplate transacao;
+
+    // Enquanto true, a próxima leitura reconstrói os contadores antes de responder
+    private volatile boolean recalculoPendente = true;
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.transacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPedidoAlterado(PedidoAlteradoEvent evento) {
+        aplicar(() -> {
+            if (evento.anterior() != null) {
+                aplicarPedido(evento.anterior(), -1);
+            }
+            if (evento.atual() != null) {
+                aplicarPedido(evento.atual(), 1);
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDentistaAlterado(DentistaAlteradoEvent evento) {
+        if (evento.ativoAntes() == evento.ativoDepois()) {
+            return;
+        }
+        aplicar(() -> incrementar(IndicadorDashboard.Tipo.DENTISTAS_ATIVOS_POR_MES,
+            chaveMes(evento.createdAt()), evento.ativoDepois() ? 1 : -1));
+    }
+
+    /**
+     * Lê os contadores atuais; reconstrói antes se houver recálculo pendente
+     */
+    public IndicadoresDashboard carregar() {
+        if (recalculoPendente) {
+            transacao.executeWithoutResult(status -> recalcular());
+        }
+        List<IndicadorDashboard> indicadores = indicadorDashboardRepository.findAll();
+
+        List<Long> servicoIds = indicadores.stream()
+            .filter(indicador -> indicador.getTipo() == IndicadorDashboard.Tipo.PEDIDOS_POR_SERVICO)
+            .map(indicador -> Long.valueOf(indicador.getChave()))
+            .toList();
+        Map<Long, String> nomesServicos = new HashMap<>();
+        if (!servicoIds.isEmpty()) {
+            for (Object[] linha : servicoRepository.findNomesByIdIn(servicoIds)) {
+                nomesServicos.put((Long) linha[0], (String) linha[1]);
+            }
+        }
+        return new IndicadoresDashboard(indicadores, nomesServicos);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recalcularNaInicializacao() {
+        reconstruir();
+    }
+
+    @Scheduled(cron = "${dentalsync.dashboard.reconciliacao-cron:0 30 3 * * *}")
+    public void reconciliar() {
+        reconstruir();
+    }
+
+    /**
+     * Descarta os contadores e os recalcula com uma agregação completa sobre pedidos e dentistas
+     */
+    public synchronized void recalcular() {
+        indicadorDashboardRepository.deleteAllInBatch();
+        LocalDateTime agora = LocalDateTime.now();
+
+        for (Object[] linha : pedidoRepository.contarPorMesDeCriacao()) {
+            salvar(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, chaveMes(linha[0], linha[1]), linha[2], agora);
+        }
+        for (Object[] linha : pedidoRepository.contarPorStatus()) {
+            salvar(IndicadorDashboard.Tipo.PEDIDOS_POR_STATUS, String.valueOf(linha[0]), linha[1], agora);
+        }
+        for (Object[] linha : pedidoRepository.contarPorServico()) {
+            salvar(IndicadorDashboard.Tipo.PEDIDOS_POR_SERVICO, String.valueOf(linha[0]), linha[1], agora);
+        }
+        for (Object[] linha : dentistaRepository.contarAtivosPorMesDeCriacao()) {
+            salvar(IndicadorDashboard.Tipo.DENTISTAS_ATIVOS_POR_MES, chaveMes(linha[0], linha[1]), linha[2], agora);
+        }
+        recalculoPendente = false;
+    }
+
+    private void reconstruir() {
+        try {
+            transacao.executeWithoutResult(status -> recalcular());
+            log.info("Indicadores do dashboard recalculados");
+        } catch (Exception e) {
+            recalculoPendente = true;
+            log.warn("Falha ao recalcular indicadores do dashboard: {}", e.getMessage());
+        }
+    }
+
+    private void aplicar(Runnable delta) {
+        try {
+            transacao.executeWithoutResult(status -> delta.run());
+        } catch (Exception e) {
+            recalculoPendente = true;
+            log.warn("Falha ao atualizar indicadores do dashboard, recálculo agendado: {}", e.getMessage());
+        }
+    }
+
+    private void aplicarPedido(PedidoAlteradoEvent.Estado estado, long sinal) {
+        incrementar(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, chaveMes(estado.createdAt()), sinal);
+        if (estado.status() != null) {
+            incrementar(IndicadorDashboard.Tipo.PEDIDOS_POR_STATUS, estado.status().name(), sinal);
+        }
+        estado.servicoIds().stream()
+            .filter(Objects::nonNull)
+            .forEach(servicoId -> incrementar(IndicadorDashboard.Tipo.PEDIDOS_POR_SERVICO, servicoId.toString(), sinal));
+    }
+
+    private void incrementar(IndicadorDashboard.Tipo tipo, String chave, long delta) {
+        LocalDateTime agora = LocalDateTime.now();
+        if (indicadorDashboardRepository.incrementar(tipo, chave, delta, agora) == 0) {
+            indicadorDashboardRepository.save(new IndicadorDashboard(null, tipo, chave, delta, agora));
+        }
+    }
+
+    private void salvar(IndicadorDashboard.Tipo tipo, String chave, Object valor, LocalDateTime agora) {
+        indicadorDashboardRepository.save(new IndicadorDashboard(null, tipo, chave, ((Number) valor).longValue(), agora));
+    }
+
+    private static String chaveMes(LocalDateTime data) {
+        return data == null ? IndicadorDashboard.SEM_DATA : YearMonth.from(data).toString();
+    }
+
+    private static String chaveMes(Object ano, Object mes) {
+        if (ano == null || mes == null) {
+            return IndicadorDashboard.SEM_DATA;
+        }
+        return YearMonth.of(((Number) ano).intValue(), ((Number) mes).intValue()).toString();
+    }
+}
@@ -0,0 +1,127 @@
+package com.senac.dentalsync.core.service;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+import com.senac.dentalsync.core.dto.PedidosPorMesDTO;
+import com.senac.dentalsync.core.dto.PedidosPorTipoDTO;
+import com.senac.dentalsync.core.dto.StatusPedidosDTO;
+import com.senac.dentalsync.core.persistency.model.IndicadorDashboard;
+import com.senac.dentalsync.core.persistency.model.Pedido;
+
+/**
+ * Leitura em memória dos contadores do dashboard. Todos os números do relatório são derivados
+ * daqui, sem consultar as tabelas de pedidos e dentistas
+ */
+public class IndicadoresDashboard {
+
+    private final Map<IndicadorDashboard.Tipo, Map<String, Long>> valores = new EnumMap<>(IndicadorDashboard.Tipo.class);
+    private final Map<Long, String> nomesServicos;
+
+    public IndicadoresDashboard(List<IndicadorDashboard> indicadores, Map<Long, String> nomesServicos) {
+        for (IndicadorDashboard indicador : indicadores) {
+            valores.computeIfAbsent(indicador.getTipo(), tipo -> new HashMap<>())
+                .merge(indicador.getChave(), indicador.getValor(), Long::sum);
+        }
+        this.nomesServicos = nomesServicos;
+    }
+
+    public long getTotalPedidos() {
+        return somar(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, chave -> true);
+    }
+
+    public long getTotalPedidosCriadosAntes(YearMonth mes) {
+        return somar(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, chave -> antesDe(chave, mes));
+    }
+
+    public long getPedidosPorStatus(Pedido.Status status) {
+        return somar(IndicadorDashboard.Tipo.PEDIDOS_POR_STATUS, chave -> chave.equals(status.name()));
+    }
+
+    public long getDentistasAtivos() {
+        return somar(IndicadorDashboard.Tipo.DENTISTAS_ATIVOS_POR_MES, chave -> true);
+    }
+
+    public long getDentistasAtivosCriadosAntes(YearMonth mes) {
+        return somar(IndicadorDashboard.Tipo.DENTISTAS_ATIVOS_POR_MES, chave -> antesDe(chave, mes));
+    }
+
+    public long getDentistasAtivosCriadosNoMes(YearMonth mes) {
+        return somar(IndicadorDashboard.Tipo.DENTISTAS_ATIVOS_POR_MES, chave -> chave.equals(mes.toString()));
+    }
+
+    /**
+     * Pedidos criados por mês entre inicio e fim (inclusive), em ordem cronológica; meses sem pedidos são omitidos
+     */
+    public List<PedidosPorMesDTO> getPedidosPorMes(YearMonth inicio, YearMonth fim) {
+        Map<YearMonth, Long> porMes = new TreeMap<>();
+        doTipo(IndicadorDashboard.Tipo.PEDIDOS_POR_MES).forEach((chave, valor) -> {
+            if (!IndicadorDashboard.SEM_DATA.equals(chave) && valor > 0) {
+                YearMonth mes = YearMonth.parse(chave);
+                if (!mes.isBefore(inicio) && !mes.isAfter(fim)) {
+                    porMes.put(mes, valor);
+                }
+            }
+        });
+        return porMes.entrySet().stream()
+            .map(entrada -> new PedidosPorMesDTO(entrada.getKey().getMonthValue(), entrada.getValue()))
+            .toList();
+    }
+
+    /**
+     * Percentual de pedidos em cada status, sobre o total de pedidos
+     */
+    public List<StatusPedidosDTO> getPercentualPorStatus() {
+        long total = getTotalPedidos();
+        Map<String, Long> porStatus = doTipo(IndicadorDashboard.Tipo.PEDIDOS_POR_STATUS);
+        if (total == 0) {
+            return List.of();
+        }
+        return Arrays.stream(Pedido.Status.values())
+            .filter(status -> porStatus.getOrDefault(status.name(), 0L) > 0)
+            .map(status -> new StatusPedidosDTO(status.name(), porStatus.get(status.name()) * 100.0 / total))
+            .toList();
+    }
+
+    /**
+     * Percentual de ocorrências de cada serviço (agrupado pelo nome) sobre o total de pedidos
+     */
+    public List<PedidosPorTipoDTO> getPercentualPorServico() {
+        long total = getTotalPedidos();
+        if (total == 0) {
+            return List.of();
+        }
+        Map<String, Long> porNome = new TreeMap<>();
+        doTipo(IndicadorDashboard.Tipo.PEDIDOS_POR_SERVICO).forEach((chave, valor) -> {
+            if (valor > 0) {
+                Long servicoId = Long.valueOf(chave);
+                porNome.merge(nomesServicos.getOrDefault(servicoId, "Serviço #" + servicoId), valor, Long::sum);
+            }
+        });
+        return porNome.entrySet().stream()
+            .map(entrada -> new PedidosPorTipoDTO(entrada.getKey(), entrada.getValue() * 100.0 / total))
+            .toList();
+    }
+
+    private Map<String, Long> doTipo(IndicadorDashboard.Tipo tipo) {
+        return valores.getOrDefault(tipo, Collections.emptyMap());
+    }
+
+    private long somar(IndicadorDashboard.Tipo tipo, Predicate<String> filtro) {
+        return doTipo(tipo).entrySet().stream()
+            .filter(entrada -> filtro.test(entrada.getKey()))
+            .mapToLong(Map.Entry::getValue)
+            .sum();
+    }
+
+    private static boolean antesDe(String chave, YearMonth mes) {
+        return !IndicadorDashboard.SEM_DATA.equals(chave) && YearMonth.parse(chave).isBefore(mes);
+    }
+}
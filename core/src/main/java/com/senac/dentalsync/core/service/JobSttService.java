@@ -0,0 +1,205 @@
+package com.senac.dentalsync.core.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.senac.dentalsync.core.config.ExecutorConfig;
+import com.senac.dentalsync.core.dto.RascunhoPedidoDTO;
+
+/**
+ * Extrações de STT assíncronas (/stt/jobs). A requisição só registra o job e recebe o id; os workers do
+ * STT_EXECUTOR chamam o STTService (com o mesmo cache e junção de textos iguais) e, se pedido, montam o
+ * rascunho do pedido. O resultado fica em memória por um tempo depois de concluído, visível só para quem
+ * criou o job, e é entregue por long-poll ou SSE quando a conclusão do job se completa
+ */
+@Service
+public class JobSttService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobSttService.class);
+
+    public enum Status { PENDENTE, PROCESSANDO, CONCLUIDO, FALHOU }
+
+    private final STTService sttService;
+    private final RascunhoPedidoService rascunhoPedidoService;
+    private final Executor executor;
+    private final long retencaoNanos;
+    private final int maxJobs;
+    private final LongSupplier relogio;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public JobSttService(STTService sttService,
+                         RascunhoPedidoService rascunhoPedidoService,
+                         @Qualifier(ExecutorConfig.STT_EXECUTOR) Executor executor,
+                         @Value("${dentalsync.stt.jobs.retencao-ms:600000}") long retencaoMs,
+                         @Value("${dentalsync.stt.jobs.max-jobs:1000}") int maxJobs) {
+        this(sttService, rascunhoPedidoService, executor, retencaoMs, maxJobs, System::nanoTime);
+    }
+
+    JobSttService(STTService sttService, RascunhoPedidoService rascunhoPedidoService, Executor executor,
+                  long retencaoMs, int maxJobs, LongSupplier relogio) {
+        this.sttService = sttService;
+        this.rascunhoPedidoService = rascunhoPedidoService;
+        this.executor = executor;
+        this.retencaoNanos = TimeUnit.MILLISECONDS.toNanos(retencaoMs);
+        this.maxJobs = maxJobs;
+        this.relogio = relogio;
+    }
+
+    /**
+     * Registra o job e o coloca na fila dos workers. Fila ou memória de jobs cheias respondem 503
+     */
+    public Job criar(String texto, boolean montarRascunho, String dono) {
+        Objects.requireNonNull(dono, "dono");
+        if (texto == null || texto.trim().isEmpty()) {
+            throw new IllegalArgumentException("Texto não pode estar vazio");
+        }
+        if (jobs.size() >= maxJobs) {
+            removerExpirados();
+            if (jobs.size() >= maxJobs) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Muitas extrações em andamento. Tente novamente em instantes.");
+            }
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), dono, texto, montarRascunho);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> executar(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Fila de processamento de voz cheia. Tente novamente em instantes.");
+        }
+        return job;
+    }
+
+    /**
+     * Job do usuário informado; jobs de outro usuário (ou consulta sem usuário) são tratados como inexistentes
+     */
+    public Optional<Job> buscar(String id, String dono) {
+        if (dono == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(jobs.get(id)).filter(job -> dono.equals(job.dono));
+    }
+
+    @Scheduled(fixedDelayString = "${dentalsync.stt.jobs.limpeza-ms:60000}")
+    public void removerExpirados() {
+        long agora = relogio.getAsLong();
+        jobs.values().removeIf(job -> job.isConcluido() && agora - job.concluidoEmNanos >= retencaoNanos);
+    }
+
+    int quantidade() {
+        return jobs.size();
+    }
+
+    private void executar(Job job) {
+        job.status = Status.PROCESSANDO;
+        try {
+            Object resultado = sttService.processText(job.texto);
+            RascunhoPedidoDTO rascunho = job.montarRascunho ? rascunhoPedidoService.montar(resultado) : null;
+            job.concluir(Status.CONCLUIDO, resultado, rascunho, null, relogio.getAsLong());
+        } catch (Exception e) {
+            log.warn("Job de STT {} falhou: {}", job.getId(), e.getMessage());
+            job.concluir(Status.FALHOU, null, null, e, relogio.getAsLong());
+        }
+    }
+
+    /**
+     * Estado de uma extração. Os campos do resultado são gravados antes de a conclusão se completar,
+     * então quem é avisado pela conclusão já enxerga tudo
+     */
+    public static final class Job {
+
+        private final String id;
+        private final String dono;
+        private final String texto;
+        private final boolean montarRascunho;
+        private final LocalDateTime criadoEm = LocalDateTime.now();
+        private final CompletableFuture<Job> conclusao = new CompletableFuture<>();
+
+        private volatile Status status = Status.PENDENTE;
+        private volatile Object resultado;
+        private volatile RascunhoPedidoDTO rascunho;
+        private volatile Exception erro;
+        private volatile LocalDateTime concluidoEm;
+        private volatile long concluidoEmNanos;
+
+        Job(String id, String dono, String texto, boolean montarRascunho) {
+            this.id = id;
+            this.dono = dono;
+            this.texto = texto;
+            this.montarRascunho = montarRascunho;
+        }
+
+        private void concluir(Status statusFinal, Object resultado, RascunhoPedidoDTO rascunho, Exception erro, long agora) {
+            this.resultado = resultado;
+            this.rascunho = rascunho;
+            this.erro = erro;
+            this.concluidoEm = LocalDateTime.now();
+            this.concluidoEmNanos = agora;
+            this.status = statusFinal;
+            conclusao.complete(this);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public boolean isConcluido() {
+            return conclusao.isDone();
+        }
+
+        public Object getResultado() {
+            return resultado;
+        }
+
+        public RascunhoPedidoDTO getRascunho() {
+            return rascunho;
+        }
+
+        public Exception getErro() {
+            return erro;
+        }
+
+        public LocalDateTime getCriadoEm() {
+            return criadoEm;
+        }
+
+        public LocalDateTime getConcluidoEm() {
+            return concluidoEm;
+        }
+
+        /**
+         * Completa quando o job termina (com sucesso ou falha)
+         */
+        public CompletableFuture<Job> getConclusao() {
+            return conclusao;
+        }
+    }
+}
@@ -63,7 +63,7 @@ public class LaboratorioService extends BaseService<Laboratorio, Long> {
     }
     
     private void preencherCamposAuditoriaEndereco(com.senac.dentalsync.core.persistency.model.EnderecoLaboratorio endereco) {
-        Protetico usuarioLogado = getUsuarioLogado();
+        Protetico usuarioLogado = getReferenciaUsuarioLogado();
         
         if (endereco.getId() == null) {
             endereco.setCreatedAt(java.time.LocalDateTime.now());
@@ -2,18 +2,27 @@ package com.senac.dentalsync.core.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.senac.dentalsync.core.event.EstoqueAlteradoEvent;
 import com.senac.dentalsync.core.persistency.model.Material;
+import com.senac.dentalsync.core.persistency.model.MovimentacaoEstoque;
 import com.senac.dentalsync.core.persistency.model.StatusMaterial;
 import com.senac.dentalsync.core.persistency.model.Protetico;
 import com.senac.dentalsync.core.persistency.model.ServicoMaterial;
 import com.senac.dentalsync.core.persistency.repository.MaterialRepository;
+import com.senac.dentalsync.core.persistency.repository.MovimentacaoEstoqueRepository;
 import com.senac.dentalsync.core.persistency.repository.ServicoMaterialRepository;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -26,6 +35,12 @@ public class MaterialService extends BaseService<Material, Long> {
     @Autowired
     private ServicoMaterialRepository servicoMaterialRepository;
 
+    @Autowired
+    private MovimentacaoEstoqueRepository movimentacaoEstoqueRepository;
+
+    @Autowired
+    private DetectorLimiteEstoque detectorLimiteEstoque;
+
     @Override
     public MaterialRepository getRepository() {
         return materialRepository;
@@ -46,6 +61,7 @@ public class MaterialService extends BaseService<Material, Long> {
         
         // Agora pode deletar o material
         materialRepository.deleteById(id);
+        publicarEvento(new EstoqueAlteradoEvent(Set.of(id)));
     }
 
     private void atualizarStatusMaterial(Material material) {
@@ -62,10 +78,105 @@ public class MaterialService extends BaseService<Material, Long> {
         }
     }
 
+    /**
+     * Salva o material e registra a diferença de quantidade no livro de movimentações
+     * (cadastro ou ajuste manual), na mesma transação
+     */
     @Override
+    @Transactional
     public Material save(Material material) {
         atualizarStatusMaterial(material);
-        return super.save(material);
+        BigDecimal quantidadeAnterior = BigDecimal.ZERO;
+        if (material.getId() != null) {
+            if (material.getVersao() == null) {
+                // Sem a versão lida pelo cliente não dá para saber se um pedido baixou o estoque no meio
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A versão do material é obrigatória na edição. Recarregue o material e tente novamente.");
+            }
+            quantidadeAnterior = materialRepository.findQuantidadeById(material.getId()).orElse(BigDecimal.ZERO);
+        }
+        boolean novo = material.getId() == null;
+
+        Material salvo;
+        try {
+            salvo = super.save(material);
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                "O material foi alterado enquanto você editava (ex.: baixa de estoque por um pedido). Recarregue e tente novamente.");
+        }
+        if (salvo == null || salvo.getId() == null) {
+            return salvo;
+        }
+
+        BigDecimal quantidadeAtual = salvo.getQuantidade() != null ? salvo.getQuantidade() : BigDecimal.ZERO;
+        BigDecimal variacao = quantidadeAtual.subtract(quantidadeAnterior);
+        if (variacao.signum() != 0) {
+            movimentacaoEstoqueRepository.save(movimentacao(salvo.getId(),
+                novo ? MovimentacaoEstoque.Tipo.CADASTRO : MovimentacaoEstoque.Tipo.AJUSTE_MANUAL,
+                variacao, null, LocalDateTime.now(), salvo.getUpdatedBy()));
+        }
+        publicarEvento(new EstoqueAlteradoEvent(Set.of(salvo.getId())));
+        return salvo;
+    }
+
+    /**
+     * Desconta do estoque as quantidades já somadas por material, com um UPDATE condicional por material
+     * (sem carregar as entidades). Os materiais são atualizados em ordem de id, para que pedidos
+     * simultâneos travem as linhas sempre na mesma ordem. Se algum não tiver estoque, a exceção
+     * desfaz os descontos já aplicados na transação.
+     * O registro no livro de movimentações fica para registrarBaixaPedido, quando o pedido já tem id
+     * @param consumoPorMaterial quantidade total a descontar, por id do material
+     */
+    @Transactional
+    public void descontarEstoque(Map<Long, BigDecimal> consumoPorMaterial) {
+        if (consumoPorMaterial.isEmpty()) {
+            return;
+        }
+        Protetico usuarioLogado = getReferenciaUsuarioLogado();
+        LocalDateTime agora = LocalDateTime.now();
+
+        new TreeMap<>(consumoPorMaterial).forEach((materialId, quantidade) -> {
+            if (materialRepository.descontarEstoque(materialId, quantidade, agora, usuarioLogado) == 0) {
+                // Só no caminho de erro o material é lido, para montar a mensagem
+                Material material = materialRepository.findById(materialId)
+                    .orElseThrow(() -> new RuntimeException("Material não encontrado: " + materialId));
+                throw new RuntimeException("Estoque insuficiente para o material: " + material.getNome() +
+                                           " (Disponível: " + material.getQuantidade() + ", Necessário: " + quantidade + ")");
+            }
+        });
+        publicarEvento(new EstoqueAlteradoEvent(Set.copyOf(consumoPorMaterial.keySet())));
+    }
+
+    /**
+     * Registra no livro de movimentações as baixas de um pedido recém-gravado (uma linha por material)
+     * @param pedidoId id do pedido que consumiu os materiais
+     * @param consumoPorMaterial mesmas quantidades passadas para descontarEstoque
+     */
+    @Transactional
+    public void registrarBaixaPedido(Long pedidoId, Map<Long, BigDecimal> consumoPorMaterial) {
+        if (consumoPorMaterial.isEmpty()) {
+            return;
+        }
+        Protetico usuarioLogado = getReferenciaUsuarioLogado();
+        LocalDateTime agora = LocalDateTime.now();
+        List<MovimentacaoEstoque> movimentacoes = new TreeMap<>(consumoPorMaterial).entrySet().stream()
+            .map(consumo -> movimentacao(consumo.getKey(), MovimentacaoEstoque.Tipo.BAIXA_PEDIDO,
+                consumo.getValue().negate(), pedidoId, agora, usuarioLogado))
+            .toList();
+        movimentacaoEstoqueRepository.saveAll(movimentacoes);
+    }
+
+    /**
+     * Últimas movimentações de um material, da mais recente para a mais antiga
+     */
+    public List<MovimentacaoEstoque> listarMovimentacoes(Long materialId, int limite) {
+        return movimentacaoEstoqueRepository.findByMaterialIdOrderByCreatedAtDescIdDesc(
+            materialId, PageRequest.of(0, limite));
+    }
+
+    private static MovimentacaoEstoque movimentacao(Long materialId, MovimentacaoEstoque.Tipo tipo, BigDecimal quantidade,
+                                                    Long pedidoId, LocalDateTime agora, Protetico usuario) {
+        return new MovimentacaoEstoque(null, materialId, tipo, quantidade, pedidoId, agora, usuario);
     }
 
     public Material updateStatus(Long id, Boolean isActive) {
@@ -81,25 +192,14 @@ public class MaterialService extends BaseService<Material, Long> {
         return super.save(material);
     }
 
+    /**
+     * Notificações de estoque baixo/zerado, servidas da memória (ver DetectorLimiteEstoque)
+     */
     public Map<String, Object> getNotificacaoEstoque() {
         Map<String, Object> notificacoes = new HashMap<>();
         
         try {
-            // Buscar contadores
-            Long semEstoque = materialRepository.countByStatus(StatusMaterial.SEM_ESTOQUE);
-            Long baixoEstoque = materialRepository.countByStatus(StatusMaterial.BAIXO_ESTOQUE);
-            
-            // Buscar listas de materiais
-            List<Material> materiaisSemEstoque = materialRepository.findByStatusOrderByNomeAsc(StatusMaterial.SEM_ESTOQUE);
-            List<Material> materiaisBaixoEstoque = materialRepository.findByStatusOrderByNomeAsc(StatusMaterial.BAIXO_ESTOQUE);
-            
-            // Montar resposta
-            notificacoes.put("semEstoque", semEstoque != null ? semEstoque.intValue() : 0);
-            notificacoes.put("baixoEstoque", baixoEstoque != null ? baixoEstoque.intValue() : 0);
-            notificacoes.put("total", (semEstoque != null ? semEstoque.intValue() : 0) + (baixoEstoque != null ? baixoEstoque.intValue() : 0));
-            notificacoes.put("materiaisSemEstoque", materiaisSemEstoque);
-            notificacoes.put("materiaisBaixoEstoque", materiaisBaixoEstoque);
-            
+            notificacoes.putAll(detectorLimiteEstoque.getNotificacoes());
         } catch (Exception e) {
             // Em caso de erro, retornar valores padrão
             notificacoes.put("semEstoque", 0);
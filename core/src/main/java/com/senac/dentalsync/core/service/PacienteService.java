@@ -2,6 +2,8 @@ package com.senac.dentalsync.core.service;
 
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.senac.dentalsync.core.event.CadastroAlteradoEvent;
+import com.senac.dentalsync.core.event.PedidoAlteradoEvent;
 import com.senac.dentalsync.core.persistency.model.Paciente;
 import com.senac.dentalsync.core.persistency.repository.PacienteRepository;
 import com.senac.dentalsync.core.persistency.repository.PedidoRepository;
@@ -119,10 +121,12 @@ public class PacienteService extends BaseService<Paciente, Long> {
         
         // Deleta todos os pedidos associados ao paciente primeiro
         List<Pedido> pedidos = pedidoRepository.findByCliente(paciente);
+        pedidos.forEach(pedido -> publicarEvento(PedidoAlteradoEvent.removido(pedido)));
         pedidoRepository.deleteAll(pedidos);
         
         // Agora pode deletar o paciente
         repository.deleteById(id);
+        publicarEvento(CadastroAlteradoEvent.removido(CadastroAlteradoEvent.Tipo.PACIENTE, id));
     }
     
     public Paciente updateStatus(Long id, Boolean isActive) {
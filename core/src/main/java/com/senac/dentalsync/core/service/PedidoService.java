@@ -1,27 +1,30 @@
 package com.senac.dentalsync.core.service;
 
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.senac.dentalsync.core.event.PedidoAlteradoEvent;
 import com.senac.dentalsync.core.persistency.model.Dentista;
 import com.senac.dentalsync.core.persistency.model.Paciente;
 import com.senac.dentalsync.core.persistency.model.Pedido;
 import com.senac.dentalsync.core.persistency.model.Protetico;
 import com.senac.dentalsync.core.persistency.repository.BaseRepository;
 import com.senac.dentalsync.core.persistency.repository.PedidoRepository;
+import com.senac.dentalsync.core.dto.ConsumoMaterialDTO;
 import com.senac.dentalsync.core.dto.HistoricoProteticoDTO;
 import com.senac.dentalsync.core.persistency.model.Servico;
 import com.senac.dentalsync.core.dto.HistoricoPacienteDTO;
 import com.senac.dentalsync.core.dto.HistoricoDentistaDTO;
-import com.senac.dentalsync.core.persistency.model.Material;
-import com.senac.dentalsync.core.persistency.model.ServicoMaterial;
 import com.senac.dentalsync.core.persistency.repository.ServicoMaterialRepository;
 
 @Service
@@ -36,6 +39,9 @@ public class PedidoService extends BaseService<Pedido, Long> {
     @Autowired
     private ServicoMaterialRepository servicoMaterialRepository;
 
+    @Autowired
+    private RetentativaConcorrencia retentativaConcorrencia;
+
     @Override
     protected BaseRepository<Pedido, Long> getRepository() {
         return pedidoRepository;
@@ -43,15 +49,41 @@ public class PedidoService extends BaseService<Pedido, Long> {
 
     // getUsuarioLogado() agora é implementado no BaseService
 
+    /**
+     * Salva o pedido em transação própria, repetindo em caso de conflito de concorrência
+     * (ex.: pedidos simultâneos disputando as mesmas linhas de material)
+     */
     @Override
-    @Transactional
     public Pedido save(Pedido pedido) {
-        // Se é um pedido novo, desconta material do estoque
+        boolean novo = pedido.getId() == null;
+        // Uma tentativa desfeita pode ter deixado o id gerado no objeto; o pedido novo volta a ser novo
+        return retentativaConcorrencia.executar("salvar pedido",
+            () -> { if (novo) pedido.setId(null); },
+            () -> salvarNaTransacao(pedido));
+    }
+
+    private Pedido salvarNaTransacao(Pedido pedido) {
+        PedidoAlteradoEvent.Estado anterior = null;
+        Map<Long, BigDecimal> consumoPorMaterial = Map.of();
         if (pedido.getId() == null) {
-            descontarMaterialDoEstoque(pedido);
+            // Se é um pedido novo, desconta material do estoque
+            consumoPorMaterial = descontarMaterialDoEstoque(pedido);
+        } else {
+            // Estado gravado antes da alteração, para o delta dos indicadores do dashboard
+            Long id = pedido.getId();
+            anterior = new PedidoAlteradoEvent.Estado(id,
+                pedidoRepository.findCreatedAtGravadoById(id).orElse(null),
+                pedidoRepository.findStatusGravadoById(id).orElse(null),
+                pedidoRepository.findServicoIdsGravadosById(id));
         }
         
-        return super.save(pedido);
+        Pedido salvo = super.save(pedido);
+        if (salvo != null) {
+            // Com o id do pedido em mãos, as baixas entram no livro de movimentações
+            materialService.registrarBaixaPedido(salvo.getId(), consumoPorMaterial);
+            publicarEvento(new PedidoAlteradoEvent(anterior, PedidoAlteradoEvent.Estado.de(salvo)));
+        }
+        return salvo;
     }
 
     /**
@@ -69,6 +101,7 @@ public class PedidoService extends BaseService<Pedido, Long> {
             
             // DELETE REAL - O trigger do banco fará o backup automaticamente
             getRepository().delete(pedido);
+            publicarEvento(PedidoAlteradoEvent.removido(pedido));
             
             System.out.println("✅ PEDIDO DELETADO FISICAMENTE - ID: " + id);
         } else {
@@ -77,52 +110,35 @@ public class PedidoService extends BaseService<Pedido, Long> {
     }
 
     /**
-     * Desconta os materiais do estoque quando um novo pedido é criado
+     * Desconta os materiais do estoque quando um novo pedido é criado.
+     * Uma consulta traz o consumo de todos os serviços do pedido; as quantidades são somadas
+     * por material e cada material recebe um único UPDATE condicional (ver MaterialService.descontarEstoque)
+     * @return quantidade descontada por id do material
      */
-    private void descontarMaterialDoEstoque(Pedido pedido) {
+    private Map<Long, BigDecimal> descontarMaterialDoEstoque(Pedido pedido) {
         if (pedido.getServicos() == null || pedido.getServicos().isEmpty()) {
-            return; // Não há serviços, não precisa descontar material
+            return Map.of(); // Não há serviços, não precisa descontar material
         }
 
+        // Um serviço repetido no pedido consome os materiais mais de uma vez
+        Map<Long, Integer> ocorrenciasPorServico = new HashMap<>();
         for (Servico servico : pedido.getServicos()) {
-            // Busca todos os materiais associados ao serviço
-            List<ServicoMaterial> servicoMateriais = servicoMaterialRepository.findByServicoId(servico.getId());
-            
-            for (ServicoMaterial servicoMaterial : servicoMateriais) {
-                descontarMaterial(servicoMaterial);
-            }
-        }
-    }
-
-    /**
-     * Desconta a quantidade de um material específico do estoque
-     */
-    private void descontarMaterial(ServicoMaterial servicoMaterial) {
-        BigDecimal quantidadeNecessaria = servicoMaterial.getQuantidade();
-        
-        // Ignora materiais com quantidade zero ou nula
-        if (quantidadeNecessaria == null || quantidadeNecessaria.compareTo(BigDecimal.ZERO) <= 0) {
-            return;
+            ocorrenciasPorServico.merge(servico.getId(), 1, Integer::sum);
         }
 
-        // Busca o material atual no banco
-        Material material = materialService.getRepository()
-                .findById(servicoMaterial.getMaterial().getId())
-                .orElseThrow(() -> new RuntimeException("Material não encontrado: " + servicoMaterial.getMaterial().getId()));
-
-        // Verifica se há estoque suficiente
-        BigDecimal estoqueAtual = material.getQuantidade();
-        if (estoqueAtual == null || estoqueAtual.compareTo(quantidadeNecessaria) < 0) {
-            throw new RuntimeException("Estoque insuficiente para o material: " + material.getNome() + 
-                                     " (Disponível: " + estoqueAtual + ", Necessário: " + quantidadeNecessaria + ")");
+        Map<Long, BigDecimal> consumoPorMaterial = new HashMap<>();
+        for (ConsumoMaterialDTO consumo : servicoMaterialRepository.findConsumoByServicoIdIn(ocorrenciasPorServico.keySet())) {
+            BigDecimal quantidade = consumo.getQuantidade();
+            // Ignora materiais com quantidade zero ou nula
+            if (quantidade == null || quantidade.compareTo(BigDecimal.ZERO) <= 0) {
+                continue;
+            }
+            BigDecimal total = quantidade.multiply(BigDecimal.valueOf(ocorrenciasPorServico.get(consumo.getServicoId())));
+            consumoPorMaterial.merge(consumo.getMaterialId(), total, BigDecimal::add);
         }
 
-        // Desconta a quantidade do estoque
-        BigDecimal novoEstoque = estoqueAtual.subtract(quantidadeNecessaria);
-        material.setQuantidade(novoEstoque);
-        
-        // Salva o material com o novo estoque
-        materialService.save(material);
+        materialService.descontarEstoque(consumoPorMaterial);
+        return consumoPorMaterial;
     }
 
     public List<Pedido> findByDentista(Dentista dentista) {
@@ -146,75 +162,26 @@ public class PedidoService extends BaseService<Pedido, Long> {
     }
 
     public List<HistoricoProteticoDTO> buscarHistoricoPorProtetico(Long proteticoId) {
-        Protetico protetico = new Protetico();
-        protetico.setId(proteticoId);
-        List<Pedido> pedidos = pedidoRepository.findByProtetico(protetico);
-        List<HistoricoProteticoDTO> historico = new ArrayList<>();
-        for (Pedido pedido : pedidos) {
-            HistoricoProteticoDTO dto = new HistoricoProteticoDTO();
-            // Pega o primeiro serviço (ou adapte conforme sua regra)
-            if (pedido.getServicos() != null && !pedido.getServicos().isEmpty()) {
-                Servico servico = pedido.getServicos().get(0);
-                dto.setNomeServico(servico.getNome());
-            } else {
-                dto.setNomeServico("Serviço não informado");
-            }
-            dto.setNomePaciente(pedido.getCliente().getNome());
-            dto.setNomeDentista(pedido.getDentista().getNome());
-            dto.setDataEntrega(pedido.getDataEntrega());
-            // Soma dos valores dos serviços
-            BigDecimal valorTotal = pedido.getServicos().stream()
-                .map(servico -> servico.getValorTotal() != null ? servico.getValorTotal() : servico.getPreco())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-            dto.setValorTotal(valorTotal);
-            historico.add(dto);
-        }
-        return historico;
+        return pedidoRepository.findHistoricoPorProtetico(proteticoId, Pageable.unpaged()).getContent();
+    }
+
+    public Page<HistoricoProteticoDTO> buscarHistoricoPorProtetico(Long proteticoId, Pageable pageable) {
+        return pedidoRepository.findHistoricoPorProtetico(proteticoId, pageable);
     }
 
     public List<HistoricoPacienteDTO> buscarHistoricoPorPaciente(Long pacienteId) {
-        Paciente paciente = new Paciente();
-        paciente.setId(pacienteId);
-        List<Pedido> pedidos = pedidoRepository.findByCliente(paciente);
-        List<HistoricoPacienteDTO> historico = new ArrayList<>();
-        for (Pedido pedido : pedidos) {
-            HistoricoPacienteDTO dto = new HistoricoPacienteDTO();
-            if (pedido.getServicos() != null && !pedido.getServicos().isEmpty()) {
-                dto.setNomeServico(pedido.getServicos().get(0).getNome());
-            } else {
-                dto.setNomeServico("Serviço não informado");
-            }
-            dto.setNomeDentista(pedido.getDentista().getNome());
-            dto.setDataEntrega(pedido.getDataEntrega());
-            BigDecimal valorTotal = pedido.getServicos().stream()
-                .map(servico -> servico.getValorTotal() != null ? servico.getValorTotal() : servico.getPreco())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-            dto.setValorTotal(valorTotal);
-            historico.add(dto);
-        }
-        return historico;
+        return pedidoRepository.findHistoricoPorPaciente(pacienteId, Pageable.unpaged()).getContent();
+    }
+
+    public Page<HistoricoPacienteDTO> buscarHistoricoPorPaciente(Long pacienteId, Pageable pageable) {
+        return pedidoRepository.findHistoricoPorPaciente(pacienteId, pageable);
     }
 
     public List<HistoricoDentistaDTO> buscarHistoricoPorDentista(Long dentistaId) {
-        Dentista dentista = new Dentista();
-        dentista.setId(dentistaId);
-        List<Pedido> pedidos = pedidoRepository.findByDentista(dentista);
-        List<HistoricoDentistaDTO> historico = new ArrayList<>();
-        for (Pedido pedido : pedidos) {
-            HistoricoDentistaDTO dto = new HistoricoDentistaDTO();
-            if (pedido.getServicos() != null && !pedido.getServicos().isEmpty()) {
-                dto.setNomeServico(pedido.getServicos().get(0).getNome());
-            } else {
-                dto.setNomeServico("Serviço não informado");
-            }
-            dto.setNomePaciente(pedido.getCliente().getNome());
-            dto.setDataEntrega(pedido.getDataEntrega());
-            BigDecimal valorTotal = pedido.getServicos().stream()
-                .map(servico -> servico.getValorTotal() != null ? servico.getValorTotal() : servico.getPreco())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-            dto.setValorTotal(valorTotal);
-            historico.add(dto);
-        }
-        return historico;
+        return pedidoRepository.findHistoricoPorDentista(dentistaId, Pageable.unpaged()).getContent();
+    }
+
+    public Page<HistoricoDentistaDTO> buscarHistoricoPorDentista(Long dentistaId, Pageable pageable) {
+        return pedidoRepository.findHistoricoPorDentista(dentistaId, pageable);
     }
 } 
\ No newline at end of file
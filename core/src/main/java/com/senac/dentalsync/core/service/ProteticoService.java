@@ -1,29 +1,35 @@
 package com.senac.dentalsync.core.service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.context.ApplicationContext;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.Authentication;
 
+import com.senac.dentalsync.core.event.CadastroAlteradoEvent;
 import com.senac.dentalsync.core.persistency.model.Laboratorio;
 import com.senac.dentalsync.core.persistency.model.Protetico;
 import com.senac.dentalsync.core.persistency.repository.BaseRepository;
+import com.senac.dentalsync.core.persistency.repository.ProteticoAuthStateRepository;
 import com.senac.dentalsync.core.persistency.repository.ProteticoRepository;
 import com.senac.dentalsync.core.util.PasswordValidator;
 
 @Service
-public class ProteticoService extends BaseService<Protetico, Long> implements UserDetailsService {
+public class ProteticoService extends BaseService<Protetico, Long> implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProteticoService.class);
 
     @Autowired
     private ProteticoRepository proteticoRepository;
@@ -31,6 +37,12 @@ public class ProteticoService extends BaseService<Protetico, Long> implements Us
     @Autowired
     private ApplicationContext applicationContext;
 
+    @Autowired
+    private StatusProteticoCache statusProteticoCache;
+
+    @Autowired
+    private ProteticoAuthStateRepository proteticoAuthStateRepository;
+
     @Override
     protected BaseRepository<Protetico, Long> getRepository() {
         return proteticoRepository;
@@ -40,41 +52,32 @@ public class ProteticoService extends BaseService<Protetico, Long> implements Us
     
     @Override
     public Protetico save(Protetico protetico) {
-        System.out.println("=== Salvando protético: " + protetico.getEmail() + " ===");
-        System.out.println("ID do protético: " + protetico.getId());
+        log.debug("Salvando protético: email={} id={}", protetico.getEmail(), protetico.getId());
         
         // Se é um novo protético (ID null) e não tem laboratório associado, 
         // associar automaticamente com o laboratório do usuário logado
         if (protetico.getId() == null && protetico.getLaboratorio() == null) {
             try {
-                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-                if (authentication != null && authentication.isAuthenticated() && 
-                    !authentication.getName().equals("anonymousUser")) {
-                    
-                    String emailUsuarioLogado = authentication.getName();
-                    System.out.println("Usuário logado: " + emailUsuarioLogado);
-                    
-                    Optional<Laboratorio> laboratorioOpt = findLaboratorioByEmail(emailUsuarioLogado);
-                    if (laboratorioOpt.isPresent()) {
-                        protetico.setLaboratorio(laboratorioOpt.get());
-                        System.out.println("Laboratório setado automaticamente para o novo protético");
-                    } else {
-                        System.out.println("Laboratório não encontrado para o usuário logado: " + emailUsuarioLogado);
-                    }
+                // Reaproveita o protético logado já resolvido nesta requisição
+                Protetico usuarioLogado = getUsuarioLogado();
+                if (usuarioLogado != null && usuarioLogado.getLaboratorio() != null) {
+                    protetico.setLaboratorio(usuarioLogado.getLaboratorio());
+                    log.debug("Laboratório setado automaticamente para o novo protético");
+                } else {
+                    log.debug("Laboratório não encontrado para o usuário logado");
                 }
             } catch (Exception e) {
-                System.out.println("Erro ao obter laboratório do usuário logado: " + e.getMessage());
+                log.warn("Erro ao obter laboratório do usuário logado: {}", e.getMessage());
                 // Não interrompe o processo, apenas não associa o laboratório
             }
         }
         
         // Para atualizações, se a senha é null, mantenha a senha existente
         if (protetico.getId() != null && protetico.getSenha() == null) {
-            System.out.println("Senha não fornecida na atualização - mantendo senha existente");
+            log.debug("Senha não fornecida na atualização - mantendo senha existente");
             Protetico existente = findById(protetico.getId()).orElse(null);
             if (existente != null) {
                 protetico.setSenha(existente.getSenha());
-                System.out.println("Senha existente mantida");
             }
         }
         
@@ -85,8 +88,7 @@ public class ProteticoService extends BaseService<Protetico, Long> implements Us
             PasswordEncoder passwordEncoder = applicationContext.getBean(PasswordEncoder.class);
             
             boolean senhaFoiAlterada = isSenhaAlterada(protetico, passwordEncoder);
-            System.out.println("Senha foi alterada: " + senhaFoiAlterada);
-            System.out.println("Senha atual (primeiros 10 chars): " + (protetico.getSenha() != null ? protetico.getSenha().substring(0, Math.min(10, protetico.getSenha().length())) : "null"));
+            log.debug("Senha foi alterada: {}", senhaFoiAlterada);
             
             if (protetico.getId() == null || senhaFoiAlterada) {
                 // Verificar se a senha não está criptografada antes de validar
@@ -94,23 +96,23 @@ public class ProteticoService extends BaseService<Protetico, Long> implements Us
                 
                 if (!senhaJaCriptografada) {
                     // Validar critérios de complexidade da senha apenas se não estiver criptografada
-                    System.out.println("Validando critérios de complexidade da senha...");
+                    log.debug("Validando critérios de complexidade da senha");
                     PasswordValidator.validatePassword(protetico.getSenha());
-                    System.out.println("Senha atende aos critérios de complexidade");
                 }
                 
-                System.out.println("Criptografando senha...");
                 protetico.setSenha(passwordEncoder.encode(protetico.getSenha()));
-                System.out.println("Senha criptografada (primeiros 10 chars): " + protetico.getSenha().substring(0, 10));
+                log.debug("Senha criptografada para o protético {}", protetico.getEmail());
             } else {
-                System.out.println("Mantendo senha existente");
+                log.debug("Mantendo senha existente");
             }
         } else {
-            System.out.println("Senha é null - não processando");
+            log.debug("Senha é null - não processando");
         }
         
+        boolean novo = protetico.getId() == null;
         Protetico savedProtetico = super.save(protetico);
-        System.out.println("Protético salvo com sucesso");
+        invalidarStatus(novo, protetico.getEmail());
+        log.debug("Protético salvo: {}", protetico.getEmail());
         return savedProtetico;
     }
     
@@ -197,14 +199,15 @@ public class ProteticoService extends BaseService<Protetico, Long> implements Us
         Protetico protetico = findById(id)
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Protético não encontrado"));
         
-        System.out.println("🔄 Atualizando status do protético ID: " + id + " de " + protetico.getIsActive() + " para " + isActive);
+        log.info("Atualizando status do protético id={} de {} para {}", id, protetico.getIsActive(), isActive);
         
         protetico.setIsActive(isActive);
         
         // Usar super.save() diretamente para evitar verificação de duplicidade e lógica de senha
         Protetico savedProtetico = super.save(protetico);
+        // A desativação precisa valer já na próxima requisição do protético
+        statusProteticoCache.invalidar(protetico.getEmail());
         
-        System.out.println("✅ Status atualizado com sucesso para: " + savedProtetico.getIsActive());
         return savedProtetico;
     }
     
@@ -224,17 +227,30 @@ public class ProteticoService extends BaseService<Protetico, Long> implements Us
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Erro ao excluir protético");
         }
+        statusProteticoCache.invalidar(protetico.getEmail());
+        publicarEvento(CadastroAlteradoEvent.removido(CadastroAlteradoEvent.Tipo.PROTETICO, id));
+    }
+
+    /**
+     * Edição pode ter trocado o email (a situação guardada pelo email antigo ficaria valendo): descarta tudo.
+     * Cadastro novo só invalida o próprio email, que pode estar guardado como inexistente
+     */
+    private void invalidarStatus(boolean novo, String email) {
+        if (novo) {
+            statusProteticoCache.invalidar(email);
+        } else {
+            statusProteticoCache.invalidarTodos();
+        }
     }
 
     private boolean isSenhaAlterada(Protetico protetico, PasswordEncoder passwordEncoder) {
         if (protetico.getId() == null) {
-            System.out.println("Novo usuário - senha precisa ser criptografada");
             return true;
         }
         
         Protetico existente = findById(protetico.getId()).orElse(null);
         if (existente == null) {
-            System.out.println("Usuário existente não encontrado - senha precisa ser criptografada");
+            log.debug("Protético {} não encontrado - senha precisa ser criptografada", protetico.getId());
             return true;
         }
         
@@ -246,25 +262,23 @@ public class ProteticoService extends BaseService<Protetico, Long> implements Us
         boolean senhaExistenteJaCriptografada = existente.getSenha() != null && 
             (existente.getSenha().startsWith("$2a$") || existente.getSenha().startsWith("$2b$"));
             
-        System.out.println("Senha atual já criptografada: " + senhaAtualJaCriptografada);
-        System.out.println("Senha existente já criptografada: " + senhaExistenteJaCriptografada);
+        log.debug("Senha atual já criptografada: {}, senha existente já criptografada: {}",
+            senhaAtualJaCriptografada, senhaExistenteJaCriptografada);
         
         // Se a senha atual já está criptografada e é igual à existente, não alterar
         if (senhaAtualJaCriptografada && senhaExistenteJaCriptografada) {
             boolean senhasSaoIguais = protetico.getSenha().equals(existente.getSenha());
-            System.out.println("Senhas criptografadas são iguais: " + senhasSaoIguais);
             return !senhasSaoIguais; // Retorna false se são iguais (não foi alterada)
         }
         
         // Se a senha atual não está criptografada, verificar se corresponde à existente
         if (!senhaAtualJaCriptografada && senhaExistenteJaCriptografada) {
             boolean senhaCorresponde = passwordEncoder.matches(protetico.getSenha(), existente.getSenha());
-            System.out.println("Senha corresponde à existente: " + senhaCorresponde);
             return !senhaCorresponde; // Retorna false se corresponde (não foi alterada)
         }
         
         // Caso padrão: considera que foi alterada
-        System.out.println("Caso padrão - considerando senha alterada");
+        log.debug("Caso padrão - considerando senha alterada");
         return true;
     }
 
@@ -279,15 +293,56 @@ public class ProteticoService extends BaseService<Protetico, Long> implements Us
                 .build();
     }
 
+    /**
+     * Chamado pelo provider de autenticação após um login válido cujo hash foi gravado com outro custo
+     * do BCrypt: grava o hash novo (já calculado a partir da senha digitada) só na coluna da senha
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String novoHash) {
+        proteticoAuthStateRepository.atualizarSenhaPorEmail(user.getUsername(), novoHash, LocalDateTime.now());
+        log.info("Hash de senha refeito com o custo atual para {}", user.getUsername());
+        return User.withUserDetails(user).password(novoHash).build();
+    }
+
     /**
      * Salva o protético sem verificar/alterar a senha
      * Usado para operações como ativação de 2FA onde não queremos tocar na senha
      */
     public Protetico saveWithoutPasswordChange(Protetico protetico) {
-        System.out.println("=== Salvando protético SEM alterar senha: " + protetico.getEmail() + " ===");
+        log.debug("Salvando protético sem alterar senha: {}", protetico.getEmail());
         verificarDuplicidade(protetico);
+        boolean novo = protetico.getId() == null;
         Protetico savedProtetico = super.save(protetico);
-        System.out.println("Protético salvo sem alteração de senha");
+        invalidarStatus(novo, protetico.getEmail());
         return savedProtetico;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Grava só os campos de 2FA (segredo e ativo) que já estão no protético, com um UPDATE direto
+     */
+    public void atualizarTwoFactor(Protetico protetico) {
+        int alterados = proteticoAuthStateRepository.atualizarTwoFactor(protetico.getId(),
+            protetico.getTwoFactorSecret(), Boolean.TRUE.equals(protetico.getTwoFactorEnabled()), LocalDateTime.now());
+        if (alterados == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Protético não encontrado");
+        }
+        log.debug("2FA do protético {} atualizado: ativo={}", protetico.getEmail(), protetico.getTwoFactorEnabled());
+    }
+
+    /**
+     * Troca a senha do protético: valida a complexidade, criptografa e grava só a coluna da senha.
+     * O protético recebido fica com a senha criptografada
+     */
+    public void atualizarSenha(Protetico protetico, String novaSenha) {
+        PasswordValidator.validatePassword(novaSenha);
+        PasswordEncoder passwordEncoder = applicationContext.getBean(PasswordEncoder.class);
+        String senhaCriptografada = passwordEncoder.encode(novaSenha);
+
+        int alterados = proteticoAuthStateRepository.atualizarSenha(protetico.getId(), senhaCriptografada, LocalDateTime.now());
+        if (alterados == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Protético não encontrado");
+        }
+        protetico.setSenha(senhaCriptografada);
+        log.debug("Senha do protético {} atualizada", protetico.getEmail());
+    }
+}
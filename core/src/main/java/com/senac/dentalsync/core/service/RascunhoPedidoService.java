@@ -0,0 +1,216 @@
+package com.senac.dentalsync.core.service;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.senac.dentalsync.core.dto.PedidoDTO;
+import com.senac.dentalsync.core.dto.RascunhoPedidoDTO;
+import com.senac.dentalsync.core.persistency.model.Pedido;
+import com.senac.dentalsync.core.persistency.repository.DentistaRepository;
+import com.senac.dentalsync.core.persistency.repository.PacienteRepository;
+import com.senac.dentalsync.core.persistency.repository.ProteticoRepository;
+import com.senac.dentalsync.core.persistency.repository.ServicoRepository;
+
+/**
+ * Monta o rascunho de pedido a partir da extração do STT ({"output": "{cliente_id, dentista_id,
+ * protetico_id, servicos: [{id, quantidade}], dentes, prioridade, data}"}). Os IDs devolvidos pela IA são
+ * conferidos nas tabelas (só registros ativos, uma consulta por tipo, sem carregar entidades) e o que não
+ * bate vira pendência em vez de ir para o pedido
+ */
+@Service
+public class RascunhoPedidoService {
+
+    private static final DateTimeFormatter DATA_BR = DateTimeFormatter.ofPattern("dd/MM/uuuu")
+        .withResolverStyle(ResolverStyle.STRICT);
+
+    private final PacienteRepository pacienteRepository;
+    private final DentistaRepository dentistaRepository;
+    private final ProteticoRepository proteticoRepository;
+    private final ServicoRepository servicoRepository;
+    private final ObjectMapper objectMapper;
+
+    public RascunhoPedidoService(PacienteRepository pacienteRepository,
+                                 DentistaRepository dentistaRepository,
+                                 ProteticoRepository proteticoRepository,
+                                 ServicoRepository servicoRepository,
+                                 ObjectMapper objectMapper) {
+        this.pacienteRepository = pacienteRepository;
+        this.dentistaRepository = dentistaRepository;
+        this.proteticoRepository = proteticoRepository;
+        this.servicoRepository = servicoRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public RascunhoPedidoDTO montar(Object respostaStt) {
+        RascunhoPedidoDTO rascunho = new RascunhoPedidoDTO();
+        PedidoDTO pedido = rascunho.getPedido();
+        pedido.setStatus(Pedido.Status.PENDENTE);
+
+        Map<String, Object> dados = extrairDados(respostaStt);
+        if (dados == null) {
+            rascunho.getPendencias().add("A resposta da IA não trouxe dados estruturados");
+            return rascunho;
+        }
+
+        resolver(dados.get("cliente_id"), "Cliente", "cliente", pacienteRepository::findNomeByIdAndIsActiveTrue, rascunho)
+            .ifPresent(id -> {
+                PedidoDTO.ClienteDTO cliente = new PedidoDTO.ClienteDTO();
+                cliente.setId(id);
+                pedido.setCliente(cliente);
+            });
+        resolver(dados.get("dentista_id"), "Dentista", "dentista", dentistaRepository::findNomeByIdAndIsActiveTrue, rascunho)
+            .ifPresent(id -> {
+                PedidoDTO.DentistaDTO dentista = new PedidoDTO.DentistaDTO();
+                dentista.setId(id);
+                pedido.setDentista(dentista);
+            });
+        resolver(dados.get("protetico_id"), "Protético", "protetico", proteticoRepository::findNomeByIdAndIsActiveTrue, rascunho)
+            .ifPresent(id -> {
+                PedidoDTO.ProteticoDTO protetico = new PedidoDTO.ProteticoDTO();
+                protetico.setId(id);
+                pedido.setProtetico(protetico);
+            });
+
+        resolverServicos(dados.get("servicos"), rascunho);
+
+        if (dados.get("dentes") instanceof List<?> dentes && !dentes.isEmpty()) {
+            pedido.setOdontograma(dentes.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+
+        Object prioridade = dados.get("prioridade");
+        if (prioridade == null || prioridade.toString().isBlank()) {
+            rascunho.getPendencias().add("Prioridade não informada");
+        } else {
+            pedido.setPrioridade(prioridade(prioridade.toString()));
+            if (pedido.getPrioridade() == null) {
+                rascunho.getPendencias().add("Prioridade não reconhecida: " + prioridade);
+            }
+        }
+
+        Object data = dados.get("data");
+        if (data == null || data.toString().isBlank()) {
+            rascunho.getPendencias().add("Data de entrega não informada");
+        } else {
+            try {
+                pedido.setDataEntrega(LocalDate.parse(data.toString().trim(), DATA_BR));
+            } catch (DateTimeParseException e) {
+                rascunho.getPendencias().add("Data de entrega inválida: " + data);
+            }
+        }
+        return rascunho;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> extrairDados(Object respostaStt) {
+        if (!(respostaStt instanceof Map<?, ?> resposta) || resposta.containsKey("rawResponse")) {
+            return null;
+        }
+        Object output = resposta.get("output");
+        if (output == null) {
+            return (Map<String, Object>) resposta;
+        }
+        if (output instanceof Map<?, ?> mapa) {
+            return (Map<String, Object>) mapa;
+        }
+        try {
+            return objectMapper.readValue(output.toString(), new TypeReference<Map<String, Object>>() { });
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private Optional<Long> resolver(Object valor, String rotulo, String chave,
+                                    Function<Long, Optional<String>> buscarNome, RascunhoPedidoDTO rascunho) {
+        Long id = comoId(valor);
+        if (id == null) {
+            rascunho.getPendencias().add(rotulo + " não informado");
+            return Optional.empty();
+        }
+        Optional<String> nome = buscarNome.apply(id);
+        if (nome.isEmpty()) {
+            rascunho.getPendencias().add(rotulo + " não encontrado (ID " + id + ")");
+            return Optional.empty();
+        }
+        rascunho.getNomes().put(chave, nome.get());
+        return Optional.of(id);
+    }
+
+    /**
+     * Serviços repetidos somam a quantidade (mesma regra do formulário de pedido)
+     */
+    private void resolverServicos(Object valor, RascunhoPedidoDTO rascunho) {
+        Map<Long, Integer> quantidades = new LinkedHashMap<>();
+        if (valor instanceof List<?> itens) {
+            for (Object item : itens) {
+                Long id = item instanceof Map<?, ?> mapa ? comoId(mapa.get("id")) : comoId(item);
+                if (id == null) {
+                    continue;
+                }
+                int quantidade = item instanceof Map<?, ?> mapa && mapa.get("quantidade") instanceof Number numero
+                    ? Math.max(1, numero.intValue()) : 1;
+                quantidades.merge(id, quantidade, Integer::sum);
+            }
+        }
+        if (quantidades.isEmpty()) {
+            rascunho.getPendencias().add("Nenhum serviço informado");
+            return;
+        }
+
+        Map<Long, String> nomes = new LinkedHashMap<>();
+        for (Object[] linha : servicoRepository.findNomesByIdInAndIsActiveTrue(quantidades.keySet())) {
+            nomes.put(((Number) linha[0]).longValue(), (String) linha[1]);
+        }
+        List<PedidoDTO.ServicoComQuantidadeDTO> servicos = new ArrayList<>();
+        quantidades.forEach((id, quantidade) -> {
+            String nome = nomes.get(id);
+            if (nome == null) {
+                rascunho.getPendencias().add("Serviço não encontrado (ID " + id + ")");
+                return;
+            }
+            PedidoDTO.ServicoComQuantidadeDTO servico = new PedidoDTO.ServicoComQuantidadeDTO();
+            servico.setId(id);
+            servico.setQuantidade(quantidade);
+            servicos.add(servico);
+            rascunho.getNomes().put("servico:" + id, nome);
+        });
+        rascunho.getPedido().setServicos(servicos);
+    }
+
+    private static Long comoId(Object valor) {
+        if (valor instanceof Number numero) {
+            return numero.longValue();
+        }
+        if (valor instanceof String texto && texto.matches("\\d+")) {
+            return Long.valueOf(texto);
+        }
+        return null;
+    }
+
+    private static Pedido.Prioridade prioridade(String valor) {
+        String semAcento = Normalizer.normalize(valor.trim(), Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "")
+            .toUpperCase(Locale.ROOT);
+        try {
+            return Pedido.Prioridade.valueOf(semAcento);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -2,46 +2,77 @@ package com.senac.dentalsync.core.service;
 
 import com.senac.dentalsync.core.dto.*;
 import com.senac.dentalsync.core.persistency.repository.PedidoRepository;
-import com.senac.dentalsync.core.persistency.repository.DentistaRepository;
 import com.senac.dentalsync.core.persistency.model.Pedido;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class RelatorioService {
+    private static final Logger log = LoggerFactory.getLogger(RelatorioService.class);
+
+    public static final String SECAO_INDICADORES = "indicadores";
+    public static final String SECAO_PEDIDOS_RECENTES = "pedidosRecentes";
+
     private final PedidoRepository pedidoRepository;
-    private final DentistaRepository dentistaRepository;
+    private final IndicadorDashboardService indicadorDashboardService;
+    private final PlatformTransactionManager transactionManager;
+    private final ExecutorSecoesDashboard executorSecoes;
+
+    @Value("${dentalsync.dashboard.timeout.indicadores-ms:1500}")
+    private long timeoutIndicadoresMs = 1500;
 
-    @Transactional(readOnly = true)
+    @Value("${dentalsync.dashboard.timeout.pedidos-recentes-ms:1500}")
+    private long timeoutPedidosRecentesMs = 1500;
+
+    /**
+     * Monta o dashboard com as seções consultadas em paralelo (ver ExecutorSecoesDashboard).
+     * Sem @Transactional aqui: a thread da requisição só espera, não deve segurar uma conexão
+     * enquanto as seções usam outras do pool
+     */
     public RelatorioDTO obterDadosDashboard() {
         LocalDateTime dataAtual = LocalDateTime.now();
-        LocalDateTime inicioMesAtual = dataAtual.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
-        LocalDateTime inicioMesAnterior = inicioMesAtual.minusMonths(1);
+        YearMonth mesAtual = YearMonth.from(dataAtual);
+
+        // Contadores mantidos incrementalmente (ver IndicadorDashboardService): totais e gráficos saem de uma única leitura
+        ExecutorSecoesDashboard.Secao<IndicadoresDashboard> secaoIndicadores = executorSecoes.iniciar(
+            SECAO_INDICADORES, Duration.ofMillis(timeoutIndicadoresMs),
+            indicadorDashboardService::carregar, new IndicadoresDashboard(List.of(), Map.of()));
+
+        ExecutorSecoesDashboard.Secao<List<PedidosRecentesDTO>> secaoPedidosRecentes = executorSecoes.iniciar(
+            SECAO_PEDIDOS_RECENTES, Duration.ofMillis(timeoutPedidosRecentesMs),
+            this::carregarPedidosRecentes, List.of());
+
+        List<String> secoesIndisponiveis = new ArrayList<>();
+        IndicadoresDashboard indicadores = secaoIndicadores.obter(secoesIndisponiveis);
+        List<PedidosRecentesDTO> pedidosRecentes = secaoPedidosRecentes.obter(secoesIndisponiveis);
 
         // Obtém dados atuais
-        Long totalPedidos = pedidoRepository.count();
-        Long pedidosConcluidos = pedidoRepository.countByStatus(Pedido.Status.CONCLUIDO);
-        Long dentistasAtivos = dentistaRepository.countByIsActiveTrue();
+        Long totalPedidos = indicadores.getTotalPedidos();
+        Long pedidosConcluidos = indicadores.getPedidosPorStatus(Pedido.Status.CONCLUIDO);
+        Long dentistasAtivos = indicadores.getDentistasAtivos();
 
         // Obtém dados do mês anterior (final do mês anterior)
-        Long totalPedidosAnterior = pedidoRepository.countByCreatedAtBefore(inicioMesAtual);
-        Long dentistasAtivosAnterior = dentistaRepository.countByIsActiveTrueAndCreatedAtBefore(inicioMesAtual);
+        Long totalPedidosAnterior = indicadores.getTotalPedidosCriadosAntes(mesAtual);
+        Long dentistasAtivosAnterior = indicadores.getDentistasAtivosCriadosAntes(mesAtual);
         
         // Conta dentistas criados ESTE MÊS especificamente
-        Long dentistasNovosMes = dentistaRepository.countByIsActiveTrueAndCreatedAtBetween(inicioMesAtual, dataAtual);
+        Long dentistasNovosMes = indicadores.getDentistasAtivosCriadosNoMes(mesAtual);
         
-        System.out.println("=== DEBUG RELATÓRIO DENTISTAS ===");
-        System.out.println("Data atual: " + dataAtual);
-        System.out.println("Início mês atual: " + inicioMesAtual);
-        System.out.println("Dentistas ativos total: " + dentistasAtivos);
-        System.out.println("Dentistas ativos anterior: " + dentistasAtivosAnterior);
-        System.out.println("Dentistas novos este mês: " + dentistasNovosMes);
-        System.out.println("===============================");
+        log.debug("Relatório dentistas: dataAtual={} mesAtual={} ativos={} ativosAnterior={} novosMes={}",
+            dataAtual, mesAtual, dentistasAtivos, dentistasAtivosAnterior, dentistasNovosMes);
 
         // Monta o DTO
         RelatorioDTO relatorio = new RelatorioDTO();
@@ -56,32 +87,25 @@ public class RelatorioService {
         relatorio.setDadosAnteriores(dadosAnteriores);
         
         // Dados dos gráficos
-        System.out.println("=== DEBUG PEDIDOS POR MÊS ===");
-        System.out.println("Data para consulta: " + dataAtual);
-        System.out.println("Total de pedidos: " + totalPedidos);
-        
-        // Buscar dados dos últimos 6 meses
-        LocalDateTime inicioConsulta = dataAtual.minusMonths(6);
-        List<Object[]> pedidosPorMesRaw = pedidoRepository.findPedidosPorMes(inicioConsulta);
-        System.out.println("Resultados raw da query pedidos por mês: " + pedidosPorMesRaw.size() + " registros");
-        
-        for (Object[] row : pedidosPorMesRaw) {
-            System.out.println("Mês: " + row[0] + ", Total: " + row[1]);
-        }
-        
-        List<PedidosPorMesDTO> pedidosPorMes = pedidosPorMesRaw.stream()
-            .map(row -> new PedidosPorMesDTO(
-                ((Number) row[0]).intValue(),
-                ((Number) row[1]).longValue()
-            ))
-            .collect(Collectors.toList());
-        relatorio.setPedidosPorMes(pedidosPorMes);
-        
-        relatorio.setPedidosPorTipo(pedidoRepository.findPedidosPorTipo());
-        relatorio.setStatusPedidos(pedidoRepository.findStatusPedidos());
+        // Últimos 6 meses completos, mais o mês atual
+        relatorio.setPedidosPorMes(indicadores.getPedidosPorMes(mesAtual.minusMonths(6), mesAtual));
+        relatorio.setPedidosPorTipo(indicadores.getPercentualPorServico());
+        relatorio.setStatusPedidos(indicadores.getPercentualPorStatus());
         
-        // Pedidos recentes
-        List<PedidosRecentesDTO> pedidosRecentes = pedidoRepository.findPedidosRecentes()
+        relatorio.setPedidosRecentes(pedidosRecentes);
+        relatorio.setSecoesIndisponiveis(secoesIndisponiveis);
+
+        return relatorio;
+    }
+
+    /**
+     * Roda na thread do pool, fora do OSIV: a transação própria mantém a sessão aberta
+     * enquanto os serviços (lazy, via @BatchSize) são lidos
+     */
+    private List<PedidosRecentesDTO> carregarPedidosRecentes() {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(true);
+        return transacao.execute(status -> pedidoRepository.findPedidosRecentes()
             .stream()
             .map(pedido -> new PedidosRecentesDTO(
                 pedido.getId().toString(),
@@ -90,9 +114,6 @@ public class RelatorioService {
                 pedido.getDentista().getNome(),
                 pedido.getCliente().getNome()
             ))
-            .collect(Collectors.toList());
-        relatorio.setPedidosRecentes(pedidosRecentes);
-
-        return relatorio;
+            .collect(Collectors.toList()));
     }
-}
\ No newline at end of file
+}
@@ -1,147 +1,139 @@
 package com.senac.dentalsync.core.service;
 
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
 import com.senac.dentalsync.core.persistency.model.Protetico;
-import java.util.UUID;
-import java.util.Optional;
+import com.senac.dentalsync.core.persistency.model.RememberMeToken;
+import com.senac.dentalsync.core.persistency.repository.RememberMeTokenRepository;
+import com.senac.dentalsync.core.util.HashUtil;
 
+/**
+ * Tokens de "Lembrar de mim". O cookie leva um valor aleatório de 256 bits; no banco fica só o SHA-256
+ * dele, com índice único, então o login pelo cookie é uma busca pelo hash em vez de percorrer os usuários.
+ * Cada dispositivo tem o seu token; os expirados são apagados periodicamente
+ */
 @Service
 public class RememberMeService {
-    
+
+    private static final Logger log = LoggerFactory.getLogger(RememberMeService.class);
+
+    private static final int BYTES_TOKEN = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     @Autowired
     private ProteticoService proteticoService;
-    
+
+    @Autowired
+    private RememberMeTokenRepository rememberMeTokenRepository;
+
     /**
-     * Gera e salva um token de "Lembrar de mim" para o usuário
+     * Gera e salva um token de "Lembrar de mim" para o usuário (mais um dispositivo)
      */
+    @Transactional
     public String generateRememberMeToken(String email, int durationDays) {
-        String token = UUID.randomUUID().toString();
-        
         Optional<Protetico> userOpt = proteticoService.findByEmail(email);
         if (!userOpt.isPresent()) {
-            System.err.println("Usuário não encontrado para gerar token de remember me: " + email);
+            log.warn("Usuário não encontrado para gerar token de remember me: {}", email);
             return null;
         }
-        
-        Protetico user = userOpt.get();
-        
-        // Salvar token no usuário
-        user.setRememberMeToken(token);
-        user.setRememberMeTimestamp(System.currentTimeMillis());
-        user.setRememberMeDurationDays(durationDays);
-        
-        // Salvar no banco de dados
-        proteticoService.save(user);
-        
-        System.out.println("=== TOKEN REMEMBER ME GERADO ===");
-        System.out.println("Email: " + email);
-        System.out.println("Token: " + token);
-        System.out.println("Duração: " + durationDays + " dias");
-        System.out.println("Salvo no banco de dados");
-        System.out.println("===============================");
-        
+
+        byte[] bytes = new byte[BYTES_TOKEN];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime agora = LocalDateTime.now();
+        RememberMeToken registro = new RememberMeToken();
+        registro.setProtetico(userOpt.get());
+        registro.setTokenHash(hash(token));
+        registro.setExpiraEm(agora.plusDays(durationDays));
+        registro.setCreatedAt(agora);
+        rememberMeTokenRepository.save(registro);
+
+        log.info("Token de remember me gerado para {} ({} dias)", email, durationDays);
         return token;
     }
-    
+
     /**
-     * Valida um token de "Lembrar de mim"
+     * Valida um token de "Lembrar de mim" do usuário
      */
+    @Transactional
     public boolean validateRememberMeToken(String email, String token) {
-        Optional<Protetico> userOpt = proteticoService.findByEmail(email);
-        if (!userOpt.isPresent()) {
-            System.out.println("Usuário não encontrado para validar remember me: " + email);
-            return false;
-        }
-        
-        Protetico user = userOpt.get();
-        String storedToken = user.getRememberMeToken();
-        Long timestamp = user.getRememberMeTimestamp();
-        Integer durationDays = user.getRememberMeDurationDays();
-        
-        if (storedToken == null || timestamp == null || durationDays == null) {
-            System.out.println("Token de remember me não encontrado para usuário: " + email);
-            return false;
-        }
-        
-        if (!storedToken.equals(token)) {
-            System.out.println("Token de remember me não corresponde para usuário: " + email);
-            return false;
-        }
-        
-        // Verificar se o token expirou
-        long currentTime = System.currentTimeMillis();
-        long elapsedDays = (currentTime - timestamp) / (1000 * 60 * 60 * 24);
-        
-        if (elapsedDays > durationDays) {
-            System.out.println("Token de remember me expirado para " + email + " (expirou há " + (elapsedDays - durationDays) + " dias)");
-            removeRememberMeToken(email);
-            return false;
-        }
-        
-        System.out.println("Token de remember me válido para: " + email + " (ainda válido por " + (durationDays - elapsedDays) + " dias)");
-        return true;
+        return buscarValido(token)
+            .filter(registro -> registro.getProtetico().getEmail().equals(email))
+            .isPresent();
     }
-    
+
     /**
-     * Remove o token de "Lembrar de mim" do usuário
+     * Remove todos os tokens de "Lembrar de mim" do usuário (todos os dispositivos)
      */
+    @Transactional
     public void removeRememberMeToken(String email) {
-        Optional<Protetico> userOpt = proteticoService.findByEmail(email);
-        if (!userOpt.isPresent()) {
-            System.out.println("Usuário não encontrado para remover remember me: " + email);
+        if (email == null) {
+            return;
+        }
+        int removidos = rememberMeTokenRepository.deleteByProteticoEmail(email);
+        log.info("{} token(s) de remember me removido(s) para usuário: {}", removidos, email);
+    }
+
+    /**
+     * Remove apenas o token informado (o dispositivo atual)
+     */
+    @Transactional
+    public void revogarToken(String token) {
+        if (token == null || token.isBlank()) {
             return;
         }
-        
-        Protetico user = userOpt.get();
-        user.setRememberMeToken(null);
-        user.setRememberMeTimestamp(null);
-        user.setRememberMeDurationDays(null);
-        
-        proteticoService.save(user);
-        System.out.println("Token de remember me removido para usuário: " + email);
+        rememberMeTokenRepository.deleteByTokenHash(hash(token));
     }
-    
+
     /**
      * Busca usuário por token de "Lembrar de mim" válido
      */
+    @Transactional
     public Optional<Protetico> findUserByValidRememberMeToken(String token) {
-        // Buscar todos os usuários e verificar tokens
-        // Em produção, seria melhor ter um índice no banco
-        var allUsers = proteticoService.findAll();
-        
-        for (Protetico user : allUsers) {
-            if (user.getRememberMeToken() != null && 
-                user.getRememberMeToken().equals(token) &&
-                validateRememberMeToken(user.getEmail(), token)) {
-                return Optional.of(user);
-            }
-        }
-        
-        return Optional.empty();
+        return buscarValido(token).map(RememberMeToken::getProtetico);
     }
-    
+
     /**
-     * Remove tokens expirados de todos os usuários
+     * Remove os tokens expirados de todos os usuários
      */
+    @Transactional
+    @Scheduled(cron = "${dentalsync.auth.remember-me.limpeza-cron:0 15 * * * *}")
     public void cleanExpiredRememberMeTokens() {
-        var allUsers = proteticoService.findAll();
-        long currentTime = System.currentTimeMillis();
-        
-        for (Protetico user : allUsers) {
-            Long timestamp = user.getRememberMeTimestamp();
-            Integer durationDays = user.getRememberMeDurationDays();
-            
-            if (timestamp != null && durationDays != null) {
-                long elapsedDays = (currentTime - timestamp) / (1000 * 60 * 60 * 24);
-                if (elapsedDays > durationDays) {
-                    user.setRememberMeToken(null);
-                    user.setRememberMeTimestamp(null);
-                    user.setRememberMeDurationDays(null);
-                    proteticoService.save(user);
-                    System.out.println("Token de remember me expirado removido para: " + user.getEmail());
-                }
-            }
+        int removidos = rememberMeTokenRepository.deleteExpirados(LocalDateTime.now());
+        if (removidos > 0) {
+            log.info("{} token(s) de remember me expirado(s) removido(s)", removidos);
+        }
+    }
+
+    private Optional<RememberMeToken> buscarValido(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
         }
+        String tokenHash = hash(token);
+        Optional<RememberMeToken> encontrado = rememberMeTokenRepository.findByTokenHash(tokenHash);
+        if (encontrado.isEmpty()) {
+            return Optional.empty();
+        }
+        RememberMeToken registro = encontrado.get();
+        if (!registro.getExpiraEm().isAfter(LocalDateTime.now())) {
+            rememberMeTokenRepository.delete(registro);
+            return Optional.empty();
+        }
+        return Optional.of(registro);
+    }
+
+    static String hash(String token) {
+        return HashUtil.sha256Hex(token);
     }
-} 
\ No newline at end of file
+}
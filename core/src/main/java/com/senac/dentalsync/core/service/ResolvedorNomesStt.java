@@ -0,0 +1,134 @@
+package com.senac.dentalsync.core.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.senac.dentalsync.core.event.CadastroAlteradoEvent;
+import com.senac.dentalsync.core.event.CadastroAlteradoEvent.Tipo;
+import com.senac.dentalsync.core.persistency.repository.DentistaRepository;
+import com.senac.dentalsync.core.persistency.repository.PacienteRepository;
+import com.senac.dentalsync.core.persistency.repository.ProteticoRepository;
+import com.senac.dentalsync.core.persistency.repository.ServicoRepository;
+import com.senac.dentalsync.core.util.IndiceNomes;
+
+/**
+ * Resolve nomes ditados (paciente, dentista, protético, serviço) para IDs sem consultar o banco: um
+ * IndiceNomes por tipo, montado na inicialização com os registros ativos e mantido pelos
+ * CadastroAlteradoEvent depois do commit. Uma reconstrução agendada corrige o que tenha escapado dos
+ * eventos (alterações feitas direto no banco)
+ */
+@Component
+public class ResolvedorNomesStt {
+
+    private static final Logger log = LoggerFactory.getLogger(ResolvedorNomesStt.class);
+
+    private final PacienteRepository pacienteRepository;
+    private final DentistaRepository dentistaRepository;
+    private final ProteticoRepository proteticoRepository;
+    private final ServicoRepository servicoRepository;
+    private final double pontuacaoMinima;
+
+    // Trocado inteiro na reconstrução; as buscas em andamento terminam no índice anterior
+    private volatile Map<Tipo, IndiceNomes> indices = indicesVazios();
+
+    public ResolvedorNomesStt(PacienteRepository pacienteRepository,
+                              DentistaRepository dentistaRepository,
+                              ProteticoRepository proteticoRepository,
+                              ServicoRepository servicoRepository,
+                              @Value("${dentalsync.stt.resolucao.pontuacao-minima:0.35}") double pontuacaoMinima) {
+        this.pacienteRepository = pacienteRepository;
+        this.dentistaRepository = dentistaRepository;
+        this.proteticoRepository = proteticoRepository;
+        this.servicoRepository = servicoRepository;
+        this.pontuacaoMinima = pontuacaoMinima;
+    }
+
+    /**
+     * Candidatos mais parecidos com o nome; tipo null procura em todos os cadastros
+     */
+    public List<Candidato> resolver(String nome, Tipo tipo, int limite) {
+        Map<Tipo, IndiceNomes> atuais = indices;
+        List<Candidato> candidatos = new ArrayList<>();
+        for (Tipo t : tipo != null ? List.of(tipo) : List.of(Tipo.values())) {
+            atuais.get(t).buscar(nome, limite, pontuacaoMinima).forEach(resultado ->
+                candidatos.add(new Candidato(t, resultado.id(), resultado.nome(), resultado.pontuacao())));
+        }
+        candidatos.sort(Comparator.comparingDouble(Candidato::pontuacao).reversed());
+        return candidatos.size() > limite ? List.copyOf(candidatos.subList(0, limite)) : candidatos;
+    }
+
+    public Map<Tipo, Integer> tamanhos() {
+        Map<Tipo, Integer> tamanhos = new EnumMap<>(Tipo.class);
+        indices.forEach((tipo, indice) -> tamanhos.put(tipo, indice.tamanho()));
+        return tamanhos;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onCadastroAlterado(CadastroAlteradoEvent evento) {
+        IndiceNomes indice = indices.get(evento.tipo());
+        if (evento.ativo()) {
+            indice.atualizar(evento.id(), evento.nome());
+        } else {
+            indice.remover(evento.id());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarNaInicializacao() {
+        reconstruir();
+    }
+
+    @Scheduled(cron = "${dentalsync.stt.resolucao.reconstrucao-cron:0 45 3 * * *}")
+    public void reconciliar() {
+        reconstruir();
+    }
+
+    /**
+     * Monta os índices de novo a partir dos ativos. Segura o lock dos eventos durante a leitura, então
+     * um evento que chegue no meio é aplicado depois, sobre os índices novos
+     */
+    public synchronized void reconstruir() {
+        try {
+            Map<Tipo, IndiceNomes> novos = indicesVazios();
+            carregar(novos.get(Tipo.PACIENTE), pacienteRepository::findIdENomeAtivos);
+            carregar(novos.get(Tipo.DENTISTA), dentistaRepository::findIdENomeAtivos);
+            carregar(novos.get(Tipo.PROTETICO), proteticoRepository::findIdENomeAtivos);
+            carregar(novos.get(Tipo.SERVICO), servicoRepository::findIdENomeAtivos);
+            indices = novos;
+            log.info("Índice de nomes do STT montado: {}", tamanhos());
+        } catch (Exception e) {
+            log.warn("Não foi possível montar o índice de nomes do STT: {}", e.getMessage());
+        }
+    }
+
+    private static void carregar(IndiceNomes indice, Supplier<List<Object[]>> consulta) {
+        for (Object[] linha : consulta.get()) {
+            indice.atualizar(((Number) linha[0]).longValue(), (String) linha[1]);
+        }
+    }
+
+    private static Map<Tipo, IndiceNomes> indicesVazios() {
+        Map<Tipo, IndiceNomes> vazios = new EnumMap<>(Tipo.class);
+        for (Tipo tipo : Tipo.values()) {
+            vazios.put(tipo, new IndiceNomes());
+        }
+        return vazios;
+    }
+
+    public record Candidato(Tipo tipo, Long id, String nome, double pontuacao) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.senac.dentalsync.core.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Executa uma operação de escrita em transação própria e a repete quando o banco acusa conflito
+ * de concorrência (deadlock, lock wait timeout, versão desatualizada). As tentativas são limitadas
+ * e espaçadas com backoff exponencial e jitter, para que pedidos simultâneos sobre os mesmos
+ * materiais não colidam de novo no mesmo instante. Os contadores medem a disputa
+ */
+@Component
+public class RetentativaConcorrencia {
+
+    private static final Logger log = LoggerFactory.getLogger(RetentativaConcorrencia.class);
+
+    private final TransactionTemplate transacao;
+    private final int maxTentativas;
+    private final long backoffInicialMs;
+
+    private final LongAdder conflitos = new LongAdder();
+    private final LongAdder recuperados = new LongAdder();
+    private final LongAdder esgotados = new LongAdder();
+
+    public RetentativaConcorrencia(PlatformTransactionManager transactionManager,
+            @Value("${dentalsync.estoque.retentativas:3}") int maxTentativas,
+            @Value("${dentalsync.estoque.backoff-inicial-ms:25}") long backoffInicialMs) {
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.maxTentativas = Math.max(1, maxTentativas);
+        this.backoffInicialMs = Math.max(0, backoffInicialMs);
+    }
+
+    /**
+     * @param operacao descrição usada nos logs
+     * @param antesDaTentativa restaura o estado do objeto antes de cada tentativa (ex.: limpar o id gerado)
+     * @param acao escrita a executar; cada tentativa roda em uma transação nova
+     */
+    public <T> T executar(String operacao, Runnable antesDaTentativa, Supplier<T> acao) {
+        // Dentro de uma transação já aberta não há como recomeçar: a falha marca a transação externa
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return acao.get();
+        }
+
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                antesDaTentativa.run();
+                T resultado = transacao.execute(status -> acao.get());
+                if (tentativa > 1) {
+                    recuperados.increment();
+                }
+                return resultado;
+            } catch (ConcurrencyFailureException e) {
+                conflitos.increment();
+                if (tentativa >= maxTentativas) {
+                    esgotados.increment();
+                    log.warn("Conflito de concorrência em '{}' após {} tentativas: {}", operacao, tentativa, e.getMessage());
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Outra operação alterou os mesmos dados ao mesmo tempo. Tente novamente.", e);
+                }
+                log.debug("Conflito de concorrência em '{}' (tentativa {}), repetindo", operacao, tentativa);
+                aguardar(tentativa);
+            }
+        }
+    }
+
+    private void aguardar(int tentativa) {
+        if (backoffInicialMs == 0) {
+            return;
+        }
+        long base = backoffInicialMs << Math.min(tentativa - 1, 6);
+        long espera = base + ThreadLocalRandom.current().nextLong(base + 1);
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Operação interrompida");
+        }
+    }
+
+    /** Conflitos detectados (cada tentativa que falhou por concorrência) */
+    public long getConflitos() {
+        return conflitos.sum();
+    }
+
+    /** Operações que só tiveram sucesso depois de repetir */
+    public long getRecuperados() {
+        return recuperados.sum();
+    }
+
+    /** Operações que desistiram após o limite de tentativas */
+    public long getEsgotados() {
+        return esgotados.sum();
+    }
+}
@@ -1,44 +1,33 @@
 package com.senac.dentalsync.core.service;
 
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
 @Service
 public class STTService {
 
-    private final RestTemplate restTemplate;
+    private final GatewayStt gatewayStt;
+    private final CacheRespostaStt cacheRespostaStt;
     private final ObjectMapper objectMapper;
 
-    @Value("${n8n.webhook.base-url}")
-    private String webhookBaseUrl;
-
-    @Value("${n8n.webhook.endpoint}")
-    private String webhookEndpoint;
-
-    @Value("${n8n.webhook.timeout}")
-    private int webhookTimeout;
-
-    public STTService(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
-        this.objectMapper = new ObjectMapper();
+    public STTService(GatewayStt gatewayStt, CacheRespostaStt cacheRespostaStt, ObjectMapper objectMapper) {
+        this.gatewayStt = gatewayStt;
+        this.cacheRespostaStt = cacheRespostaStt;
+        this.objectMapper = objectMapper;
     }
 
     public Object processText(String text) throws Exception {
         validateText(text);
         
-        String webhookUrl = buildWebhookUrl(text);
-        ResponseEntity<String> response = callWebhook(webhookUrl);
-        
-        return parseWebhookResponse(response.getBody());
+        // Texto repetido (ou já em processamento) reaproveita a mesma chamada ao n8n
+        return cacheRespostaStt.obter(text, () -> {
+            // Mesmo valor que ia na query string (?message='texto'), agora no corpo do POST
+            Object response = gatewayStt.enviar("'" + text + "'");
+            return parseWebhookResponse(response);
+        });
     }
 
     private void validateText(String text) {
@@ -47,55 +36,30 @@ public class STTService {
         }
     }
 
-    private String buildWebhookUrl(String text) throws Exception {
-        String encodedText = URLEncoder.encode("'" + text + "'", StandardCharsets.UTF_8);
-        return webhookBaseUrl + webhookEndpoint + "?message=" + encodedText;
-    }
-
-    private ResponseEntity<String> callWebhook(String webhookUrl) throws Exception {
-        try {
-            ResponseEntity<String> response = restTemplate.getForEntity(webhookUrl, String.class);
-            
-            if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
-                throw new RuntimeException("Erro na resposta do webhook: " + response.getStatusCode());
-            }
-            
-            return response;
-        } catch (Exception e) {
-            throw new RuntimeException(mapWebhookError(e.getMessage()), e);
-        }
-    }
-
-    private Object parseWebhookResponse(String rawResponse) throws Exception {
+    /**
+     * A resposta já chega lida pelo GatewayStt: lista (usa o primeiro elemento) ou objeto único
+     */
+    @SuppressWarnings("unchecked")
+    private Object parseWebhookResponse(Object response) throws Exception {
         try {
-            // Tentar como array primeiro
-            List<Map<String, Object>> arrayResponse = objectMapper.readValue(rawResponse, 
-                objectMapper.getTypeFactory().constructCollectionType(List.class, Map.class));
-            
-            if (arrayResponse != null && !arrayResponse.isEmpty()) {
-                Map<String, Object> firstElement = arrayResponse.get(0);
-                validateResponse(firstElement);
+            if (response instanceof List<?> arrayResponse && !arrayResponse.isEmpty()
+                    && arrayResponse.get(0) instanceof Map<?, ?> firstElement) {
+                validateResponse((Map<String, Object>) firstElement);
                 return firstElement;
             }
-        } catch (Exception e) {
-            if (e.getMessage().startsWith("IA_EMPTY_RESPONSE")) {
-                throw e;
+            
+            if (response instanceof Map<?, ?> objectResponse) {
+                if (!objectResponse.containsKey("rawResponse")) {
+                    validateResponse((Map<String, Object>) objectResponse);
+                }
+                return objectResponse;
             }
+        } catch (ClassCastException e) {
+            // Campos em formato inesperado: cai no fallback abaixo
         }
         
-        try {
-            // Tentar como objeto único
-            Map<String, Object> objectResponse = objectMapper.readValue(rawResponse, Map.class);
-            validateResponse(objectResponse);
-            return objectResponse;
-        } catch (Exception e) {
-            if (e.getMessage().startsWith("IA_EMPTY_RESPONSE")) {
-                throw e;
-            }
-            
-            // Retornar resposta raw como fallback
-            return Map.of("rawResponse", rawResponse);
-        }
+        // Retornar resposta raw como fallback
+        return Map.of("rawResponse", objectMapper.writeValueAsString(response));
     }
 
     private void validateResponse(Map<String, Object> response) throws Exception {
@@ -179,22 +143,6 @@ public class STTService {
         return allEmpty;
     }
 
-    private String mapWebhookError(String errorMessage) {
-        if (errorMessage == null) return "Erro desconhecido";
-        
-        if (errorMessage.contains("webhook") && errorMessage.contains("not registered")) {
-            return "WEBHOOK_NOT_REGISTERED";
-        } else if (errorMessage.contains("404") && errorMessage.contains("webhook")) {
-            return "WEBHOOK_NOT_FOUND";
-        } else if (errorMessage.contains("Connection refused") || errorMessage.contains("ConnectException")) {
-            return "SERVICE_UNAVAILABLE";
-        } else if (errorMessage.contains("timeout") || errorMessage.contains("SocketTimeoutException")) {
-            return "TIMEOUT_ERROR";
-        }
-        
-        return errorMessage;
-    }
-
     public String getErrorSuggestion(String errorType) {
         switch (errorType) {
             case "IA_EMPTY_RESPONSE":
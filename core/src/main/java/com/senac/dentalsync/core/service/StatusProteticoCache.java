@@ -0,0 +1,122 @@
+package com.senac.dentalsync.core.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.senac.dentalsync.core.persistency.repository.ProteticoRepository;
+
+/**
+ * Cache curto da situação (ativo/inativo/inexistente) do protético logado, consultada pelo
+ * AuthInterceptor a cada requisição. Cada entrada vale por um TTL curto, então uma desativação feita
+ * fora da aplicação chega em no máximo esse tempo; as alterações feitas pelo ProteticoService invalidam
+ * na hora. Uma geração global impede que uma leitura iniciada antes da invalidação grave o valor antigo
+ */
+@Component
+public class StatusProteticoCache {
+
+    public enum Situacao { ATIVO, INATIVO, INEXISTENTE }
+
+    private final ProteticoRepository proteticoRepository;
+    private final long ttlNanos;
+    private final int maxEntradas;
+    private final LongSupplier relogio;
+
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final AtomicLong geracao = new AtomicLong();
+
+    @Autowired
+    public StatusProteticoCache(ProteticoRepository proteticoRepository,
+                                @Value("${dentalsync.auth.status-cache.ttl-ms:5000}") long ttlMs,
+                                @Value("${dentalsync.auth.status-cache.max-entradas:10000}") int maxEntradas) {
+        this(proteticoRepository, ttlMs, maxEntradas, System::nanoTime);
+    }
+
+    StatusProteticoCache(ProteticoRepository proteticoRepository, long ttlMs, int maxEntradas, LongSupplier relogio) {
+        this.proteticoRepository = proteticoRepository;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxEntradas = maxEntradas;
+        this.relogio = relogio;
+    }
+
+    public Situacao consultar(String email) {
+        long agora = relogio.getAsLong();
+        Entrada entrada = entradas.get(email);
+        if (entrada != null && agora - entrada.criadaEm() < ttlNanos) {
+            return entrada.situacao();
+        }
+
+        long geracaoDaLeitura = geracao.get();
+        Situacao situacao = proteticoRepository.findIsActiveByEmail(email)
+            .map(ativo -> ativo ? Situacao.ATIVO : Situacao.INATIVO)
+            .orElse(Situacao.INEXISTENTE);
+
+        if (entradas.size() >= maxEntradas) {
+            liberarEspaco(agora);
+        }
+        // Houve invalidação durante a leitura: o valor pode já estar velho, não guarda
+        if (geracao.get() == geracaoDaLeitura) {
+            entradas.put(email, new Entrada(situacao, agora));
+        }
+        return situacao;
+    }
+
+    /**
+     * Descarta a situação guardada do protético. Dentro de uma transação, descarta de novo após o commit,
+     * para não valer uma leitura feita entre a alteração e o commit
+     */
+    public void invalidar(String email) {
+        if (email == null) {
+            return;
+        }
+        executarAgoraEAposCommit(() -> {
+            geracao.incrementAndGet();
+            entradas.remove(email);
+        });
+    }
+
+    /**
+     * Descarta tudo (ex.: edição que pode ter trocado o email do protético)
+     */
+    public void invalidarTodos() {
+        executarAgoraEAposCommit(() -> {
+            geracao.incrementAndGet();
+            entradas.clear();
+        });
+    }
+
+    int tamanho() {
+        return entradas.size();
+    }
+
+    private void executarAgoraEAposCommit(Runnable descarte) {
+        descarte.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    descarte.run();
+                }
+            });
+        }
+    }
+
+    private void liberarEspaco(long agora) {
+        entradas.values().removeIf(entrada -> agora - entrada.criadaEm() >= ttlNanos);
+        if (entradas.size() >= maxEntradas) {
+            // Todas ainda válidas: recomeça do zero em vez de crescer sem limite
+            entradas.clear();
+        }
+    }
+
+    private record Entrada(Situacao situacao, long criadaEm) {
+    }
+}
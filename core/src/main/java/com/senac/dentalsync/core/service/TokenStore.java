@@ -0,0 +1,36 @@
+package com.senac.dentalsync.core.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Armazenamento de valores temporários com validade (códigos de recuperação, tokens de reset de senha).
+ * As chaves são separadas por tipo. A implementação padrão fica em memória (TokenStoreMemoria);
+ * com dentalsync.tokens.armazenamento=banco os valores ficam na tabela token_temporario e valem
+ * para todas as instâncias da aplicação (TokenStoreBanco)
+ */
+public interface TokenStore {
+
+    /**
+     * Grava o valor, substituindo o anterior da mesma chave
+     */
+    void salvar(String tipo, String chave, String valor, Duration validade);
+
+    /**
+     * Valor ainda válido da chave
+     */
+    Optional<String> buscar(String tipo, String chave);
+
+    /**
+     * Remove a chave somente se ainda guardar o valor informado e não tiver expirado.
+     * Retorna true para apenas uma de várias chamadas concorrentes (uso único)
+     */
+    boolean removerSeIgual(String tipo, String chave, String valor);
+
+    void remover(String tipo, String chave);
+
+    /**
+     * Descarta as entradas vencidas; chamado periodicamente
+     */
+    int removerExpirados();
+}
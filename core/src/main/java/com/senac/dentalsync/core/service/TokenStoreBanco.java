@@ -0,0 +1,72 @@
+package com.senac.dentalsync.core.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.senac.dentalsync.core.persistency.model.TokenTemporario;
+import com.senac.dentalsync.core.persistency.repository.TokenTemporarioRepository;
+
+/**
+ * TokenStore na tabela token_temporario, para várias instâncias atrás do nginx enxergarem os mesmos
+ * códigos. Cada operação é um comando curto no banco; a unicidade de (tipo, chave) resolve gravações
+ * concorrentes da mesma chave
+ */
+@Component
+@ConditionalOnProperty(name = "dentalsync.tokens.armazenamento", havingValue = "banco")
+public class TokenStoreBanco implements TokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenStoreBanco.class);
+
+    private final TokenTemporarioRepository tokenTemporarioRepository;
+
+    public TokenStoreBanco(TokenTemporarioRepository tokenTemporarioRepository) {
+        this.tokenTemporarioRepository = tokenTemporarioRepository;
+    }
+
+    @Override
+    public void salvar(String tipo, String chave, String valor, Duration validade) {
+        LocalDateTime expiraEm = LocalDateTime.now().plus(validade);
+        if (tokenTemporarioRepository.atualizar(tipo, chave, valor, expiraEm) > 0) {
+            return;
+        }
+        try {
+            tokenTemporarioRepository.saveAndFlush(new TokenTemporario(null, tipo, chave, valor, expiraEm));
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância inseriu a mesma chave entre o UPDATE e o INSERT: vale a última gravação
+            tokenTemporarioRepository.atualizar(tipo, chave, valor, expiraEm);
+        }
+    }
+
+    @Override
+    public Optional<String> buscar(String tipo, String chave) {
+        return tokenTemporarioRepository.findValorValido(tipo, chave, LocalDateTime.now());
+    }
+
+    @Override
+    public boolean removerSeIgual(String tipo, String chave, String valor) {
+        return tokenTemporarioRepository.deleteSeIgual(tipo, chave, valor, LocalDateTime.now()) > 0;
+    }
+
+    @Override
+    public void remover(String tipo, String chave) {
+        tokenTemporarioRepository.deleteByTipoAndChave(tipo, chave);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${dentalsync.tokens.limpeza-ms:60000}")
+    public int removerExpirados() {
+        int removidos = tokenTemporarioRepository.deleteExpirados(LocalDateTime.now());
+        if (removidos > 0) {
+            log.debug("{} token(s) temporário(s) expirado(s) removido(s)", removidos);
+        }
+        return removidos;
+    }
+}
@@ -0,0 +1,121 @@
+package com.senac.dentalsync.core.service;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * TokenStore em memória: mapa concorrente com validade por entrada e limite de tamanho.
+ * Entradas vencidas são ignoradas na leitura e apagadas pela limpeza periódica; com o mapa cheio,
+ * as vencidas saem primeiro e, se não bastar, a entrada mais próxima de vencer
+ */
+@Component
+@ConditionalOnProperty(name = "dentalsync.tokens.armazenamento", havingValue = "memoria", matchIfMissing = true)
+public class TokenStoreMemoria implements TokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenStoreMemoria.class);
+
+    private final int maxEntradas;
+    private final LongSupplier relogio;
+
+    private final Map<Chave, Entrada> entradas = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenStoreMemoria(@Value("${dentalsync.tokens.max-entradas:10000}") int maxEntradas) {
+        this(maxEntradas, System::nanoTime);
+    }
+
+    TokenStoreMemoria(int maxEntradas, LongSupplier relogio) {
+        this.maxEntradas = maxEntradas;
+        this.relogio = relogio;
+    }
+
+    @Override
+    public void salvar(String tipo, String chave, String valor, Duration validade) {
+        long agora = relogio.getAsLong();
+        Chave id = new Chave(tipo, chave);
+        if (entradas.size() >= maxEntradas && !entradas.containsKey(id)) {
+            liberarEspaco(agora);
+        }
+        entradas.put(id, new Entrada(valor, agora + validade.toNanos()));
+    }
+
+    @Override
+    public Optional<String> buscar(String tipo, String chave) {
+        Entrada entrada = entradas.get(new Chave(tipo, chave));
+        if (entrada == null) {
+            return Optional.empty();
+        }
+        if (entrada.vencida(relogio.getAsLong())) {
+            entradas.remove(new Chave(tipo, chave), entrada);
+            return Optional.empty();
+        }
+        return Optional.of(entrada.valor());
+    }
+
+    @Override
+    public boolean removerSeIgual(String tipo, String chave, String valor) {
+        Chave id = new Chave(tipo, chave);
+        Entrada entrada = entradas.get(id);
+        if (entrada == null || !entrada.valor().equals(valor) || entrada.vencida(relogio.getAsLong())) {
+            return false;
+        }
+        // remove(chave, valor) é atômico: só uma das chamadas concorrentes consegue
+        return entradas.remove(id, entrada);
+    }
+
+    @Override
+    public void remover(String tipo, String chave) {
+        entradas.remove(new Chave(tipo, chave));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${dentalsync.tokens.limpeza-ms:60000}")
+    public int removerExpirados() {
+        long agora = relogio.getAsLong();
+        int removidos = 0;
+        for (Map.Entry<Chave, Entrada> e : entradas.entrySet()) {
+            if (e.getValue().vencida(agora) && entradas.remove(e.getKey(), e.getValue())) {
+                removidos++;
+            }
+        }
+        if (removidos > 0) {
+            log.debug("{} token(s) temporário(s) expirado(s) removido(s)", removidos);
+        }
+        return removidos;
+    }
+
+    int tamanho() {
+        return entradas.size();
+    }
+
+    private void liberarEspaco(long agora) {
+        entradas.values().removeIf(entrada -> entrada.vencida(agora));
+        if (entradas.size() >= maxEntradas) {
+            entradas.entrySet().stream()
+                .min(Comparator.comparingLong(e -> e.getValue().expiraEm()))
+                .ifPresent(e -> entradas.remove(e.getKey(), e.getValue()));
+            log.warn("Limite de {} tokens temporários atingido; descartando o mais próximo de vencer", maxEntradas);
+        }
+    }
+
+    private record Chave(String tipo, String chave) {
+    }
+
+    private record Entrada(String valor, long expiraEm) {
+        boolean vencida(long agora) {
+            return agora - expiraEm >= 0;
+        }
+    }
+}
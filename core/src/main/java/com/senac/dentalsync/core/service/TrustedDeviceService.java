@@ -1,53 +1,89 @@
 package com.senac.dentalsync.core.service;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Service;
-import com.senac.dentalsync.core.persistency.model.Protetico;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.Optional;
-import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.senac.dentalsync.core.persistency.model.TrustedDevice;
+import com.senac.dentalsync.core.persistency.repository.ProteticoRepository;
+import com.senac.dentalsync.core.persistency.repository.TrustedDeviceRepository;
+import com.senac.dentalsync.core.util.HashUtil;
+
+/**
+ * Dispositivos confiáveis do 2FA, na tabela trusted_device (vários por protético), sem gravar no protético.
+ * A consulta feita a cada login (isTrustedDevice) passa por um cache curto da validade por email e
+ * fingerprint; registrar ou remover dispositivos nesta instância invalida o cache na hora, e alterações
+ * feitas por outra instância valem em até trusted-device-cache.ttl-ms
+ */
 @Service
 public class TrustedDeviceService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrustedDeviceService.class);
+    
+    @Autowired
+    private TrustedDeviceRepository trustedDeviceRepository;
     
     @Autowired
-    private ProteticoService proteticoService;
+    private ProteticoRepository proteticoRepository;
     
     @Value("${dentalsync.2fa.trusted-device-duration-minutes:10}")
     private int trustedDeviceDurationMinutes;
     
+    @Value("${dentalsync.2fa.trusted-device-cache.ttl-ms:30000}")
+    private long cacheTtlMs = 30000;
+    
+    @Value("${dentalsync.2fa.trusted-device-cache.max-entradas:10000}")
+    private int cacheMaxEntradas = 10000;
+    
+    // Validade do dispositivo por (email, hash do fingerprint); vazio quando não é confiável
+    private final Map<ChaveDispositivo, ValidadeEmCache> cache = new ConcurrentHashMap<>();
+    private final AtomicLong geracao = new AtomicLong();
+    
     /**
-     * Gera um token para dispositivo confiável
+     * Gera um token para dispositivo confiável (renova o registro se o dispositivo já existir)
      */
     public String generateTrustedDeviceToken(String email, String deviceFingerprint) {
-        String token = UUID.randomUUID().toString();
-        
-        Optional<Protetico> userOpt = proteticoService.findByEmail(email);
-        if (!userOpt.isPresent()) {
-            System.err.println("Usuário não encontrado para gerar token de dispositivo: " + email);
+        Optional<Long> proteticoId = proteticoRepository.findIdByEmailAndIsActiveTrue(email);
+        if (proteticoId.isEmpty()) {
+            log.warn("Usuário não encontrado para gerar token de dispositivo: {}", email);
             return null;
         }
         
-        Protetico user = userOpt.get();
-        
-        // Armazenar informações do dispositivo no usuário
-        user.setTrustedDeviceFingerprint(deviceFingerprint);
-        user.setTrustedDeviceToken(token);
-        user.setTrustedDeviceTimestamp(System.currentTimeMillis());
-        
-        // Salvar no banco de dados
-        proteticoService.save(user);
+        String token = UUID.randomUUID().toString();
+        String fingerprintHash = HashUtil.sha256Hex(deviceFingerprint);
+        String tokenHash = HashUtil.sha256Hex(token);
+        LocalDateTime agora = LocalDateTime.now();
+        LocalDateTime expiraEm = agora.plusMinutes(trustedDeviceDurationMinutes);
+        
+        if (trustedDeviceRepository.renovar(proteticoId.get(), fingerprintHash, tokenHash, expiraEm, agora) == 0) {
+            try {
+                trustedDeviceRepository.save(new TrustedDevice(null, proteticoRepository.getReferenceById(proteticoId.get()),
+                    fingerprintHash, tokenHash, expiraEm, agora));
+            } catch (DataIntegrityViolationException e) {
+                // O mesmo dispositivo foi registrado em paralelo: renova o registro que venceu a corrida
+                trustedDeviceRepository.renovar(proteticoId.get(), fingerprintHash, tokenHash, expiraEm, agora);
+            }
+        }
+        invalidarCache(email);
         
-        System.out.println("=== DISPOSITIVO CONFIÁVEL REGISTRADO ===");
-        System.out.println("Email: " + email);
-        System.out.println("Device Fingerprint: " + deviceFingerprint);
-        System.out.println("Token: " + token);
-        System.out.println("Válido por " + trustedDeviceDurationMinutes + " minutos");
-        System.out.println("Salvo no banco de dados");
-        System.out.println("===============================");
+        log.info("Dispositivo confiável registrado para {} (válido por {} minutos)", email, trustedDeviceDurationMinutes);
         
         return token;
     }
@@ -56,37 +92,28 @@ public class TrustedDeviceService {
      * Verifica se um dispositivo é confiável
      */
     public boolean isTrustedDevice(String email, String deviceFingerprint) {
-        Optional<Protetico> userOpt = proteticoService.findByEmail(email);
-        if (!userOpt.isPresent()) {
-            System.out.println("Usuário não encontrado: " + email);
+        if (email == null || deviceFingerprint == null) {
             return false;
         }
+        ChaveDispositivo chave = new ChaveDispositivo(email, HashUtil.sha256Hex(deviceFingerprint));
+        Optional<LocalDateTime> expiraEm = consultarValidade(chave);
         
-        Protetico user = userOpt.get();
-        String storedFingerprint = user.getTrustedDeviceFingerprint();
-        Long timestamp = user.getTrustedDeviceTimestamp();
-        
-        if (storedFingerprint == null || timestamp == null) {
-            System.out.println("Dispositivo não encontrado para usuário: " + email);
+        if (expiraEm.isEmpty()) {
+            log.debug("Dispositivo não encontrado para usuário: {}", email);
             return false;
         }
         
-        if (!storedFingerprint.equals(deviceFingerprint)) {
-            System.out.println("Device fingerprint não corresponde para usuário: " + email);
+        LocalDateTime agora = LocalDateTime.now();
+        if (!expiraEm.get().isAfter(agora)) {
+            log.debug("Dispositivo confiável expirado para {}", email);
+            trustedDeviceRepository.deleteExpirado(email, chave.fingerprintHash(), agora);
+            geracao.incrementAndGet();
+            cache.remove(chave);
             return false;
         }
         
-        // Verificar se o token expirou
-        long currentTime = System.currentTimeMillis();
-        long elapsedMinutes = (currentTime - timestamp) / (1000 * 60);
-        
-        if (elapsedMinutes > trustedDeviceDurationMinutes) {
-            System.out.println("Dispositivo confiável expirado para " + email + " (expirou há " + (elapsedMinutes - trustedDeviceDurationMinutes) + " minutos)");
-            removeTrustedDevice(email);
-            return false;
-        }
-        
-        System.out.println("Dispositivo confiável válido para: " + email + " (ainda válido por " + (trustedDeviceDurationMinutes - elapsedMinutes) + " minutos)");
+        log.debug("Dispositivo confiável válido para {} (ainda válido por {} minutos)", email,
+            Duration.between(agora, expiraEm.get()).toMinutes());
         return true;
     }
     
@@ -94,48 +121,34 @@ public class TrustedDeviceService {
      * Valida token de dispositivo confiável
      */
     public boolean validateTrustedDeviceToken(String email, String deviceFingerprint, String token) {
-        Optional<Protetico> userOpt = proteticoService.findByEmail(email);
-        if (!userOpt.isPresent()) {
-            System.out.println("Usuário não encontrado para validar token: " + email);
+        if (email == null || deviceFingerprint == null || token == null) {
             return false;
         }
+        byte[] tokenHash = HashUtil.sha256Hex(token).getBytes(StandardCharsets.US_ASCII);
+        List<String> validos = trustedDeviceRepository.findTokenHashesValidos(email,
+            HashUtil.sha256Hex(deviceFingerprint), LocalDateTime.now());
         
-        Protetico user = userOpt.get();
-        String storedToken = user.getTrustedDeviceToken();
-        String storedFingerprint = user.getTrustedDeviceFingerprint();
-        
-        if (storedToken == null || storedFingerprint == null) {
-            System.out.println("Token ou fingerprint de dispositivo não encontrado para: " + email);
-            return false;
-        }
-        
-        boolean isValid = storedToken.equals(token) && storedFingerprint.equals(deviceFingerprint);
-        System.out.println("Validação de token de dispositivo para " + email + ": " + (isValid ? "VÁLIDO" : "INVÁLIDO"));
+        boolean isValid = validos.stream()
+            .anyMatch(armazenado -> MessageDigest.isEqual(armazenado.getBytes(StandardCharsets.US_ASCII), tokenHash));
+        log.debug("Validação de token de dispositivo para {}: {}", email, isValid ? "VÁLIDO" : "INVÁLIDO");
         
         return isValid;
     }
     
     /**
-     * Remove um dispositivo confiável
+     * Remove os dispositivos confiáveis do usuário
      */
     public void removeTrustedDevice(String email) {
-        Optional<Protetico> userOpt = proteticoService.findByEmail(email);
-        if (!userOpt.isPresent()) {
-            System.out.println("Usuário não encontrado para remover dispositivo: " + email);
+        if (email == null) {
             return;
         }
-        
-        Protetico user = userOpt.get();
-        user.setTrustedDeviceFingerprint(null);
-        user.setTrustedDeviceToken(null);
-        user.setTrustedDeviceTimestamp(null);
-        
-        proteticoService.save(user);
-        System.out.println("Dispositivo confiável removido para usuário: " + email);
+        int removidos = trustedDeviceRepository.deleteByProteticoEmail(email);
+        invalidarCache(email);
+        log.info("{} dispositivo(s) confiável(is) removido(s) para usuário: {}", removidos, email);
     }
     
     /**
-     * Remove todos os dispositivos confiáveis de um usuário (mesmo método que removeTrustedDevice neste caso)
+     * Remove todos os dispositivos confiáveis de um usuário
      */
     public void removeAllTrustedDevicesForUser(String email) {
         removeTrustedDevice(email);
@@ -146,56 +159,33 @@ public class TrustedDeviceService {
      */
     public Map<String, Object> getTrustedDevicesInfo(String email) {
         Map<String, Object> info = new HashMap<>();
-        
-        Optional<Protetico> userOpt = proteticoService.findByEmail(email);
-        if (!userOpt.isPresent()) {
-            info.put("count", 0);
-            info.put("oldestDeviceAge", 0);
-            info.put("maxDurationMinutes", trustedDeviceDurationMinutes);
-            return info;
-        }
-        
-        Protetico user = userOpt.get();
-        Long timestamp = user.getTrustedDeviceTimestamp();
-        
-        if (timestamp != null) {
-            long currentTime = System.currentTimeMillis();
-            long ageInMinutes = (currentTime - timestamp) / (1000 * 60);
-            
-            info.put("count", 1);
-            info.put("oldestDeviceAge", ageInMinutes);
-            info.put("maxDurationMinutes", trustedDeviceDurationMinutes);
-            info.put("isExpired", ageInMinutes > trustedDeviceDurationMinutes);
-        } else {
-            info.put("count", 0);
-            info.put("oldestDeviceAge", 0);
-            info.put("maxDurationMinutes", trustedDeviceDurationMinutes);
-            info.put("isExpired", false);
-        }
+        LocalDateTime agora = LocalDateTime.now();
+        
+        List<TrustedDevice> dispositivos = trustedDeviceRepository.findByProteticoEmail(email);
+        List<TrustedDevice> validos = dispositivos.stream()
+            .filter(dispositivo -> dispositivo.getExpiraEm().isAfter(agora))
+            .toList();
+        long oldestDeviceAge = validos.stream()
+            .mapToLong(dispositivo -> Duration.between(dispositivo.getCreatedAt(), agora).toMinutes())
+            .max()
+            .orElse(0);
+        
+        info.put("count", validos.size());
+        info.put("oldestDeviceAge", oldestDeviceAge);
+        info.put("maxDurationMinutes", trustedDeviceDurationMinutes);
+        info.put("isExpired", !dispositivos.isEmpty() && validos.isEmpty());
         
         return info;
     }
     
     /**
-     * Remove dispositivos expirados de todos os usuários
+     * Remove dispositivos expirados de todos os usuários em um único DELETE
      */
+    @Scheduled(cron = "${dentalsync.2fa.trusted-device-limpeza-cron:0 */10 * * * *}")
     public void cleanExpiredDevicesForAllUsers() {
-        // Buscar todos os usuários com dispositivos confiáveis
-        List<Protetico> allUsers = proteticoService.findAll();
-        long currentTime = System.currentTimeMillis();
-        
-        for (Protetico user : allUsers) {
-            Long timestamp = user.getTrustedDeviceTimestamp();
-            if (timestamp != null) {
-                long elapsedMinutes = (currentTime - timestamp) / (1000 * 60);
-                if (elapsedMinutes > trustedDeviceDurationMinutes) {
-                    user.setTrustedDeviceFingerprint(null);
-                    user.setTrustedDeviceToken(null);
-                    user.setTrustedDeviceTimestamp(null);
-                    proteticoService.save(user);
-                    System.out.println("Dispositivo confiável expirado removido para: " + user.getEmail());
-                }
-            }
+        int removidos = trustedDeviceRepository.deleteExpirados(LocalDateTime.now());
+        if (removidos > 0) {
+            log.info("{} dispositivo(s) confiável(is) expirado(s) removido(s)", removidos);
         }
     }
     
@@ -210,4 +200,34 @@ public class TrustedDeviceService {
         // Gerar hash simples (em produção usar algo mais robusto)
         return String.valueOf(combined.hashCode());
     }
-} 
\ No newline at end of file
+    
+    private Optional<LocalDateTime> consultarValidade(ChaveDispositivo chave) {
+        long agora = System.nanoTime();
+        ValidadeEmCache emCache = cache.get(chave);
+        if (emCache != null && agora - emCache.lidaEm() < TimeUnit.MILLISECONDS.toNanos(cacheTtlMs)) {
+            return emCache.expiraEm();
+        }
+        
+        long geracaoDaLeitura = geracao.get();
+        Optional<LocalDateTime> expiraEm = trustedDeviceRepository.findExpiraEm(chave.email(), chave.fingerprintHash());
+        if (cache.size() >= cacheMaxEntradas) {
+            cache.clear();
+        }
+        // Houve registro/remoção durante a leitura: o valor pode já estar velho, não guarda
+        if (geracao.get() == geracaoDaLeitura) {
+            cache.put(chave, new ValidadeEmCache(expiraEm, agora));
+        }
+        return expiraEm;
+    }
+    
+    private void invalidarCache(String email) {
+        geracao.incrementAndGet();
+        cache.keySet().removeIf(chave -> chave.email().equals(email));
+    }
+    
+    private record ChaveDispositivo(String email, String fingerprintHash) {
+    }
+    
+    private record ValidadeEmCache(Optional<LocalDateTime> expiraEm, long lidaEm) {
+    }
+}
@@ -7,17 +7,64 @@ import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.warrenstrange.googleauth.GoogleAuthenticator;
 import com.warrenstrange.googleauth.GoogleAuthenticatorKey;
-import com.warrenstrange.googleauth.GoogleAuthenticatorQRGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import javax.imageio.ImageIO;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 @Service
 public class TwoFactorService {
 
+    private static final Logger log = LoggerFactory.getLogger(TwoFactorService.class);
+
+    private static final byte[] PREFIXO_DATA_URL = "data:image/png;base64,".getBytes(StandardCharsets.US_ASCII);
+
+    // Um código TOTP vale por 3 passos de 30s (o atual e um de cada lado, janela padrão do GoogleAuthenticator)
+    private static final long VALIDADE_CODIGO_TOTP_MS = 3 * 30_000L;
+
+    // Buffers do PNG reaproveitados entre requisições; um buffer que cresceu demais é descartado
+    private static final int BUFFERS_PNG = 4;
+    private static final int TAMANHO_BUFFER_PNG = 8 * 1024;
+    private static final int TAMANHO_MAXIMO_BUFFER_PNG = 64 * 1024;
+
+    static {
+        // Sem isso o ImageIO grava o PNG passando por um arquivo temporário em disco
+        ImageIO.setUseCache(false);
+    }
+
     private final GoogleAuthenticator gAuth = new GoogleAuthenticator();
+    private final QRCodeWriter qrCodeWriter = new QRCodeWriter();
+    private final BlockingQueue<BufferPng> buffersPng = new ArrayBlockingQueue<>(BUFFERS_PNG);
+
+    // Configurações geradas e ainda não confirmadas, por (email, segredo): recarregar a tela de configuração
+    // devolve o mesmo QR Code sem gerar a imagem de novo
+    private final Map<ChaveSetup, SetupPendente> setupsPendentes = new ConcurrentHashMap<>();
+
+    // Códigos TOTP já aceitos, por (segredo, código), até saírem da janela de validade
+    private final Map<CodigoUsado, Long> codigosUsados = new ConcurrentHashMap<>();
+
+    @Value("${dentalsync.2fa.setup-cache.ttl-ms:300000}")
+    private long setupTtlMs = 300000;
+
+    @Value("${dentalsync.2fa.setup-cache.max-entradas:1000}")
+    private int setupMaxEntradas = 1000;
+
+    LongSupplier relogio = System::nanoTime;
 
     /**
      * Gera uma nova chave secreta para 2FA
@@ -43,11 +90,10 @@ public class TwoFactorService {
     }
 
     /**
-     * Gera o QR Code como imagem base64
+     * Gera o QR Code como imagem base64. O PNG é codificado em base64 enquanto é escrito,
+     * direto num buffer reaproveitado, sem cópias intermediárias
      */
     public String generateQRCodeImage(String qrCodeUrl) throws WriterException, IOException {
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        
         // Configurações melhoradas para melhor compatibilidade
         BitMatrix bitMatrix = qrCodeWriter.encode(
             qrCodeUrl, 
@@ -56,20 +102,44 @@ public class TwoFactorService {
             300  // altura aumentada
         );
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        MatrixToImageWriter.writeToStream(bitMatrix, "PNG", baos);
-        
-        String base64Image = Base64.getEncoder().encodeToString(baos.toByteArray());
-        
-        // Retornar no formato data URL para uso direto no frontend
-        return "data:image/png;base64," + base64Image;
+        BufferPng buffer = buffersPng.poll();
+        if (buffer == null) {
+            buffer = new BufferPng();
+        }
+        try {
+            buffer.writeBytes(PREFIXO_DATA_URL);
+            try (OutputStream base64 = Base64.getEncoder().wrap(buffer)) {
+                MatrixToImageWriter.writeToStream(bitMatrix, "PNG", base64);
+            }
+            // Retornar no formato data URL para uso direto no frontend
+            return buffer.toString(StandardCharsets.US_ASCII);
+        } finally {
+            devolver(buffer);
+        }
     }
 
     /**
-     * Valida o código TOTP fornecido pelo usuário
+     * Valida o código TOTP fornecido pelo usuário. Um código já aceito para o mesmo segredo
+     * é recusado enquanto ainda estiver na janela de validade (proteção contra reuso)
      */
     public boolean validateTotpCode(String secretKey, int totpCode) {
-        return gAuth.authorize(secretKey, totpCode);
+        if (!gAuth.authorize(secretKey, totpCode)) {
+            return false;
+        }
+        long agora = relogio.getAsLong();
+        long expiraEm = agora + TimeUnit.MILLISECONDS.toNanos(VALIDADE_CODIGO_TOTP_MS);
+        boolean[] primeiroUso = {false};
+        codigosUsados.compute(new CodigoUsado(secretKey, totpCode), (chave, expiracao) -> {
+            if (expiracao != null && agora - expiracao < 0) {
+                return expiracao;
+            }
+            primeiroUso[0] = true;
+            return expiraEm;
+        });
+        if (!primeiroUso[0]) {
+            log.warn("Código TOTP reutilizado dentro da janela de validade - recusado");
+        }
+        return primeiroUso[0];
     }
 
     /**
@@ -85,25 +155,103 @@ public class TwoFactorService {
                 issuer = "DentalSync"; // valor padrão
             }
             
-            System.out.println("Gerando setup 2FA para: " + userEmail + " com issuer: " + issuer);
+            log.debug("Gerando setup 2FA para: {} com issuer: {}", userEmail, issuer);
             
             String secretKey = generateSecretKey();
-            System.out.println("Secret key gerada: " + secretKey);
             
             String qrCodeUrl = generateQRCodeUrl(userEmail, secretKey, issuer);
-            System.out.println("QR Code URL gerada: " + qrCodeUrl);
             
             String qrCodeImage = generateQRCodeImage(qrCodeUrl);
-            System.out.println("QR Code Image gerada com sucesso");
+            log.debug("QR Code Image gerada com sucesso");
             
-            return new TwoFactorSetupData(secretKey, qrCodeUrl, qrCodeImage);
+            TwoFactorSetupData setupData = new TwoFactorSetupData(secretKey, qrCodeUrl, qrCodeImage);
+            guardarSetupPendente(userEmail, setupData);
+            return setupData;
         } catch (Exception e) {
-            System.err.println("Erro ao gerar dados de configuração 2FA: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Erro ao gerar dados de configuração 2FA: {}", e.getMessage(), e);
             throw new RuntimeException("Erro ao gerar dados de configuração 2FA: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Configuração gerada para o email com esse segredo e ainda não expirada (ex.: tela recarregada)
+     */
+    public Optional<TwoFactorSetupData> buscarSetupPendente(String userEmail, String secretKey) {
+        if (userEmail == null || secretKey == null) {
+            return Optional.empty();
+        }
+        SetupPendente pendente = setupsPendentes.get(new ChaveSetup(userEmail, secretKey));
+        if (pendente == null || relogio.getAsLong() - pendente.criadoEm() >= ttlNanos()) {
+            return Optional.empty();
+        }
+        return Optional.of(pendente.dados());
+    }
+
+    /**
+     * Descarta as configurações pendentes do email depois que o 2FA é ativado
+     */
+    public void descartarSetupsPendentes(String userEmail) {
+        setupsPendentes.keySet().removeIf(chave -> chave.email().equals(userEmail));
+    }
+
+    @Scheduled(fixedDelayString = "${dentalsync.2fa.limpeza-ms:60000}")
+    public void removerExpirados() {
+        long agora = relogio.getAsLong();
+        setupsPendentes.values().removeIf(pendente -> agora - pendente.criadoEm() >= ttlNanos());
+        codigosUsados.values().removeIf(expiraEm -> agora - expiraEm >= 0);
+    }
+
+    int setupsPendentes() {
+        return setupsPendentes.size();
+    }
+
+    int codigosUsados() {
+        return codigosUsados.size();
+    }
+
+    private void guardarSetupPendente(String userEmail, TwoFactorSetupData setupData) {
+        long agora = relogio.getAsLong();
+        if (setupsPendentes.size() >= setupMaxEntradas) {
+            setupsPendentes.values().removeIf(pendente -> agora - pendente.criadoEm() >= ttlNanos());
+            if (setupsPendentes.size() >= setupMaxEntradas) {
+                // Todas ainda válidas: recomeça do zero; quem recarregar a tela recebe um segredo novo
+                setupsPendentes.clear();
+            }
+        }
+        setupsPendentes.put(new ChaveSetup(userEmail, setupData.getSecretKey()), new SetupPendente(setupData, agora));
+    }
+
+    private long ttlNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(setupTtlMs);
+    }
+
+    private void devolver(BufferPng buffer) {
+        if (buffer.capacidade() <= TAMANHO_MAXIMO_BUFFER_PNG) {
+            buffer.reset();
+            buffersPng.offer(buffer);
+        }
+    }
+
+    private record ChaveSetup(String email, String secretKey) {
+    }
+
+    private record SetupPendente(TwoFactorSetupData dados, long criadoEm) {
+    }
+
+    private record CodigoUsado(String secretKey, int codigo) {
+    }
+
+    private static final class BufferPng extends ByteArrayOutputStream {
+
+        BufferPng() {
+            super(TAMANHO_BUFFER_PNG);
+        }
+
+        int capacidade() {
+            return buf.length;
+        }
+    }
+
     /**
      * Classe para retornar dados de configuração do 2FA
      */
@@ -130,4 +278,4 @@ public class TwoFactorService {
             return qrCodeImage;
         }
     }
-} 
\ No newline at end of file
+} 
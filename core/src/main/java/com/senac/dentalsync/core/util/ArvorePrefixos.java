@@ -0,0 +1,80 @@
+package com.senac.dentalsync.core.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Árvore de prefixos (trie por caractere) para casar caminhos de URL sem alocar nada na consulta.
+ * Cada caminho cadastrado é exato ("/logout" casa só "/logout") ou uma subárvore
+ * ("/laboratorios" casa "/laboratorios" e tudo abaixo de "/laboratorios/"). Montada uma vez e
+ * depois só lida, então pode ser compartilhada entre threads
+ */
+public class ArvorePrefixos {
+
+    private final No raiz = new No();
+
+    public ArvorePrefixos(Collection<String> exatos, Collection<String> subarvores) {
+        exatos.forEach(caminho -> inserir(caminho).exato = true);
+        subarvores.forEach(caminho -> inserir(caminho).subarvore = true);
+    }
+
+    public boolean contem(CharSequence caminho) {
+        return contem(caminho, 0);
+    }
+
+    /**
+     * Casa o caminho a partir de {@code inicio} (ex.: pulando o context path), sem criar substrings
+     */
+    public boolean contem(CharSequence caminho, int inicio) {
+        No no = raiz;
+        for (int i = inicio; i < caminho.length(); i++) {
+            char c = caminho.charAt(i);
+            if (c == '/' && no.subarvore) {
+                return true;
+            }
+            no = no.filho(c);
+            if (no == null) {
+                return false;
+            }
+        }
+        return no.exato || no.subarvore;
+    }
+
+    private No inserir(String caminho) {
+        No no = raiz;
+        for (int i = 0; i < caminho.length(); i++) {
+            no = no.filhoOuNovo(caminho.charAt(i));
+        }
+        return no;
+    }
+
+    private static final class No {
+
+        // Poucos filhos por nó (caminhos compartilham quase todo o prefixo): busca linear em arrays
+        private char[] chaves = new char[0];
+        private No[] filhos = new No[0];
+        private boolean exato;
+        private boolean subarvore;
+
+        No filho(char c) {
+            for (int i = 0; i < chaves.length; i++) {
+                if (chaves[i] == c) {
+                    return filhos[i];
+                }
+            }
+            return null;
+        }
+
+        No filhoOuNovo(char c) {
+            No filho = filho(c);
+            if (filho == null) {
+                filho = new No();
+                chaves = Arrays.copyOf(chaves, chaves.length + 1);
+                filhos = Arrays.copyOf(filhos, filhos.length + 1);
+                chaves[chaves.length - 1] = c;
+                filhos[filhos.length - 1] = filho;
+            }
+            return filho;
+        }
+    }
+}
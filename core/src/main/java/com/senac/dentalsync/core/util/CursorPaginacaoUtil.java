@@ -0,0 +1,131 @@
+package com.senac.dentalsync.core.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import com.senac.dentalsync.core.persistency.model.BaseEntity;
+
+/**
+ * Utilitário para paginação por cursor (keyset).
+ * O cursor é opaco para o cliente: guarda o campo de ordenação, a direção e os valores
+ * do último registro entregue, para que a próxima página comece logo depois dele (WHERE ... > ultimo)
+ * em vez de usar OFFSET.
+ * Na ordenação por createdAt os registros sem data (WHERE createdAt > x nunca os alcança) formam um
+ * segundo trecho, listado depois dos datados e ordenado só pelo id; o cursor indica em qual trecho está.
+ */
+public class CursorPaginacaoUtil {
+
+    public static final String CAMPO_ID = "id";
+    public static final String CAMPO_CREATED_AT = "createdAt";
+
+    private static final String SEPARADOR = "|";
+    private static final String SEM_DATA = "-";
+
+    /**
+     * Cursor decodificado: como ordenar e a partir de onde continuar.
+     * semData indica o trecho dos registros com createdAt nulo (ordenado por id)
+     */
+    public record Cursor(String campo, Sort.Direction direcao, KeysetScrollPosition posicao, boolean semData) {
+
+        public Cursor(String campo, Sort.Direction direcao, KeysetScrollPosition posicao) {
+            this(campo, direcao, posicao, false);
+        }
+
+        public boolean porData() {
+            return CAMPO_CREATED_AT.equals(campo);
+        }
+    }
+
+    /**
+     * Cursor da primeira página
+     */
+    public static Cursor inicio(String campo, Sort.Direction direcao) {
+        return new Cursor(validarCampo(campo), direcao, ScrollPosition.keyset());
+    }
+
+    /**
+     * Cursor que começa o trecho dos registros sem createdAt, depois de esgotados os datados
+     */
+    public static String codificarInicioSemData(Sort.Direction direcao) {
+        return codificar(CAMPO_CREATED_AT + SEPARADOR + direcao.name() + SEPARADOR + SEPARADOR + SEM_DATA);
+    }
+
+    /**
+     * Ordenação usada no seek. Ao ordenar por createdAt o id entra como desempate,
+     * garantindo uma ordem total mesmo com datas repetidas
+     */
+    public static Sort ordenacao(Cursor cursor) {
+        if (cursor.semData()) {
+            return Sort.by(cursor.direcao(), CAMPO_ID);
+        }
+        Sort sort = Sort.by(cursor.direcao(), cursor.campo());
+        if (!CAMPO_ID.equals(cursor.campo())) {
+            sort = sort.and(Sort.by(cursor.direcao(), CAMPO_ID));
+        }
+        return sort;
+    }
+
+    /**
+     * Gera o cursor que aponta para logo depois do registro informado
+     */
+    public static String codificar(Cursor cursor, BaseEntity ultimo) {
+        StringBuilder valor = new StringBuilder()
+                .append(cursor.campo()).append(SEPARADOR)
+                .append(cursor.direcao().name()).append(SEPARADOR)
+                .append(ultimo.getId());
+        if (cursor.porData()) {
+            valor.append(SEPARADOR).append(cursor.semData() || ultimo.getCreatedAt() == null ? SEM_DATA : ultimo.getCreatedAt());
+        }
+        return codificar(valor.toString());
+    }
+
+    /**
+     * Decodifica um cursor recebido do cliente
+     * @throws IllegalArgumentException se o cursor estiver malformado
+     */
+    public static Cursor decodificar(String token) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\" + SEPARADOR);
+
+            String campo = validarCampo(partes[0]);
+            Sort.Direction direcao = Sort.Direction.valueOf(partes[1]);
+
+            if (CAMPO_CREATED_AT.equals(campo) && SEM_DATA.equals(partes[3])) {
+                KeysetScrollPosition posicao = partes[2].isEmpty()
+                    ? ScrollPosition.keyset()
+                    : ScrollPosition.forward(Map.of(CAMPO_ID, Long.valueOf(partes[2])));
+                return new Cursor(campo, direcao, posicao, true);
+            }
+
+            Map<String, Object> chaves = new LinkedHashMap<>();
+            if (CAMPO_CREATED_AT.equals(campo)) {
+                chaves.put(CAMPO_CREATED_AT, LocalDateTime.parse(partes[3]));
+            }
+            chaves.put(CAMPO_ID, Long.valueOf(partes[2]));
+
+            return new Cursor(campo, direcao, ScrollPosition.forward(chaves));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido", e);
+        }
+    }
+
+    private static String codificar(String valor) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String validarCampo(String campo) {
+        if (CAMPO_ID.equals(campo) || CAMPO_CREATED_AT.equals(campo)) {
+            return campo;
+        }
+        throw new IllegalArgumentException("Campo de ordenação não suportado: " + campo);
+    }
+}
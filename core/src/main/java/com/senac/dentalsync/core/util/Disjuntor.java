@@ -0,0 +1,68 @@
+package com.senac.dentalsync.core.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Disjuntor (circuit breaker) para chamadas a um serviço externo. Depois de {@code falhasParaAbrir}
+ * falhas seguidas abre e recusa as chamadas na hora durante {@code abertoMs}; passado esse tempo libera
+ * uma única chamada de teste: sucesso fecha de novo, falha reabre pelo mesmo tempo
+ */
+public class Disjuntor {
+
+    public enum Estado { FECHADO, ABERTO, MEIO_ABERTO }
+
+    private final int falhasParaAbrir;
+    private final long abertoNanos;
+    private final LongSupplier relogio;
+
+    private Estado estado = Estado.FECHADO;
+    private int falhasSeguidas;
+    private long abertoEm;
+
+    public Disjuntor(int falhasParaAbrir, long abertoMs) {
+        this(falhasParaAbrir, abertoMs, System::nanoTime);
+    }
+
+    public Disjuntor(int falhasParaAbrir, long abertoMs, LongSupplier relogio) {
+        this.falhasParaAbrir = Math.max(1, falhasParaAbrir);
+        this.abertoNanos = TimeUnit.MILLISECONDS.toNanos(abertoMs);
+        this.relogio = relogio;
+    }
+
+    /**
+     * Indica se a chamada pode seguir. Com o disjuntor aberto e o tempo esgotado, a primeira chamada
+     * vira a de teste e as demais continuam recusadas até ela terminar
+     */
+    public synchronized boolean permitir() {
+        switch (estado) {
+            case FECHADO:
+                return true;
+            case ABERTO:
+                if (relogio.getAsLong() - abertoEm >= abertoNanos) {
+                    estado = Estado.MEIO_ABERTO;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void registrarSucesso() {
+        falhasSeguidas = 0;
+        estado = Estado.FECHADO;
+    }
+
+    public synchronized void registrarFalha() {
+        falhasSeguidas++;
+        if (estado == Estado.MEIO_ABERTO || falhasSeguidas >= falhasParaAbrir) {
+            estado = Estado.ABERTO;
+            abertoEm = relogio.getAsLong();
+        }
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+}
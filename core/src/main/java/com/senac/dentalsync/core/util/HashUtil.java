@@ -0,0 +1,27 @@
+package com.senac.dentalsync.core.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Utilitário para os hashes guardados no lugar de tokens e fingerprints
+ */
+public class HashUtil {
+
+    private HashUtil() {
+    }
+
+    /**
+     * SHA-256 do texto (UTF-8) em hexadecimal minúsculo, 64 caracteres
+     */
+    public static String sha256Hex(String texto) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(texto.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.senac.dentalsync.core.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice invertido de nomes para casar nomes ditados ("Marcos Vianna", "coroa") com os cadastros sem
+ * varrer a tabela. Cada nome é indexado pelos trigramas das palavras (pega erros de digitação e de
+ * transcrição) e pela chave fonética de cada palavra (pega grafias diferentes do mesmo som: "Luiz"/"Luis",
+ * "Tereza"/"Teresa"). A busca só visita os nomes que compartilham algum trigrama ou chave com a consulta.
+ * Escritas são serializadas; leituras não bloqueiam e podem rodar junto com elas
+ */
+public class IndiceNomes {
+
+    // Tratamentos e ligações que aparecem no ditado mas não ajudam a distinguir nomes
+    private static final Set<String> PALAVRAS_IGNORADAS = Set.of(
+        "de", "da", "do", "das", "dos", "e", "dr", "dra", "sr", "sra", "srta",
+        "doutor", "doutora", "senhor", "senhora");
+
+    private static final double PESO_TRIGRAMAS = 0.6;
+    private static final double PESO_FONETICA = 0.4;
+
+    private final Map<Long, Entrada> entradas = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> porTrigrama = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> porFonetica = new ConcurrentHashMap<>();
+
+    /**
+     * Inclui o nome ou substitui o anterior do mesmo id; nome vazio remove
+     */
+    public synchronized void atualizar(Long id, String nome) {
+        remover(id);
+        List<String> palavras = palavras(nome);
+        if (palavras.isEmpty()) {
+            return;
+        }
+        Entrada entrada = new Entrada(nome.trim(), trigramas(palavras), foneticas(palavras));
+        entrada.trigramas.forEach(trigrama -> porTrigrama.computeIfAbsent(trigrama, t -> ConcurrentHashMap.newKeySet()).add(id));
+        entrada.foneticas.forEach(chave -> porFonetica.computeIfAbsent(chave, c -> ConcurrentHashMap.newKeySet()).add(id));
+        entradas.put(id, entrada);
+    }
+
+    public synchronized void remover(Long id) {
+        Entrada entrada = entradas.remove(id);
+        if (entrada == null) {
+            return;
+        }
+        entrada.trigramas.forEach(trigrama -> desindexar(porTrigrama, trigrama, id));
+        entrada.foneticas.forEach(chave -> desindexar(porFonetica, chave, id));
+    }
+
+    /**
+     * Nomes mais parecidos com a consulta, do mais para o menos parecido. A pontuação (0 a 1) combina a
+     * semelhança de trigramas (coeficiente de Dice) com a fração das palavras da consulta cujo som bate
+     */
+    public List<Resultado> buscar(String consulta, int limite, double pontuacaoMinima) {
+        List<String> palavras = palavras(consulta);
+        if (palavras.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        Set<String> trigramasConsulta = trigramas(palavras);
+        Set<String> foneticasConsulta = foneticas(palavras);
+
+        Map<Long, int[]> emComum = new HashMap<>();
+        trigramasConsulta.forEach(trigrama -> porTrigrama.getOrDefault(trigrama, Set.of())
+            .forEach(id -> emComum.computeIfAbsent(id, i -> new int[2])[0]++));
+        foneticasConsulta.forEach(chave -> porFonetica.getOrDefault(chave, Set.of())
+            .forEach(id -> emComum.computeIfAbsent(id, i -> new int[2])[1]++));
+
+        List<Resultado> resultados = new ArrayList<>();
+        emComum.forEach((id, contagem) -> {
+            Entrada entrada = entradas.get(id);
+            if (entrada == null) {
+                return;
+            }
+            double dice = 2.0 * contagem[0] / (trigramasConsulta.size() + entrada.trigramas.size());
+            double fonetica = (double) contagem[1] / foneticasConsulta.size();
+            double pontuacao = PESO_TRIGRAMAS * dice + PESO_FONETICA * fonetica;
+            if (pontuacao >= pontuacaoMinima) {
+                resultados.add(new Resultado(id, entrada.nome, Math.round(pontuacao * 1000) / 1000.0));
+            }
+        });
+        resultados.sort(Comparator.comparingDouble(Resultado::pontuacao).reversed()
+            .thenComparing(Resultado::nome, String.CASE_INSENSITIVE_ORDER));
+        return resultados.size() > limite ? List.copyOf(resultados.subList(0, limite)) : resultados;
+    }
+
+    public int tamanho() {
+        return entradas.size();
+    }
+
+    /**
+     * Minúsculas sem acento, só letras e dígitos, separadas por um espaço
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        return Normalizer.normalize(texto, Normalizer.Form.NFD)
+            .replaceAll("\\p{M}", "")
+            .toLowerCase(Locale.ROOT)
+            .replaceAll("[^a-z0-9]+", " ")
+            .trim();
+    }
+
+    /**
+     * Chave fonética simplificada para o português: unifica as grafias do mesmo som (ph/f, ch/x, ce/se,
+     * ca/ka/qua, ge/je, z/s, y/i, w/v, h mudo), descarta as vogais depois da primeira letra, junta letras
+     * repetidas e ignora o "s" final (plural)
+     */
+    static String chaveFonetica(String palavra) {
+        String som = palavra
+            .replace("ph", "f")
+            .replace("lh", "l")
+            .replace("nh", "n")
+            .replace("ch", "x")
+            .replace("sh", "x")
+            .replaceAll("qu(?=[ei])", "k")
+            .replace("q", "k")
+            .replaceAll("gu(?=[ei])", "g")
+            .replaceAll("c(?=[eiy])", "s")
+            .replace("c", "k")
+            .replaceAll("g(?=[eiy])", "j")
+            .replace("y", "i")
+            .replace("w", "v")
+            .replace("z", "s")
+            .replace("h", "")
+            .replaceAll("m$", "n");
+        if (som.isEmpty()) {
+            return palavra;
+        }
+
+        StringBuilder chave = new StringBuilder().append(som.charAt(0));
+        for (int i = 1; i < som.length(); i++) {
+            char c = som.charAt(i);
+            if ("aeiou".indexOf(c) < 0 && c != chave.charAt(chave.length() - 1)) {
+                chave.append(c);
+            }
+        }
+        if (chave.length() > 1 && chave.charAt(chave.length() - 1) == 's') {
+            chave.setLength(chave.length() - 1);
+        }
+        return chave.toString();
+    }
+
+    private static List<String> palavras(String texto) {
+        String normalizado = normalizar(texto);
+        if (normalizado.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(normalizado.split(" "))
+            .filter(palavra -> !PALAVRAS_IGNORADAS.contains(palavra))
+            .toList();
+    }
+
+    // Trigramas de cada palavra com um espaço de cada lado (" ana " -> " an", "ana", "na ")
+    private static Set<String> trigramas(List<String> palavras) {
+        Set<String> trigramas = new LinkedHashSet<>();
+        for (String palavra : palavras) {
+            String comBordas = " " + palavra + " ";
+            for (int i = 0; i + 3 <= comBordas.length(); i++) {
+                trigramas.add(comBordas.substring(i, i + 3));
+            }
+        }
+        return trigramas;
+    }
+
+    private static Set<String> foneticas(List<String> palavras) {
+        Set<String> chaves = new LinkedHashSet<>();
+        palavras.forEach(palavra -> chaves.add(chaveFonetica(palavra)));
+        return chaves;
+    }
+
+    private static void desindexar(Map<String, Set<Long>> indice, String chave, Long id) {
+        indice.computeIfPresent(chave, (c, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    public record Resultado(Long id, String nome, double pontuacao) {
+    }
+
+    private record Entrada(String nome, Set<String> trigramas, Set<String> foneticas) {
+    }
+}
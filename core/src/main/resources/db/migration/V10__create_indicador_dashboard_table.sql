@@ -0,0 +1,9 @@
+-- Contadores agregados do dashboard (mantidos pela aplicação a cada escrita de pedido/dentista)
+CREATE TABLE IF NOT EXISTS indicador_dashboard (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tipo VARCHAR(40) NOT NULL,
+    chave VARCHAR(60) NOT NULL,
+    valor BIGINT NOT NULL,
+    updated_at TIMESTAMP NULL,
+    CONSTRAINT uk_indicador_dashboard_tipo_chave UNIQUE (tipo, chave)
+);
@@ -0,0 +1,2 @@
+-- Versão para controle otimista de concorrência do material (ver Material.versao)
+ALTER TABLE material ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,13 @@
+-- Livro de movimentações de estoque (somente inserção): baixas por pedido, cadastros e ajustes manuais.
+-- Sem chave estrangeira para material/pedido: ambos podem ser excluídos e o histórico permanece
+CREATE TABLE IF NOT EXISTS movimentacao_estoque (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    material_id BIGINT NOT NULL,
+    tipo VARCHAR(30) NOT NULL,
+    quantidade DECIMAL(19,2) NOT NULL,
+    pedido_id BIGINT NULL,
+    created_at TIMESTAMP NOT NULL,
+    created_by BIGINT NULL,
+    INDEX idx_movimentacao_estoque_material (material_id, created_at),
+    INDEX idx_movimentacao_estoque_pedido (pedido_id)
+);
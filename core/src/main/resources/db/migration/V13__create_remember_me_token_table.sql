@@ -0,0 +1,27 @@
+-- Tokens de "Lembrar de mim" por dispositivo: só o SHA-256 do token é guardado, com índice único para o login
+CREATE TABLE IF NOT EXISTS remember_me_token (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    protetico_id BIGINT NOT NULL,
+    token_hash VARCHAR(64) NOT NULL,
+    expira_em DATETIME NOT NULL,
+    created_at DATETIME NOT NULL,
+    CONSTRAINT uk_remember_me_token_hash UNIQUE (token_hash),
+    INDEX idx_remember_me_token_expira_em (expira_em),
+    FOREIGN KEY (protetico_id) REFERENCES protetico(id) ON DELETE CASCADE
+);
+
+-- Migra os tokens ainda válidos guardados em texto puro na tabela protetico (o cookie continua funcionando)
+INSERT IGNORE INTO remember_me_token (protetico_id, token_hash, expira_em, created_at)
+SELECT p.id,
+       SHA2(p.remember_me_token, 256),
+       FROM_UNIXTIME(p.remember_me_timestamp / 1000) + INTERVAL p.remember_me_duration_days DAY,
+       NOW()
+FROM protetico p
+WHERE p.remember_me_token IS NOT NULL
+  AND p.remember_me_timestamp IS NOT NULL
+  AND p.remember_me_duration_days IS NOT NULL
+  AND FROM_UNIXTIME(p.remember_me_timestamp / 1000) + INTERVAL p.remember_me_duration_days DAY > NOW();
+
+UPDATE protetico
+SET remember_me_token = NULL, remember_me_timestamp = NULL, remember_me_duration_days = NULL
+WHERE remember_me_token IS NOT NULL;
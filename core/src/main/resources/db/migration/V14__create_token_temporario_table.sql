@@ -0,0 +1,11 @@
+-- Códigos de recuperação e tokens de reset de senha compartilhados entre instâncias
+-- (usada com dentalsync.tokens.armazenamento=banco)
+CREATE TABLE IF NOT EXISTS token_temporario (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    tipo VARCHAR(40) NOT NULL,
+    chave VARCHAR(255) NOT NULL,
+    valor VARCHAR(255) NOT NULL,
+    expira_em DATETIME NOT NULL,
+    CONSTRAINT uk_token_temporario_tipo_chave UNIQUE (tipo, chave),
+    INDEX idx_token_temporario_expira_em (expira_em)
+);
@@ -0,0 +1,18 @@
+-- Fila de saída de emails: gravados na requisição, enviados pelos workers com novas tentativas;
+-- os que esgotam as tentativas ficam com status FALHOU
+CREATE TABLE IF NOT EXISTS email_pendente (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    destinatario VARCHAR(255) NOT NULL,
+    assunto VARCHAR(255) NOT NULL,
+    corpo TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    tentativas INT NOT NULL DEFAULT 0,
+    proxima_tentativa_em DATETIME NOT NULL,
+    reserva VARCHAR(36) NULL,
+    reservado_em DATETIME NULL,
+    ultimo_erro VARCHAR(500) NULL,
+    created_at DATETIME NOT NULL,
+    enviado_em DATETIME NULL,
+    INDEX idx_email_pendente_status_proxima (status, proxima_tentativa_em),
+    INDEX idx_email_pendente_reserva (reserva)
+);
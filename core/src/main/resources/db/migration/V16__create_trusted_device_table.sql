@@ -0,0 +1,17 @@
+-- Dispositivos confiáveis do 2FA, vários por protético; fingerprint e token guardados como SHA-256
+CREATE TABLE IF NOT EXISTS trusted_device (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    protetico_id BIGINT NOT NULL,
+    fingerprint_hash VARCHAR(64) NOT NULL,
+    token_hash VARCHAR(64) NOT NULL,
+    expira_em DATETIME NOT NULL,
+    created_at DATETIME NOT NULL,
+    CONSTRAINT uk_trusted_device_protetico_fingerprint UNIQUE (protetico_id, fingerprint_hash),
+    INDEX idx_trusted_device_expira_em (expira_em),
+    FOREIGN KEY (protetico_id) REFERENCES protetico(id) ON DELETE CASCADE
+);
+
+-- Os registros antigos valem poucos minutos: não são migrados, o próximo login com 2FA registra de novo
+UPDATE protetico
+SET trusted_device_fingerprint = NULL, trusted_device_token = NULL, trusted_device_timestamp = NULL
+WHERE trusted_device_fingerprint IS NOT NULL OR trusted_device_token IS NOT NULL;
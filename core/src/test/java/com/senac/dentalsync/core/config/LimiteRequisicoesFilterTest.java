@@ -0,0 +1,71 @@
+package com.senac.dentalsync.core.config;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.Servlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LimiteRequisicoesFilterTest {
+
+    @Test
+    void deveDeixarPassarDentroDoLimiteELiberarAVagaAoFinal() throws Exception {
+        LimiteRequisicoesFilter filtro = new LimiteRequisicoesFilter(2, 0);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filtro.doFilter(new MockHttpServletRequest("GET", "/pedidos"), response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(filtro.getVagasLivres()).isEqualTo(2);
+    }
+
+    @Test
+    void deveRecusarComRetryAfterQuandoAsVagasEstiveremOcupadas() throws Exception {
+        LimiteRequisicoesFilter filtro = new LimiteRequisicoesFilter(1, 50);
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Servlet lenta = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+                dentro.countDown();
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        CompletableFuture<Void> ocupando = CompletableFuture.runAsync(() -> {
+            try {
+                filtro.doFilter(new MockHttpServletRequest("GET", "/relatorios/dashboard"),
+                    new MockHttpServletResponse(), new MockFilterChain(lenta));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(dentro.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse recusada = new MockHttpServletResponse();
+        try {
+            filtro.doFilter(new MockHttpServletRequest("GET", "/pedidos"), recusada, new MockFilterChain());
+        } finally {
+            liberar.countDown();
+        }
+        ocupando.get(5, TimeUnit.SECONDS);
+
+        assertThat(recusada.getStatus()).isEqualTo(503);
+        assertThat(recusada.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(filtro.getVagasLivres()).isEqualTo(1);
+    }
+}
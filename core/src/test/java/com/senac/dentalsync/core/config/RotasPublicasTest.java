@@ -0,0 +1,66 @@
+package com.senac.dentalsync.core.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mesmo conjunto de rotas para o Spring Security e para o AuthInterceptor, cada um com o seu alcance
+ */
+public class RotasPublicasTest {
+
+    @Test
+    void deveLiberarSemLoginSomenteAsRotasDeAutenticacaoEOsCadastros() {
+        assertThat(liberadaSemLogin("/login")).isTrue();
+        assertThat(liberadaSemLogin("/login/verify-2fa")).isTrue();
+        assertThat(liberadaSemLogin("/password/reset")).isTrue();
+        assertThat(liberadaSemLogin("/proteticos/cadastro")).isTrue();
+        assertThat(liberadaSemLogin("/proteticos/5")).isTrue();
+        assertThat(liberadaSemLogin("/laboratorios/5")).isTrue();
+        assertThat(liberadaSemLogin("/security/reset-password-emergency")).isTrue();
+        assertThat(liberadaSemLogin("/material/notificacoes/estoque")).isTrue();
+
+        assertThat(liberadaSemLogin("/login/remember-me")).isFalse();
+        assertThat(liberadaSemLogin("/password/outro")).isFalse();
+        assertThat(liberadaSemLogin("/security/2fa/enable")).isFalse();
+        assertThat(liberadaSemLogin("/material/notificacoes/estoque/stream")).isFalse();
+        assertThat(liberadaSemLogin("/actuator/health")).isFalse();
+        assertThat(liberadaSemLogin("/pedidos")).isFalse();
+    }
+
+    @Test
+    void deveIgnorarContextPathNoSpringSecurity() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/app/login");
+        request.setContextPath("/app");
+
+        assertThat(RotasPublicas.liberadaSemLogin(request)).isTrue();
+    }
+
+    @Test
+    void deveDispensarVerificacaoDaContaNasRotasPublicas() {
+        assertThat(RotasPublicas.dispensaVerificacao("/login")).isTrue();
+        assertThat(RotasPublicas.dispensaVerificacao("/login/remember-me")).isTrue();
+        assertThat(RotasPublicas.dispensaVerificacao("/password/qualquer")).isTrue();
+        assertThat(RotasPublicas.dispensaVerificacao("/proteticos/cadastro")).isTrue();
+        assertThat(RotasPublicas.dispensaVerificacao("/laboratorios/1")).isTrue();
+        assertThat(RotasPublicas.dispensaVerificacao("/actuator/health")).isTrue();
+        assertThat(RotasPublicas.dispensaVerificacao("/swagger-ui/index.html")).isTrue();
+        assertThat(RotasPublicas.dispensaVerificacao("/api/login")).isTrue();
+        assertThat(RotasPublicas.dispensaVerificacao("/api/laboratorios/1")).isTrue();
+    }
+
+    @Test
+    void deveVerificarContaNasDemaisRotas() {
+        assertThat(RotasPublicas.dispensaVerificacao("/proteticos/5")).isFalse();
+        assertThat(RotasPublicas.dispensaVerificacao("/pedidos")).isFalse();
+        assertThat(RotasPublicas.dispensaVerificacao("/security/2fa/enable")).isFalse();
+        assertThat(RotasPublicas.dispensaVerificacao("/api")).isFalse();
+        assertThat(RotasPublicas.dispensaVerificacao("/apilogin")).isFalse();
+        assertThat(RotasPublicas.dispensaVerificacao(null)).isFalse();
+    }
+
+    private static boolean liberadaSemLogin(String uri) {
+        return RotasPublicas.liberadaSemLogin(new MockHttpServletRequest("GET", uri));
+    }
+}
@@ -44,6 +44,9 @@ public class AuthControllerTest {
     @MockBean
     private ProteticoService proteticoService;
 
+    @MockBean
+    private StatusProteticoCache statusProteticoCache;
+
     @MockBean
     private TwoFactorService twoFactorService;
 
@@ -383,8 +386,6 @@ public class AuthControllerTest {
             .thenReturn("joao@protetico.com");
         when(proteticoService.findByEmail("joao@protetico.com"))
             .thenReturn(Optional.of(proteticoTeste));
-        when(passwordEncoder.encode("novaSenha123"))
-            .thenReturn("encoded-password");
 
         // When & Then
         mockMvc.perform(post("/password/reset")
@@ -394,7 +395,8 @@ public class AuthControllerTest {
             .andExpect(jsonPath("$.success").value(true))
             .andExpect(jsonPath("$.message").value("Senha alterada com sucesso"));
 
-        verify(proteticoService).save(proteticoTeste);
+        verify(proteticoService).atualizarSenha(proteticoTeste, "novaSenha123");
+        verify(proteticoService, never()).save(any(Protetico.class));
         verify(emailService).invalidatePasswordResetToken("reset-token");
     }
 
@@ -505,7 +507,8 @@ public class AuthControllerTest {
             .andExpect(jsonPath("$.success").value(true))
             .andExpect(jsonPath("$.message").value("Login realizado com sucesso"));
 
-        verify(proteticoService).save(proteticoTeste);
+        verify(proteticoService).atualizarTwoFactor(proteticoTeste);
+        assert !proteticoTeste.getTwoFactorEnabled();
     }
 
     @Test
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.senac.dentalsync.core.persistency.model.Laboratorio;
 import com.senac.dentalsync.core.service.LaboratorioService;
 import com.senac.dentalsync.core.service.ProteticoService;
+import com.senac.dentalsync.core.service.StatusProteticoCache;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -44,6 +45,9 @@ public class LaboratorioControllerTest {
     @MockBean
     private ProteticoService proteticoService;
 
+    @MockBean
+    private StatusProteticoCache statusProteticoCache;
+
     private Laboratorio laboratorioTeste;
     private List<Laboratorio> listaLaboratorios;
 
@@ -3,6 +3,8 @@ package com.senac.dentalsync.core.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.senac.dentalsync.core.persistency.model.Material;
 import com.senac.dentalsync.core.service.MaterialService;
+import com.senac.dentalsync.core.service.CanalNotificacaoEstoque;
+import com.senac.dentalsync.core.service.RetentativaConcorrencia;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -40,6 +42,12 @@ public class MaterialControllerTest {
     @MockBean
     private MaterialService materialService;
 
+    @MockBean
+    private RetentativaConcorrencia retentativaConcorrencia;
+
+    @MockBean
+    private CanalNotificacaoEstoque canalNotificacaoEstoque;
+
     private Material materialTeste;
     private List<Material> listaMateriais;
 
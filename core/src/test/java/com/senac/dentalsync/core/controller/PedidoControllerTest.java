@@ -9,6 +9,7 @@ import com.senac.dentalsync.core.service.PedidoService;
 import com.senac.dentalsync.core.service.DentistaService;
 import com.senac.dentalsync.core.service.PacienteService;
 import com.senac.dentalsync.core.service.ProteticoService;
+import com.senac.dentalsync.core.service.StatusProteticoCache;
 import com.senac.dentalsync.core.dto.AtualizarStatusPedidoDTO;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -53,6 +54,9 @@ public class PedidoControllerTest {
     @MockBean
     private ProteticoService proteticoService;
 
+    @MockBean
+    private StatusProteticoCache statusProteticoCache;
+
     private Pedido pedidoTeste;
     private List<Pedido> listaPedidos;
     private Dentista dentistaTeste;
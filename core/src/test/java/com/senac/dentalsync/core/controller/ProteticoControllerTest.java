@@ -3,6 +3,7 @@ package com.senac.dentalsync.core.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.senac.dentalsync.core.persistency.model.Protetico;
 import com.senac.dentalsync.core.service.ProteticoService;
+import com.senac.dentalsync.core.service.StatusProteticoCache;
 import com.senac.dentalsync.core.service.PedidoService;
 import com.senac.dentalsync.core.dto.HistoricoProteticoDTO;
 
@@ -46,6 +47,9 @@ public class ProteticoControllerTest {
     @MockBean
     private ProteticoService proteticoService;
 
+    @MockBean
+    private StatusProteticoCache statusProteticoCache;
+
     @MockBean
     private PedidoService pedidoService;
 
@@ -44,6 +44,9 @@ public class SecurityControllerTest {
     @MockBean
     private ProteticoService proteticoService;
 
+    @MockBean
+    private StatusProteticoCache statusProteticoCache;
+
     @MockBean
     private TwoFactorService twoFactorService;
 
@@ -99,7 +102,7 @@ public class SecurityControllerTest {
             .andExpect(jsonPath("$.success").value(true))
             .andExpect(jsonPath("$.message").value("Senha alterada com sucesso"));
 
-        verify(proteticoService).save(proteticoTeste);
+        verify(proteticoService).atualizarSenha(proteticoTeste, "novaSenha123");
     }
 
     @Test
@@ -229,7 +232,7 @@ public class SecurityControllerTest {
             .andExpect(jsonPath("$.success").value(true))
             .andExpect(jsonPath("$.message").value("Autenticação de dois fatores ativada com sucesso"));
 
-        verify(proteticoService).save(proteticoTeste);
+        verify(proteticoService).atualizarTwoFactor(proteticoTeste);
         // Verificar se o 2FA foi ativado
         assert proteticoTeste.getTwoFactorEnabled();
         assert "SECRET123".equals(proteticoTeste.getTwoFactorSecret());
@@ -271,7 +274,7 @@ public class SecurityControllerTest {
             .andExpect(jsonPath("$.success").value(true))
             .andExpect(jsonPath("$.message").value("Autenticação de dois fatores desativada com sucesso"));
 
-        verify(proteticoService).save(proteticoTeste);
+        verify(proteticoService).atualizarTwoFactor(proteticoTeste);
         // Verificar se o 2FA foi desativado
         assert !proteticoTeste.getTwoFactorEnabled();
         assert proteticoTeste.getTwoFactorSecret() == null;
@@ -447,8 +450,8 @@ public class SecurityControllerTest {
         // Given
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
             .thenReturn(authenticationTeste);
-        when(proteticoService.save(any(Protetico.class)))
-            .thenThrow(new RuntimeException("Erro no banco de dados"));
+        doThrow(new RuntimeException("Erro no banco de dados"))
+            .when(proteticoService).atualizarSenha(any(Protetico.class), anyString());
 
         // When & Then
         mockMvc.perform(post("/security/change-password")
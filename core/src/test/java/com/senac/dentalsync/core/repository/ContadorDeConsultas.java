@@ -0,0 +1,44 @@
+package com.senac.dentalsync.core.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Conta os statements SQL preparados pelo Hibernate para verificar o orçamento de consultas de uma operação.
+ * Requer spring.jpa.properties.hibernate.generate_statistics=true no teste.
+ *
+ * Uso:
+ *   contador.zerar();
+ *   ... operação ...
+ *   contador.verificarNoMaximo(2, "listagem de pedidos");
+ */
+public class ContadorDeConsultas {
+
+    private final Statistics estatisticas;
+
+    public ContadorDeConsultas(EntityManagerFactory entityManagerFactory) {
+        this.estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.estatisticas.setStatisticsEnabled(true);
+    }
+
+    public void zerar() {
+        estatisticas.clear();
+    }
+
+    public long total() {
+        return estatisticas.getPrepareStatementCount();
+    }
+
+    /**
+     * Falha se a operação executou mais statements do que o orçamento
+     */
+    public void verificarNoMaximo(long orcamento, String operacao) {
+        assertThat(total())
+            .as("Quantidade de consultas em '%s' excedeu o orçamento de %d", operacao, orcamento)
+            .isLessThanOrEqualTo(orcamento);
+    }
+}
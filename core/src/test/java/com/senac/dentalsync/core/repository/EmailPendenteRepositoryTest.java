@@ -0,0 +1,91 @@
+package com.senac.dentalsync.core.repository;
+
+import com.senac.dentalsync.core.persistency.model.EmailPendente;
+import com.senac.dentalsync.core.persistency.repository.EmailPendenteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fila de emails no banco: só os prontos saem, cada um reservado por um único lote
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class EmailPendenteRepositoryTest {
+
+    @Autowired
+    private EmailPendenteRepository emailPendenteRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private LocalDateTime agora;
+    private EmailPendente pronto;
+
+    @BeforeEach
+    void setUp() {
+        agora = LocalDateTime.now();
+        pronto = email("pronto@teste.com", EmailPendente.Status.PENDENTE, agora.minusMinutes(1));
+        email("agendado@teste.com", EmailPendente.Status.PENDENTE, agora.plusMinutes(5));
+        email("falhou@teste.com", EmailPendente.Status.FALHOU, agora.minusMinutes(10));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void deveReservarOsProntosUmaUnicaVez() {
+        List<Long> ids = emailPendenteRepository.findIdsProntos(agora, PageRequest.of(0, 20));
+
+        assertThat(ids).containsExactly(pronto.getId());
+        assertThat(emailPendenteRepository.reservar(ids, "lote-1", agora)).isEqualTo(1);
+        assertThat(emailPendenteRepository.reservar(ids, "lote-2", agora)).isZero();
+        entityManager.clear();
+        assertThat(emailPendenteRepository.findByReservaOrderById("lote-1"))
+            .extracting(EmailPendente::getDestinatario).containsExactly("pronto@teste.com");
+        assertThat(emailPendenteRepository.findByReservaOrderById("lote-2")).isEmpty();
+    }
+
+    @Test
+    void deveDevolverParaAFilaReservasAbandonadas() {
+        emailPendenteRepository.reservar(List.of(pronto.getId()), "lote-1", agora.minusMinutes(30));
+
+        int liberados = emailPendenteRepository.liberarReservasAntigas(agora.minusMinutes(10));
+
+        assertThat(liberados).isEqualTo(1);
+        assertThat(emailPendenteRepository.findIdsProntos(agora, PageRequest.of(0, 20))).containsExactly(pronto.getId());
+    }
+
+    @Test
+    void deveApagarOCorpoAoFinalizarERemoverOsAntigos() {
+        emailPendenteRepository.marcarEnviados(List.of(pronto.getId()), agora);
+        entityManager.clear();
+        assertThat(emailPendenteRepository.findById(pronto.getId())).get()
+            .satisfies(enviado -> {
+                assertThat(enviado.getStatus()).isEqualTo(EmailPendente.Status.ENVIADO);
+                assertThat(enviado.getCorpo()).isEmpty();
+            });
+
+        int removidos = emailPendenteRepository.deleteFinalizadosAntes(agora.plusSeconds(1));
+
+        // o enviado e o que falhou saem; o agendado continua na fila
+        assertThat(removidos).isEqualTo(2);
+        assertThat(emailPendenteRepository.findAll()).extracting(EmailPendente::getDestinatario)
+            .containsExactly("agendado@teste.com");
+    }
+
+    private EmailPendente email(String destinatario, EmailPendente.Status status, LocalDateTime proximaTentativaEm) {
+        return entityManager.persist(new EmailPendente(null, destinatario, "Assunto", "<p>corpo</p>", status, 0,
+            proximaTentativaEm, null, null, null, agora, null));
+    }
+}
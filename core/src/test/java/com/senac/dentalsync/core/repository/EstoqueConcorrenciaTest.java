@@ -0,0 +1,98 @@
+package com.senac.dentalsync.core.repository;
+
+import com.senac.dentalsync.core.persistency.model.Material;
+import com.senac.dentalsync.core.persistency.model.StatusMaterial;
+import com.senac.dentalsync.core.persistency.repository.MaterialRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vários pedidos simultâneos baixando o mesmo material: o UPDATE condicional não pode vender
+ * mais do que existe, nem perder baixas. Sem a transação do teste, cada baixa faz commit de verdade
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EstoqueConcorrenciaTest {
+
+    private static final int THREADS = 8;
+    private static final int BAIXAS_POR_THREAD = 5;
+
+    @Autowired
+    private MaterialRepository materialRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        materialRepository.deleteAll();
+    }
+
+    @Test
+    void naoDeveVenderMaisQueOEstoqueComPedidosParalelos() throws Exception {
+        // given - 20 unidades para 40 baixas de 1 unidade
+        Material zirconia = new Material();
+        zirconia.setNome("Zircônia");
+        zirconia.setQuantidade(new BigDecimal("20.00"));
+        zirconia.setEstoqueMinimo(new BigDecimal("5.00"));
+        zirconia.setStatus(StatusMaterial.EM_ESTOQUE);
+        zirconia.setIsActive(true);
+        Long id = materialRepository.save(zirconia).getId();
+
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        AtomicInteger aceitas = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        // when
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tarefas.add(pool.submit(() -> {
+                largada.await();
+                for (int i = 0; i < BAIXAS_POR_THREAD; i++) {
+                    Integer alterados = transacao.execute(status ->
+                        materialRepository.descontarEstoque(id, BigDecimal.ONE, LocalDateTime.now(), null));
+                    if (alterados != null && alterados == 1) {
+                        aceitas.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // then
+        Material depois = materialRepository.findById(id).orElseThrow();
+        assertThat(aceitas.get()).isEqualTo(20);
+        assertThat(depois.getQuantidade()).isEqualByComparingTo("0");
+        assertThat(depois.getStatus()).isEqualTo(StatusMaterial.SEM_ESTOQUE);
+        assertThat(depois.getVersao()).isEqualTo(20L);
+    }
+}
@@ -0,0 +1,163 @@
+package com.senac.dentalsync.core.repository;
+
+import com.senac.dentalsync.core.dto.AlertaEstoqueDTO;
+import com.senac.dentalsync.core.dto.ConsumoMaterialDTO;
+import com.senac.dentalsync.core.persistency.model.Material;
+import com.senac.dentalsync.core.persistency.model.Servico;
+import com.senac.dentalsync.core.persistency.model.ServicoMaterial;
+import com.senac.dentalsync.core.persistency.model.StatusMaterial;
+import com.senac.dentalsync.core.persistency.repository.MaterialRepository;
+import com.senac.dentalsync.core.persistency.repository.ServicoMaterialRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Desconto de estoque feito direto no banco: uma consulta para o consumo do pedido
+ * e um UPDATE condicional por material, sem carregar as entidades
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class MaterialRepositoryTest {
+
+    @Autowired
+    private MaterialRepository materialRepository;
+
+    @Autowired
+    private ServicoMaterialRepository servicoMaterialRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ContadorDeConsultas contador;
+    private Material resina;
+    private Material gesso;
+    private Servico coroa;
+    private Servico ponte;
+
+    @BeforeEach
+    void setUp() {
+        contador = new ContadorDeConsultas(entityManagerFactory);
+
+        resina = material("Resina", "10.00", "2.00");
+        gesso = material("Gesso", "5.00", null);
+
+        coroa = servico("Coroa");
+        ponte = servico("Ponte");
+        entityManager.persist(new ServicoMaterial(coroa, resina, new BigDecimal("3.00")));
+        entityManager.persist(new ServicoMaterial(ponte, resina, new BigDecimal("1.00")));
+        entityManager.persist(new ServicoMaterial(ponte, gesso, new BigDecimal("2.00")));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void deveBuscarConsumoDeVariosServicosEmUmaConsulta() {
+        contador.zerar();
+
+        List<ConsumoMaterialDTO> consumo = servicoMaterialRepository.findConsumoByServicoIdIn(Set.of(coroa.getId(), ponte.getId()));
+
+        contador.verificarNoMaximo(1, "consumo de materiais do pedido");
+        assertThat(consumo).hasSize(3);
+        assertThat(consumo)
+            .filteredOn(c -> c.getMaterialId().equals(resina.getId()))
+            .extracting(ConsumoMaterialDTO::getQuantidade)
+            .usingElementComparator(BigDecimal::compareTo)
+            .containsExactlyInAnyOrder(new BigDecimal("3.00"), new BigDecimal("1.00"));
+    }
+
+    @Test
+    void deveDescontarEstoqueERecalcularStatusEmUmUpdate() {
+        contador.zerar();
+
+        int alterados = materialRepository.descontarEstoque(resina.getId(), new BigDecimal("8.00"), LocalDateTime.now(), null);
+
+        contador.verificarNoMaximo(1, "desconto de estoque");
+        assertThat(alterados).isEqualTo(1);
+        entityManager.clear();
+        Material atualizado = materialRepository.findById(resina.getId()).orElseThrow();
+        assertThat(atualizado.getQuantidade()).isEqualByComparingTo("2.00");
+        assertThat(atualizado.getStatus()).isEqualTo(StatusMaterial.BAIXO_ESTOQUE);
+    }
+
+    @Test
+    void deveMarcarSemEstoqueQuandoZerar() {
+        materialRepository.descontarEstoque(resina.getId(), new BigDecimal("10.00"), LocalDateTime.now(), null);
+
+        entityManager.clear();
+        Material atualizado = materialRepository.findById(resina.getId()).orElseThrow();
+        assertThat(atualizado.getQuantidade()).isEqualByComparingTo("0");
+        assertThat(atualizado.getStatus()).isEqualTo(StatusMaterial.SEM_ESTOQUE);
+    }
+
+    @Test
+    void naoDeveDescontarQuandoEstoqueInsuficiente() {
+        int alterados = materialRepository.descontarEstoque(resina.getId(), new BigDecimal("10.01"), LocalDateTime.now(), null);
+
+        assertThat(alterados).isZero();
+        entityManager.clear();
+        Material inalterado = materialRepository.findById(resina.getId()).orElseThrow();
+        assertThat(inalterado.getQuantidade()).isEqualByComparingTo("10.00");
+        assertThat(inalterado.getStatus()).isEqualTo(StatusMaterial.EM_ESTOQUE);
+    }
+
+    @Test
+    void deveManterStatusQuandoSemEstoqueMinimo() {
+        materialRepository.descontarEstoque(gesso.getId(), new BigDecimal("5.00"), LocalDateTime.now(), null);
+
+        entityManager.clear();
+        Material atualizado = materialRepository.findById(gesso.getId()).orElseThrow();
+        assertThat(atualizado.getQuantidade()).isEqualByComparingTo("0");
+        assertThat(atualizado.getStatus()).isEqualTo(StatusMaterial.EM_ESTOQUE);
+    }
+
+    @Test
+    void deveBuscarAlertasDeEstoqueSemCarregarEntidades() {
+        materialRepository.descontarEstoque(resina.getId(), new BigDecimal("8.00"), LocalDateTime.now(), null);
+        entityManager.clear();
+        contador.zerar();
+
+        List<AlertaEstoqueDTO> alertas = materialRepository.findAlertasByStatusIn(
+            Set.of(StatusMaterial.BAIXO_ESTOQUE, StatusMaterial.SEM_ESTOQUE));
+
+        contador.verificarNoMaximo(1, "alertas de estoque");
+        assertThat(alertas).extracting(AlertaEstoqueDTO::getNome).containsExactly("Resina");
+        assertThat(alertas.get(0).getQuantidade()).isEqualByComparingTo("2.00");
+        assertThat(materialRepository.findAlertasByIdIn(Set.of(gesso.getId())))
+            .extracting(AlertaEstoqueDTO::getStatus).containsExactly(StatusMaterial.EM_ESTOQUE);
+    }
+
+    private Material material(String nome, String quantidade, String estoqueMinimo) {
+        Material material = new Material();
+        material.setNome(nome);
+        material.setQuantidade(new BigDecimal(quantidade));
+        material.setEstoqueMinimo(estoqueMinimo != null ? new BigDecimal(estoqueMinimo) : null);
+        material.setStatus(StatusMaterial.EM_ESTOQUE);
+        material.setIsActive(true);
+        return entityManager.persist(material);
+    }
+
+    private Servico servico(String nome) {
+        Servico servico = new Servico();
+        servico.setNome(nome);
+        servico.setPreco(new BigDecimal("100.00"));
+        servico.setIsActive(true);
+        return entityManager.persist(servico);
+    }
+}
@@ -7,10 +7,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -107,4 +113,63 @@ public class PacienteRepositoryTest {
         // then
         assertThat(pacienteDeletado).isEmpty();
     }
-} 
\ No newline at end of file
+
+    @Test
+    void devePaginarPorKeysetContinuandoAposUltimoId() {
+        // given
+        String[] nomes = {"Ana Souza", "Bruno Lima", "Carla Dias", "Diego Alves", "Elisa Rocha"};
+        for (int i = 1; i <= 5; i++) {
+            Paciente paciente = new Paciente();
+            paciente.setNome(nomes[i - 1]);
+            paciente.setDataNascimento(LocalDate.of(1990, 1, i));
+            paciente.setEmail("paciente" + i + "@email.com");
+            paciente.setTelefone("(11) 9000" + i + "-0000");
+            paciente.setIsActive(i != 3);
+            pacienteRepository.save(paciente);
+        }
+        Sort sort = Sort.by(Sort.Direction.ASC, "id");
+
+        // when
+        Window<Paciente> primeira = pacienteRepository.findAllByIsActive(true, ScrollPosition.keyset(), sort, Limit.of(2));
+        Long ultimoId = primeira.getContent().get(1).getId();
+        Window<Paciente> segunda = pacienteRepository.findAllByIsActive(true,
+            ScrollPosition.forward(Map.of("id", ultimoId)), sort, Limit.of(2));
+
+        // then
+        assertThat(primeira.getContent()).extracting(Paciente::getNome).containsExactly("Ana Souza", "Bruno Lima");
+        assertThat(primeira.hasNext()).isTrue();
+        assertThat(segunda.getContent()).extracting(Paciente::getNome).containsExactly("Diego Alves", "Elisa Rocha");
+        assertThat(segunda.hasNext()).isFalse();
+        assertThat(pacienteRepository.findAllBy(ScrollPosition.keyset(), sort, Limit.of(10)).getContent()).hasSize(5);
+    }
+
+    @Test
+    void deveListarPorCreatedAtEDepoisOsRegistrosSemData() {
+        // given
+        String[] nomes = {"Fabio Melo", "Gisele Ramos", "Heitor Nunes", "Iara Costa"};
+        for (int i = 1; i <= 4; i++) {
+            Paciente paciente = new Paciente();
+            paciente.setNome(nomes[i - 1]);
+            paciente.setDataNascimento(LocalDate.of(1990, 1, i));
+            paciente.setEmail("datado" + i + "@email.com");
+            paciente.setTelefone("(11) 9100" + i + "-0000");
+            paciente.setIsActive(true);
+            paciente.setCreatedAt(i % 2 == 0 ? null : LocalDateTime.of(2025, 1, i, 10, 0));
+            pacienteRepository.save(paciente);
+        }
+        Sort porData = Sort.by(Sort.Direction.ASC, "createdAt").and(Sort.by(Sort.Direction.ASC, "id"));
+        Sort porId = Sort.by(Sort.Direction.ASC, "id");
+
+        // when
+        Window<Paciente> datados = pacienteRepository.findAllByIsActiveAndCreatedAtIsNotNull(true,
+            ScrollPosition.keyset(), porData, Limit.of(10));
+        Window<Paciente> semData = pacienteRepository.findAllByIsActiveAndCreatedAtIsNull(true,
+            ScrollPosition.keyset(), porId, Limit.of(10));
+
+        // then
+        assertThat(datados.getContent()).extracting(Paciente::getNome).containsExactly("Fabio Melo", "Heitor Nunes");
+        assertThat(semData.getContent()).extracting(Paciente::getNome).containsExactly("Gisele Ramos", "Iara Costa");
+        assertThat(pacienteRepository.existsByIsActiveAndCreatedAtIsNull(true)).isTrue();
+        assertThat(pacienteRepository.existsByIsActiveAndCreatedAtIsNull(false)).isFalse();
+    }
+}
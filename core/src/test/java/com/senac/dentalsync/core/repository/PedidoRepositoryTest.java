@@ -0,0 +1,258 @@
+package com.senac.dentalsync.core.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.senac.dentalsync.core.dto.HistoricoDentistaDTO;
+import com.senac.dentalsync.core.dto.HistoricoPacienteDTO;
+import com.senac.dentalsync.core.dto.HistoricoProteticoDTO;
+import com.senac.dentalsync.core.persistency.model.Dentista;
+import com.senac.dentalsync.core.persistency.model.Paciente;
+import com.senac.dentalsync.core.persistency.model.Pedido;
+import com.senac.dentalsync.core.persistency.model.Protetico;
+import com.senac.dentalsync.core.persistency.model.Servico;
+import com.senac.dentalsync.core.persistency.repository.PedidoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica o orçamento de consultas das listagens de pedidos: carregar N pedidos e serializá-los
+ * (como o Jackson faz no controller) não pode gerar um SELECT por pedido
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class PedidoRepositoryTest {
+
+    private static final int QUANTIDADE_PEDIDOS = 6;
+
+    @Autowired
+    private PedidoRepository pedidoRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private ContadorDeConsultas contador;
+    private Paciente paciente;
+    private Dentista dentista;
+    private Protetico protetico;
+
+    @BeforeEach
+    void setUp() {
+        contador = new ContadorDeConsultas(entityManagerFactory);
+
+        paciente = new Paciente();
+        paciente.setNome("João da Silva");
+        paciente.setEmail("joao@email.com");
+        paciente.setTelefone("(11) 99999-9999");
+        paciente.setDataNascimento(LocalDate.of(1990, 1, 1));
+        entityManager.persist(paciente);
+
+        dentista = new Dentista();
+        dentista.setNome("Carlos Pereira");
+        dentista.setCro("CRO-SP-12345");
+        dentista.setTelefone("(11) 98888-8888");
+        dentista.setEmail("carlos@email.com");
+        entityManager.persist(dentista);
+
+        protetico = new Protetico();
+        protetico.setNome("Marcos Lima");
+        protetico.setCro("CRO-SP-54321");
+        protetico.setTelefone("(11) 97777-7777");
+        protetico.setEmail("marcos@email.com");
+        protetico.setSenha("Senha@123");
+        entityManager.persist(protetico);
+
+        Servico coroa = novoServico("Coroa", new BigDecimal("150.00"));
+        Servico ponte = novoServico("Ponte", null);
+
+        for (int i = 0; i < QUANTIDADE_PEDIDOS; i++) {
+            Pedido pedido = new Pedido();
+            pedido.setCliente(paciente);
+            pedido.setDentista(dentista);
+            pedido.setProtetico(protetico);
+            pedido.setServicos(List.of(coroa, ponte));
+            pedido.setDataEntrega(LocalDate.now().plusDays(i + 1));
+            pedido.setPrioridade(Pedido.Prioridade.MEDIA);
+            pedido.setStatus(Pedido.Status.PENDENTE);
+            pedido.setIsActive(true);
+            pedido.setCreatedAt(LocalDateTime.now().minusMinutes(i));
+            entityManager.persist(pedido);
+        }
+
+        // Começa cada cenário com o contexto de persistência vazio, como numa requisição nova
+        entityManager.flush();
+        entityManager.clear();
+        contador.zerar();
+    }
+
+    private Servico novoServico(String nome, BigDecimal valorTotal) {
+        Servico servico = new Servico();
+        servico.setNome(nome);
+        servico.setPreco(new BigDecimal("100.00"));
+        servico.setValorTotal(valorTotal);
+        servico.setIsActive(true);
+        return entityManager.persist(servico);
+    }
+
+    /**
+     * Simula o que acontece depois do finder: serialização JSON e leitura dos serviços no histórico
+     */
+    private void serializarEPercorrer(List<Pedido> pedidos) throws Exception {
+        objectMapper.writeValueAsString(pedidos);
+        pedidos.forEach(pedido -> pedido.getServicos().forEach(Servico::getNome));
+    }
+
+    @Test
+    void deveListarPorProteticoDentroDoOrcamentoDeConsultas() throws Exception {
+        List<Pedido> pedidos = pedidoRepository.findByProtetico(entityManager.find(Protetico.class, protetico.getId()));
+        contador.zerar();
+        serializarEPercorrer(pedidos);
+
+        assertThat(pedidos).hasSize(QUANTIDADE_PEDIDOS);
+        assertThat(pedidos.get(0).getServicos()).hasSize(2);
+        // Clínicas do dentista e materiais dos serviços, cada um em lote
+        contador.verificarNoMaximo(2, "serialização de findByProtetico");
+    }
+
+    @Test
+    void deveBuscarPedidosComRelacionamentosEmUmaConsulta() {
+        pedidoRepository.findByDentista(dentista);
+        contador.verificarNoMaximo(1, "findByDentista");
+
+        contador.zerar();
+        entityManager.clear();
+        pedidoRepository.findByCliente(paciente);
+        contador.verificarNoMaximo(1, "findByCliente");
+
+        contador.zerar();
+        entityManager.clear();
+        List<Pedido> todos = pedidoRepository.findAll();
+        todos.forEach(pedido -> pedido.getServicos().size());
+        assertThat(todos).hasSize(QUANTIDADE_PEDIDOS);
+        contador.verificarNoMaximo(1, "findAll");
+    }
+
+    @Test
+    void deveListarTodosEAtivosDentroDoOrcamentoDeConsultas() throws Exception {
+        serializarEPercorrer(pedidoRepository.findAll());
+        contador.verificarNoMaximo(3, "GET /pedidos");
+
+        contador.zerar();
+        entityManager.clear();
+        serializarEPercorrer(pedidoRepository.findAllByIsActiveTrue());
+        contador.verificarNoMaximo(3, "listagem de pedidos ativos");
+    }
+
+    @Test
+    void devePaginarPorCursorSemConsultaPorPedido() throws Exception {
+        List<Pedido> pagina = pedidoRepository.findAllBy(ScrollPosition.keyset(),
+            Sort.by(Sort.Direction.DESC, "id"), Limit.of(4)).getContent();
+        serializarEPercorrer(pagina);
+
+        assertThat(pagina).hasSize(4);
+        // Página + serviços em lote + clínicas + materiais
+        contador.verificarNoMaximo(4, "GET /pedidos/cursor");
+    }
+
+    @Test
+    void deveBuscarPedidosRecentesComServicosEmLote() {
+        List<Pedido> recentes = pedidoRepository.findPedidosRecentes();
+        recentes.forEach(pedido -> pedido.getServicos().forEach(Servico::getNome));
+
+        assertThat(recentes).hasSize(QUANTIDADE_PEDIDOS);
+        contador.verificarNoMaximo(2, "findPedidosRecentes");
+    }
+
+    @Test
+    void deveMontarHistoricoDoProteticoNoBancoEmUmaConsulta() {
+        Page<HistoricoProteticoDTO> pagina = pedidoRepository.findHistoricoPorProtetico(protetico.getId(), Pageable.unpaged());
+
+        assertThat(pagina.getContent()).hasSize(QUANTIDADE_PEDIDOS);
+        HistoricoProteticoDTO dto = pagina.getContent().get(0);
+        assertThat(dto.getNomeServico()).isEqualTo("Coroa");
+        assertThat(dto.getNomePaciente()).isEqualTo("João da Silva");
+        assertThat(dto.getNomeDentista()).isEqualTo("Carlos Pereira");
+        // valorTotal da coroa (150) + preço da ponte, que não tem valorTotal (100)
+        assertThat(dto.getValorTotal()).isEqualByComparingTo("250.00");
+        // Mais recente primeiro
+        assertThat(dto.getDataEntrega()).isEqualTo(LocalDate.now().plusDays(QUANTIDADE_PEDIDOS));
+        contador.verificarNoMaximo(1, "histórico do protético");
+    }
+
+    @Test
+    void devePaginarHistoricoDoDentista() {
+        Page<HistoricoDentistaDTO> pagina = pedidoRepository.findHistoricoPorDentista(dentista.getId(), PageRequest.of(1, 4));
+
+        assertThat(pagina.getContent()).hasSize(2);
+        assertThat(pagina.getTotalElements()).isEqualTo(QUANTIDADE_PEDIDOS);
+        assertThat(pagina.getContent().get(0).getNomePaciente()).isEqualTo("João da Silva");
+        contador.verificarNoMaximo(2, "página do histórico do dentista");
+    }
+
+    @Test
+    void deveInformarServicoNaoInformadoNoHistoricoDePedidoSemServicos() {
+        // given
+        entityManager.persistAndFlush(pedidoMaisRecente(List.of()));
+
+        // when
+        List<HistoricoPacienteDTO> historico = pedidoRepository
+            .findHistoricoPorPaciente(paciente.getId(), Pageable.unpaged()).getContent();
+
+        // then
+        assertThat(historico).hasSize(QUANTIDADE_PEDIDOS + 1);
+        assertThat(historico.get(0).getNomeServico()).isEqualTo("Serviço não informado");
+        assertThat(historico.get(0).getValorTotal()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void deveManterNomeNuloQuandoOPrimeiroServicoNaoTemNome() {
+        // given - o serviço sem nome é o de menor id do pedido
+        Servico semNome = novoServico(null, new BigDecimal("80.00"));
+        Servico faceta = novoServico("Faceta", null);
+        entityManager.persistAndFlush(pedidoMaisRecente(List.of(faceta, semNome)));
+
+        // when
+        List<HistoricoDentistaDTO> historico = pedidoRepository
+            .findHistoricoPorDentista(dentista.getId(), Pageable.unpaged()).getContent();
+
+        // then
+        assertThat(historico).hasSize(QUANTIDADE_PEDIDOS + 1);
+        assertThat(historico.get(0).getNomeServico()).isNull();
+        assertThat(historico.get(0).getValorTotal()).isEqualByComparingTo("180.00");
+    }
+
+    private Pedido pedidoMaisRecente(List<Servico> servicos) {
+        Pedido pedido = new Pedido();
+        pedido.setCliente(entityManager.find(Paciente.class, paciente.getId()));
+        pedido.setDentista(entityManager.find(Dentista.class, dentista.getId()));
+        pedido.setProtetico(entityManager.find(Protetico.class, protetico.getId()));
+        pedido.setServicos(servicos);
+        pedido.setDataEntrega(LocalDate.now().plusDays(30));
+        pedido.setPrioridade(Pedido.Prioridade.BAIXA);
+        pedido.setStatus(Pedido.Status.PENDENTE);
+        return pedido;
+    }
+}
@@ -0,0 +1,103 @@
+package com.senac.dentalsync.core.repository;
+
+import com.senac.dentalsync.core.persistency.model.Protetico;
+import com.senac.dentalsync.core.persistency.repository.ProteticoAuthStateRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Senha e 2FA gravados com um UPDATE de poucas colunas, sem carregar o protético
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ProteticoAuthStateRepositoryTest {
+
+    @Autowired
+    private ProteticoAuthStateRepository proteticoAuthStateRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ContadorDeConsultas contador;
+    private Protetico marcos;
+
+    @BeforeEach
+    void setUp() {
+        contador = new ContadorDeConsultas(entityManagerFactory);
+
+        marcos = new Protetico();
+        marcos.setNome("Marcos Lima");
+        marcos.setCro("CRO-SP-54321");
+        marcos.setTelefone("(11) 97777-7777");
+        marcos.setEmail("marcos@email.com");
+        marcos.setSenha("$2a$10$senhaAntiga");
+        marcos.setTwoFactorEnabled(false);
+        entityManager.persist(marcos);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void deveAtivarTwoFactorEmUmUpdate() {
+        contador.zerar();
+
+        int alterados = proteticoAuthStateRepository.atualizarTwoFactor(marcos.getId(), "SECRET123", true, LocalDateTime.now());
+
+        contador.verificarNoMaximo(1, "ativação do 2FA");
+        assertThat(alterados).isEqualTo(1);
+        entityManager.clear();
+        Protetico atualizado = entityManager.find(Protetico.class, marcos.getId());
+        assertThat(atualizado.getTwoFactorSecret()).isEqualTo("SECRET123");
+        assertThat(atualizado.getTwoFactorEnabled()).isTrue();
+        assertThat(atualizado.getSenha()).isEqualTo("$2a$10$senhaAntiga");
+        assertThat(atualizado.getUpdatedAt()).isNotNull();
+    }
+
+    @Test
+    void deveTrocarSomenteASenhaEmUmUpdate() {
+        contador.zerar();
+
+        int alterados = proteticoAuthStateRepository.atualizarSenha(marcos.getId(), "$2a$10$senhaNova", LocalDateTime.now());
+
+        contador.verificarNoMaximo(1, "troca de senha");
+        assertThat(alterados).isEqualTo(1);
+        entityManager.clear();
+        Protetico atualizado = entityManager.find(Protetico.class, marcos.getId());
+        assertThat(atualizado.getSenha()).isEqualTo("$2a$10$senhaNova");
+        assertThat(atualizado.getEmail()).isEqualTo("marcos@email.com");
+        assertThat(atualizado.getTwoFactorEnabled()).isFalse();
+    }
+
+    @Test
+    void deveGravarHashRefeitoPeloEmail() {
+        contador.zerar();
+
+        int alterados = proteticoAuthStateRepository.atualizarSenhaPorEmail("marcos@email.com", "$2a$12$senhaNova",
+            LocalDateTime.now());
+
+        contador.verificarNoMaximo(1, "hash refeito no login");
+        assertThat(alterados).isEqualTo(1);
+        entityManager.clear();
+        assertThat(entityManager.find(Protetico.class, marcos.getId()).getSenha()).isEqualTo("$2a$12$senhaNova");
+    }
+
+    @Test
+    void naoDeveAlterarNadaParaProteticoInexistente() {
+        assertThat(proteticoAuthStateRepository.atualizarSenha(marcos.getId() + 1, "$2a$10$senhaNova", LocalDateTime.now()))
+            .isZero();
+    }
+}
@@ -0,0 +1,105 @@
+package com.senac.dentalsync.core.repository;
+
+import com.senac.dentalsync.core.persistency.model.Protetico;
+import com.senac.dentalsync.core.persistency.model.RememberMeToken;
+import com.senac.dentalsync.core.persistency.repository.RememberMeTokenRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tokens de "Lembrar de mim": busca pelo hash em uma consulta (já com o protético)
+ * e remoções direto no banco, sem carregar os registros
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class RememberMeTokenRepositoryTest {
+
+    @Autowired
+    private RememberMeTokenRepository rememberMeTokenRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ContadorDeConsultas contador;
+    private Protetico marcos;
+    private Protetico ana;
+
+    @BeforeEach
+    void setUp() {
+        contador = new ContadorDeConsultas(entityManagerFactory);
+
+        marcos = protetico("Marcos Lima", "CRO-SP-54321", "(11) 97777-7777", "marcos@email.com");
+        ana = protetico("Ana Souza", "CRO-SP-12345", "(11) 96666-6666", "ana@email.com");
+
+        token(marcos, "a".repeat(64), LocalDateTime.now().plusDays(7));
+        token(marcos, "b".repeat(64), LocalDateTime.now().plusDays(7));
+        token(ana, "c".repeat(64), LocalDateTime.now().minusDays(1));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void deveBuscarTokenPeloHashJaComProtetico() {
+        contador.zerar();
+
+        Optional<RememberMeToken> token = rememberMeTokenRepository.findByTokenHash("b".repeat(64));
+
+        assertThat(token).isPresent();
+        assertThat(token.get().getProtetico().getEmail()).isEqualTo("marcos@email.com");
+        contador.verificarNoMaximo(1, "login pelo cookie de lembrar-me");
+    }
+
+    @Test
+    void deveRemoverApenasOsTokensDoProtetico() {
+        int removidos = rememberMeTokenRepository.deleteByProteticoEmail("marcos@email.com");
+
+        assertThat(removidos).isEqualTo(2);
+        assertThat(rememberMeTokenRepository.findByTokenHash("c".repeat(64))).isPresent();
+    }
+
+    @Test
+    void deveRemoverApenasOTokenDoDispositivo() {
+        int removidos = rememberMeTokenRepository.deleteByTokenHash("a".repeat(64));
+
+        assertThat(removidos).isEqualTo(1);
+        assertThat(rememberMeTokenRepository.findByTokenHash("b".repeat(64))).isPresent();
+    }
+
+    @Test
+    void deveApagarSomenteTokensExpirados() {
+        int removidos = rememberMeTokenRepository.deleteExpirados(LocalDateTime.now());
+
+        assertThat(removidos).isEqualTo(1);
+        assertThat(rememberMeTokenRepository.count()).isEqualTo(2);
+        assertThat(rememberMeTokenRepository.findByTokenHash("c".repeat(64))).isEmpty();
+    }
+
+    private Protetico protetico(String nome, String cro, String telefone, String email) {
+        Protetico protetico = new Protetico();
+        protetico.setNome(nome);
+        protetico.setCro(cro);
+        protetico.setTelefone(telefone);
+        protetico.setEmail(email);
+        protetico.setSenha("Senha@123");
+        return entityManager.persist(protetico);
+    }
+
+    private void token(Protetico protetico, String hash, LocalDateTime expiraEm) {
+        entityManager.persist(new RememberMeToken(null, protetico, hash, expiraEm, LocalDateTime.now()));
+    }
+}
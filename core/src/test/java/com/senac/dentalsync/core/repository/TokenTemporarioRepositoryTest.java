@@ -0,0 +1,66 @@
+package com.senac.dentalsync.core.repository;
+
+import com.senac.dentalsync.core.persistency.repository.TokenTemporarioRepository;
+import com.senac.dentalsync.core.service.TokenStoreBanco;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TokenStore compartilhado entre instâncias: gravação com substituição, leitura só do que
+ * ainda vale e remoção condicional de uso único, tudo na tabela token_temporario
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class TokenTemporarioRepositoryTest {
+
+    private static final String TIPO = "RECUPERACAO_2FA";
+
+    @Autowired
+    private TokenTemporarioRepository tokenTemporarioRepository;
+
+    private TokenStoreBanco store;
+
+    @BeforeEach
+    void setUp() {
+        store = new TokenStoreBanco(tokenTemporarioRepository);
+    }
+
+    @Test
+    void deveSubstituirValorDaMesmaChave() {
+        store.salvar(TIPO, "a@teste.com", "111111", Duration.ofMinutes(10));
+        store.salvar(TIPO, "a@teste.com", "222222", Duration.ofMinutes(10));
+
+        assertThat(tokenTemporarioRepository.count()).isEqualTo(1);
+        assertThat(store.buscar(TIPO, "a@teste.com")).contains("222222");
+    }
+
+    @Test
+    void deveRemoverSomenteComOValorCorretoUmaVez() {
+        store.salvar(TIPO, "a@teste.com", "123456", Duration.ofMinutes(10));
+
+        assertThat(store.removerSeIgual(TIPO, "a@teste.com", "000000")).isFalse();
+        assertThat(store.removerSeIgual(TIPO, "a@teste.com", "123456")).isTrue();
+        assertThat(store.removerSeIgual(TIPO, "a@teste.com", "123456")).isFalse();
+        assertThat(store.buscar(TIPO, "a@teste.com")).isEmpty();
+    }
+
+    @Test
+    void deveIgnorarEApagarValoresVencidos() {
+        store.salvar(TIPO, "vencido@teste.com", "111111", Duration.ofMinutes(-1));
+        store.salvar(TIPO, "valido@teste.com", "222222", Duration.ofMinutes(10));
+
+        assertThat(store.buscar(TIPO, "vencido@teste.com")).isEmpty();
+        assertThat(tokenTemporarioRepository.deleteExpirados(LocalDateTime.now())).isEqualTo(1);
+        assertThat(store.buscar(TIPO, "valido@teste.com")).contains("222222");
+    }
+}
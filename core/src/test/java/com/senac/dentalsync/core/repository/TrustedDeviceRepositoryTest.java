@@ -0,0 +1,100 @@
+package com.senac.dentalsync.core.repository;
+
+import com.senac.dentalsync.core.persistency.model.Protetico;
+import com.senac.dentalsync.core.persistency.model.TrustedDevice;
+import com.senac.dentalsync.core.persistency.repository.TrustedDeviceRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dispositivos confiáveis: consulta do login em uma instrução, sem carregar entidades,
+ * e remoções direcionadas direto no banco
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class TrustedDeviceRepositoryTest {
+
+    private static final String NOTEBOOK = "a".repeat(64);
+    private static final String CELULAR = "b".repeat(64);
+
+    @Autowired
+    private TrustedDeviceRepository trustedDeviceRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ContadorDeConsultas contador;
+    private Protetico marcos;
+    private LocalDateTime agora;
+
+    @BeforeEach
+    void setUp() {
+        contador = new ContadorDeConsultas(entityManagerFactory);
+        agora = LocalDateTime.now();
+
+        marcos = new Protetico();
+        marcos.setNome("Marcos Lima");
+        marcos.setCro("CRO-SP-54321");
+        marcos.setTelefone("(11) 97777-7777");
+        marcos.setEmail("marcos@email.com");
+        marcos.setSenha("Senha@123");
+        entityManager.persist(marcos);
+
+        dispositivo(NOTEBOOK, agora.plusMinutes(5));
+        dispositivo(CELULAR, agora.minusMinutes(1));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void deveConsultarValidadeDoDispositivoEmUmaInstrucao() {
+        contador.zerar();
+
+        assertThat(trustedDeviceRepository.findExpiraEm("marcos@email.com", NOTEBOOK)).isPresent();
+        contador.verificarNoMaximo(1, "dispositivo confiável no login");
+        assertThat(trustedDeviceRepository.findExpiraEm("marcos@email.com", "c".repeat(64))).isEmpty();
+        assertThat(trustedDeviceRepository.findTokenHashesValidos("marcos@email.com", CELULAR, agora)).isEmpty();
+    }
+
+    @Test
+    void deveRenovarDispositivoExistente() {
+        int renovados = trustedDeviceRepository.renovar(marcos.getId(), CELULAR, "d".repeat(64), agora.plusMinutes(10), agora);
+
+        assertThat(renovados).isEqualTo(1);
+        assertThat(trustedDeviceRepository.findTokenHashesValidos("marcos@email.com", CELULAR, agora))
+            .containsExactly("d".repeat(64));
+        assertThat(trustedDeviceRepository.renovar(marcos.getId(), "c".repeat(64), "d".repeat(64), agora, agora)).isZero();
+    }
+
+    @Test
+    void deveRemoverSomenteODispositivoExpiradoInformado() {
+        assertThat(trustedDeviceRepository.deleteExpirado("marcos@email.com", NOTEBOOK, agora)).isZero();
+        assertThat(trustedDeviceRepository.deleteExpirado("marcos@email.com", CELULAR, agora)).isEqualTo(1);
+        assertThat(trustedDeviceRepository.findByProteticoEmail("marcos@email.com"))
+            .extracting(TrustedDevice::getFingerprintHash).containsExactly(NOTEBOOK);
+    }
+
+    @Test
+    void deveRemoverTodosOsDispositivosDoProtetico() {
+        assertThat(trustedDeviceRepository.deleteByProteticoEmail("marcos@email.com")).isEqualTo(2);
+        assertThat(trustedDeviceRepository.count()).isZero();
+    }
+
+    private void dispositivo(String fingerprintHash, LocalDateTime expiraEm) {
+        entityManager.persist(new TrustedDevice(null, marcos, fingerprintHash, "e".repeat(64), expiraEm, agora));
+    }
+}
@@ -0,0 +1,141 @@
+package com.senac.dentalsync.core.service;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CacheRespostaSttTest {
+
+    private final AtomicLong relogio = new AtomicLong();
+    private final AtomicInteger consultas = new AtomicInteger();
+
+    @Test
+    void deveTratarComoIguaisTextosQueSoDiferemEmCaixaEspacosEPontuacaoFinal() {
+        assertThat(CacheRespostaStt.chave("  Coroa no dente 15,  paciente Muni Besen. "))
+            .isEqualTo(CacheRespostaStt.chave("coroa no dente 15, paciente muni besen"));
+        assertThat(CacheRespostaStt.chave("coroa no dente 15"))
+            .isNotEqualTo(CacheRespostaStt.chave("coroa no dente 16"));
+    }
+
+    @Test
+    void deveReaproveitarARespostaAteOTtlExpirar() throws Exception {
+        CacheRespostaStt cache = new CacheRespostaStt(1000, 10, relogio::get);
+
+        assertThat(cache.obter("coroa", () -> resposta("a"))).isEqualTo(Map.of("r", "a"));
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertThat(cache.obter("Coroa.", () -> resposta("b"))).isEqualTo(Map.of("r", "a"));
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertThat(cache.obter("coroa", () -> resposta("c"))).isEqualTo(Map.of("r", "c"));
+
+        assertThat(consultas).hasValue(2);
+    }
+
+    @Test
+    void naoDeveGuardarARespostaDeUmaConsultaFeitaDuranteALimpeza() throws Exception {
+        CacheRespostaStt cache = new CacheRespostaStt(1000, 10, relogio::get);
+
+        assertThat(cache.obter("coroa", () -> {
+            cache.limpar(); // cadastro alterado enquanto o n8n respondia
+            return resposta("a");
+        })).isEqualTo(Map.of("r", "a"));
+
+        assertThat(cache.tamanho()).isZero();
+        assertThat(cache.obter("coroa", () -> resposta("b"))).isEqualTo(Map.of("r", "b"));
+        assertThat(cache.tamanho()).isEqualTo(1);
+    }
+
+    @Test
+    void naoDeveGuardarErros() {
+        CacheRespostaStt cache = new CacheRespostaStt(1000, 10, relogio::get);
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> cache.obter("coroa", () -> {
+                consultas.incrementAndGet();
+                throw new RuntimeException("TIMEOUT_ERROR");
+            })).hasMessage("TIMEOUT_ERROR");
+        }
+
+        assertThat(consultas).hasValue(2);
+        assertThat(cache.tamanho()).isZero();
+    }
+
+    @Test
+    void deveLimitarONumeroDeEntradas() throws Exception {
+        CacheRespostaStt cache = new CacheRespostaStt(1000, 3, relogio::get);
+
+        for (int i = 0; i < 10; i++) {
+            String texto = "texto " + i;
+            cache.obter(texto, () -> resposta(texto));
+        }
+
+        assertThat(cache.tamanho()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void deveJuntarChamadasSimultaneasDoMesmoTextoEmUmaSoConsulta() throws Exception {
+        CacheRespostaStt cache = new CacheRespostaStt(1000, 10, relogio::get);
+        CountDownLatch emConsulta = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        CompletableFuture<Object> primeira = CompletableFuture.supplyAsync(() -> obterSemChecked(cache, () -> {
+            emConsulta.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return resposta("lenta");
+        }));
+        assertThat(emConsulta.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Object> segunda = CompletableFuture.supplyAsync(() -> obterSemChecked(cache, () -> resposta("outra")));
+
+        Thread.sleep(100);
+        assertThat(segunda).isNotDone();
+        liberar.countDown();
+
+        assertThat(primeira.get(5, TimeUnit.SECONDS)).isEqualTo(Map.of("r", "lenta"));
+        assertThat(segunda.get(5, TimeUnit.SECONDS)).isEqualTo(Map.of("r", "lenta"));
+        assertThat(consultas).hasValue(1);
+    }
+
+    @Test
+    void deveRepassarOErroDaConsultaParaQuemEstavaEsperando() throws Exception {
+        CacheRespostaStt cache = new CacheRespostaStt(1000, 10, relogio::get);
+        CountDownLatch emConsulta = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        CompletableFuture<Object> primeira = CompletableFuture.supplyAsync(() -> obterSemChecked(cache, () -> {
+            emConsulta.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            throw new RuntimeException("SERVICE_UNAVAILABLE");
+        }));
+        assertThat(emConsulta.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Object> segunda = CompletableFuture.supplyAsync(() -> obterSemChecked(cache, () -> resposta("outra")));
+        Thread.sleep(100);
+        liberar.countDown();
+
+        assertThatThrownBy(() -> segunda.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("SERVICE_UNAVAILABLE");
+        assertThatThrownBy(() -> primeira.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("SERVICE_UNAVAILABLE");
+        assertThat(consultas).hasValue(0);
+    }
+
+    private Map<String, String> resposta(String valor) {
+        consultas.incrementAndGet();
+        return Map.of("r", valor);
+    }
+
+    private static Object obterSemChecked(CacheRespostaStt cache, Callable<Object> consulta) {
+        try {
+            return cache.obter("coroa no 15", consulta);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
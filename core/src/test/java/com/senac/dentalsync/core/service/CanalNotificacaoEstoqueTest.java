@@ -0,0 +1,165 @@
+package com.senac.dentalsync.core.service;
+
+import com.senac.dentalsync.core.dto.AlertaEstoqueDTO;
+import com.senac.dentalsync.core.event.LimiteEstoqueCruzadoEvent;
+import com.senac.dentalsync.core.persistency.model.StatusMaterial;
+import com.senac.dentalsync.core.persistency.repository.ProteticoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CanalNotificacaoEstoqueTest {
+
+    @Mock
+    private DetectorLimiteEstoque detectorLimiteEstoque;
+
+    @Mock
+    private ProteticoRepository proteticoRepository;
+
+    private List<EmitterGravador> emitters;
+    private boolean rejeitar;
+    private CanalNotificacaoEstoque canal;
+
+    @BeforeEach
+    void setUp() {
+        emitters = new ArrayList<>();
+        rejeitar = false;
+        canal = new CanalNotificacaoEstoque(detectorLimiteEstoque, proteticoRepository, tarefa -> {
+            if (rejeitar) {
+                throw new RejectedExecutionException("fila cheia");
+            }
+            tarefa.run();
+        }, 60_000, 2) {
+            @Override
+            protected SseEmitter novoEmitter(long timeoutMs) {
+                EmitterGravador emitter = new EmitterGravador();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @Test
+    void deveEnviarSnapshotAoConectar() {
+        // given
+        when(detectorLimiteEstoque.getNotificacoes()).thenReturn(Map.of("total", 1));
+
+        // when
+        canal.conectar(10L);
+
+        // then
+        assertThat(emitters.get(0).enviados).hasSize(1);
+        assertThat(emitters.get(0).enviados.get(0)).contains("event:snapshot");
+        assertThat(canal.getConexoes()).isEqualTo(1);
+    }
+
+    @Test
+    void deveEnviarDeltaParaTodosOsLaboratorios() {
+        // given
+        when(detectorLimiteEstoque.getNotificacoes()).thenReturn(Map.of());
+        canal.conectar(10L);
+        canal.conectar(20L);
+
+        // when
+        canal.onLimiteEstoqueCruzado(new LimiteEstoqueCruzadoEvent(5L, StatusMaterial.EM_ESTOQUE,
+            StatusMaterial.BAIXO_ESTOQUE, new AlertaEstoqueDTO(5L, "Cera", BigDecimal.ONE, "g", BigDecimal.TEN,
+            StatusMaterial.BAIXO_ESTOQUE)));
+
+        // then
+        assertThat(emitters).allSatisfy(emitter -> {
+            assertThat(emitter.enviados).hasSize(2);
+            assertThat(emitter.enviados.get(1)).contains("event:delta");
+        });
+    }
+
+    @Test
+    void deveDescartarClienteDesconectado() {
+        // given
+        when(detectorLimiteEstoque.getNotificacoes()).thenReturn(Map.of());
+        canal.conectar(10L);
+        emitters.get(0).falhar = true;
+
+        // when
+        canal.heartbeat();
+
+        // then
+        assertThat(canal.getConexoes()).isZero();
+    }
+
+    @Test
+    void deveRecusarConexoesAcimaDoLimite() {
+        // given
+        when(detectorLimiteEstoque.getNotificacoes()).thenReturn(Map.of());
+        canal.conectar(10L);
+        canal.conectar(10L);
+
+        // when & then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> canal.conectar(10L));
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(canal.getConexoes()).isEqualTo(2);
+    }
+
+    @Test
+    void deveEncerrarConexoesQuandoFilaDeEnvioEstiverCheia() {
+        // given
+        when(detectorLimiteEstoque.getNotificacoes()).thenReturn(Map.of());
+        canal.conectar(10L);
+        rejeitar = true;
+
+        // when
+        canal.heartbeat();
+
+        // then - o cliente reconecta e recebe um snapshot novo
+        assertThat(emitters.get(0).encerrado).isTrue();
+    }
+
+    @Test
+    void naoDeveEnviarNadaSemConexoes() {
+        // when
+        canal.heartbeat();
+
+        // then
+        verifyNoInteractions(detectorLimiteEstoque);
+    }
+
+    /**
+     * SseEmitter que grava os eventos em texto em vez de escrever na resposta HTTP
+     */
+    private static class EmitterGravador extends SseEmitter {
+        private final List<String> enviados = new ArrayList<>();
+        private boolean falhar;
+        private boolean encerrado;
+
+        @Override
+        public void send(SseEventBuilder evento) throws IOException {
+            if (falhar) {
+                throw new IOException("Broken pipe");
+            }
+            StringBuilder texto = new StringBuilder();
+            evento.build().forEach(parte -> texto.append(parte.getData()));
+            enviados.add(texto.toString());
+        }
+
+        @Override
+        public void complete() {
+            encerrado = true;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.senac.dentalsync.core.service;
 
+import com.senac.dentalsync.core.event.CadastroAlteradoEvent;
+import com.senac.dentalsync.core.event.DentistaAlteradoEvent;
 import com.senac.dentalsync.core.persistency.model.Dentista;
 import com.senac.dentalsync.core.persistency.model.Protetico;
 import com.senac.dentalsync.core.persistency.repository.DentistaRepository;
@@ -9,7 +11,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Arrays;
@@ -381,4 +385,19 @@ public class DentistaServiceTest {
         assertThat(dentistaEncontrado).isEmpty();
         verify(dentistaRepository, times(1)).findByTelefone("(11) 00000-0000");
     }
-} 
\ No newline at end of file
+
+    @Test
+    void deveTirarDosAtivosNoDashboardAoDesativarPeloBaseService() {
+        // given
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        ReflectionTestUtils.setField(dentistaService, "eventPublisher", eventPublisher);
+        dentistaTeste.setIsActive(false);
+
+        // when
+        dentistaService.aposDesativar(dentistaTeste, true);
+
+        // then
+        verify(eventPublisher).publishEvent(new DentistaAlteradoEvent(1L, null, true, false));
+        verify(eventPublisher).publishEvent(any(CadastroAlteradoEvent.class));
+    }
+}
@@ -0,0 +1,135 @@
+package com.senac.dentalsync.core.service;
+
+import com.senac.dentalsync.core.dto.AlertaEstoqueDTO;
+import com.senac.dentalsync.core.event.EstoqueAlteradoEvent;
+import com.senac.dentalsync.core.event.LimiteEstoqueCruzadoEvent;
+import com.senac.dentalsync.core.persistency.model.StatusMaterial;
+import com.senac.dentalsync.core.persistency.repository.MaterialRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DetectorLimiteEstoqueTest {
+
+    @Mock
+    private MaterialRepository materialRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private DetectorLimiteEstoque detector;
+
+    @Test
+    void deveCarregarUmaVezEServirAsConsultasDaMemoria() {
+        // given
+        when(materialRepository.findAlertasByStatusIn(any())).thenReturn(List.of(
+            alerta(2L, "Zircônia", "0", StatusMaterial.SEM_ESTOQUE),
+            alerta(3L, "Resina", "1.00", StatusMaterial.BAIXO_ESTOQUE),
+            alerta(1L, "Gesso", "2.00", StatusMaterial.BAIXO_ESTOQUE)));
+
+        // when
+        detector.getNotificacoes();
+        Map<String, Object> notificacoes = detector.getNotificacoes();
+
+        // then
+        assertThat(notificacoes).containsEntry("semEstoque", 1).containsEntry("baixoEstoque", 2).containsEntry("total", 3);
+        assertThat(lista(notificacoes, "materiaisBaixoEstoque")).extracting(AlertaEstoqueDTO::getNome)
+            .containsExactly("Gesso", "Resina");
+        verify(materialRepository, times(1)).findAlertasByStatusIn(any());
+    }
+
+    @Test
+    void deveRelerApenasOsMateriaisAlteradosEPublicarAMudancaDeFaixa() {
+        // given
+        when(materialRepository.findAlertasByStatusIn(any())).thenReturn(List.of());
+        detector.recarregar();
+        when(materialRepository.findAlertasByIdIn(Set.of(5L)))
+            .thenReturn(List.of(alerta(5L, "Cera", "1.00", StatusMaterial.BAIXO_ESTOQUE)));
+
+        // when - um pedido baixou o estoque da cera
+        detector.onEstoqueAlterado(new EstoqueAlteradoEvent(Set.of(5L)));
+
+        // then
+        ArgumentCaptor<LimiteEstoqueCruzadoEvent> captor = ArgumentCaptor.forClass(LimiteEstoqueCruzadoEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue().anterior()).isEqualTo(StatusMaterial.EM_ESTOQUE);
+        assertThat(captor.getValue().atual()).isEqualTo(StatusMaterial.BAIXO_ESTOQUE);
+        assertThat(detector.getNotificacoes()).containsEntry("baixoEstoque", 1);
+        verify(materialRepository, times(1)).findAlertasByStatusIn(any());
+    }
+
+    @Test
+    void deveRemoverMaterialReabastecidoOuExcluido() {
+        // given
+        when(materialRepository.findAlertasByStatusIn(any())).thenReturn(List.of(
+            alerta(1L, "Gesso", "0", StatusMaterial.SEM_ESTOQUE),
+            alerta(2L, "Resina", "1.00", StatusMaterial.BAIXO_ESTOQUE)));
+        detector.recarregar();
+        when(materialRepository.findAlertasByIdIn(Set.of(1L, 2L)))
+            .thenReturn(List.of(alerta(2L, "Resina", "50.00", StatusMaterial.EM_ESTOQUE)));
+
+        // when - gesso excluído, resina reabastecida
+        detector.onEstoqueAlterado(new EstoqueAlteradoEvent(Set.of(1L, 2L)));
+
+        // then
+        assertThat(detector.getNotificacoes()).containsEntry("total", 0);
+        verify(eventPublisher, times(2)).publishEvent(any(LimiteEstoqueCruzadoEvent.class));
+    }
+
+    @Test
+    void naoDevePublicarQuandoAFaixaNaoMuda() {
+        // given
+        when(materialRepository.findAlertasByStatusIn(any())).thenReturn(List.of(
+            alerta(2L, "Resina", "3.00", StatusMaterial.BAIXO_ESTOQUE)));
+        detector.recarregar();
+        when(materialRepository.findAlertasByIdIn(Set.of(2L)))
+            .thenReturn(List.of(alerta(2L, "Resina", "2.00", StatusMaterial.BAIXO_ESTOQUE)));
+
+        // when
+        detector.onEstoqueAlterado(new EstoqueAlteradoEvent(Set.of(2L)));
+
+        // then - a quantidade exibida é atualizada, sem evento de mudança de faixa
+        assertThat(lista(detector.getNotificacoes(), "materiaisBaixoEstoque").get(0).getQuantidade())
+            .isEqualByComparingTo("2.00");
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deveRecarregarTudoNaProximaConsultaQuandoAtualizacaoFalhar() {
+        // given
+        when(materialRepository.findAlertasByStatusIn(any())).thenReturn(List.of());
+        detector.recarregar();
+        when(materialRepository.findAlertasByIdIn(any())).thenThrow(new RuntimeException("banco indisponível"));
+
+        // when
+        detector.onEstoqueAlterado(new EstoqueAlteradoEvent(Set.of(1L)));
+        detector.getNotificacoes();
+
+        // then
+        verify(materialRepository, times(2)).findAlertasByStatusIn(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<AlertaEstoqueDTO> lista(Map<String, Object> notificacoes, String chave) {
+        return (List<AlertaEstoqueDTO>) notificacoes.get(chave);
+    }
+
+    private static AlertaEstoqueDTO alerta(Long id, String nome, String quantidade, StatusMaterial status) {
+        return new AlertaEstoqueDTO(id, nome, new BigDecimal(quantidade), "g", new BigDecimal("5.00"), status);
+    }
+}
@@ -6,47 +6,52 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import jakarta.mail.internet.MimeMessage;
-import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class EmailServiceTest {
 
     @Mock
-    private JavaMailSender mailSender;
-
-    @Mock
-    private MimeMessage mimeMessage;
+    private FilaEmailService filaEmailService;
 
     @InjectMocks
     private EmailService emailService;
 
     private final String testEmail = "test@example.com";
-    private final String fromEmail = "noreply@dentalsync.com";
-    private final String fromName = "DentalSync Security";
     private final String frontendUrl = "http://localhost:3000";
     private final String resetPasswordPath = "/reset-password";
 
+    // Relógio do TokenStore em memória, avançado pelos testes de expiração
+    private final AtomicLong agora = new AtomicLong();
+    private TokenStoreMemoria tokenStore;
+
     @BeforeEach
     void setUp() {
         // Configurar stack traces mais limpos
         System.setProperty("org.assertj.core.util.StackTraceElementsDisplayed", "5");
         
         // Configurar valores das propriedades usando ReflectionTestUtils
-        ReflectionTestUtils.setField(emailService, "fromEmail", fromEmail);
-        ReflectionTestUtils.setField(emailService, "fromName", fromName);
         ReflectionTestUtils.setField(emailService, "emailUsername", ""); // Modo desenvolvimento
         ReflectionTestUtils.setField(emailService, "emailPassword", ""); // Modo desenvolvimento
         ReflectionTestUtils.setField(emailService, "frontendUrl", frontendUrl);
         ReflectionTestUtils.setField(emailService, "resetPasswordPath", resetPasswordPath);
+        tokenStore = new TokenStoreMemoria(1000, agora::get);
+        ReflectionTestUtils.setField(emailService, "tokenStore", tokenStore);
+    }
+
+    private void avancarMinutos(long minutos) {
+        agora.addAndGet(TimeUnit.MINUTES.toNanos(minutos));
     }
 
     // Testes do método generateRecoveryCode
@@ -104,6 +109,20 @@ public class EmailServiceTest {
         assertThat(isValid).isFalse();
     }
 
+    @Test
+    void deveManterCodigoAposTentativaIncorreta() {
+        // given
+        String codigo = emailService.generateRecoveryCode(testEmail);
+
+        // when
+        boolean tentativaErrada = emailService.validateRecoveryCode(testEmail, codigo.equals("000000") ? "111111" : "000000");
+        boolean tentativaCerta = emailService.validateRecoveryCode(testEmail, codigo);
+
+        // then
+        assertThat(tentativaErrada).isFalse();
+        assertThat(tentativaCerta).isTrue();
+    }
+
     @Test
     void deveInvalidarCodigoInexistente() {
         // when
@@ -132,14 +151,8 @@ public class EmailServiceTest {
         // given
         String codigo = emailService.generateRecoveryCode(testEmail);
         
-        // Simular passagem de tempo modificando o timestamp diretamente
-        // Acessar o mapa privado usando reflection para simular expiração
-        var tempCodes = ReflectionTestUtils.getField(emailService, "tempCodes");
-        var codeTimestamps = ReflectionTestUtils.getField(emailService, "codeTimestamps");
-        
-        // Modificar timestamp para simular expiração (11 minutos atrás)
-        long expiredTime = System.currentTimeMillis() - (11 * 60 * 1000);
-        ((java.util.Map<String, Long>) codeTimestamps).put(testEmail, expiredTime);
+        // Simular passagem de tempo (11 minutos)
+        avancarMinutos(11);
 
         // when
         boolean isValid = emailService.validateRecoveryCode(testEmail, codigo);
@@ -154,15 +167,12 @@ public class EmailServiceTest {
         // given - Configurar credenciais válidas para este teste
         ReflectionTestUtils.setField(emailService, "emailUsername", "test@gmail.com");
         ReflectionTestUtils.setField(emailService, "emailPassword", "password123");
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
         
         // when
         emailService.generateRecoveryCode(testEmail);
 
         // then
-        verify(mailSender, times(1)).createMimeMessage();
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(filaEmailService, times(1)).enfileirar(eq(testEmail), contains("Código de Recuperação"), contains("DentalSync"));
     }
 
     // Testes do modo desenvolvimento (sem credenciais)
@@ -177,7 +187,7 @@ public class EmailServiceTest {
 
         // then
         assertThat(codigo).isNotNull();
-        verify(mailSender, never()).send(any(MimeMessage.class));
+        verify(filaEmailService, never()).enfileirar(any(), any(), any());
     }
 
     @Test
@@ -185,8 +195,7 @@ public class EmailServiceTest {
         // given - Configurar credenciais válidas para este teste
         ReflectionTestUtils.setField(emailService, "emailUsername", "test@gmail.com");
         ReflectionTestUtils.setField(emailService, "emailPassword", "password123");
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doThrow(new RuntimeException("Erro de envio")).when(mailSender).send(any(MimeMessage.class));
+        doThrow(new RuntimeException("Erro ao gravar na fila")).when(filaEmailService).enfileirar(any(), any(), any());
 
         // when/then
         assertThatThrownBy(() -> emailService.generateRecoveryCode(testEmail))
@@ -282,10 +291,8 @@ public class EmailServiceTest {
         // given
         String token = emailService.generatePasswordResetToken(testEmail);
         
-        // Simular expiração modificando timestamp
-        var passwordResetTimestamps = ReflectionTestUtils.getField(emailService, "passwordResetTimestamps");
-        long expiredTime = System.currentTimeMillis() - (31 * 60 * 1000); // 31 minutos atrás
-        ((java.util.Map<String, Long>) passwordResetTimestamps).put(token, expiredTime);
+        // Simular expiração (31 minutos depois)
+        avancarMinutos(31);
 
         // when
         boolean isValid = emailService.validatePasswordResetToken(testEmail, token);
@@ -300,15 +307,12 @@ public class EmailServiceTest {
         ReflectionTestUtils.setField(emailService, "emailUsername", "test@gmail.com");
         ReflectionTestUtils.setField(emailService, "emailPassword", "password123");
         String token = emailService.generatePasswordResetToken(testEmail);
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doNothing().when(mailSender).send(any(MimeMessage.class));
 
         // when
         emailService.sendPasswordResetEmail(testEmail, token);
 
         // then
-        verify(mailSender, times(1)).createMimeMessage();
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(filaEmailService, times(1)).enfileirar(eq(testEmail), contains("Redefinição de Senha"), contains(token));
     }
 
     @Test
@@ -322,7 +326,7 @@ public class EmailServiceTest {
         emailService.sendPasswordResetEmail(testEmail, token);
 
         // then
-        verify(mailSender, never()).send(any(MimeMessage.class));
+        verify(filaEmailService, never()).enfileirar(any(), any(), any());
     }
 
     @Test
@@ -331,8 +335,7 @@ public class EmailServiceTest {
         ReflectionTestUtils.setField(emailService, "emailUsername", "test@gmail.com");
         ReflectionTestUtils.setField(emailService, "emailPassword", "password123");
         String token = emailService.generatePasswordResetToken(testEmail);
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doThrow(new RuntimeException("Erro de envio")).when(mailSender).send(any(MimeMessage.class));
+        doThrow(new RuntimeException("Erro ao gravar na fila")).when(filaEmailService).enfileirar(any(), any(), any());
 
         // when/then
         assertThatThrownBy(() -> emailService.sendPasswordResetEmail(testEmail, token))
@@ -345,20 +348,20 @@ public class EmailServiceTest {
     void deveLimparTokensExpirados() throws Exception {
         // given
         String token1 = emailService.generatePasswordResetToken(testEmail);
+        avancarMinutos(20);
         String token2 = emailService.generatePasswordResetToken("outro@email.com");
         
-        // Simular que token1 expirou
-        var passwordResetTimestamps = ReflectionTestUtils.getField(emailService, "passwordResetTimestamps");
-        long expiredTime = System.currentTimeMillis() - (31 * 60 * 1000);
-        ((java.util.Map<String, Long>) passwordResetTimestamps).put(token1, expiredTime);
+        // Simular que token1 expirou (31 minutos) e token2 ainda não (11 minutos)
+        avancarMinutos(11);
 
-        // when - Gerar novo token para triggerar limpeza
-        emailService.generatePasswordResetToken("terceiro@email.com");
+        // when - Limpeza periódica do TokenStore
+        int removidos = tokenStore.removerExpirados();
 
         // then
         boolean token1Valid = emailService.validatePasswordResetToken(testEmail, token1);
         boolean token2Valid = emailService.validatePasswordResetToken("outro@email.com", token2);
         
+        assertThat(removidos).isEqualTo(1);
         assertThat(token1Valid).isFalse(); // Token expirado deve ser removido
         assertThat(token2Valid).isTrue();  // Token válido deve permanecer
     }
@@ -0,0 +1,100 @@
+package com.senac.dentalsync.core.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExecutorSecoesDashboardTest {
+
+    private ExecutorService pool;
+    private ExecutorSecoesDashboard executorSecoes;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(3);
+        executorSecoes = new ExecutorSecoesDashboard(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void deveExecutarSecoesEmParalelo() {
+        // given
+        long inicio = System.nanoTime();
+
+        // when
+        ExecutorSecoesDashboard.Secao<String> a = executorSecoes.iniciar("a", Duration.ofSeconds(2), () -> dormir(300, "A"), "-");
+        ExecutorSecoesDashboard.Secao<String> b = executorSecoes.iniciar("b", Duration.ofSeconds(2), () -> dormir(300, "B"), "-");
+        ExecutorSecoesDashboard.Secao<String> c = executorSecoes.iniciar("c", Duration.ofSeconds(2), () -> dormir(300, "C"), "-");
+        List<String> indisponiveis = new ArrayList<>();
+        List<String> resultados = List.of(a.obter(indisponiveis), b.obter(indisponiveis), c.obter(indisponiveis));
+
+        // then - latência próxima da seção mais lenta, não da soma
+        assertThat(resultados).containsExactly("A", "B", "C");
+        assertThat(indisponiveis).isEmpty();
+        assertThat(Duration.ofNanos(System.nanoTime() - inicio)).isLessThan(Duration.ofMillis(800));
+    }
+
+    @Test
+    void deveUsarValorParcialQuandoSecaoExcedePrazo() {
+        // when
+        ExecutorSecoesDashboard.Secao<String> lenta = executorSecoes.iniciar("lenta", Duration.ofMillis(100), () -> dormir(2000, "tarde"), "parcial");
+        ExecutorSecoesDashboard.Secao<String> rapida = executorSecoes.iniciar("rapida", Duration.ofSeconds(1), () -> "ok", "-");
+        List<String> indisponiveis = new ArrayList<>();
+
+        // then
+        assertThat(lenta.obter(indisponiveis)).isEqualTo("parcial");
+        assertThat(rapida.obter(indisponiveis)).isEqualTo("ok");
+        assertThat(indisponiveis).containsExactly("lenta");
+    }
+
+    @Test
+    void deveUsarValorParcialQuandoSecaoFalha() {
+        // when
+        ExecutorSecoesDashboard.Secao<String> secao = executorSecoes.iniciar("falha", Duration.ofSeconds(1), () -> {
+            throw new IllegalStateException("erro na consulta");
+        }, "parcial");
+        List<String> indisponiveis = new ArrayList<>();
+
+        // then
+        assertThat(secao.obter(indisponiveis)).isEqualTo("parcial");
+        assertThat(indisponiveis).containsExactly("falha");
+    }
+
+    @Test
+    void deveUsarValorParcialQuandoPoolRejeita() {
+        // given - pool sem capacidade
+        ExecutorSecoesDashboard cheio = new ExecutorSecoesDashboard(tarefa -> {
+            throw new RejectedExecutionException("fila cheia");
+        });
+
+        // when
+        List<String> indisponiveis = new ArrayList<>();
+        String resultado = cheio.iniciar("rejeitada", Duration.ofSeconds(1), () -> "ok", "parcial").obter(indisponiveis);
+
+        // then
+        assertThat(resultado).isEqualTo("parcial");
+        assertThat(indisponiveis).containsExactly("rejeitada");
+    }
+
+    private static String dormir(long millis, String resultado) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return resultado;
+    }
+}
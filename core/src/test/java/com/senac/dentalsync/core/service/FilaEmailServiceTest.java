@@ -0,0 +1,204 @@
+package com.senac.dentalsync.core.service;
+
+import com.senac.dentalsync.core.persistency.model.EmailPendente;
+import com.senac.dentalsync.core.persistency.repository.EmailPendenteRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Fila de emails enviando para um servidor SMTP falso local
+ */
+@ExtendWith(MockitoExtension.class)
+public class FilaEmailServiceTest {
+
+    private static final int MAX_TENTATIVAS = 3;
+    private static final long RETENCAO_MS = 86_400_000;
+
+    @Mock
+    private EmailPendenteRepository emailPendenteRepository;
+
+    private ServidorSmtpFalso smtp;
+    private List<Runnable> tarefas;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtp = new ServidorSmtpFalso(Set.of("recusado@teste.com"));
+        tarefas = new ArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        smtp.close();
+    }
+
+    @Test
+    void deveEnviarOLoteInteiroEmUmaConexao() {
+        // given
+        FilaEmailService fila = fila(smtp.getPorta(), Runnable::run);
+
+        // when
+        fila.enviarLote(List.of(email(1L, "a@teste.com", 0), email(2L, "b@teste.com", 0), email(3L, "c@teste.com", 0)));
+
+        // then
+        assertThat(smtp.getMensagens()).hasSize(3);
+        assertThat(smtp.getMensagens().get(0)).contains("To: a@teste.com");
+        assertThat(smtp.getConexoes()).isEqualTo(1);
+        assertThat(idsMarcadosComoEnviados()).containsExactly(1L, 2L, 3L);
+        verify(emailPendenteRepository, never()).registrarFalha(any(), any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void deveReagendarComBackoffSomenteOEmailRecusado() {
+        // given
+        FilaEmailService fila = fila(smtp.getPorta(), Runnable::run);
+
+        // when
+        fila.enviarLote(List.of(email(1L, "a@teste.com", 0), email(2L, "recusado@teste.com", 0), email(3L, "c@teste.com", 0)));
+
+        // then
+        assertThat(smtp.getMensagens()).hasSize(2);
+        assertThat(idsMarcadosComoEnviados()).containsExactly(1L, 3L);
+        ArgumentCaptor<LocalDateTime> proxima = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(emailPendenteRepository).registrarFalha(eq(2L), eq(EmailPendente.Status.PENDENTE), eq(1),
+            proxima.capture(), anyString());
+        assertThat(proxima.getValue()).isAfter(LocalDateTime.now().plusSeconds(25));
+    }
+
+    @Test
+    void deveMoverParaFalhasAoEsgotarAsTentativas() throws Exception {
+        // given - nenhum servidor escutando na porta
+        int portaFechada;
+        try (ServerSocket livre = new ServerSocket(0)) {
+            portaFechada = livre.getLocalPort();
+        }
+        FilaEmailService fila = fila(portaFechada, Runnable::run);
+
+        // when
+        fila.enviarLote(List.of(email(1L, "a@teste.com", 0), email(2L, "b@teste.com", MAX_TENTATIVAS - 1)));
+
+        // then
+        verify(emailPendenteRepository).registrarFalha(eq(1L), eq(EmailPendente.Status.PENDENTE), eq(1), any(), anyString());
+        verify(emailPendenteRepository).marcarFalhou(eq(2L), eq(MAX_TENTATIVAS), anyString());
+        verify(emailPendenteRepository, never()).marcarEnviados(anyCollection(), any());
+    }
+
+    @Test
+    void deveRemoverOsEmailsFinalizadosForaDaRetencao() {
+        // given
+        FilaEmailService fila = fila(smtp.getPorta(), Runnable::run);
+        ArgumentCaptor<LocalDateTime> limite = ArgumentCaptor.forClass(LocalDateTime.class);
+
+        // when
+        fila.removerFinalizados();
+
+        // then
+        verify(emailPendenteRepository).deleteFinalizadosAntes(limite.capture());
+        assertThat(limite.getValue()).isBetween(LocalDateTime.now().minusDays(1).minusMinutes(1),
+            LocalDateTime.now().minusDays(1));
+    }
+
+    @Test
+    void deveDobrarOIntervaloEntreTentativasAteOLimite() {
+        FilaEmailService fila = fila(smtp.getPorta(), Runnable::run);
+
+        assertThat(fila.backoffMs(1)).isEqualTo(30_000);
+        assertThat(fila.backoffMs(2)).isEqualTo(60_000);
+        assertThat(fila.backoffMs(3)).isEqualTo(120_000);
+        assertThat(fila.backoffMs(20)).isEqualTo(600_000);
+    }
+
+    @Test
+    void deveReservarEDespacharOsEmailsProntos() {
+        // given
+        FilaEmailService fila = fila(smtp.getPorta(), Runnable::run);
+        when(emailPendenteRepository.findIdsProntos(any(), any())).thenReturn(List.of(1L, 2L));
+        when(emailPendenteRepository.reservar(eq(List.of(1L, 2L)), anyString(), any())).thenReturn(2);
+        when(emailPendenteRepository.findByReservaOrderById(anyString()))
+            .thenReturn(List.of(email(1L, "a@teste.com", 0), email(2L, "b@teste.com", 0)));
+
+        // when
+        fila.despachar();
+
+        // then
+        assertThat(smtp.getMensagens()).hasSize(2);
+        assertThat(idsMarcadosComoEnviados()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void deveDevolverOLoteParaAFilaQuandoOsWorkersEstiveremOcupados() {
+        // given
+        FilaEmailService fila = fila(smtp.getPorta(), tarefa -> { throw new RejectedExecutionException(); });
+        when(emailPendenteRepository.findIdsProntos(any(), any())).thenReturn(List.of(1L));
+        when(emailPendenteRepository.reservar(anyCollection(), anyString(), any())).thenReturn(1);
+        when(emailPendenteRepository.findByReservaOrderById(anyString())).thenReturn(List.of(email(1L, "a@teste.com", 0)));
+
+        // when
+        fila.despachar();
+
+        // then
+        verify(emailPendenteRepository).liberarReserva(anyString());
+        assertThat(smtp.getMensagens()).isEmpty();
+    }
+
+    @Test
+    void deveEnfileirarSemEnviarNaThreadDaRequisicao() {
+        // given
+        FilaEmailService fila = fila(smtp.getPorta(), tarefas::add);
+        when(emailPendenteRepository.save(any(EmailPendente.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // when
+        EmailPendente email = fila.enfileirar("a@teste.com", "Assunto", "<p>corpo</p>");
+
+        // then
+        assertThat(email.getStatus()).isEqualTo(EmailPendente.Status.PENDENTE);
+        assertThat(email.getTentativas()).isZero();
+        assertThat(tarefas).hasSize(1); // despacho agendado para os workers
+        assertThat(smtp.getConexoes()).isZero();
+    }
+
+    private FilaEmailService fila(int porta, Executor executor) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(porta);
+        mailSender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        mailSender.getJavaMailProperties().put("mail.smtp.timeout", "2000");
+        return new FilaEmailService(emailPendenteRepository, mailSender, executor,
+            "noreply@dentalsync.com", "DentalSync", 20, MAX_TENTATIVAS, 30_000, 600_000, 600_000, RETENCAO_MS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> idsMarcadosComoEnviados() {
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(emailPendenteRepository).marcarEnviados(ids.capture(), any());
+        return new ArrayList<>(ids.getValue());
+    }
+
+    private EmailPendente email(Long id, String destinatario, int tentativas) {
+        LocalDateTime agora = LocalDateTime.now();
+        return new EmailPendente(id, destinatario, "Assunto " + id, "<p>Email " + id + "</p>",
+            EmailPendente.Status.ENVIANDO, tentativas, agora, "reserva", agora, null, agora, null);
+    }
+}
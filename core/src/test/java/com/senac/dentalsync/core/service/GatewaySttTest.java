@@ -0,0 +1,235 @@
+package com.senac.dentalsync.core.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.senac.dentalsync.core.util.Disjuntor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class GatewaySttTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> metodos = new CopyOnWriteArrayList<>();
+    private final List<String> corpos = new CopyOnWriteArrayList<>();
+    private final List<Integer> portasCliente = new CopyOnWriteArrayList<>();
+    private final AtomicInteger chamadas = new AtomicInteger();
+
+    private HttpServer servidor;
+    private ExecutorService threadsServidor;
+    private volatile Resposta resposta = troca -> responder(troca, 200, "[{\"output\":\"{}\"}]");
+
+    private interface Resposta {
+        void responder(HttpExchange troca) throws Exception;
+    }
+
+    @BeforeEach
+    void subirServidor() throws IOException {
+        threadsServidor = Executors.newCachedThreadPool();
+        servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        servidor.setExecutor(threadsServidor);
+        servidor.createContext("/webhook/stt-dental", troca -> {
+            chamadas.incrementAndGet();
+            metodos.add(troca.getRequestMethod());
+            corpos.add(new String(troca.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            portasCliente.add(troca.getRemoteAddress().getPort());
+            try {
+                resposta.responder(troca);
+            } catch (Exception e) {
+                troca.close();
+            }
+        });
+        servidor.start();
+    }
+
+    @AfterEach
+    void derrubarServidor() {
+        servidor.stop(0);
+        threadsServidor.shutdownNow();
+    }
+
+    @Test
+    void deveEnviarAMensagemNoCorpoDoPostEReaproveitarAConexao() throws Exception {
+        resposta = troca -> responder(troca, 200, "[{\"output\":\"{\\\"cliente_id\\\":1}\"}]");
+        GatewayStt gateway = gateway(2, 0, new Disjuntor(5, 1000));
+
+        Object primeira = gateway.enviar("'coroa no dente 15'");
+        Object segunda = gateway.enviar("'ponte fixa'");
+
+        assertThat(primeira).isEqualTo(List.of(Map.of("output", "{\"cliente_id\":1}")));
+        assertThat(segunda).isEqualTo(primeira);
+        assertThat(metodos).containsOnly("POST");
+        assertThat(objectMapper.readValue(corpos.get(0), Map.class)).isEqualTo(Map.of("message", "'coroa no dente 15'"));
+        // Keep-alive: a segunda chamada sai pela mesma conexão
+        assertThat(portasCliente).hasSize(2);
+        assertThat(portasCliente.get(1)).isEqualTo(portasCliente.get(0));
+    }
+
+    @Test
+    void deveAtenderChamadasFeitasDeThreadsVirtuais() throws Exception {
+        URI uri = URI.create("http://127.0.0.1:" + servidor.getAddress().getPort() + "/webhook/stt-dental");
+        GatewayStt gateway = new GatewayStt(objectMapper, uri, 500, 1000, 4, 1000, new Disjuntor(5, 1000), true);
+
+        try (ExecutorService virtuais = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<Object>> respostas = List.of(
+                CompletableFuture.supplyAsync(() -> gateway.enviar("'a'"), virtuais),
+                CompletableFuture.supplyAsync(() -> gateway.enviar("'b'"), virtuais),
+                CompletableFuture.supplyAsync(() -> gateway.enviar("'c'"), virtuais));
+
+            for (CompletableFuture<Object> resposta : respostas) {
+                assertThat(resposta.get(5, TimeUnit.SECONDS)).isEqualTo(List.of(Map.of("output", "{}")));
+            }
+        } finally {
+            gateway.fechar();
+        }
+        assertThat(chamadas).hasValue(3);
+    }
+
+    @Test
+    void deveDevolverOCorpoCruQuandoNaoForJson() {
+        resposta = troca -> responder(troca, 200, "Workflow was started");
+
+        assertThat(gateway(2, 0, new Disjuntor(5, 1000)).enviar("'texto'"))
+            .isEqualTo(Map.of("rawResponse", "Workflow was started"));
+    }
+
+    @Test
+    void deveIdentificarWebhookNaoRegistrado() {
+        resposta = troca -> responder(troca, 404,
+            "{\"code\":404,\"message\":\"The requested webhook \\\"POST stt-dental\\\" is not registered.\"}");
+
+        assertThatThrownBy(() -> gateway(2, 0, new Disjuntor(5, 1000)).enviar("'texto'"))
+            .hasMessage("WEBHOOK_NOT_REGISTERED");
+    }
+
+    @Test
+    void deveEncerrarAChamadaNoPrazoConfigurado() {
+        CountDownLatch liberar = new CountDownLatch(1);
+        resposta = troca -> {
+            liberar.await(5, TimeUnit.SECONDS);
+            responder(troca, 200, "{}");
+        };
+        GatewayStt gateway = gateway(2, 0, new Disjuntor(5, 1000));
+
+        long inicio = System.nanoTime();
+        try {
+            assertThatThrownBy(() -> gateway.enviar("'texto'")).hasMessage("TIMEOUT_ERROR");
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio)).isLessThan(3000);
+        } finally {
+            liberar.countDown();
+        }
+    }
+
+    @Test
+    void deveResponderIndisponivelQuandoNaoHouverServidor() throws IOException {
+        int portaLivre;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            portaLivre = socket.getLocalPort();
+        }
+        GatewayStt gateway = new GatewayStt(objectMapper, URI.create("http://127.0.0.1:" + portaLivre + "/webhook/stt-dental"),
+            300, 300, 2, 0, new Disjuntor(5, 1000), false);
+
+        assertThatThrownBy(() -> gateway.enviar("'texto'")).hasMessage("SERVICE_UNAVAILABLE");
+    }
+
+    @Test
+    void deveAbrirOCircuitoAposFalhasSeguidasETestarDeNovoDepoisDoPrazo() {
+        resposta = troca -> responder(troca, 500, "erro");
+        AtomicLong relogio = new AtomicLong();
+        Disjuntor disjuntor = new Disjuntor(2, 1000, relogio::get);
+        GatewayStt gateway = gateway(2, 0, disjuntor);
+
+        assertThatThrownBy(() -> gateway.enviar("'a'")).hasMessageContaining("500");
+        assertThatThrownBy(() -> gateway.enviar("'b'")).hasMessageContaining("500");
+        assertThatThrownBy(() -> gateway.enviar("'c'")).hasMessageStartingWith("SERVICE_UNAVAILABLE");
+        assertThat(chamadas).hasValue(2);
+        assertThat(disjuntor.getEstado()).isEqualTo(Disjuntor.Estado.ABERTO);
+
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        resposta = troca -> responder(troca, 200, "{\"cliente_id\":1}");
+
+        assertThat(gateway.enviar("'d'")).isEqualTo(Map.of("cliente_id", 1));
+        assertThat(chamadas).hasValue(3);
+        assertThat(disjuntor.getEstado()).isEqualTo(Disjuntor.Estado.FECHADO);
+    }
+
+    @Test
+    void deveContarErroInesperadoDoClienteComoFalhaNaChamadaDeTeste() {
+        // given - esquema que o HttpClient recusa com IllegalArgumentException
+        AtomicLong relogio = new AtomicLong();
+        Disjuntor disjuntor = new Disjuntor(1, 1000, relogio::get);
+        GatewayStt gateway = new GatewayStt(objectMapper, URI.create("ftp://127.0.0.1/webhook/stt-dental"),
+            300, 300, 2, 0, disjuntor, false);
+        assertThatThrownBy(() -> gateway.enviar("'a'")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(disjuntor.getEstado()).isEqualTo(Disjuntor.Estado.ABERTO);
+
+        // when - passado o prazo, a chamada de teste falha do mesmo jeito
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertThatThrownBy(() -> gateway.enviar("'b'")).isInstanceOf(IllegalArgumentException.class);
+
+        // then - volta a ABERTO e libera outra chamada de teste no próximo prazo
+        assertThat(disjuntor.getEstado()).isEqualTo(Disjuntor.Estado.ABERTO);
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertThatThrownBy(() -> gateway.enviar("'c'")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void deveRecusarNaHoraQuandoAsVagasEstiveremOcupadas() throws Exception {
+        CountDownLatch recebida = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        resposta = troca -> {
+            recebida.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            responder(troca, 200, "{}");
+        };
+        GatewayStt gateway = gateway(1, 0, new Disjuntor(5, 1000));
+
+        CompletableFuture<Object> ocupando = CompletableFuture.supplyAsync(() -> gateway.enviar("'lenta'"));
+        assertThat(recebida.await(5, TimeUnit.SECONDS)).isTrue();
+        try {
+            assertThatThrownBy(() -> gateway.enviar("'outra'")).hasMessageStartingWith("SERVICE_UNAVAILABLE");
+            assertThat(chamadas).hasValue(1);
+        } finally {
+            liberar.countDown();
+        }
+        assertThat(ocupando.get(5, TimeUnit.SECONDS)).isEqualTo(Map.of());
+        assertThat(gateway.getDisjuntor().getEstado()).isEqualTo(Disjuntor.Estado.FECHADO);
+    }
+
+    private GatewayStt gateway(int maxConcorrentes, long esperaVagaMs, Disjuntor disjuntor) {
+        URI uri = URI.create("http://127.0.0.1:" + servidor.getAddress().getPort() + "/webhook/stt-dental");
+        return new GatewayStt(objectMapper, uri, 500, 1000, maxConcorrentes, esperaVagaMs, disjuntor, false);
+    }
+
+    private static void responder(HttpExchange troca, int status, String corpo) throws IOException {
+        byte[] bytes = corpo.getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", "application/json");
+        troca.sendResponseHeaders(status, bytes.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.senac.dentalsync.core.service;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HashSenhaServiceTest {
+
+    @Test
+    void deveGerarHashComOCustoConfiguradoEVerificarASenha() {
+        HashSenhaService hashSenhaService = new HashSenhaService(4, Runnable::run, 1000);
+
+        String hash = hashSenhaService.encode("Senha@123");
+
+        assertThat(hash).startsWith("$2a$04$");
+        assertThat(hashSenhaService.matches("Senha@123", hash)).isTrue();
+        assertThat(hashSenhaService.matches("Senha@124", hash)).isFalse();
+    }
+
+    @Test
+    void deveRefazerHashSomenteQuandoOCustoGravadoForDiferente() {
+        HashSenhaService hashSenhaService = new HashSenhaService(5, Runnable::run, 1000);
+
+        assertThat(hashSenhaService.upgradeEncoding(new HashSenhaService(4, Runnable::run, 1000).encode("Senha@123"))).isTrue();
+        assertThat(hashSenhaService.upgradeEncoding(new HashSenhaService(6, Runnable::run, 1000).encode("Senha@123"))).isTrue();
+        assertThat(hashSenhaService.upgradeEncoding(hashSenhaService.encode("Senha@123"))).isFalse();
+        assertThat(hashSenhaService.upgradeEncoding("senha-em-texto")).isFalse();
+        assertThat(hashSenhaService.upgradeEncoding(null)).isFalse();
+    }
+
+    @Test
+    void deveLerOCustoDoHash() {
+        assertThat(HashSenhaService.custoDo("$2a$10$abcdefghijklmnopqrstuv")).isEqualTo(10);
+        assertThat(HashSenhaService.custoDo("$2b$12$abcdefghijklmnopqrstuv")).isEqualTo(12);
+        assertThat(HashSenhaService.custoDo("{noop}senha")).isEqualTo(-1);
+    }
+
+    @Test
+    void deveResponderIndisponivelQuandoAFilaEstiverCheia() {
+        HashSenhaService hashSenhaService = new HashSenhaService(4, tarefa -> {
+            throw new RejectedExecutionException("fila cheia");
+        }, 1000);
+
+        assertThatThrownBy(() -> hashSenhaService.matches("Senha@123", "$2a$04$abcdefghijklmnopqrstuv"))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    @Test
+    void deveResponderIndisponivelQuandoAEsperaEstourar() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        CountDownLatch liberar = new CountDownLatch(1);
+        try {
+            // A única thread do pool fica ocupada: o hash seguinte espera na fila até o prazo
+            pool.execute(() -> {
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            HashSenhaService hashSenhaService = new HashSenhaService(4, pool, 50);
+
+            assertThatThrownBy(() -> hashSenhaService.encode("Senha@123"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                    e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        } finally {
+            liberar.countDown();
+            pool.shutdown();
+            assertThat(pool.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    void deveRepassarErroDoBcrypt() {
+        HashSenhaService hashSenhaService = new HashSenhaService(4, Runnable::run, 1000);
+
+        assertThatThrownBy(() -> hashSenhaService.encode(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,160 @@
+package com.senac.dentalsync.core.service;
+
+import com.senac.dentalsync.core.event.DentistaAlteradoEvent;
+import com.senac.dentalsync.core.event.PedidoAlteradoEvent;
+import com.senac.dentalsync.core.persistency.model.IndicadorDashboard;
+import com.senac.dentalsync.core.persistency.model.Pedido;
+import com.senac.dentalsync.core.persistency.repository.DentistaRepository;
+import com.senac.dentalsync.core.persistency.repository.IndicadorDashboardRepository;
+import com.senac.dentalsync.core.persistency.repository.PedidoRepository;
+import com.senac.dentalsync.core.persistency.repository.ServicoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IndicadorDashboardServiceTest {
+
+    @Mock
+    private IndicadorDashboardRepository indicadorDashboardRepository;
+
+    @Mock
+    private PedidoRepository pedidoRepository;
+
+    @Mock
+    private DentistaRepository dentistaRepository;
+
+    @Mock
+    private ServicoRepository servicoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private IndicadorDashboardService indicadorDashboardService;
+
+    private static final LocalDateTime CRIACAO = LocalDateTime.of(2024, 5, 20, 8, 0);
+
+    @BeforeEach
+    void setUp() {
+        indicadorDashboardService.setTransactionManager(transactionManager);
+        // Estado inicial: contadores já reconstruídos
+        when(pedidoRepository.contarPorMesDeCriacao()).thenReturn(Collections.emptyList());
+        when(pedidoRepository.contarPorStatus()).thenReturn(Collections.emptyList());
+        when(pedidoRepository.contarPorServico()).thenReturn(Collections.emptyList());
+        when(dentistaRepository.contarAtivosPorMesDeCriacao()).thenReturn(Collections.emptyList());
+        indicadorDashboardService.recalcular();
+        clearInvocations(indicadorDashboardRepository, pedidoRepository, dentistaRepository);
+    }
+
+    @Test
+    void deveAplicarDeltaDeMudancaDeStatus() {
+        // given
+        when(indicadorDashboardRepository.incrementar(any(), anyString(), anyLong(), any())).thenReturn(1);
+        PedidoAlteradoEvent evento = new PedidoAlteradoEvent(
+            new PedidoAlteradoEvent.Estado(1L, CRIACAO, Pedido.Status.PENDENTE, List.of(7L)),
+            new PedidoAlteradoEvent.Estado(1L, CRIACAO, Pedido.Status.CONCLUIDO, List.of(7L)));
+
+        // when
+        indicadorDashboardService.onPedidoAlterado(evento);
+
+        // then
+        verify(indicadorDashboardRepository).incrementar(eq(IndicadorDashboard.Tipo.PEDIDOS_POR_STATUS), eq("PENDENTE"), eq(-1L), any());
+        verify(indicadorDashboardRepository).incrementar(eq(IndicadorDashboard.Tipo.PEDIDOS_POR_STATUS), eq("CONCLUIDO"), eq(1L), any());
+        verify(indicadorDashboardRepository).incrementar(eq(IndicadorDashboard.Tipo.PEDIDOS_POR_MES), eq("2024-05"), eq(-1L), any());
+        verify(indicadorDashboardRepository).incrementar(eq(IndicadorDashboard.Tipo.PEDIDOS_POR_MES), eq("2024-05"), eq(1L), any());
+        verify(indicadorDashboardRepository, never()).save(any());
+        verifyNoInteractions(pedidoRepository);
+    }
+
+    @Test
+    void deveCriarContadorQuandoAindaNaoExiste() {
+        // given
+        when(indicadorDashboardRepository.incrementar(any(), anyString(), anyLong(), any())).thenReturn(0);
+        Pedido pedido = new Pedido();
+        pedido.setId(2L);
+        pedido.setStatus(Pedido.Status.PENDENTE);
+        pedido.setCreatedAt(CRIACAO);
+
+        // when
+        indicadorDashboardService.onPedidoAlterado(PedidoAlteradoEvent.criado(pedido));
+
+        // then
+        ArgumentCaptor<IndicadorDashboard> captor = ArgumentCaptor.forClass(IndicadorDashboard.class);
+        verify(indicadorDashboardRepository, times(2)).save(captor.capture());
+        assertThat(captor.getAllValues())
+            .extracting(IndicadorDashboard::getTipo, IndicadorDashboard::getChave, IndicadorDashboard::getValor)
+            .containsExactlyInAnyOrder(
+                tuple(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, "2024-05", 1L),
+                tuple(IndicadorDashboard.Tipo.PEDIDOS_POR_STATUS, "PENDENTE", 1L));
+    }
+
+    @Test
+    void deveIgnorarDentistaSemMudancaDeSituacao() {
+        // when
+        indicadorDashboardService.onDentistaAlterado(new DentistaAlteradoEvent(1L, CRIACAO, true, true));
+
+        // then
+        verifyNoInteractions(indicadorDashboardRepository);
+    }
+
+    @Test
+    void deveRecalcularNaLeituraSeDeltaFalhar() {
+        // given
+        when(indicadorDashboardRepository.incrementar(any(), anyString(), anyLong(), any()))
+            .thenThrow(new RuntimeException("conexão perdida"));
+        when(indicadorDashboardRepository.findAll()).thenReturn(Collections.emptyList());
+
+        // when
+        indicadorDashboardService.onDentistaAlterado(new DentistaAlteradoEvent(1L, CRIACAO, false, true));
+        indicadorDashboardService.carregar();
+        indicadorDashboardService.carregar();
+
+        // then - a primeira leitura reconstrói; a segunda já usa os contadores
+        verify(indicadorDashboardRepository, times(1)).deleteAllInBatch();
+        verify(dentistaRepository, times(1)).contarAtivosPorMesDeCriacao();
+    }
+
+    @Test
+    void deveReconstruirContadoresAPartirDasAgregacoes() {
+        // given
+        when(pedidoRepository.contarPorMesDeCriacao()).thenReturn(List.<Object[]>of(
+            new Object[]{2024, 5, 3L}, new Object[]{null, null, 1L}));
+        when(pedidoRepository.contarPorStatus()).thenReturn(List.<Object[]>of(new Object[]{Pedido.Status.PENDENTE, 4L}));
+        when(servicoRepository.findNomesByIdIn(any())).thenReturn(List.<Object[]>of(new Object[]{7L, "Coroa"}));
+        when(indicadorDashboardRepository.findAll()).thenReturn(List.of(
+            new IndicadorDashboard(1L, IndicadorDashboard.Tipo.PEDIDOS_POR_SERVICO, "7", 4L, null)));
+
+        // when
+        indicadorDashboardService.recalcular();
+        IndicadoresDashboard indicadores = indicadorDashboardService.carregar();
+
+        // then
+        ArgumentCaptor<IndicadorDashboard> captor = ArgumentCaptor.forClass(IndicadorDashboard.class);
+        verify(indicadorDashboardRepository, times(3)).save(captor.capture());
+        assertThat(captor.getAllValues())
+            .extracting(IndicadorDashboard::getTipo, IndicadorDashboard::getChave, IndicadorDashboard::getValor)
+            .containsExactlyInAnyOrder(
+                tuple(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, "2024-05", 3L),
+                tuple(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, IndicadorDashboard.SEM_DATA, 1L),
+                tuple(IndicadorDashboard.Tipo.PEDIDOS_POR_STATUS, "PENDENTE", 4L));
+        assertThat(indicadores.getPercentualPorServico()).isEmpty(); // sem pedidos no total lido
+    }
+}
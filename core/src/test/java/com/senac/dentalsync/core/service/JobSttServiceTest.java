@@ -0,0 +1,133 @@
+package com.senac.dentalsync.core.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.senac.dentalsync.core.dto.RascunhoPedidoDTO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class JobSttServiceTest {
+
+    @Mock
+    private STTService sttService;
+
+    @Mock
+    private RascunhoPedidoService rascunhoPedidoService;
+
+    private final AtomicLong relogio = new AtomicLong();
+    private final List<Runnable> fila = new ArrayList<>();
+
+    private JobSttService jobSttService(Executor executor, int maxJobs) {
+        return new JobSttService(sttService, rascunhoPedidoService, executor, 1000, maxJobs, relogio::get);
+    }
+
+    @Test
+    void deveResponderNaHoraEConcluirNoWorkerComORascunho() throws Exception {
+        Map<String, Object> extraido = Map.of("output", "{\"cliente_id\":3}");
+        RascunhoPedidoDTO rascunho = new RascunhoPedidoDTO();
+        when(sttService.processText("coroa no 15")).thenReturn(extraido);
+        when(rascunhoPedidoService.montar(extraido)).thenReturn(rascunho);
+        JobSttService jobSttService = jobSttService(fila::add, 10);
+
+        JobSttService.Job job = jobSttService.criar("coroa no 15", true, "ana@lab.com");
+
+        assertThat(job.getStatus()).isEqualTo(JobSttService.Status.PENDENTE);
+        assertThat(job.getConclusao()).isNotDone();
+        fila.forEach(Runnable::run);
+
+        assertThat(job.getConclusao().get(1, TimeUnit.SECONDS)).isSameAs(job);
+        assertThat(job.getStatus()).isEqualTo(JobSttService.Status.CONCLUIDO);
+        assertThat(job.getResultado()).isEqualTo(extraido);
+        assertThat(job.getRascunho()).isSameAs(rascunho);
+    }
+
+    @Test
+    void naoDeveMontarRascunhoQuandoNaoPedido() throws Exception {
+        when(sttService.processText("coroa")).thenReturn(Map.of("output", "{}"));
+
+        JobSttService.Job job = jobSttService(Runnable::run, 10).criar("coroa", false, "ana@lab.com");
+
+        assertThat(job.getStatus()).isEqualTo(JobSttService.Status.CONCLUIDO);
+        assertThat(job.getRascunho()).isNull();
+        verify(rascunhoPedidoService, never()).montar(any());
+    }
+
+    @Test
+    void deveGuardarOErroQuandoAExtracaoFalha() throws Exception {
+        when(sttService.processText("coroa")).thenThrow(new RuntimeException("TIMEOUT_ERROR"));
+
+        JobSttService.Job job = jobSttService(Runnable::run, 10).criar("coroa", true, "ana@lab.com");
+
+        assertThat(job.getStatus()).isEqualTo(JobSttService.Status.FALHOU);
+        assertThat(job.getErro()).hasMessage("TIMEOUT_ERROR");
+        assertThat(job.getConclusao()).isDone();
+    }
+
+    @Test
+    void deveMostrarOJobSoParaQuemOCriou() {
+        JobSttService jobSttService = jobSttService(fila::add, 10);
+        JobSttService.Job job = jobSttService.criar("coroa", true, "ana@lab.com");
+
+        assertThat(jobSttService.buscar(job.getId(), "ana@lab.com")).contains(job);
+        assertThat(jobSttService.buscar(job.getId(), "bia@lab.com")).isEmpty();
+        assertThat(jobSttService.buscar("inexistente", "ana@lab.com")).isEmpty();
+        assertThat(jobSttService.buscar(job.getId(), null)).isEmpty();
+    }
+
+    @Test
+    void deveResponder503QuandoAFilaDosWorkersEstaCheia() {
+        JobSttService jobSttService = jobSttService(tarefa -> {
+            throw new RejectedExecutionException();
+        }, 10);
+
+        assertThatThrownBy(() -> jobSttService.criar("coroa", true, "ana@lab.com"))
+            .isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(jobSttService.quantidade()).isZero();
+    }
+
+    @Test
+    void deveRecusarTextoVazioSemEnfileirar() {
+        JobSttService jobSttService = jobSttService(fila::add, 10);
+
+        assertThatThrownBy(() -> jobSttService.criar("  ", true, "ana@lab.com"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(fila).isEmpty();
+    }
+
+    @Test
+    void deveDescartarJobsConcluidosDepoisDaRetencaoELiberarVaga() throws Exception {
+        when(sttService.processText(any())).thenReturn(Map.of("output", "{}"));
+        JobSttService jobSttService = jobSttService(Runnable::run, 1);
+        JobSttService.Job primeiro = jobSttService.criar("coroa", false, "ana@lab.com");
+
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertThatThrownBy(() -> jobSttService.criar("faceta", false, "ana@lab.com"))
+            .isInstanceOf(ResponseStatusException.class);
+
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        JobSttService.Job segundo = jobSttService.criar("faceta", false, "ana@lab.com");
+
+        assertThat(jobSttService.buscar(primeiro.getId(), "ana@lab.com")).isEmpty();
+        assertThat(jobSttService.buscar(segundo.getId(), "ana@lab.com")).contains(segundo);
+    }
+}
@@ -1,25 +1,33 @@
 package com.senac.dentalsync.core.service;
 
 import com.senac.dentalsync.core.persistency.model.Material;
+import com.senac.dentalsync.core.persistency.model.MovimentacaoEstoque;
 import com.senac.dentalsync.core.persistency.model.StatusMaterial;
 import com.senac.dentalsync.core.persistency.model.Protetico;
 import com.senac.dentalsync.core.persistency.repository.MaterialRepository;
+import com.senac.dentalsync.core.persistency.repository.MovimentacaoEstoqueRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.lenient;
 
@@ -30,6 +38,12 @@ public class MaterialServiceTest {
     @Mock
     private MaterialRepository materialRepository;
 
+    @Mock
+    private MovimentacaoEstoqueRepository movimentacaoEstoqueRepository;
+
+    @Mock
+    private DetectorLimiteEstoque detectorLimiteEstoque;
+
     @InjectMocks
     private MaterialService materialService;
 
@@ -47,6 +61,7 @@ public class MaterialServiceTest {
         materialTeste.setValorUnitario(new BigDecimal("25.50"));
         materialTeste.setStatus(StatusMaterial.EM_ESTOQUE);
         materialTeste.setIsActive(true);
+        materialTeste.setVersao(0L);
     }
 
     @Test
@@ -249,4 +264,152 @@ public class MaterialServiceTest {
         assertThat(materialSalvo.getStatus()).isNull();
         verify(materialRepository, times(1)).save(any(Material.class));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void deveDescontarEstoqueComUpdateCondicionalPorMaterial() {
+        // given
+        when(materialRepository.descontarEstoque(any(), any(), any(), any())).thenReturn(1);
+
+        // when
+        materialService.descontarEstoque(Map.of(3L, new BigDecimal("1.00"), 1L, new BigDecimal("4.50")));
+
+        // then - um UPDATE por material, em ordem de id, sem carregar as entidades
+        var ordem = inOrder(materialRepository);
+        ordem.verify(materialRepository).descontarEstoque(eq(1L), eq(new BigDecimal("4.50")), any(), any());
+        ordem.verify(materialRepository).descontarEstoque(eq(3L), eq(new BigDecimal("1.00")), any(), any());
+        verify(materialRepository, never()).findById(any());
+        verify(materialRepository, never()).save(any(Material.class));
+    }
+
+    @Test
+    void deveLancarExcecaoQuandoEstoqueInsuficienteNoDesconto() {
+        // given
+        materialTeste.setQuantidade(new BigDecimal("1.00"));
+        when(materialRepository.descontarEstoque(eq(1L), any(), any(), any())).thenReturn(0);
+        when(materialRepository.findById(1L)).thenReturn(Optional.of(materialTeste));
+
+        // when & then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            materialService.descontarEstoque(Map.of(1L, new BigDecimal("5.00")));
+        });
+
+        assertThat(exception.getMessage())
+            .contains("Estoque insuficiente")
+            .contains("Resina Composta")
+            .contains("Disponível: 1.00");
+    }
+
+    @Test
+    void deveLancarExcecaoQuandoMaterialNaoEncontradoNoDesconto() {
+        // given
+        when(materialRepository.descontarEstoque(eq(99L), any(), any(), any())).thenReturn(0);
+        when(materialRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // when & then
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
+            materialService.descontarEstoque(Map.of(99L, new BigDecimal("1.00")));
+        });
+
+        assertThat(exception.getMessage()).contains("Material não encontrado");
+    }
+
+    @Test
+    void naoDeveConsultarBancoSemConsumo() {
+        // when
+        materialService.descontarEstoque(Map.of());
+
+        // then
+        verifyNoInteractions(materialRepository);
+    }
+
+    @Test
+    void deveRegistrarAjusteManualNoLivroDeMovimentacoes() {
+        // given - a edição muda a quantidade de 40 para 100
+        when(materialRepository.findQuantidadeById(1L)).thenReturn(Optional.of(new BigDecimal("40.00")));
+        when(materialRepository.save(any(Material.class))).thenReturn(materialTeste);
+
+        // when
+        materialService.save(materialTeste);
+
+        // then
+        ArgumentCaptor<MovimentacaoEstoque> captor = ArgumentCaptor.forClass(MovimentacaoEstoque.class);
+        verify(movimentacaoEstoqueRepository).save(captor.capture());
+        assertThat(captor.getValue().getMaterialId()).isEqualTo(1L);
+        assertThat(captor.getValue().getTipo()).isEqualTo(MovimentacaoEstoque.Tipo.AJUSTE_MANUAL);
+        assertThat(captor.getValue().getQuantidade()).isEqualByComparingTo("60.00");
+    }
+
+    @Test
+    void naoDeveRegistrarMovimentacaoQuandoQuantidadeNaoMuda() {
+        // given
+        when(materialRepository.findQuantidadeById(1L)).thenReturn(Optional.of(new BigDecimal("100.00")));
+        when(materialRepository.save(any(Material.class))).thenReturn(materialTeste);
+
+        // when
+        materialService.save(materialTeste);
+
+        // then
+        verifyNoInteractions(movimentacaoEstoqueRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deveRegistrarBaixasDoPedidoComQuantidadeNegativa() {
+        // when
+        materialService.registrarBaixaPedido(7L, Map.of(3L, new BigDecimal("1.00"), 1L, new BigDecimal("4.50")));
+
+        // then - uma linha por material, em ordem de id, ligada ao pedido
+        ArgumentCaptor<List<MovimentacaoEstoque>> captor = ArgumentCaptor.forClass(List.class);
+        verify(movimentacaoEstoqueRepository).saveAll(captor.capture());
+        List<MovimentacaoEstoque> movimentacoes = captor.getValue();
+        assertThat(movimentacoes).extracting(MovimentacaoEstoque::getMaterialId).containsExactly(1L, 3L);
+        assertThat(movimentacoes).allSatisfy(movimentacao -> {
+            assertThat(movimentacao.getTipo()).isEqualTo(MovimentacaoEstoque.Tipo.BAIXA_PEDIDO);
+            assertThat(movimentacao.getPedidoId()).isEqualTo(7L);
+        });
+        assertThat(movimentacoes.get(0).getQuantidade()).isEqualByComparingTo("-4.50");
+    }
+
+    @Test
+    void deveServirNotificacoesSemConsultarOBanco() {
+        // given
+        when(detectorLimiteEstoque.getNotificacoes()).thenReturn(Map.of("total", 2, "semEstoque", 1, "baixoEstoque", 1,
+            "materiaisSemEstoque", List.of(), "materiaisBaixoEstoque", List.of()));
+
+        // when
+        Map<String, Object> notificacoes = materialService.getNotificacaoEstoque();
+
+        // then
+        assertThat(notificacoes).containsEntry("total", 2);
+        verifyNoInteractions(materialRepository);
+    }
+
+    @Test
+    void deveRecusarEdicaoComVersaoDesatualizada() {
+        // given - um pedido baixou o estoque depois que o formulário foi aberto
+        materialTeste.setVersao(3L);
+        when(materialRepository.save(any(Material.class)))
+            .thenThrow(new ObjectOptimisticLockingFailureException(Material.class, 1L));
+
+        // when & then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            materialService.save(materialTeste);
+        });
+
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void deveRecusarEdicaoSemVersao() {
+        // given - sem a versão a edição sobrescreveria baixas de estoque feitas por pedidos
+        materialTeste.setVersao(null);
+
+        // when & then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> {
+            materialService.save(materialTeste);
+        });
+
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(materialRepository, never()).save(any(Material.class));
+    }
+}
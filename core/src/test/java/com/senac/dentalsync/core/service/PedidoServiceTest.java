@@ -1,10 +1,10 @@
 package com.senac.dentalsync.core.service;
 
+import com.senac.dentalsync.core.dto.ConsumoMaterialDTO;
 import com.senac.dentalsync.core.dto.HistoricoDentistaDTO;
 import com.senac.dentalsync.core.dto.HistoricoPacienteDTO;
 import com.senac.dentalsync.core.dto.HistoricoProteticoDTO;
 import com.senac.dentalsync.core.persistency.model.*;
-import com.senac.dentalsync.core.persistency.repository.MaterialRepository;
 import com.senac.dentalsync.core.persistency.repository.PedidoRepository;
 import com.senac.dentalsync.core.persistency.repository.ServicoMaterialRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,19 +12,29 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.lenient;
 
@@ -39,12 +49,13 @@ public class PedidoServiceTest {
     @Mock
     private MaterialService materialService;
     
-    @Mock
-    private MaterialRepository materialRepository;
-
     @Mock
     private ServicoMaterialRepository servicoMaterialRepository;
 
+    @Spy
+    private RetentativaConcorrencia retentativaConcorrencia =
+        new RetentativaConcorrencia(mock(PlatformTransactionManager.class), 3, 0);
+
     @InjectMocks
     private PedidoService pedidoService;
 
@@ -53,8 +64,7 @@ public class PedidoServiceTest {
     private Dentista dentistaTeste;
     private Protetico proteticoTeste;
     private Servico servicoTeste;
-    private Material materialTeste;
-    private ServicoMaterial servicoMaterialTeste;
+    private ConsumoMaterialDTO consumoTeste;
 
     @BeforeEach
     void setUp() {
@@ -76,12 +86,6 @@ public class PedidoServiceTest {
         proteticoTeste.setNome("José Protético");
         proteticoTeste.setEmail("jose@email.com");
 
-        // Configura o material de teste
-        materialTeste = new Material();
-        materialTeste.setId(1L);
-        materialTeste.setNome("Resina");
-        materialTeste.setQuantidade(new BigDecimal("100.00"));
-
         // Configura o serviço de teste
         servicoTeste = new Servico();
         servicoTeste.setId(1L);
@@ -89,10 +93,8 @@ public class PedidoServiceTest {
         servicoTeste.setPreco(new BigDecimal("150.00"));
         servicoTeste.setValorTotal(new BigDecimal("277.50"));
 
-        // Configura o serviço material de teste
-        servicoMaterialTeste = new ServicoMaterial();
-        servicoMaterialTeste.setMaterial(materialTeste);
-        servicoMaterialTeste.setQuantidade(new BigDecimal("2.00"));
+        // Configura o consumo de material do serviço de teste (material 1)
+        consumoTeste = new ConsumoMaterialDTO(1L, 1L, new BigDecimal("2.00"));
 
         // Configura o pedido de teste
         pedidoTeste = new Pedido();
@@ -119,10 +121,7 @@ public class PedidoServiceTest {
         novoPedido.setDataEntrega(LocalDate.now().plusDays(7));
         novoPedido.setPrioridade(Pedido.Prioridade.MEDIA);
 
-        when(servicoMaterialRepository.findByServicoId(1L)).thenReturn(Arrays.asList(servicoMaterialTeste));
-        when(materialService.getRepository()).thenReturn(materialRepository);
-        when(materialRepository.findById(1L)).thenReturn(Optional.of(materialTeste));
-        when(materialService.save(any(Material.class))).thenReturn(materialTeste);
+        when(servicoMaterialRepository.findConsumoByServicoIdIn(any())).thenReturn(Arrays.asList(consumoTeste));
         when(pedidoRepository.save(any(Pedido.class))).thenReturn(pedidoTeste);
 
         // when
@@ -132,8 +131,9 @@ public class PedidoServiceTest {
         assertThat(pedidoSalvo).isNotNull();
         assertThat(pedidoSalvo.getStatus()).isEqualTo(Pedido.Status.PENDENTE);
         verify(pedidoRepository, times(1)).save(any(Pedido.class));
-        verify(servicoMaterialRepository, times(1)).findByServicoId(1L);
-        verify(materialService, times(1)).save(any(Material.class));
+        verify(servicoMaterialRepository, times(1)).findConsumoByServicoIdIn(Set.of(1L));
+        verify(materialService, times(1)).descontarEstoque(Map.of(1L, new BigDecimal("2.00")));
+        verify(materialService, times(1)).registrarBaixaPedido(1L, Map.of(1L, new BigDecimal("2.00")));
     }
 
     @Test
@@ -150,34 +150,34 @@ public class PedidoServiceTest {
         assertThat(pedidoSalvo).isNotNull();
         assertThat(pedidoSalvo.getStatus()).isEqualTo(Pedido.Status.EM_ANDAMENTO);
         verify(pedidoRepository, times(1)).save(any(Pedido.class));
-        verify(servicoMaterialRepository, never()).findByServicoId(any());
-        verify(materialService, never()).save(any(Material.class));
+        verify(servicoMaterialRepository, never()).findConsumoByServicoIdIn(any());
+        verify(materialService, never()).descontarEstoque(any());
     }
 
     @Test
-    void deveDescontarEstoqueMaterialsAoSalvarNovoPedido() {
-        // given
+    void deveSomarConsumoPorMaterialComUmaUnicaConsulta() {
+        // given - 2 serviços (um deles repetido) compartilhando o material 1
+        Servico outroServico = new Servico();
+        outroServico.setId(2L);
+        outroServico.setNome("Coroa");
+
         Pedido novoPedido = new Pedido();
-        novoPedido.setServicos(Arrays.asList(servicoTeste));
-        
-        Material materialAtualizado = new Material();
-        materialAtualizado.setId(1L);
-        materialAtualizado.setNome("Resina Composta");
-        materialAtualizado.setQuantidade(new BigDecimal("95.00")); // 100 - 5
-
-        when(servicoMaterialRepository.findByServicoId(1L)).thenReturn(Arrays.asList(servicoMaterialTeste));
-        when(materialService.getRepository()).thenReturn(materialRepository);
-        when(materialRepository.findById(1L)).thenReturn(Optional.of(materialTeste));
-        when(materialService.save(any(Material.class))).thenReturn(materialAtualizado);
+        novoPedido.setServicos(Arrays.asList(servicoTeste, outroServico, servicoTeste));
+
+        when(servicoMaterialRepository.findConsumoByServicoIdIn(any())).thenReturn(Arrays.asList(
+            consumoTeste,                                                // serviço 1: 2.00 do material 1
+            new ConsumoMaterialDTO(2L, 1L, new BigDecimal("0.50")),      // serviço 2: 0.50 do material 1
+            new ConsumoMaterialDTO(2L, 3L, new BigDecimal("1.00"))));    // serviço 2: 1.00 do material 3
         when(pedidoRepository.save(any(Pedido.class))).thenReturn(pedidoTeste);
 
         // when
-        Pedido pedidoSalvo = pedidoService.save(novoPedido);
+        pedidoService.save(novoPedido);
 
-        // then
-        assertThat(pedidoSalvo).isNotNull();
-        verify(materialService, times(1)).save(any(Material.class));
-        verify(servicoMaterialRepository, times(1)).findByServicoId(1L);
+        // then - material 1: 2 x 2.00 + 0.50
+        verify(servicoMaterialRepository, times(1)).findConsumoByServicoIdIn(Set.of(1L, 2L));
+        verify(materialService, times(1)).descontarEstoque(Map.of(
+            1L, new BigDecimal("4.50"),
+            3L, new BigDecimal("1.00")));
     }
 
     @Test
@@ -185,21 +185,10 @@ public class PedidoServiceTest {
         // given
         Pedido novoPedido = new Pedido();
         novoPedido.setServicos(Arrays.asList(servicoTeste));
-        
-        // Material com estoque insuficiente
-        Material materialInsuficiente = new Material();
-        materialInsuficiente.setId(1L);
-        materialInsuficiente.setNome("Resina Composta");
-        materialInsuficiente.setQuantidade(new BigDecimal("1.00")); // Menor que necessário (2.00)
 
-        // Configurar serviço material com quantidade maior que o estoque disponível
-        ServicoMaterial servicoMaterialInsuficiente = new ServicoMaterial();
-        servicoMaterialInsuficiente.setMaterial(materialInsuficiente);
-        servicoMaterialInsuficiente.setQuantidade(new BigDecimal("5.00")); // Maior que disponível
-
-        when(servicoMaterialRepository.findByServicoId(1L)).thenReturn(Arrays.asList(servicoMaterialInsuficiente));
-        when(materialService.getRepository()).thenReturn(materialRepository);
-        when(materialRepository.findById(1L)).thenReturn(Optional.of(materialInsuficiente));
+        when(servicoMaterialRepository.findConsumoByServicoIdIn(any())).thenReturn(Arrays.asList(consumoTeste));
+        doThrow(new RuntimeException("Estoque insuficiente para o material: Resina"))
+            .when(materialService).descontarEstoque(any());
 
         // when & then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -207,20 +196,19 @@ public class PedidoServiceTest {
         });
         
         assertThat(exception.getMessage()).contains("Estoque insuficiente");
-        verify(materialService, never()).save(any(Material.class));
+        verify(pedidoRepository, never()).save(any(Pedido.class));
     }
 
     @Test
-    void deveIgnorarMaterialComQuantidadeZeroOuNula() {
-        // given
+    void deveRepetirQuandoHouverConflitoDeConcorrencia() {
+        // given - a primeira tentativa esbarra no lock de outro pedido sobre o mesmo material
         Pedido novoPedido = new Pedido();
         novoPedido.setServicos(Arrays.asList(servicoTeste));
-        
-        ServicoMaterial servicoMaterialZero = new ServicoMaterial();
-        servicoMaterialZero.setMaterial(materialTeste);
-        servicoMaterialZero.setQuantidade(BigDecimal.ZERO);
 
-        when(servicoMaterialRepository.findByServicoId(1L)).thenReturn(Arrays.asList(servicoMaterialZero));
+        when(servicoMaterialRepository.findConsumoByServicoIdIn(any())).thenReturn(Arrays.asList(consumoTeste));
+        doThrow(new CannotAcquireLockException("lock wait timeout"))
+            .doNothing()
+            .when(materialService).descontarEstoque(any());
         when(pedidoRepository.save(any(Pedido.class))).thenReturn(pedidoTeste);
 
         // when
@@ -228,15 +216,21 @@ public class PedidoServiceTest {
 
         // then
         assertThat(pedidoSalvo).isNotNull();
-        verify(materialService, never()).save(any(Material.class));
+        verify(materialService, times(2)).descontarEstoque(any());
+        verify(pedidoRepository, times(1)).save(any(Pedido.class));
+        assertThat(retentativaConcorrencia.getConflitos()).isEqualTo(1);
+        assertThat(retentativaConcorrencia.getRecuperados()).isEqualTo(1);
     }
 
     @Test
-    void deveProcessarPedidoSemServicos() {
+    void deveIgnorarMaterialComQuantidadeZeroOuNula() {
         // given
         Pedido novoPedido = new Pedido();
-        novoPedido.setServicos(null);
+        novoPedido.setServicos(Arrays.asList(servicoTeste));
 
+        when(servicoMaterialRepository.findConsumoByServicoIdIn(any())).thenReturn(Arrays.asList(
+            new ConsumoMaterialDTO(1L, 1L, BigDecimal.ZERO),
+            new ConsumoMaterialDTO(1L, 2L, null)));
         when(pedidoRepository.save(any(Pedido.class))).thenReturn(pedidoTeste);
 
         // when
@@ -244,17 +238,15 @@ public class PedidoServiceTest {
 
         // then
         assertThat(pedidoSalvo).isNotNull();
-        verify(servicoMaterialRepository, never()).findByServicoId(any());
-        verify(materialService, never()).save(any(Material.class));
+        verify(materialService, times(1)).descontarEstoque(Map.of());
     }
 
     @Test
-    void deveProcessarServicoSemMateriais() {
+    void deveProcessarPedidoSemServicos() {
         // given
         Pedido novoPedido = new Pedido();
-        novoPedido.setServicos(Arrays.asList(servicoTeste));
+        novoPedido.setServicos(null);
 
-        when(servicoMaterialRepository.findByServicoId(1L)).thenReturn(Arrays.asList());
         when(pedidoRepository.save(any(Pedido.class))).thenReturn(pedidoTeste);
 
         // when
@@ -262,25 +254,25 @@ public class PedidoServiceTest {
 
         // then
         assertThat(pedidoSalvo).isNotNull();
-        verify(materialService, never()).save(any(Material.class));
+        verify(servicoMaterialRepository, never()).findConsumoByServicoIdIn(any());
+        verify(materialService, never()).descontarEstoque(any());
     }
 
     @Test
-    void deveLancarExcecaoQuandoMaterialNaoEncontrado() {
+    void deveProcessarServicoSemMateriais() {
         // given
         Pedido novoPedido = new Pedido();
         novoPedido.setServicos(Arrays.asList(servicoTeste));
 
-        when(servicoMaterialRepository.findByServicoId(1L)).thenReturn(Arrays.asList(servicoMaterialTeste));
-        when(materialService.getRepository()).thenReturn(materialRepository);
-        when(materialRepository.findById(1L)).thenReturn(Optional.empty());
+        when(servicoMaterialRepository.findConsumoByServicoIdIn(any())).thenReturn(Arrays.asList());
+        when(pedidoRepository.save(any(Pedido.class))).thenReturn(pedidoTeste);
 
-        // when & then
-        RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            pedidoService.save(novoPedido);
-        });
-        
-        assertThat(exception.getMessage()).contains("Material não encontrado");
+        // when
+        Pedido pedidoSalvo = pedidoService.save(novoPedido);
+
+        // then
+        assertThat(pedidoSalvo).isNotNull();
+        verify(materialService, times(1)).descontarEstoque(Map.of());
     }
 
     @Test
@@ -356,7 +348,10 @@ public class PedidoServiceTest {
     @Test
     void deveBuscarHistoricoPorProtetico() {
         // given
-        when(pedidoRepository.findByProtetico(any(Protetico.class))).thenReturn(Arrays.asList(pedidoTeste));
+        HistoricoProteticoDTO item = new HistoricoProteticoDTO("Restauração", "João Silva", "Dr. Maria Santos",
+            LocalDate.now().plusDays(7), new BigDecimal("277.50"));
+        when(pedidoRepository.findHistoricoPorProtetico(eq(1L), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(Arrays.asList(item)));
 
         // when
         List<HistoricoProteticoDTO> historico = pedidoService.buscarHistoricoPorProtetico(1L);
@@ -368,32 +363,35 @@ public class PedidoServiceTest {
         assertThat(dto.getNomePaciente()).isEqualTo("João Silva");
         assertThat(dto.getNomeDentista()).isEqualTo("Dr. Maria Santos");
         assertThat(dto.getValorTotal()).isEqualTo(new BigDecimal("277.50"));
-        verify(pedidoRepository, times(1)).findByProtetico(any(Protetico.class));
+        // A lista completa não pagina (e portanto não dispara o COUNT)
+        verify(pedidoRepository, times(1)).findHistoricoPorProtetico(1L, Pageable.unpaged());
+        verify(pedidoRepository, never()).findByProtetico(any(Protetico.class));
     }
 
     @Test
-    void deveBuscarHistoricoPorProteticoComServicoSemNome() {
+    void deveBuscarHistoricoPorProteticoPaginado() {
         // given
-        Pedido pedidoSemServico = new Pedido();
-        pedidoSemServico.setCliente(clienteTeste);
-        pedidoSemServico.setDentista(dentistaTeste);
-        pedidoSemServico.setServicos(Arrays.asList()); // Lista vazia
-
-        when(pedidoRepository.findByProtetico(any(Protetico.class))).thenReturn(Arrays.asList(pedidoSemServico));
+        Pageable pageable = PageRequest.of(1, 10);
+        HistoricoProteticoDTO item = new HistoricoProteticoDTO("Restauração", "João Silva", "Dr. Maria Santos",
+            LocalDate.now(), new BigDecimal("277.50"));
+        when(pedidoRepository.findHistoricoPorProtetico(1L, pageable))
+            .thenReturn(new PageImpl<>(Arrays.asList(item), pageable, 11));
 
         // when
-        List<HistoricoProteticoDTO> historico = pedidoService.buscarHistoricoPorProtetico(1L);
+        Page<HistoricoProteticoDTO> pagina = pedidoService.buscarHistoricoPorProtetico(1L, pageable);
 
         // then
-        assertThat(historico).hasSize(1);
-        HistoricoProteticoDTO dto = historico.get(0);
-        assertThat(dto.getNomeServico()).isEqualTo("Serviço não informado");
+        assertThat(pagina.getContent()).hasSize(1);
+        assertThat(pagina.getTotalElements()).isEqualTo(11);
     }
 
     @Test
     void deveBuscarHistoricoPorPaciente() {
         // given
-        when(pedidoRepository.findByCliente(any(Paciente.class))).thenReturn(Arrays.asList(pedidoTeste));
+        HistoricoPacienteDTO item = new HistoricoPacienteDTO("Restauração", "Dr. Maria Santos",
+            LocalDate.now().plusDays(7), new BigDecimal("277.50"));
+        when(pedidoRepository.findHistoricoPorPaciente(eq(1L), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(Arrays.asList(item)));
 
         // when
         List<HistoricoPacienteDTO> historico = pedidoService.buscarHistoricoPorPaciente(1L);
@@ -404,31 +402,17 @@ public class PedidoServiceTest {
         assertThat(dto.getNomeServico()).isEqualTo("Restauração");
         assertThat(dto.getNomeDentista()).isEqualTo("Dr. Maria Santos");
         assertThat(dto.getValorTotal()).isEqualTo(new BigDecimal("277.50"));
-        verify(pedidoRepository, times(1)).findByCliente(any(Paciente.class));
-    }
-
-    @Test
-    void deveBuscarHistoricoPorPacienteComServicoSemNome() {
-        // given
-        Pedido pedidoSemServico = new Pedido();
-        pedidoSemServico.setDentista(dentistaTeste);
-        pedidoSemServico.setServicos(Arrays.asList()); // Lista vazia ao invés de nula
-
-        when(pedidoRepository.findByCliente(any(Paciente.class))).thenReturn(Arrays.asList(pedidoSemServico));
-
-        // when
-        List<HistoricoPacienteDTO> historico = pedidoService.buscarHistoricoPorPaciente(1L);
-
-        // then
-        assertThat(historico).hasSize(1);
-        HistoricoPacienteDTO dto = historico.get(0);
-        assertThat(dto.getNomeServico()).isEqualTo("Serviço não informado");
+        verify(pedidoRepository, times(1)).findHistoricoPorPaciente(1L, Pageable.unpaged());
+        verify(pedidoRepository, never()).findByCliente(any(Paciente.class));
     }
 
     @Test
     void deveBuscarHistoricoPorDentista() {
         // given
-        when(pedidoRepository.findByDentista(any(Dentista.class))).thenReturn(Arrays.asList(pedidoTeste));
+        HistoricoDentistaDTO item = new HistoricoDentistaDTO("Restauração", "João Silva",
+            LocalDate.now().plusDays(7), new BigDecimal("277.50"));
+        when(pedidoRepository.findHistoricoPorDentista(eq(1L), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(Arrays.asList(item)));
 
         // when
         List<HistoricoDentistaDTO> historico = pedidoService.buscarHistoricoPorDentista(1L);
@@ -439,73 +423,8 @@ public class PedidoServiceTest {
         assertThat(dto.getNomeServico()).isEqualTo("Restauração");
         assertThat(dto.getNomePaciente()).isEqualTo("João Silva");
         assertThat(dto.getValorTotal()).isEqualTo(new BigDecimal("277.50"));
-        verify(pedidoRepository, times(1)).findByDentista(any(Dentista.class));
-    }
-
-    @Test
-    void deveBuscarHistoricoPorDentistaComServicoSemNome() {
-        // given
-        Pedido pedidoSemServico = new Pedido();
-        pedidoSemServico.setCliente(clienteTeste);
-        pedidoSemServico.setServicos(Arrays.asList()); // Lista vazia
-
-        when(pedidoRepository.findByDentista(any(Dentista.class))).thenReturn(Arrays.asList(pedidoSemServico));
-
-        // when
-        List<HistoricoDentistaDTO> historico = pedidoService.buscarHistoricoPorDentista(1L);
-
-        // then
-        assertThat(historico).hasSize(1);
-        HistoricoDentistaDTO dto = historico.get(0);
-        assertThat(dto.getNomeServico()).isEqualTo("Serviço não informado");
-    }
-
-    @Test
-    void deveCalcularValorTotalComValorTotalDoServico() {
-        // given
-        Servico servicoComValorTotal = new Servico();
-        servicoComValorTotal.setNome("Serviço Teste");
-        servicoComValorTotal.setPreco(new BigDecimal("100.00"));
-        servicoComValorTotal.setValorTotal(new BigDecimal("150.00"));
-
-        Pedido pedidoTeste = new Pedido();
-        pedidoTeste.setCliente(clienteTeste);
-        pedidoTeste.setDentista(dentistaTeste);
-        pedidoTeste.setServicos(Arrays.asList(servicoComValorTotal));
-
-        when(pedidoRepository.findByProtetico(any(Protetico.class))).thenReturn(Arrays.asList(pedidoTeste));
-
-        // when
-        List<HistoricoProteticoDTO> historico = pedidoService.buscarHistoricoPorProtetico(1L);
-
-        // then
-        assertThat(historico).hasSize(1);
-        HistoricoProteticoDTO dto = historico.get(0);
-        assertThat(dto.getValorTotal()).isEqualTo(new BigDecimal("150.00"));
-    }
-
-    @Test
-    void deveCalcularValorTotalComPrecoQuandoValorTotalNulo() {
-        // given
-        Servico servicoSemValorTotal = new Servico();
-        servicoSemValorTotal.setNome("Serviço Teste");
-        servicoSemValorTotal.setPreco(new BigDecimal("100.00"));
-        servicoSemValorTotal.setValorTotal(null);
-
-        Pedido pedidoTeste = new Pedido();
-        pedidoTeste.setCliente(clienteTeste);
-        pedidoTeste.setDentista(dentistaTeste);
-        pedidoTeste.setServicos(Arrays.asList(servicoSemValorTotal));
-
-        when(pedidoRepository.findByProtetico(any(Protetico.class))).thenReturn(Arrays.asList(pedidoTeste));
-
-        // when
-        List<HistoricoProteticoDTO> historico = pedidoService.buscarHistoricoPorProtetico(1L);
-
-        // then
-        assertThat(historico).hasSize(1);
-        HistoricoProteticoDTO dto = historico.get(0);
-        assertThat(dto.getValorTotal()).isEqualTo(new BigDecimal("100.00"));
+        verify(pedidoRepository, times(1)).findHistoricoPorDentista(1L, Pageable.unpaged());
+        verify(pedidoRepository, never()).findByDentista(any(Dentista.class));
     }
 
     @Test
@@ -588,10 +507,7 @@ public class PedidoServiceTest {
         novoPedido.setDataEntrega(LocalDate.now()); // Data atual
         novoPedido.setPrioridade(Pedido.Prioridade.MEDIA);
 
-        when(servicoMaterialRepository.findByServicoId(1L)).thenReturn(Arrays.asList(servicoMaterialTeste));
-        when(materialService.getRepository()).thenReturn(materialRepository);
-        when(materialRepository.findById(1L)).thenReturn(Optional.of(materialTeste));
-        when(materialService.save(any(Material.class))).thenReturn(materialTeste);
+        when(servicoMaterialRepository.findConsumoByServicoIdIn(any())).thenReturn(Arrays.asList(consumoTeste));
         when(pedidoRepository.save(any(Pedido.class))).thenReturn(pedidoTeste);
 
         // when & then
@@ -610,10 +526,7 @@ public class PedidoServiceTest {
         novoPedido.setDataEntrega(LocalDate.now().minusYears(1)); // Exatamente 1 ano atrás
         novoPedido.setPrioridade(Pedido.Prioridade.MEDIA);
 
-        when(servicoMaterialRepository.findByServicoId(1L)).thenReturn(Arrays.asList(servicoMaterialTeste));
-        when(materialService.getRepository()).thenReturn(materialRepository);
-        when(materialRepository.findById(1L)).thenReturn(Optional.of(materialTeste));
-        when(materialService.save(any(Material.class))).thenReturn(materialTeste);
+        when(servicoMaterialRepository.findConsumoByServicoIdIn(any())).thenReturn(Arrays.asList(consumoTeste));
         when(pedidoRepository.save(any(Pedido.class))).thenReturn(pedidoTeste);
 
         // when & then
@@ -632,10 +545,7 @@ public class PedidoServiceTest {
         novoPedido.setDataEntrega(LocalDate.now().plusDays(30)); // Futuro
         novoPedido.setPrioridade(Pedido.Prioridade.MEDIA);
 
-        when(servicoMaterialRepository.findByServicoId(1L)).thenReturn(Arrays.asList(servicoMaterialTeste));
-        when(materialService.getRepository()).thenReturn(materialRepository);
-        when(materialRepository.findById(1L)).thenReturn(Optional.of(materialTeste));
-        when(materialService.save(any(Material.class))).thenReturn(materialTeste);
+        when(servicoMaterialRepository.findConsumoByServicoIdIn(any())).thenReturn(Arrays.asList(consumoTeste));
         when(pedidoRepository.save(any(Pedido.class))).thenReturn(pedidoTeste);
 
         // when & then
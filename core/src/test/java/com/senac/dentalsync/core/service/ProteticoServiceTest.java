@@ -2,6 +2,7 @@ package com.senac.dentalsync.core.service;
 
 import com.senac.dentalsync.core.persistency.model.Laboratorio;
 import com.senac.dentalsync.core.persistency.model.Protetico;
+import com.senac.dentalsync.core.persistency.repository.ProteticoAuthStateRepository;
 import com.senac.dentalsync.core.persistency.repository.ProteticoRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,6 +28,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.lenient;
 
@@ -49,6 +51,12 @@ public class ProteticoServiceTest {
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private StatusProteticoCache statusProteticoCache;
+
+    @Mock
+    private ProteticoAuthStateRepository proteticoAuthStateRepository;
+
     @InjectMocks
     private ProteticoService proteticoService;
 
@@ -195,9 +203,9 @@ public class ProteticoServiceTest {
         novoProtetico.setCro("CRO-SP-67890");
         novoProtetico.setSenha("senhaPlana");
 
-        when(proteticoRepository.findByEmail("maria@email.com")).thenReturn(Optional.empty());
-        when(proteticoRepository.findFirstByCro("CRO-SP-67890")).thenReturn(Optional.empty());
-        when(proteticoRepository.findFirstByTelefone("(11) 99999-9999")).thenReturn(Optional.of(proteticoTeste));
+        when(proteticoRepository.findByEmailAndIsActiveTrue("maria@email.com")).thenReturn(Optional.empty());
+        when(proteticoRepository.findFirstByCroAndIsActiveTrue("CRO-SP-67890")).thenReturn(Optional.empty());
+        when(proteticoRepository.findFirstByTelefoneAndIsActiveTrue("(11) 99999-9999")).thenReturn(Optional.of(proteticoTeste));
 
         // when/then
         assertThrows(ResponseStatusException.class, () -> {
@@ -315,6 +323,19 @@ public class ProteticoServiceTest {
         verify(proteticoRepository, atLeast(1)).save(any(Protetico.class));
     }
 
+    @Test
+    void deveInvalidarSituacaoEmCacheAoDesativarProtetico() {
+        // given
+        when(proteticoRepository.findById(1L)).thenReturn(Optional.of(proteticoTeste));
+        when(proteticoRepository.save(any(Protetico.class))).thenReturn(proteticoTeste);
+
+        // when
+        proteticoService.updateStatus(1L, false);
+
+        // then - a próxima requisição do protético já enxerga a desativação
+        verify(statusProteticoCache).invalidar(proteticoTeste.getEmail());
+    }
+
    
     @Test
     void deveDeletarProteticoInativo() {
@@ -327,6 +348,7 @@ public class ProteticoServiceTest {
 
         // then
         verify(proteticoRepository, times(1)).deleteById(1L);
+        verify(statusProteticoCache).invalidar(proteticoTeste.getEmail());
     }
 
     @Test
@@ -556,7 +578,7 @@ public class ProteticoServiceTest {
         when(proteticoRepository.findByEmail("novo@email.com")).thenReturn(Optional.empty());
         when(proteticoRepository.findFirstByCro("CRO-SP-99999")).thenReturn(Optional.empty());
         when(proteticoRepository.findFirstByTelefone("(11) 97777-7777")).thenReturn(Optional.empty());
-        when(proteticoRepository.findByEmail("protetico@email.com")).thenReturn(Optional.of(proteticoTeste));
+        when(proteticoRepository.findByEmailAndIsActiveTrue("protetico@email.com")).thenReturn(Optional.of(proteticoTeste));
         when(proteticoRepository.save(any(Protetico.class))).thenReturn(novoProtetico);
 
         // when
@@ -565,6 +587,73 @@ public class ProteticoServiceTest {
         // then
         assertThat(proteticoSalvo).isNotNull();
         verify(proteticoRepository, times(1)).save(any(Protetico.class));
-        verify(proteticoRepository, times(1)).findByEmail("protetico@email.com");
+        verify(proteticoRepository, times(1)).findByEmailAndIsActiveTrue("protetico@email.com");
+    }
+
+    @Test
+    void deveAtualizarTwoFactorSemPassarPeloSave() {
+        // given
+        proteticoTeste.setTwoFactorSecret("SECRET123");
+        proteticoTeste.setTwoFactorEnabled(true);
+        when(proteticoAuthStateRepository.atualizarTwoFactor(eq(1L), eq("SECRET123"), eq(true), any())).thenReturn(1);
+
+        // when
+        proteticoService.atualizarTwoFactor(proteticoTeste);
+
+        // then
+        verify(proteticoAuthStateRepository).atualizarTwoFactor(eq(1L), eq("SECRET123"), eq(true), any());
+        verify(proteticoRepository, never()).save(any(Protetico.class));
+        verify(proteticoRepository, never()).findFirstByCro(anyString());
+        verify(proteticoRepository, never()).findById(any());
+    }
+
+    @Test
+    void deveAtualizarSenhaCriptografandoSemPassarPeloSave() {
+        // given
+        when(passwordEncoder.encode("NovaSenha@123")).thenReturn("$2a$10$novoHash");
+        when(proteticoAuthStateRepository.atualizarSenha(eq(1L), eq("$2a$10$novoHash"), any())).thenReturn(1);
+
+        // when
+        proteticoService.atualizarSenha(proteticoTeste, "NovaSenha@123");
+
+        // then
+        assertThat(proteticoTeste.getSenha()).isEqualTo("$2a$10$novoHash");
+        verify(proteticoRepository, never()).save(any(Protetico.class));
+        verify(proteticoRepository, never()).findById(any());
+    }
+
+    @Test
+    void naoDeveAtualizarSenhaFraca() {
+        // when & then
+        assertThrows(ResponseStatusException.class, () -> proteticoService.atualizarSenha(proteticoTeste, "123"));
+        verify(proteticoAuthStateRepository, never()).atualizarSenha(any(), anyString(), any());
+        assertThat(proteticoTeste.getSenha()).isEqualTo("$2a$10$hashedPassword");
+    }
+
+    @Test
+    void deveLancarExcecaoAoAtualizarTwoFactorDeProteticoInexistente() {
+        // given
+        when(proteticoAuthStateRepository.atualizarTwoFactor(eq(1L), any(), eq(false), any())).thenReturn(0);
+
+        // when & then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+            () -> proteticoService.atualizarTwoFactor(proteticoTeste));
+        assertThat(exception.getStatusCode().value()).isEqualTo(404);
+    }
+
+    @Test
+    void deveGravarHashRefeitoNoLoginSemPassarPeloSave() {
+        // given
+        UserDetails usuario = org.springframework.security.core.userdetails.User.withUsername("protetico@email.com")
+            .password("$2a$10$hashAntigo").roles("USER").build();
+
+        // when
+        UserDetails atualizado = proteticoService.updatePassword(usuario, "$2a$12$hashNovo");
+
+        // then
+        assertThat(atualizado.getPassword()).isEqualTo("$2a$12$hashNovo");
+        assertThat(atualizado.getUsername()).isEqualTo("protetico@email.com");
+        verify(proteticoAuthStateRepository).atualizarSenhaPorEmail(eq("protetico@email.com"), eq("$2a$12$hashNovo"), any());
+        verify(proteticoRepository, never()).save(any(Protetico.class));
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+package com.senac.dentalsync.core.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.senac.dentalsync.core.dto.PedidoDTO;
+import com.senac.dentalsync.core.dto.RascunhoPedidoDTO;
+import com.senac.dentalsync.core.persistency.model.Pedido;
+import com.senac.dentalsync.core.persistency.repository.DentistaRepository;
+import com.senac.dentalsync.core.persistency.repository.PacienteRepository;
+import com.senac.dentalsync.core.persistency.repository.ProteticoRepository;
+import com.senac.dentalsync.core.persistency.repository.ServicoRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RascunhoPedidoServiceTest {
+
+    @Mock
+    private PacienteRepository pacienteRepository;
+
+    @Mock
+    private DentistaRepository dentistaRepository;
+
+    @Mock
+    private ProteticoRepository proteticoRepository;
+
+    @Mock
+    private ServicoRepository servicoRepository;
+
+    private RascunhoPedidoService rascunhoPedidoService;
+
+    @BeforeEach
+    void setUp() {
+        rascunhoPedidoService = new RascunhoPedidoService(pacienteRepository, dentistaRepository,
+            proteticoRepository, servicoRepository, new ObjectMapper());
+    }
+
+    @Test
+    void deveMontarOPedidoComOsIdsConferidos() {
+        when(pacienteRepository.findNomeByIdAndIsActiveTrue(3L)).thenReturn(Optional.of("Muni Besen"));
+        when(dentistaRepository.findNomeByIdAndIsActiveTrue(2L)).thenReturn(Optional.of("Marcos Viana"));
+        when(proteticoRepository.findNomeByIdAndIsActiveTrue(1L)).thenReturn(Optional.of("Pedro Folster"));
+        when(servicoRepository.findNomesByIdInAndIsActiveTrue(any())).thenReturn(List.<Object[]>of(
+            new Object[] { 7L, "Coroa" }));
+
+        RascunhoPedidoDTO rascunho = rascunhoPedidoService.montar(Map.of("output",
+            "{\"cliente_id\":3,\"dentista_id\":\"2\",\"protetico_id\":1,\"servicos\":[{\"id\":7,\"quantidade\":2}],"
+                + "\"dentes\":[15,16],\"prioridade\":\"média\",\"data\":\"20/06/2025\"}"));
+
+        PedidoDTO pedido = rascunho.getPedido();
+        assertThat(rascunho.getPendencias()).isEmpty();
+        assertThat(pedido.getCliente().getId()).isEqualTo(3L);
+        assertThat(pedido.getDentista().getId()).isEqualTo(2L);
+        assertThat(pedido.getProtetico().getId()).isEqualTo(1L);
+        assertThat(pedido.getServicos()).singleElement()
+            .satisfies(servico -> {
+                assertThat(servico.getId()).isEqualTo(7L);
+                assertThat(servico.getQuantidade()).isEqualTo(2);
+            });
+        assertThat(pedido.getOdontograma()).isEqualTo("15,16");
+        assertThat(pedido.getPrioridade()).isEqualTo(Pedido.Prioridade.MEDIA);
+        assertThat(pedido.getDataEntrega()).isEqualTo(LocalDate.of(2025, 6, 20));
+        assertThat(pedido.getStatus()).isEqualTo(Pedido.Status.PENDENTE);
+        assertThat(rascunho.getNomes()).containsEntry("cliente", "Muni Besen")
+            .containsEntry("dentista", "Marcos Viana")
+            .containsEntry("protetico", "Pedro Folster")
+            .containsEntry("servico:7", "Coroa");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deveSomarServicosRepetidosEConsultarTodosDeUmaVez() {
+        when(servicoRepository.findNomesByIdInAndIsActiveTrue(any())).thenReturn(List.<Object[]>of(
+            new Object[] { 7L, "Coroa" }, new Object[] { 8L, "Faceta" }));
+
+        RascunhoPedidoDTO rascunho = rascunhoPedidoService.montar(Map.of(
+            "servicos", List.of(Map.of("id", 7, "quantidade", 1), Map.of("id", 8), Map.of("id", 7, "quantidade", 2))));
+
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(servicoRepository).findNomesByIdInAndIsActiveTrue(ids.capture());
+        assertThat(ids.getValue()).containsExactly(7L, 8L);
+        assertThat(rascunho.getPedido().getServicos())
+            .extracting(PedidoDTO.ServicoComQuantidadeDTO::getId, PedidoDTO.ServicoComQuantidadeDTO::getQuantidade)
+            .containsExactly(tuple(7L, 3), tuple(8L, 1));
+    }
+
+    @Test
+    void deveListarComoPendenciaOQueFaltouOuNaoFoiEncontrado() {
+        when(pacienteRepository.findNomeByIdAndIsActiveTrue(99L)).thenReturn(Optional.empty());
+        when(servicoRepository.findNomesByIdInAndIsActiveTrue(any())).thenReturn(List.of());
+
+        RascunhoPedidoDTO rascunho = rascunhoPedidoService.montar(Map.of("output",
+            "{\"cliente_id\":99,\"dentista_id\":null,\"servicos\":[{\"id\":5,\"quantidade\":1}],"
+                + "\"prioridade\":\"urgente\",\"data\":\"31/02/2025\"}"));
+
+        assertThat(rascunho.getPedido().getCliente()).isNull();
+        assertThat(rascunho.getPedido().getServicos()).isEmpty();
+        assertThat(rascunho.getPendencias()).containsExactly(
+            "Cliente não encontrado (ID 99)",
+            "Dentista não informado",
+            "Protético não informado",
+            "Serviço não encontrado (ID 5)",
+            "Prioridade não reconhecida: urgente",
+            "Data de entrega inválida: 31/02/2025");
+    }
+
+    @Test
+    void naoDeveConsultarNadaQuandoARespostaNaoTemDadosEstruturados() {
+        RascunhoPedidoDTO rascunho = rascunhoPedidoService.montar(Map.of("rawResponse", "texto livre"));
+
+        assertThat(rascunho.getPendencias()).containsExactly("A resposta da IA não trouxe dados estruturados");
+        verifyNoInteractions(pacienteRepository, dentistaRepository, proteticoRepository, servicoRepository);
+    }
+}
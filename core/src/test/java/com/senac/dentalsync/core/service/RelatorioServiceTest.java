@@ -2,19 +2,19 @@ package com.senac.dentalsync.core.service;
 
 import com.senac.dentalsync.core.dto.*;
 import com.senac.dentalsync.core.persistency.model.Dentista;
+import com.senac.dentalsync.core.persistency.model.IndicadorDashboard;
 import com.senac.dentalsync.core.persistency.model.Paciente;
 import com.senac.dentalsync.core.persistency.model.Pedido;
 import com.senac.dentalsync.core.persistency.model.Servico;
-import com.senac.dentalsync.core.persistency.repository.DentistaRepository;
 import com.senac.dentalsync.core.persistency.repository.PedidoRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -22,11 +22,10 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,13 +36,14 @@ public class RelatorioServiceTest {
     private PedidoRepository pedidoRepository;
 
     @Mock
-    private DentistaRepository dentistaRepository;
+    private IndicadorDashboardService indicadorDashboardService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
-    @InjectMocks
     private RelatorioService relatorioService;
 
     private LocalDateTime dataAtualTeste;
-    private LocalDateTime inicioMesAtualTeste;
     private Pedido pedidoTeste;
     private Dentista dentistaTeste;
     private Paciente clienteTeste;
@@ -51,9 +51,12 @@ public class RelatorioServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Executor na própria thread: as seções rodam em sequência e enxergam o LocalDateTime mockado
+        relatorioService = new RelatorioService(pedidoRepository, indicadorDashboardService,
+            transactionManager, new ExecutorSecoesDashboard(Runnable::run));
+
         // Data fixa para testes consistentes
         dataAtualTeste = LocalDateTime.of(2024, 6, 15, 10, 30, 0);
-        inicioMesAtualTeste = LocalDateTime.of(2024, 6, 1, 0, 0, 0);
 
         // Configura dentista teste
         dentistaTeste = new Dentista();
@@ -84,39 +87,20 @@ public class RelatorioServiceTest {
     @Test
     void deveObterDadosDashboardCompleto() {
         // given
-        List<Object[]> pedidosPorMesRaw = Arrays.asList(
-            new Object[]{6, 10L},  // Junho: 10 pedidos
-            new Object[]{5, 8L},   // Maio: 8 pedidos
-            new Object[]{4, 12L}   // Abril: 12 pedidos
-        );
-
-        List<PedidosPorTipoDTO> pedidosPorTipoMock = Arrays.asList(
-            new PedidosPorTipoDTO("Restauração", 45.5),
-            new PedidosPorTipoDTO("Limpeza", 35.0)
-        );
-
-        List<StatusPedidosDTO> statusPedidosMock = Arrays.asList(
-            new StatusPedidosDTO("CONCLUIDO", 60.0),
-            new StatusPedidosDTO("PENDENTE", 40.0)
-        );
-
-        List<Pedido> pedidosRecentesMock = Arrays.asList(pedidoTeste);
-
-        // Mocks dos dados atuais
-        when(pedidoRepository.count()).thenReturn(100L);
-        when(pedidoRepository.countByStatus(Pedido.Status.CONCLUIDO)).thenReturn(75L);
-        when(dentistaRepository.countByIsActiveTrue()).thenReturn(25L);
-
-        // Mocks dos dados anteriores
-        when(pedidoRepository.countByCreatedAtBefore(any(LocalDateTime.class))).thenReturn(80L);
-        when(dentistaRepository.countByIsActiveTrueAndCreatedAtBefore(any(LocalDateTime.class))).thenReturn(20L);
-        when(dentistaRepository.countByIsActiveTrueAndCreatedAtBetween(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(5L);
-
-        // Mocks dos dados de gráficos
-        when(pedidoRepository.findPedidosPorMes(any(LocalDateTime.class))).thenReturn(pedidosPorMesRaw);
-        when(pedidoRepository.findPedidosPorTipo()).thenReturn(pedidosPorTipoMock);
-        when(pedidoRepository.findStatusPedidos()).thenReturn(statusPedidosMock);
-        when(pedidoRepository.findPedidosRecentes()).thenReturn(pedidosRecentesMock);
+        IndicadoresDashboard indicadores = indicadores(
+            indicador(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, "2023-01", 70L),
+            indicador(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, "2024-04", 12L),
+            indicador(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, "2024-05", 8L),
+            indicador(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, "2024-06", 10L),
+            indicador(IndicadorDashboard.Tipo.PEDIDOS_POR_STATUS, "CONCLUIDO", 75L),
+            indicador(IndicadorDashboard.Tipo.PEDIDOS_POR_STATUS, "PENDENTE", 25L),
+            indicador(IndicadorDashboard.Tipo.PEDIDOS_POR_SERVICO, "1", 60L),
+            indicador(IndicadorDashboard.Tipo.PEDIDOS_POR_SERVICO, "2", 40L),
+            indicador(IndicadorDashboard.Tipo.DENTISTAS_ATIVOS_POR_MES, "2023-12", 20L),
+            indicador(IndicadorDashboard.Tipo.DENTISTAS_ATIVOS_POR_MES, "2024-06", 5L));
+
+        when(indicadorDashboardService.carregar()).thenReturn(indicadores);
+        when(pedidoRepository.findPedidosRecentes()).thenReturn(Arrays.asList(pedidoTeste));
 
         try (MockedStatic<LocalDateTime> mockedLocalDateTime = mockStatic(LocalDateTime.class)) {
             mockedLocalDateTime.when(LocalDateTime::now).thenReturn(dataAtualTeste);
@@ -132,23 +116,29 @@ public class RelatorioServiceTest {
             assertThat(resultado.getPedidosConcluidos()).isEqualTo(75L);
             assertThat(resultado.getDentistasAtivos()).isEqualTo(25L);
 
-            // Verifica dados anteriores
+            // Verifica dados anteriores (tudo criado antes de junho/2024)
             assertThat(resultado.getDadosAnteriores()).isNotNull();
-            assertThat(resultado.getDadosAnteriores().getTotalPedidos()).isEqualTo(80L);
+            assertThat(resultado.getDadosAnteriores().getTotalPedidos()).isEqualTo(90L);
             assertThat(resultado.getDadosAnteriores().getDentistasAtivos()).isEqualTo(20L);
 
-            // Verifica pedidos por mês
-            assertThat(resultado.getPedidosPorMes()).hasSize(3);
-            assertThat(resultado.getPedidosPorMes().get(0).getMes()).isEqualTo("JUN");
-            assertThat(resultado.getPedidosPorMes().get(0).getTotal()).isEqualTo(10L);
+            // Verifica pedidos por mês (janela de dez/2023 a jun/2024, em ordem cronológica)
+            assertThat(resultado.getPedidosPorMes()).extracting(PedidosPorMesDTO::getMes)
+                .containsExactly("APR", "MAY", "JUN");
+            assertThat(resultado.getPedidosPorMes().get(2).getTotal()).isEqualTo(10L);
 
-            // Verifica pedidos por tipo
+            // Verifica pedidos por tipo (percentual sobre o total de pedidos)
             assertThat(resultado.getPedidosPorTipo()).hasSize(2);
-            assertThat(resultado.getPedidosPorTipo().get(0).getTipo()).isEqualTo("Restauração");
+            assertThat(resultado.getPedidosPorTipo().get(0).getTipo()).isEqualTo("Limpeza");
+            assertThat(resultado.getPedidosPorTipo().get(0).getPercentual()).isEqualTo(40.0);
+            assertThat(resultado.getPedidosPorTipo().get(1).getTipo()).isEqualTo("Restauração");
+            assertThat(resultado.getPedidosPorTipo().get(1).getPercentual()).isEqualTo(60.0);
 
             // Verifica status pedidos
             assertThat(resultado.getStatusPedidos()).hasSize(2);
-            assertThat(resultado.getStatusPedidos().get(0).getStatus()).isEqualTo("CONCLUIDO");
+            assertThat(resultado.getStatusPedidos()).extracting(StatusPedidosDTO::getStatus)
+                .containsExactlyInAnyOrder("CONCLUIDO", "PENDENTE");
+            assertThat(resultado.getStatusPedidos()).extracting(StatusPedidosDTO::getPercentual)
+                .containsExactlyInAnyOrder(75.0, 25.0);
 
             // Verifica pedidos recentes
             assertThat(resultado.getPedidosRecentes()).hasSize(1);
@@ -157,33 +147,19 @@ public class RelatorioServiceTest {
             assertThat(resultado.getPedidosRecentes().get(0).getStatus()).isEqualTo("CONCLUIDO");
             assertThat(resultado.getPedidosRecentes().get(0).getDentista()).isEqualTo("Dr. João Silva");
             assertThat(resultado.getPedidosRecentes().get(0).getPaciente()).isEqualTo("Maria Santos");
+            assertThat(resultado.getSecoesIndisponiveis()).isEmpty();
 
-            // Verifica chamadas aos repositories
-            verify(pedidoRepository, times(1)).count();
-            verify(pedidoRepository, times(1)).countByStatus(Pedido.Status.CONCLUIDO);
-            verify(dentistaRepository, times(1)).countByIsActiveTrue();
-            verify(pedidoRepository, times(1)).countByCreatedAtBefore(any(LocalDateTime.class));
-            verify(dentistaRepository, times(1)).countByIsActiveTrueAndCreatedAtBefore(any(LocalDateTime.class));
-            verify(dentistaRepository, times(1)).countByIsActiveTrueAndCreatedAtBetween(any(LocalDateTime.class), any(LocalDateTime.class));
-            verify(pedidoRepository, times(1)).findPedidosPorMes(any(LocalDateTime.class));
-            verify(pedidoRepository, times(1)).findPedidosPorTipo();
-            verify(pedidoRepository, times(1)).findStatusPedidos();
+            // Os números vêm dos contadores; só os pedidos recentes consultam a tabela de pedidos
+            verify(indicadorDashboardService, times(1)).carregar();
             verify(pedidoRepository, times(1)).findPedidosRecentes();
+            verifyNoMoreInteractions(pedidoRepository);
         }
     }
 
     @Test
     void deveObterDadosDashboardComListasVazias() {
         // given
-        when(pedidoRepository.count()).thenReturn(0L);
-        when(pedidoRepository.countByStatus(Pedido.Status.CONCLUIDO)).thenReturn(0L);
-        when(dentistaRepository.countByIsActiveTrue()).thenReturn(0L);
-        when(pedidoRepository.countByCreatedAtBefore(any(LocalDateTime.class))).thenReturn(0L);
-        when(dentistaRepository.countByIsActiveTrueAndCreatedAtBefore(any(LocalDateTime.class))).thenReturn(0L);
-        when(dentistaRepository.countByIsActiveTrueAndCreatedAtBetween(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(0L);
-        when(pedidoRepository.findPedidosPorMes(any(LocalDateTime.class))).thenReturn(Collections.emptyList());
-        when(pedidoRepository.findPedidosPorTipo()).thenReturn(Collections.emptyList());
-        when(pedidoRepository.findStatusPedidos()).thenReturn(Collections.emptyList());
+        when(indicadorDashboardService.carregar()).thenReturn(indicadores());
         when(pedidoRepository.findPedidosRecentes()).thenReturn(Collections.emptyList());
 
         try (MockedStatic<LocalDateTime> mockedLocalDateTime = mockStatic(LocalDateTime.class)) {
@@ -206,26 +182,18 @@ public class RelatorioServiceTest {
 
     @Test
     void deveProcessarPedidosPorMesCorretamente() {
-        // given
-        List<Object[]> pedidosPorMesRaw = Arrays.asList(
-            new Object[]{1, 5L},   // Janeiro
-            new Object[]{2, 8L},   // Fevereiro
-            new Object[]{12, 15L}  // Dezembro
-        );
-
-        when(pedidoRepository.count()).thenReturn(50L);
-        when(pedidoRepository.countByStatus(any())).thenReturn(30L);
-        when(dentistaRepository.countByIsActiveTrue()).thenReturn(10L);
-        when(pedidoRepository.countByCreatedAtBefore(any(LocalDateTime.class))).thenReturn(40L);
-        when(dentistaRepository.countByIsActiveTrueAndCreatedAtBefore(any(LocalDateTime.class))).thenReturn(8L);
-        when(dentistaRepository.countByIsActiveTrueAndCreatedAtBetween(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(2L);
-        when(pedidoRepository.findPedidosPorMes(any(LocalDateTime.class))).thenReturn(pedidosPorMesRaw);
-        when(pedidoRepository.findPedidosPorTipo()).thenReturn(Collections.emptyList());
-        when(pedidoRepository.findStatusPedidos()).thenReturn(Collections.emptyList());
+        // given - janela que atravessa a virada do ano
+        LocalDateTime fevereiro2024 = LocalDateTime.of(2024, 2, 10, 9, 0, 0);
+        when(indicadorDashboardService.carregar()).thenReturn(indicadores(
+            indicador(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, "2023-07", 3L),
+            indicador(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, "2024-02", 8L),
+            indicador(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, "2023-12", 15L),
+            indicador(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, "2024-01", 5L),
+            indicador(IndicadorDashboard.Tipo.PEDIDOS_POR_MES, IndicadorDashboard.SEM_DATA, 1L)));
         when(pedidoRepository.findPedidosRecentes()).thenReturn(Collections.emptyList());
 
         try (MockedStatic<LocalDateTime> mockedLocalDateTime = mockStatic(LocalDateTime.class)) {
-            mockedLocalDateTime.when(LocalDateTime::now).thenReturn(dataAtualTeste);
+            mockedLocalDateTime.when(LocalDateTime::now).thenReturn(fevereiro2024);
 
             // when
             RelatorioDTO resultado = relatorioService.obterDadosDashboard();
@@ -233,20 +201,24 @@ public class RelatorioServiceTest {
             // then
             assertThat(resultado.getPedidosPorMes()).hasSize(3);
             
+            // Verifica Dezembro
+            PedidosPorMesDTO dezembro = resultado.getPedidosPorMes().get(0);
+            assertThat(dezembro.getMes()).isEqualTo("DEC");
+            assertThat(dezembro.getTotal()).isEqualTo(15L);
+            
             // Verifica Janeiro
-            PedidosPorMesDTO janeiro = resultado.getPedidosPorMes().get(0);
+            PedidosPorMesDTO janeiro = resultado.getPedidosPorMes().get(1);
             assertThat(janeiro.getMes()).isEqualTo("JAN");
             assertThat(janeiro.getTotal()).isEqualTo(5L);
             
             // Verifica Fevereiro
-            PedidosPorMesDTO fevereiro = resultado.getPedidosPorMes().get(1);
+            PedidosPorMesDTO fevereiro = resultado.getPedidosPorMes().get(2);
             assertThat(fevereiro.getMes()).isEqualTo("FEB");
             assertThat(fevereiro.getTotal()).isEqualTo(8L);
-            
-            // Verifica Dezembro
-            PedidosPorMesDTO dezembro = resultado.getPedidosPorMes().get(2);
-            assertThat(dezembro.getMes()).isEqualTo("DEC");
-            assertThat(dezembro.getTotal()).isEqualTo(15L);
+
+            // Pedidos sem data entram no total, mas não em nenhum mês
+            assertThat(resultado.getTotalPedidos()).isEqualTo(32L);
+            assertThat(resultado.getDadosAnteriores().getTotalPedidos()).isEqualTo(23L);
         }
     }
 
@@ -266,15 +238,7 @@ public class RelatorioServiceTest {
 
         List<Pedido> pedidosRecentes = Arrays.asList(pedidoTeste, pedidoComMultiplosServicos);
 
-        when(pedidoRepository.count()).thenReturn(10L);
-        when(pedidoRepository.countByStatus(any())).thenReturn(5L);
-        when(dentistaRepository.countByIsActiveTrue()).thenReturn(3L);
-        when(pedidoRepository.countByCreatedAtBefore(any(LocalDateTime.class))).thenReturn(8L);
-        when(dentistaRepository.countByIsActiveTrueAndCreatedAtBefore(any(LocalDateTime.class))).thenReturn(2L);
-        when(dentistaRepository.countByIsActiveTrueAndCreatedAtBetween(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1L);
-        when(pedidoRepository.findPedidosPorMes(any(LocalDateTime.class))).thenReturn(Collections.emptyList());
-        when(pedidoRepository.findPedidosPorTipo()).thenReturn(Collections.emptyList());
-        when(pedidoRepository.findStatusPedidos()).thenReturn(Collections.emptyList());
+        when(indicadorDashboardService.carregar()).thenReturn(indicadores());
         when(pedidoRepository.findPedidosRecentes()).thenReturn(pedidosRecentes);
 
         try (MockedStatic<LocalDateTime> mockedLocalDateTime = mockStatic(LocalDateTime.class)) {
@@ -299,50 +263,31 @@ public class RelatorioServiceTest {
     }
 
     @Test
-    void deveCalcularDataInicioMesAtualCorretamente() {
+    void deveUsarMesAtualComoReferencia() {
         // given
         LocalDateTime dataEspecifica = LocalDateTime.of(2024, 3, 25, 14, 30, 45, 123456789);
-        
-        when(pedidoRepository.count()).thenReturn(1L);
-        when(pedidoRepository.countByStatus(any())).thenReturn(1L);
-        when(dentistaRepository.countByIsActiveTrue()).thenReturn(1L);
-        when(pedidoRepository.countByCreatedAtBefore(any(LocalDateTime.class))).thenReturn(1L);
-        when(dentistaRepository.countByIsActiveTrueAndCreatedAtBefore(any(LocalDateTime.class))).thenReturn(1L);
-        when(dentistaRepository.countByIsActiveTrueAndCreatedAtBetween(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1L);
-        when(pedidoRepository.findPedidosPorMes(any(LocalDateTime.class))).thenReturn(Collections.emptyList());
-        when(pedidoRepository.findPedidosPorTipo()).thenReturn(Collections.emptyList());
-        when(pedidoRepository.findStatusPedidos()).thenReturn(Collections.emptyList());
+        when(indicadorDashboardService.carregar()).thenReturn(indicadores(
+            indicador(IndicadorDashboard.Tipo.DENTISTAS_ATIVOS_POR_MES, "2024-02", 3L),
+            indicador(IndicadorDashboard.Tipo.DENTISTAS_ATIVOS_POR_MES, "2024-03", 2L),
+            indicador(IndicadorDashboard.Tipo.DENTISTAS_ATIVOS_POR_MES, "2024-04", 1L)));
         when(pedidoRepository.findPedidosRecentes()).thenReturn(Collections.emptyList());
 
         try (MockedStatic<LocalDateTime> mockedLocalDateTime = mockStatic(LocalDateTime.class)) {
             mockedLocalDateTime.when(LocalDateTime::now).thenReturn(dataEspecifica);
 
             // when
-            relatorioService.obterDadosDashboard();
+            RelatorioDTO resultado = relatorioService.obterDadosDashboard();
 
-            // then
-            // Verifica se foi chamado com início do mês correto
-            verify(pedidoRepository, times(1)).countByCreatedAtBefore(any(LocalDateTime.class));
-            verify(dentistaRepository, times(1)).countByIsActiveTrueAndCreatedAtBefore(any(LocalDateTime.class));
-            verify(dentistaRepository, times(1)).countByIsActiveTrueAndCreatedAtBetween(any(LocalDateTime.class), eq(dataEspecifica));
-            
-            // Verifica se foi chamado com 6 meses atrás
-            verify(pedidoRepository, times(1)).findPedidosPorMes(any(LocalDateTime.class));
+            // then - "anterior" considera tudo que foi criado antes de março
+            assertThat(resultado.getDentistasAtivos()).isEqualTo(6L);
+            assertThat(resultado.getDadosAnteriores().getDentistasAtivos()).isEqualTo(3L);
         }
     }
 
     @Test
     void deveManterTransacaoReadOnly() {
         // given
-        when(pedidoRepository.count()).thenReturn(1L);
-        when(pedidoRepository.countByStatus(any())).thenReturn(1L);
-        when(dentistaRepository.countByIsActiveTrue()).thenReturn(1L);
-        when(pedidoRepository.countByCreatedAtBefore(any(LocalDateTime.class))).thenReturn(1L);
-        when(dentistaRepository.countByIsActiveTrueAndCreatedAtBefore(any(LocalDateTime.class))).thenReturn(1L);
-        when(dentistaRepository.countByIsActiveTrueAndCreatedAtBetween(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1L);
-        when(pedidoRepository.findPedidosPorMes(any(LocalDateTime.class))).thenReturn(Collections.emptyList());
-        when(pedidoRepository.findPedidosPorTipo()).thenReturn(Collections.emptyList());
-        when(pedidoRepository.findStatusPedidos()).thenReturn(Collections.emptyList());
+        when(indicadorDashboardService.carregar()).thenReturn(indicadores());
         when(pedidoRepository.findPedidosRecentes()).thenReturn(Collections.emptyList());
 
         try (MockedStatic<LocalDateTime> mockedLocalDateTime = mockStatic(LocalDateTime.class)) {
@@ -357,30 +302,55 @@ public class RelatorioServiceTest {
             // Verifica que apenas métodos de leitura foram chamados
             verify(pedidoRepository, never()).save(any());
             verify(pedidoRepository, never()).delete(any());
-            verify(dentistaRepository, never()).save(any());
-            verify(dentistaRepository, never()).delete(any());
+            verify(indicadorDashboardService, never()).recalcular();
+        }
+    }
+
+    @Test
+    void deveUsarResultadoParcialQuandoIndicadoresFalham() {
+        // given - contadores indisponíveis; pedidos recentes respondem normalmente
+        when(indicadorDashboardService.carregar()).thenThrow(new RuntimeException("timeout no banco"));
+        when(pedidoRepository.findPedidosRecentes()).thenReturn(Arrays.asList(pedidoTeste));
+
+        try (MockedStatic<LocalDateTime> mockedLocalDateTime = mockStatic(LocalDateTime.class)) {
+            mockedLocalDateTime.when(LocalDateTime::now).thenReturn(dataAtualTeste);
+
+            // when
+            RelatorioDTO resultado = relatorioService.obterDadosDashboard();
+
+            // then
+            assertThat(resultado.getSecoesIndisponiveis()).containsExactly(RelatorioService.SECAO_INDICADORES);
+            assertThat(resultado.getTotalPedidos()).isEqualTo(0L);
+            assertThat(resultado.getPedidosPorMes()).isEmpty();
+            assertThat(resultado.getStatusPedidos()).isEmpty();
+            assertThat(resultado.getPedidosRecentes()).hasSize(1);
         }
     }
 
     @Test
     void deveProcessarDadosComListasNulas() {
-        // given - Configura apenas os mocks necessários até o ponto onde a exceção é lançada
-        when(pedidoRepository.count()).thenReturn(0L);
-        when(pedidoRepository.countByStatus(any())).thenReturn(0L);
-        when(dentistaRepository.countByIsActiveTrue()).thenReturn(0L);
-        when(pedidoRepository.countByCreatedAtBefore(any(LocalDateTime.class))).thenReturn(0L);
-        when(dentistaRepository.countByIsActiveTrueAndCreatedAtBefore(any(LocalDateTime.class))).thenReturn(0L);
-        when(dentistaRepository.countByIsActiveTrueAndCreatedAtBetween(any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(0L);
-        // A primeira lista nula que causa a exceção
-        when(pedidoRepository.findPedidosPorMes(any(LocalDateTime.class))).thenReturn(null);
+        // given - sem indicadores carregados
+        when(indicadorDashboardService.carregar()).thenReturn(null);
+        when(pedidoRepository.findPedidosRecentes()).thenReturn(Collections.emptyList());
 
         try (MockedStatic<LocalDateTime> mockedLocalDateTime = mockStatic(LocalDateTime.class)) {
             mockedLocalDateTime.when(LocalDateTime::now).thenReturn(dataAtualTeste);
 
-            // when & then - Deve lançar NullPointerException ao tentar processar lista nula
-            assertThrows(NullPointerException.class, () -> {
-                relatorioService.obterDadosDashboard();
-            });
+            // when
+            RelatorioDTO resultado = relatorioService.obterDadosDashboard();
+
+            // then - a seção vazia vira resultado parcial em vez de derrubar a resposta
+            assertThat(resultado.getSecoesIndisponiveis()).containsExactly(RelatorioService.SECAO_INDICADORES);
+            assertThat(resultado.getDentistasAtivos()).isEqualTo(0L);
+            assertThat(resultado.getPedidosPorTipo()).isEmpty();
         }
     }
-} 
\ No newline at end of file
+
+    private static IndicadorDashboard indicador(IndicadorDashboard.Tipo tipo, String chave, Long valor) {
+        return new IndicadorDashboard(null, tipo, chave, valor, null);
+    }
+
+    private static IndicadoresDashboard indicadores(IndicadorDashboard... indicadores) {
+        return new IndicadoresDashboard(Arrays.asList(indicadores), Map.of(1L, "Restauração", 2L, "Limpeza"));
+    }
+}
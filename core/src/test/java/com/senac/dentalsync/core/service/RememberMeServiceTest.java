@@ -1,15 +1,17 @@
 package com.senac.dentalsync.core.service;
 
 import com.senac.dentalsync.core.persistency.model.Protetico;
+import com.senac.dentalsync.core.persistency.model.RememberMeToken;
+import com.senac.dentalsync.core.persistency.repository.RememberMeTokenRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Arrays;
-import java.util.List;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -22,6 +24,9 @@ public class RememberMeServiceTest {
     @Mock
     private ProteticoService proteticoService;
 
+    @Mock
+    private RememberMeTokenRepository rememberMeTokenRepository;
+
     @InjectMocks
     private RememberMeService rememberMeService;
 
@@ -32,368 +37,174 @@ public class RememberMeServiceTest {
     @BeforeEach
     void setUp() {
         testUser = new Protetico();
+        testUser.setId(1L);
         testUser.setEmail(testEmail);
-        testUser.setRememberMeToken(null);
-        testUser.setRememberMeTimestamp(null);
-        testUser.setRememberMeDurationDays(null);
     }
 
     // Testes do método generateRememberMeToken
     @Test
-    void deveGerarTokenRememberMeValido() {
+    void deveGerarTokenRememberMeESalvarApenasOHash() {
         // given
         when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-        when(proteticoService.save(any(Protetico.class))).thenReturn(testUser);
 
         // when
         String token = rememberMeService.generateRememberMeToken(testEmail, testDurationDays);
 
         // then
-        assertThat(token).isNotNull();
-        assertThat(token).isNotEmpty();
-        verify(proteticoService, times(1)).findByEmail(testEmail);
-        verify(proteticoService, times(1)).save(testUser);
-        
-        // Verificar se os campos foram definidos no usuário
-        assertThat(testUser.getRememberMeToken()).isEqualTo(token);
-        assertThat(testUser.getRememberMeTimestamp()).isNotNull();
-        assertThat(testUser.getRememberMeDurationDays()).isEqualTo(testDurationDays);
-    }
-
-    @Test
-    void deveRetornarNullQuandoUsuarioNaoEncontrado() {
-        // given
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.empty());
-
-        // when
-        String token = rememberMeService.generateRememberMeToken(testEmail, testDurationDays);
-
-        // then
-        assertThat(token).isNull();
-        verify(proteticoService, times(1)).findByEmail(testEmail);
-        verify(proteticoService, never()).save(any(Protetico.class));
+        assertThat(token).isNotBlank();
+        ArgumentCaptor<RememberMeToken> captor = ArgumentCaptor.forClass(RememberMeToken.class);
+        verify(rememberMeTokenRepository).save(captor.capture());
+        RememberMeToken salvo = captor.getValue();
+        assertThat(salvo.getProtetico()).isSameAs(testUser);
+        assertThat(salvo.getTokenHash()).hasSize(64).isEqualTo(RememberMeService.hash(token)).isNotEqualTo(token);
+        assertThat(salvo.getExpiraEm()).isBetween(
+            LocalDateTime.now().plusDays(testDurationDays).minusMinutes(1),
+            LocalDateTime.now().plusDays(testDurationDays).plusMinutes(1));
+        // O token em texto puro não vai mais para a tabela de protéticos
+        assertThat(testUser.getRememberMeToken()).isNull();
+        verify(proteticoService, never()).save(any());
     }
 
     @Test
-    void deveGerarTokensDiferentesParaChamadasDiferentes() {
+    void deveGerarTokensDiferentesParaCadaDispositivo() {
         // given
         when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-        when(proteticoService.save(any(Protetico.class))).thenReturn(testUser);
 
         // when
         String token1 = rememberMeService.generateRememberMeToken(testEmail, testDurationDays);
         String token2 = rememberMeService.generateRememberMeToken(testEmail, testDurationDays);
 
         // then
-        assertThat(token1).isNotNull();
-        assertThat(token2).isNotNull();
         assertThat(token1).isNotEqualTo(token2);
-    }
-
-    // Testes do método validateRememberMeToken
-    @Test
-    void deveValidarTokenCorretoValido() {
-        // given
-        String token = "valid-token";
-        testUser.setRememberMeToken(token);
-        testUser.setRememberMeTimestamp(System.currentTimeMillis());
-        testUser.setRememberMeDurationDays(testDurationDays);
-        
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-
-        // when
-        boolean isValid = rememberMeService.validateRememberMeToken(testEmail, token);
-
-        // then
-        assertThat(isValid).isTrue();
-        verify(proteticoService, times(1)).findByEmail(testEmail);
+        verify(rememberMeTokenRepository, times(2)).save(any(RememberMeToken.class));
+        verify(rememberMeTokenRepository, never()).deleteByProteticoEmail(any());
     }
 
     @Test
-    void deveInvalidarQuandoUsuarioNaoEncontrado() {
+    void deveRetornarNullQuandoUsuarioNaoEncontradoParaGerarToken() {
         // given
         when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.empty());
 
         // when
-        boolean isValid = rememberMeService.validateRememberMeToken(testEmail, "any-token");
-
-        // then
-        assertThat(isValid).isFalse();
-        verify(proteticoService, times(1)).findByEmail(testEmail);
-    }
-
-    @Test
-    void deveInvalidarQuandoTokenNaoDefinido() {
-        // given
-        testUser.setRememberMeToken(null);
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-
-        // when
-        boolean isValid = rememberMeService.validateRememberMeToken(testEmail, "any-token");
+        String token = rememberMeService.generateRememberMeToken(testEmail, testDurationDays);
 
         // then
-        assertThat(isValid).isFalse();
+        assertThat(token).isNull();
+        verify(rememberMeTokenRepository, never()).save(any());
     }
 
+    // Testes do método findUserByValidRememberMeToken
     @Test
-    void deveInvalidarQuandoTimestampNaoDefinido() {
+    void deveEncontrarUsuarioPeloHashDoToken() {
         // given
-        testUser.setRememberMeToken("valid-token");
-        testUser.setRememberMeTimestamp(null);
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
+        String token = "token-do-cookie";
+        when(rememberMeTokenRepository.findByTokenHash(RememberMeService.hash(token)))
+            .thenReturn(Optional.of(registro(token, LocalDateTime.now().plusDays(1))));
 
         // when
-        boolean isValid = rememberMeService.validateRememberMeToken(testEmail, "valid-token");
+        Optional<Protetico> result = rememberMeService.findUserByValidRememberMeToken(token);
 
         // then
-        assertThat(isValid).isFalse();
+        assertThat(result).containsSame(testUser);
+        verify(proteticoService, never()).findAll();
     }
 
     @Test
-    void deveInvalidarQuandoDuracaoNaoDefinida() {
+    void naoDeveEncontrarUsuarioComTokenDesconhecido() {
         // given
-        testUser.setRememberMeToken("valid-token");
-        testUser.setRememberMeTimestamp(System.currentTimeMillis());
-        testUser.setRememberMeDurationDays(null);
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
+        when(rememberMeTokenRepository.findByTokenHash(any())).thenReturn(Optional.empty());
 
         // when
-        boolean isValid = rememberMeService.validateRememberMeToken(testEmail, "valid-token");
+        Optional<Protetico> result = rememberMeService.findUserByValidRememberMeToken("desconhecido");
 
         // then
-        assertThat(isValid).isFalse();
+        assertThat(result).isEmpty();
     }
 
     @Test
-    void deveInvalidarTokenIncorreto() {
+    void deveRemoverTokenExpiradoAoUsar() {
         // given
-        testUser.setRememberMeToken("correct-token");
-        testUser.setRememberMeTimestamp(System.currentTimeMillis());
-        testUser.setRememberMeDurationDays(testDurationDays);
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
+        String token = "token-expirado";
+        RememberMeToken expirado = registro(token, LocalDateTime.now().minusMinutes(1));
+        when(rememberMeTokenRepository.findByTokenHash(RememberMeService.hash(token))).thenReturn(Optional.of(expirado));
 
         // when
-        boolean isValid = rememberMeService.validateRememberMeToken(testEmail, "wrong-token");
+        Optional<Protetico> result = rememberMeService.findUserByValidRememberMeToken(token);
 
         // then
-        assertThat(isValid).isFalse();
+        assertThat(result).isEmpty();
+        verify(rememberMeTokenRepository).delete(expirado);
     }
 
     @Test
-    void deveInvalidarTokenExpirado() {
-        // given
-        String token = "valid-token";
-        testUser.setRememberMeToken(token);
-        testUser.setRememberMeTimestamp(System.currentTimeMillis() - (31L * 24 * 60 * 60 * 1000)); // 31 dias atrás
-        testUser.setRememberMeDurationDays(testDurationDays);
-        
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-
-        // when
-        boolean isValid = rememberMeService.validateRememberMeToken(testEmail, token);
-
-        // then
-        assertThat(isValid).isFalse();
-        verify(proteticoService, times(1)).save(testUser); // Deve remover token expirado
-        
-        // Verificar se o token foi removido
-        assertThat(testUser.getRememberMeToken()).isNull();
-        assertThat(testUser.getRememberMeTimestamp()).isNull();
-        assertThat(testUser.getRememberMeDurationDays()).isNull();
+    void naoDeveConsultarBancoComTokenVazio() {
+        // when & then
+        assertThat(rememberMeService.findUserByValidRememberMeToken(null)).isEmpty();
+        assertThat(rememberMeService.findUserByValidRememberMeToken("  ")).isEmpty();
+        verifyNoInteractions(rememberMeTokenRepository);
     }
 
-    // Testes do método removeRememberMeToken
+    // Testes do método validateRememberMeToken
     @Test
-    void deveRemoverTokenRememberMe() {
+    void deveValidarTokenDoProprioUsuario() {
         // given
-        testUser.setRememberMeToken("token-to-remove");
-        testUser.setRememberMeTimestamp(System.currentTimeMillis());
-        testUser.setRememberMeDurationDays(testDurationDays);
-        
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-
-        // when
-        rememberMeService.removeRememberMeToken(testEmail);
+        String token = "token-valido";
+        when(rememberMeTokenRepository.findByTokenHash(RememberMeService.hash(token)))
+            .thenReturn(Optional.of(registro(token, LocalDateTime.now().plusDays(1))));
 
-        // then
-        verify(proteticoService, times(1)).findByEmail(testEmail);
-        verify(proteticoService, times(1)).save(testUser);
-        
-        assertThat(testUser.getRememberMeToken()).isNull();
-        assertThat(testUser.getRememberMeTimestamp()).isNull();
-        assertThat(testUser.getRememberMeDurationDays()).isNull();
+        // when & then
+        assertThat(rememberMeService.validateRememberMeToken(testEmail, token)).isTrue();
+        assertThat(rememberMeService.validateRememberMeToken("outro@example.com", token)).isFalse();
     }
 
+    // Testes de remoção
     @Test
-    void deveIgnorarRemocaoQuandoUsuarioNaoEncontrado() {
-        // given
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.empty());
-
+    void deveRemoverTodosOsTokensDoUsuario() {
         // when
         rememberMeService.removeRememberMeToken(testEmail);
 
         // then
-        verify(proteticoService, times(1)).findByEmail(testEmail);
-        verify(proteticoService, never()).save(any(Protetico.class));
-    }
-
-    // Testes do método findUserByValidRememberMeToken
-    @Test
-    void deveEncontrarUsuarioPorTokenValido() {
-        // given
-        String token = "valid-token";
-        testUser.setRememberMeToken(token);
-        testUser.setRememberMeTimestamp(System.currentTimeMillis());
-        testUser.setRememberMeDurationDays(testDurationDays);
-        
-        when(proteticoService.findAll()).thenReturn(Arrays.asList(testUser));
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-
-        // when
-        Optional<Protetico> foundUser = rememberMeService.findUserByValidRememberMeToken(token);
-
-        // then
-        assertThat(foundUser).isPresent();
-        assertThat(foundUser.get().getEmail()).isEqualTo(testEmail);
-        verify(proteticoService, times(1)).findAll();
-    }
-
-    @Test
-    void deveRetornarVazioQuandoTokenNaoEncontrado() {
-        // given
-        Protetico otherUser = new Protetico();
-        otherUser.setEmail("other@example.com");
-        otherUser.setRememberMeToken("other-token");
-        
-        when(proteticoService.findAll()).thenReturn(Arrays.asList(otherUser));
-
-        // when
-        Optional<Protetico> foundUser = rememberMeService.findUserByValidRememberMeToken("non-existent-token");
-
-        // then
-        assertThat(foundUser).isEmpty();
-        verify(proteticoService, times(1)).findAll();
-    }
-
-    @Test
-    void deveRetornarVazioQuandoUsuarioSemToken() {
-        // given
-        testUser.setRememberMeToken(null);
-        when(proteticoService.findAll()).thenReturn(Arrays.asList(testUser));
-
-        // when
-        Optional<Protetico> foundUser = rememberMeService.findUserByValidRememberMeToken("any-token");
-
-        // then
-        assertThat(foundUser).isEmpty();
+        verify(rememberMeTokenRepository).deleteByProteticoEmail(testEmail);
+        verifyNoInteractions(proteticoService);
     }
 
     @Test
-    void deveRetornarVazioQuandoTokenExpirado() {
-        // given
-        String token = "expired-token";
-        testUser.setRememberMeToken(token);
-        testUser.setRememberMeTimestamp(System.currentTimeMillis() - (31L * 24 * 60 * 60 * 1000)); // 31 dias atrás
-        testUser.setRememberMeDurationDays(testDurationDays);
-        
-        when(proteticoService.findAll()).thenReturn(Arrays.asList(testUser));
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-
+    void deveRevogarApenasOTokenInformado() {
         // when
-        Optional<Protetico> foundUser = rememberMeService.findUserByValidRememberMeToken(token);
+        rememberMeService.revogarToken("token-do-dispositivo");
 
         // then
-        assertThat(foundUser).isEmpty();
+        verify(rememberMeTokenRepository).deleteByTokenHash(RememberMeService.hash("token-do-dispositivo"));
+        verify(rememberMeTokenRepository, never()).deleteByProteticoEmail(any());
     }
 
-    // Testes do método cleanExpiredRememberMeTokens
     @Test
-    void deveLimparTokensExpirados() {
+    void deveApagarTokensExpiradosComUmDelete() {
         // given
-        Protetico expiredUser = new Protetico();
-        expiredUser.setEmail("expired@example.com");
-        expiredUser.setRememberMeToken("expired-token");
-        expiredUser.setRememberMeTimestamp(System.currentTimeMillis() - (31L * 24 * 60 * 60 * 1000)); // 31 dias atrás
-        expiredUser.setRememberMeDurationDays(testDurationDays);
-        
-        Protetico validUser = new Protetico();
-        validUser.setEmail("valid@example.com");
-        validUser.setRememberMeToken("valid-token");
-        validUser.setRememberMeTimestamp(System.currentTimeMillis());
-        validUser.setRememberMeDurationDays(testDurationDays);
-        
-        when(proteticoService.findAll()).thenReturn(Arrays.asList(expiredUser, validUser));
+        when(rememberMeTokenRepository.deleteExpirados(any(LocalDateTime.class))).thenReturn(3);
 
         // when
         rememberMeService.cleanExpiredRememberMeTokens();
 
         // then
-        verify(proteticoService, times(1)).findAll();
-        verify(proteticoService, times(1)).save(expiredUser); // Apenas o usuário expirado deve ser salvo
-        verify(proteticoService, never()).save(validUser);
-        
-        // Verificar se o token expirado foi removido
-        assertThat(expiredUser.getRememberMeToken()).isNull();
-        assertThat(expiredUser.getRememberMeTimestamp()).isNull();
-        assertThat(expiredUser.getRememberMeDurationDays()).isNull();
-        
-        // Verificar se o token válido permanece
-        assertThat(validUser.getRememberMeToken()).isEqualTo("valid-token");
-        assertThat(validUser.getRememberMeTimestamp()).isNotNull();
-        assertThat(validUser.getRememberMeDurationDays()).isEqualTo(testDurationDays);
+        verify(rememberMeTokenRepository).deleteExpirados(any(LocalDateTime.class));
+        verifyNoInteractions(proteticoService);
     }
 
     @Test
-    void deveIgnorarUsuariosSemTokensNaLimpeza() {
-        // given
-        Protetico userWithoutToken = new Protetico();
-        userWithoutToken.setEmail("no-token@example.com");
-        userWithoutToken.setRememberMeToken(null);
-        
-        Protetico userWithoutTimestamp = new Protetico();
-        userWithoutTimestamp.setEmail("no-timestamp@example.com");
-        userWithoutTimestamp.setRememberMeToken("token");
-        userWithoutTimestamp.setRememberMeTimestamp(null);
-        
-        when(proteticoService.findAll()).thenReturn(Arrays.asList(userWithoutToken, userWithoutTimestamp));
-
-        // when
-        rememberMeService.cleanExpiredRememberMeTokens();
-
-        // then
-        verify(proteticoService, times(1)).findAll();
-        verify(proteticoService, never()).save(any(Protetico.class));
+    void deveGerarHashSha256EmHexadecimal() {
+        // SHA-256("abc") conhecido
+        assertThat(RememberMeService.hash("abc"))
+            .isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
     }
 
-    // Teste de integração completo
-    @Test
-    void deveExecutarFluxoCompletoRememberMe() {
-        // given
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-        when(proteticoService.save(any(Protetico.class))).thenReturn(testUser);
-
-        // when - Gerar token
-        String token = rememberMeService.generateRememberMeToken(testEmail, testDurationDays);
-        
-        // when - Validar token
-        boolean isValid = rememberMeService.validateRememberMeToken(testEmail, token);
-        
-        // when - Buscar usuário por token
-        when(proteticoService.findAll()).thenReturn(Arrays.asList(testUser));
-        Optional<Protetico> foundUser = rememberMeService.findUserByValidRememberMeToken(token);
-        
-        // when - Remover token
-        rememberMeService.removeRememberMeToken(testEmail);
-
-        // then
-        assertThat(token).isNotNull();
-        assertThat(isValid).isTrue();
-        assertThat(foundUser).isPresent();
-        assertThat(foundUser.get().getEmail()).isEqualTo(testEmail);
-        
-        // Verificar se foi removido
-        assertThat(testUser.getRememberMeToken()).isNull();
-        assertThat(testUser.getRememberMeTimestamp()).isNull();
-        assertThat(testUser.getRememberMeDurationDays()).isNull();
+    private RememberMeToken registro(String token, LocalDateTime expiraEm) {
+        RememberMeToken registro = new RememberMeToken();
+        registro.setId(10L);
+        registro.setProtetico(testUser);
+        registro.setTokenHash(RememberMeService.hash(token));
+        registro.setExpiraEm(expiraEm);
+        registro.setCreatedAt(LocalDateTime.now().minusDays(1));
+        return registro;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package com.senac.dentalsync.core.service;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.senac.dentalsync.core.event.CadastroAlteradoEvent;
+import com.senac.dentalsync.core.event.CadastroAlteradoEvent.Tipo;
+import com.senac.dentalsync.core.persistency.model.Servico;
+import com.senac.dentalsync.core.persistency.repository.DentistaRepository;
+import com.senac.dentalsync.core.persistency.repository.PacienteRepository;
+import com.senac.dentalsync.core.persistency.repository.ProteticoRepository;
+import com.senac.dentalsync.core.persistency.repository.ServicoRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ResolvedorNomesSttTest {
+
+    @Mock
+    private PacienteRepository pacienteRepository;
+
+    @Mock
+    private DentistaRepository dentistaRepository;
+
+    @Mock
+    private ProteticoRepository proteticoRepository;
+
+    @Mock
+    private ServicoRepository servicoRepository;
+
+    private ResolvedorNomesStt resolvedor;
+
+    @BeforeEach
+    void setUp() {
+        when(pacienteRepository.findIdENomeAtivos()).thenReturn(List.<Object[]>of(new Object[] { 1L, "Muni Besen" }));
+        when(dentistaRepository.findIdENomeAtivos()).thenReturn(List.<Object[]>of(new Object[] { 2L, "Marcos Viana" }));
+        when(proteticoRepository.findIdENomeAtivos()).thenReturn(List.<Object[]>of(new Object[] { 3L, "Pedro Folster" }));
+        when(servicoRepository.findIdENomeAtivos()).thenReturn(List.<Object[]>of(
+            new Object[] { 7L, "Coroa" }, new Object[] { 8L, "Reparo frontal" }));
+        resolvedor = new ResolvedorNomesStt(pacienteRepository, dentistaRepository, proteticoRepository,
+            servicoRepository, 0.35);
+        resolvedor.reconstruir();
+    }
+
+    @Test
+    void deveCarregarOsAtivosDeCadaCadastro() {
+        assertThat(resolvedor.tamanhos()).isEqualTo(Map.of(
+            Tipo.PACIENTE, 1, Tipo.DENTISTA, 1, Tipo.PROTETICO, 1, Tipo.SERVICO, 2));
+    }
+
+    @Test
+    void deveResolverNoTipoPedidoOuEmTodos() {
+        assertThat(resolvedor.resolver("marcos vianna", Tipo.DENTISTA, 5)).singleElement()
+            .satisfies(candidato -> {
+                assertThat(candidato.id()).isEqualTo(2L);
+                assertThat(candidato.nome()).isEqualTo("Marcos Viana");
+            });
+        assertThat(resolvedor.resolver("marcos vianna", Tipo.PACIENTE, 5)).isEmpty();
+        assertThat(resolvedor.resolver("coroas", null, 5)).first()
+            .satisfies(candidato -> {
+                assertThat(candidato.tipo()).isEqualTo(Tipo.SERVICO);
+                assertThat(candidato.id()).isEqualTo(7L);
+            });
+    }
+
+    @Test
+    void deveAcompanharOsEventosDeCadastro() {
+        Servico faceta = new Servico();
+        faceta.setId(9L);
+        faceta.setNome("Faceta");
+        faceta.setIsActive(true);
+        resolvedor.onCadastroAlterado(CadastroAlteradoEvent.de(faceta).orElseThrow());
+        resolvedor.onCadastroAlterado(new CadastroAlteradoEvent(Tipo.DENTISTA, 2L, "Marcos Viana", false));
+
+        assertThat(resolvedor.resolver("faceta", Tipo.SERVICO, 5)).extracting(ResolvedorNomesStt.Candidato::id)
+            .containsExactly(9L);
+        assertThat(resolvedor.resolver("marcos viana", Tipo.DENTISTA, 5)).isEmpty();
+
+        resolvedor.onCadastroAlterado(CadastroAlteradoEvent.removido(Tipo.SERVICO, 9L));
+        assertThat(resolvedor.resolver("faceta", Tipo.SERVICO, 5)).isEmpty();
+    }
+}
@@ -0,0 +1,89 @@
+package com.senac.dentalsync.core.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RetentativaConcorrenciaTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RetentativaConcorrencia retentativa;
+
+    @BeforeEach
+    void setUp() {
+        retentativa = new RetentativaConcorrencia(transactionManager, 3, 0);
+    }
+
+    @Test
+    void deveRepetirAteConseguirQuandoHaConflito() {
+        // given
+        AtomicInteger chamadas = new AtomicInteger();
+        AtomicInteger preparos = new AtomicInteger();
+
+        // when
+        String resultado = retentativa.executar("teste", preparos::incrementAndGet, () -> {
+            if (chamadas.incrementAndGet() < 3) {
+                throw new DeadlockLoserDataAccessException("deadlock", null);
+            }
+            return "ok";
+        });
+
+        // then - cada tentativa em transação nova, com o estado restaurado antes
+        assertThat(resultado).isEqualTo("ok");
+        assertThat(preparos.get()).isEqualTo(3);
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(2)).rollback(any());
+        assertThat(retentativa.getConflitos()).isEqualTo(2);
+        assertThat(retentativa.getRecuperados()).isEqualTo(1);
+        assertThat(retentativa.getEsgotados()).isZero();
+    }
+
+    @Test
+    void deveDesistirComConflitoAposLimiteDeTentativas() {
+        // when
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () ->
+            retentativa.executar("teste", () -> { }, () -> {
+                throw new ObjectOptimisticLockingFailureException("Material", 1L);
+            }));
+
+        // then
+        assertThat(exception.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(retentativa.getConflitos()).isEqualTo(3);
+        assertThat(retentativa.getEsgotados()).isEqualTo(1);
+    }
+
+    @Test
+    void naoDeveRepetirErrosQueNaoSaoDeConcorrencia() {
+        // given
+        AtomicInteger chamadas = new AtomicInteger();
+
+        // when
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+            retentativa.executar("teste", () -> { }, () -> {
+                chamadas.incrementAndGet();
+                throw new RuntimeException("Estoque insuficiente para o material: Resina");
+            }));
+
+        // then
+        assertThat(exception.getMessage()).contains("Estoque insuficiente");
+        assertThat(chamadas.get()).isEqualTo(1);
+        assertThat(retentativa.getConflitos()).isZero();
+    }
+}
@@ -0,0 +1,129 @@
+package com.senac.dentalsync.core.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.senac.dentalsync.core.event.CadastroAlteradoEvent;
+import com.senac.dentalsync.core.persistency.model.Paciente;
+import com.senac.dentalsync.core.persistency.repository.PacienteRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class STTServiceTest {
+
+    @Mock
+    private GatewayStt gatewayStt;
+
+    @Mock
+    private PacienteRepository pacienteRepository;
+
+    private STTService sttService() {
+        return new STTService(gatewayStt, new CacheRespostaStt(60000, 100), new ObjectMapper());
+    }
+
+    @Test
+    void deveEnviarOTextoEntreAspasEDevolverOPrimeiroElementoDaLista() throws Exception {
+        Map<String, Object> extraido = Map.of("output", "{\"cliente_id\":3,\"servicos\":[1]}");
+        when(gatewayStt.enviar("'coroa no 15'")).thenReturn(List.of(extraido));
+
+        assertThat(sttService().processText("coroa no 15")).isEqualTo(extraido);
+    }
+
+    @Test
+    void deveRecusarRespostaSemNenhumDadoExtraido() {
+        when(gatewayStt.enviar(anyString())).thenReturn(List.of(Map.of(
+            "output", "{\"cliente_id\":null,\"servicos\":[],\"dentes\":[],\"prioridade\":\"\"}")));
+
+        assertThatThrownBy(() -> sttService().processText("texto sem dados"))
+            .hasMessageStartingWith("IA_EMPTY_RESPONSE");
+    }
+
+    @Test
+    void deveDevolverRespostaCruaSemValidar() throws Exception {
+        when(gatewayStt.enviar(anyString())).thenReturn(Map.of("rawResponse", "ok"));
+
+        assertThat(sttService().processText("texto")).isEqualTo(Map.of("rawResponse", "ok"));
+    }
+
+    @Test
+    void deveReaproveitarARespostaDeUmTextoRepetido() throws Exception {
+        Map<String, Object> extraido = Map.of("output", "{\"cliente_id\":3}");
+        when(gatewayStt.enviar(anyString())).thenReturn(List.of(extraido));
+        STTService sttService = sttService();
+
+        assertThat(sttService.processText("Coroa no 15.")).isEqualTo(extraido);
+        assertThat(sttService.processText("coroa  no 15")).isEqualTo(extraido);
+
+        verify(gatewayStt, times(1)).enviar(anyString());
+    }
+
+    @Test
+    void deveChamarOWebhookDeNovoDepoisQueUmPacienteForCadastrado() throws Exception {
+        // given - serviço de pacientes publicando direto no cache, como o listener depois do commit
+        CacheRespostaStt cache = new CacheRespostaStt(60000, 100);
+        STTService sttService = new STTService(gatewayStt, cache, new ObjectMapper());
+        PacienteService pacienteService = new PacienteService();
+        ReflectionTestUtils.setField(pacienteService, "repository", pacienteRepository);
+        ReflectionTestUtils.setField(pacienteService, "eventPublisher",
+            (ApplicationEventPublisher) evento -> cache.onCadastroAlterado((CadastroAlteradoEvent) evento));
+        when(pacienteRepository.save(any(Paciente.class))).thenAnswer(inv -> {
+            Paciente salvo = inv.getArgument(0);
+            salvo.setId(7L);
+            return salvo;
+        });
+        when(gatewayStt.enviar(anyString()))
+            .thenReturn(List.of(Map.of("output", "{\"cliente_id\":null,\"servicos\":[1]}")))
+            .thenReturn(List.of(Map.of("output", "{\"cliente_id\":7,\"servicos\":[1]}")));
+
+        // when - o paciente ditado ainda não existia; é cadastrado e o mesmo texto é ditado de novo
+        sttService.processText("coroa para a paciente Muni Besen");
+        Paciente paciente = new Paciente();
+        paciente.setNome("Muni Besen");
+        paciente.setEmail("muni@email.com");
+        paciente.setTelefone("(11) 98888-7777");
+        paciente.setDataNascimento(LocalDate.of(1990, 1, 1));
+        pacienteService.save(paciente);
+        Object segunda = sttService.processText("coroa para a paciente Muni Besen");
+
+        // then
+        verify(gatewayStt, times(2)).enviar(anyString());
+        assertThat(segunda).isEqualTo(Map.of("output", "{\"cliente_id\":7,\"servicos\":[1]}"));
+    }
+
+    @Test
+    void naoDeveGuardarRespostaRecusada() {
+        when(gatewayStt.enviar(anyString())).thenReturn(Map.of("output", "{}"));
+        STTService sttService = sttService();
+
+        assertThatThrownBy(() -> sttService.processText("nada")).hasMessageStartingWith("IA_EMPTY_RESPONSE");
+        assertThatThrownBy(() -> sttService.processText("nada")).hasMessageStartingWith("IA_EMPTY_RESPONSE");
+
+        verify(gatewayStt, times(2)).enviar(anyString());
+    }
+
+    @Test
+    void naoDeveChamarOWebhookComTextoVazio() {
+        assertThatThrownBy(() -> sttService().processText("  "))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        verify(gatewayStt, never()).enviar(anyString());
+    }
+}
@@ -0,0 +1,106 @@
+package com.senac.dentalsync.core.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor SMTP mínimo para os testes da fila de emails: aceita as mensagens e guarda o conteúdo,
+ * conta as conexões abertas e recusa (550) os destinatários informados
+ */
+class ServidorSmtpFalso implements AutoCloseable {
+
+    private final ServerSocket servidor;
+    private final Set<String> destinatariosRecusados;
+    private final List<String> mensagens = new CopyOnWriteArrayList<>();
+    private final AtomicInteger conexoes = new AtomicInteger();
+    private final Thread aceitador;
+
+    ServidorSmtpFalso(Set<String> destinatariosRecusados) throws IOException {
+        this.servidor = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.destinatariosRecusados = destinatariosRecusados;
+        this.aceitador = new Thread(this::aceitar, "smtp-falso");
+        this.aceitador.setDaemon(true);
+        this.aceitador.start();
+    }
+
+    int getPorta() {
+        return servidor.getLocalPort();
+    }
+
+    List<String> getMensagens() {
+        return mensagens;
+    }
+
+    int getConexoes() {
+        return conexoes.get();
+    }
+
+    private void aceitar() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket socket = servidor.accept();
+                conexoes.incrementAndGet();
+                Thread sessao = new Thread(() -> atender(socket), "smtp-falso-sessao");
+                sessao.setDaemon(true);
+                sessao.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void atender(Socket socket) {
+        try (socket;
+             BufferedReader entrada = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter saida = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.UTF_8)) {
+            responder(saida, "220 localhost ESMTP teste");
+            String linha;
+            while ((linha = entrada.readLine()) != null) {
+                String comando = linha.toUpperCase(Locale.ROOT);
+                if (comando.startsWith("EHLO")) {
+                    responder(saida, "250-localhost\r\n250 OK");
+                } else if (comando.startsWith("RCPT TO:")) {
+                    String destinatario = linha.substring(linha.indexOf('<') + 1, linha.lastIndexOf('>'));
+                    responder(saida, destinatariosRecusados.contains(destinatario) ? "550 Caixa inexistente" : "250 OK");
+                } else if (comando.equals("DATA")) {
+                    responder(saida, "354 Envie a mensagem terminando com <CRLF>.<CRLF>");
+                    StringBuilder mensagem = new StringBuilder();
+                    while ((linha = entrada.readLine()) != null && !linha.equals(".")) {
+                        mensagem.append(linha).append('\n');
+                    }
+                    mensagens.add(mensagem.toString());
+                    responder(saida, "250 OK");
+                } else if (comando.equals("QUIT")) {
+                    responder(saida, "221 Tchau");
+                    return;
+                } else {
+                    // HELO, MAIL FROM, RSET, NOOP
+                    responder(saida, "250 OK");
+                }
+            }
+        } catch (IOException e) {
+            // Cliente encerrou a conexão
+        }
+    }
+
+    private static void responder(PrintWriter saida, String resposta) {
+        saida.print(resposta + "\r\n");
+        saida.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        servidor.close();
+    }
+}
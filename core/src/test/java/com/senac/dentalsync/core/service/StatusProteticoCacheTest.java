@@ -0,0 +1,116 @@
+package com.senac.dentalsync.core.service;
+
+import com.senac.dentalsync.core.persistency.repository.ProteticoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StatusProteticoCacheTest {
+
+    private static final String EMAIL = "protetico@teste.com";
+
+    @Mock
+    private ProteticoRepository proteticoRepository;
+
+    private AtomicLong relogio;
+    private StatusProteticoCache cache;
+
+    @BeforeEach
+    void setUp() {
+        relogio = new AtomicLong();
+        cache = new StatusProteticoCache(proteticoRepository, 5000, 3, relogio::get);
+    }
+
+    @Test
+    void deveConsultarOBancoUmaVezDentroDoTtl() {
+        // given
+        when(proteticoRepository.findIsActiveByEmail(EMAIL)).thenReturn(Optional.of(true));
+
+        // when
+        cache.consultar(EMAIL);
+        avancar(4999);
+        StatusProteticoCache.Situacao situacao = cache.consultar(EMAIL);
+
+        // then
+        assertThat(situacao).isEqualTo(StatusProteticoCache.Situacao.ATIVO);
+        verify(proteticoRepository, times(1)).findIsActiveByEmail(EMAIL);
+    }
+
+    @Test
+    void deveEnxergarDesativacaoExternaAposOTtl() {
+        // given - desativado direto no banco, sem passar pelo ProteticoService
+        when(proteticoRepository.findIsActiveByEmail(EMAIL)).thenReturn(Optional.of(true), Optional.of(false));
+        cache.consultar(EMAIL);
+
+        // when
+        avancar(5000);
+
+        // then
+        assertThat(cache.consultar(EMAIL)).isEqualTo(StatusProteticoCache.Situacao.INATIVO);
+    }
+
+    @Test
+    void deveRelerImediatamenteAposInvalidacao() {
+        // given
+        when(proteticoRepository.findIsActiveByEmail(EMAIL)).thenReturn(Optional.of(true), Optional.of(false));
+        cache.consultar(EMAIL);
+
+        // when
+        cache.invalidar(EMAIL);
+
+        // then
+        assertThat(cache.consultar(EMAIL)).isEqualTo(StatusProteticoCache.Situacao.INATIVO);
+    }
+
+    @Test
+    void naoDeveGuardarLeituraConcorrenteComInvalidacao() {
+        // given - a desativação acontece enquanto a leitura antiga ainda está no banco
+        when(proteticoRepository.findIsActiveByEmail(EMAIL)).thenAnswer(invocacao -> {
+            cache.invalidar(EMAIL);
+            return Optional.of(true);
+        }).thenReturn(Optional.of(false));
+
+        // when
+        cache.consultar(EMAIL);
+
+        // then - o valor lido antes da invalidação não ficou guardado
+        assertThat(cache.consultar(EMAIL)).isEqualTo(StatusProteticoCache.Situacao.INATIVO);
+    }
+
+    @Test
+    void deveTratarProteticoInexistente() {
+        // given
+        when(proteticoRepository.findIsActiveByEmail(EMAIL)).thenReturn(Optional.empty());
+
+        // when & then
+        assertThat(cache.consultar(EMAIL)).isEqualTo(StatusProteticoCache.Situacao.INEXISTENTE);
+    }
+
+    @Test
+    void deveLimitarONumeroDeEntradas() {
+        // given
+        when(proteticoRepository.findIsActiveByEmail(anyString())).thenReturn(Optional.of(true));
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            cache.consultar("protetico" + i + "@teste.com");
+        }
+
+        // then
+        assertThat(cache.tamanho()).isLessThanOrEqualTo(3);
+    }
+
+    private void avancar(long millis) {
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
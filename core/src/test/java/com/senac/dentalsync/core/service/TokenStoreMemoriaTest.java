@@ -0,0 +1,134 @@
+package com.senac.dentalsync.core.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenStoreMemoriaTest {
+
+    private static final String TIPO = "TESTE";
+    private static final Duration DEZ_MINUTOS = Duration.ofMinutes(10);
+
+    private AtomicLong relogio;
+    private TokenStoreMemoria store;
+
+    @BeforeEach
+    void setUp() {
+        relogio = new AtomicLong();
+        store = new TokenStoreMemoria(3, relogio::get);
+    }
+
+    @Test
+    void deveDevolverValorDentroDaValidade() {
+        // given
+        store.salvar(TIPO, "a@teste.com", "123456", DEZ_MINUTOS);
+
+        // when
+        avancarMinutos(9);
+
+        // then
+        assertThat(store.buscar(TIPO, "a@teste.com")).contains("123456");
+        assertThat(store.buscar("OUTRO_TIPO", "a@teste.com")).isEmpty();
+    }
+
+    @Test
+    void naoDeveDevolverValorVencido() {
+        // given
+        store.salvar(TIPO, "a@teste.com", "123456", DEZ_MINUTOS);
+
+        // when
+        avancarMinutos(10);
+
+        // then
+        assertThat(store.buscar(TIPO, "a@teste.com")).isEmpty();
+        assertThat(store.removerSeIgual(TIPO, "a@teste.com", "123456")).isFalse();
+    }
+
+    @Test
+    void deveRemoverSomenteComOValorCorreto() {
+        // given
+        store.salvar(TIPO, "a@teste.com", "123456", DEZ_MINUTOS);
+
+        // when & then
+        assertThat(store.removerSeIgual(TIPO, "a@teste.com", "000000")).isFalse();
+        assertThat(store.removerSeIgual(TIPO, "a@teste.com", "123456")).isTrue();
+        assertThat(store.buscar(TIPO, "a@teste.com")).isEmpty();
+    }
+
+    @Test
+    void deveLimparApenasEntradasVencidas() {
+        // given
+        store.salvar(TIPO, "a", "1", Duration.ofMinutes(5));
+        store.salvar(TIPO, "b", "2", DEZ_MINUTOS);
+        avancarMinutos(6);
+
+        // when
+        int removidos = store.removerExpirados();
+
+        // then
+        assertThat(removidos).isEqualTo(1);
+        assertThat(store.tamanho()).isEqualTo(1);
+        assertThat(store.buscar(TIPO, "b")).contains("2");
+    }
+
+    @Test
+    void naoDeveUltrapassarOLimiteDeEntradas() {
+        // given
+        store.salvar(TIPO, "a", "1", Duration.ofMinutes(1));
+        store.salvar(TIPO, "b", "2", DEZ_MINUTOS);
+        store.salvar(TIPO, "c", "3", DEZ_MINUTOS);
+
+        // when - cheio e nada vencido: sai a entrada mais próxima de vencer
+        store.salvar(TIPO, "d", "4", DEZ_MINUTOS);
+
+        // then
+        assertThat(store.tamanho()).isEqualTo(3);
+        assertThat(store.buscar(TIPO, "a")).isEmpty();
+        assertThat(store.buscar(TIPO, "d")).contains("4");
+    }
+
+    @Test
+    void deveAceitarUmUnicoUsoComChamadasConcorrentes() throws Exception {
+        // given
+        store = new TokenStoreMemoria(100, System::nanoTime);
+        store.salvar(TIPO, "a@teste.com", "123456", DEZ_MINUTOS);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+
+        // when
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            resultados.add(executor.submit(() -> {
+                largada.await();
+                return store.removerSeIgual(TIPO, "a@teste.com", "123456");
+            }));
+        }
+        largada.countDown();
+        int aceitos = 0;
+        for (Future<Boolean> resultado : resultados) {
+            if (resultado.get(5, TimeUnit.SECONDS)) {
+                aceitos++;
+            }
+        }
+        executor.shutdown();
+
+        // then
+        assertThat(aceitos).isEqualTo(1);
+    }
+
+    private void avancarMinutos(long minutos) {
+        relogio.addAndGet(TimeUnit.MINUTES.toNanos(minutos));
+    }
+}
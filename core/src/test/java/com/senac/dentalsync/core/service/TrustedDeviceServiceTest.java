@@ -1,28 +1,38 @@
 package com.senac.dentalsync.core.service;
 
 import com.senac.dentalsync.core.persistency.model.Protetico;
+import com.senac.dentalsync.core.persistency.model.TrustedDevice;
+import com.senac.dentalsync.core.persistency.repository.ProteticoRepository;
+import com.senac.dentalsync.core.persistency.repository.TrustedDeviceRepository;
+import com.senac.dentalsync.core.util.HashUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
-import java.util.Arrays;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class TrustedDeviceServiceTest {
 
     @Mock
-    private ProteticoService proteticoService;
+    private TrustedDeviceRepository trustedDeviceRepository;
+
+    @Mock
+    private ProteticoRepository proteticoRepository;
 
     @InjectMocks
     private TrustedDeviceService trustedDeviceService;
@@ -30,15 +40,14 @@ public class TrustedDeviceServiceTest {
     private Protetico testUser;
     private final String testEmail = "test@example.com";
     private final String testDeviceFingerprint = "device-fingerprint-123";
+    private final String fingerprintHash = HashUtil.sha256Hex("device-fingerprint-123");
     private final int testDurationMinutes = 10;
 
     @BeforeEach
     void setUp() {
         testUser = new Protetico();
+        testUser.setId(1L);
         testUser.setEmail(testEmail);
-        testUser.setTrustedDeviceFingerprint(null);
-        testUser.setTrustedDeviceToken(null);
-        testUser.setTrustedDeviceTimestamp(null);
         
         // Configurar duração via reflection
         ReflectionTestUtils.setField(trustedDeviceService, "trustedDeviceDurationMinutes", testDurationMinutes);
@@ -46,90 +55,74 @@ public class TrustedDeviceServiceTest {
 
     // Testes do método generateTrustedDeviceToken
     @Test
-    void deveGerarTokenDispositivoConfiavel() {
+    void deveRegistrarDispositivoSemAlterarOProtetico() {
         // given
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-        when(proteticoService.save(any(Protetico.class))).thenReturn(testUser);
+        when(proteticoRepository.findIdByEmailAndIsActiveTrue(testEmail)).thenReturn(Optional.of(1L));
+        when(proteticoRepository.getReferenceById(1L)).thenReturn(testUser);
 
         // when
         String token = trustedDeviceService.generateTrustedDeviceToken(testEmail, testDeviceFingerprint);
 
         // then
-        assertThat(token).isNotNull();
-        assertThat(token).isNotEmpty();
-        verify(proteticoService, times(1)).findByEmail(testEmail);
-        verify(proteticoService, times(1)).save(testUser);
-        
-        // Verificar se os campos foram definidos no usuário
-        assertThat(testUser.getTrustedDeviceFingerprint()).isEqualTo(testDeviceFingerprint);
-        assertThat(testUser.getTrustedDeviceToken()).isEqualTo(token);
-        assertThat(testUser.getTrustedDeviceTimestamp()).isNotNull();
+        assertThat(token).isNotBlank();
+        ArgumentCaptor<TrustedDevice> captor = ArgumentCaptor.forClass(TrustedDevice.class);
+        verify(trustedDeviceRepository).save(captor.capture());
+        TrustedDevice salvo = captor.getValue();
+        assertThat(salvo.getProtetico()).isSameAs(testUser);
+        assertThat(salvo.getFingerprintHash()).isEqualTo(fingerprintHash);
+        assertThat(salvo.getTokenHash()).isEqualTo(HashUtil.sha256Hex(token));
+        assertThat(salvo.getExpiraEm()).isAfter(LocalDateTime.now().plusMinutes(testDurationMinutes - 1));
+        verify(proteticoRepository, never()).save(any());
     }
 
     @Test
-    void deveRetornarNullQuandoUsuarioNaoEncontradoParaGeracao() {
+    void deveRenovarDispositivoJaRegistrado() {
         // given
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.empty());
+        when(proteticoRepository.findIdByEmailAndIsActiveTrue(testEmail)).thenReturn(Optional.of(1L));
+        when(trustedDeviceRepository.renovar(eq(1L), eq(fingerprintHash), anyString(), any(), any())).thenReturn(1);
 
         // when
         String token = trustedDeviceService.generateTrustedDeviceToken(testEmail, testDeviceFingerprint);
 
         // then
-        assertThat(token).isNull();
-        verify(proteticoService, times(1)).findByEmail(testEmail);
-        verify(proteticoService, never()).save(any(Protetico.class));
+        assertThat(token).isNotNull();
+        verify(trustedDeviceRepository, never()).save(any());
     }
 
     @Test
-    void deveGerarTokensDiferentesParaChamadasDiferentes() {
+    void deveRetornarNullQuandoUsuarioNaoEncontradoParaGeracao() {
         // given
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-        when(proteticoService.save(any(Protetico.class))).thenReturn(testUser);
+        when(proteticoRepository.findIdByEmailAndIsActiveTrue(testEmail)).thenReturn(Optional.empty());
 
         // when
-        String token1 = trustedDeviceService.generateTrustedDeviceToken(testEmail, testDeviceFingerprint);
-        String token2 = trustedDeviceService.generateTrustedDeviceToken(testEmail, testDeviceFingerprint);
+        String token = trustedDeviceService.generateTrustedDeviceToken(testEmail, testDeviceFingerprint);
 
         // then
-        assertThat(token1).isNotNull();
-        assertThat(token2).isNotNull();
-        assertThat(token1).isNotEqualTo(token2);
+        assertThat(token).isNull();
+        verifyNoInteractions(trustedDeviceRepository);
     }
 
     // Testes do método isTrustedDevice
     @Test
-    void deveValidarDispositivoConfiavel() {
-        // given
-        testUser.setTrustedDeviceFingerprint(testDeviceFingerprint);
-        testUser.setTrustedDeviceTimestamp(System.currentTimeMillis());
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-
-        // when
-        boolean isTrusted = trustedDeviceService.isTrustedDevice(testEmail, testDeviceFingerprint);
-
-        // then
-        assertThat(isTrusted).isTrue();
-        verify(proteticoService, times(1)).findByEmail(testEmail);
-    }
-
-    @Test
-    void deveInvalidarQuandoUsuarioNaoEncontrado() {
+    void deveValidarDispositivoConfiavelConsultandoOBancoUmaVez() {
         // given
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.empty());
+        when(trustedDeviceRepository.findExpiraEm(testEmail, fingerprintHash))
+            .thenReturn(Optional.of(LocalDateTime.now().plusMinutes(5)));
 
         // when
-        boolean isTrusted = trustedDeviceService.isTrustedDevice(testEmail, testDeviceFingerprint);
+        boolean primeiro = trustedDeviceService.isTrustedDevice(testEmail, testDeviceFingerprint);
+        boolean segundo = trustedDeviceService.isTrustedDevice(testEmail, testDeviceFingerprint);
 
         // then
-        assertThat(isTrusted).isFalse();
-        verify(proteticoService, times(1)).findByEmail(testEmail);
+        assertThat(primeiro).isTrue();
+        assertThat(segundo).isTrue();
+        verify(trustedDeviceRepository, times(1)).findExpiraEm(testEmail, fingerprintHash);
     }
 
     @Test
-    void deveInvalidarQuandoFingerprintNaoDefinido() {
+    void deveInvalidarDispositivoNaoRegistrado() {
         // given
-        testUser.setTrustedDeviceFingerprint(null);
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
+        when(trustedDeviceRepository.findExpiraEm(testEmail, fingerprintHash)).thenReturn(Optional.empty());
 
         // when
         boolean isTrusted = trustedDeviceService.isTrustedDevice(testEmail, testDeviceFingerprint);
@@ -139,312 +132,136 @@ public class TrustedDeviceServiceTest {
     }
 
     @Test
-    void deveInvalidarQuandoTimestampNaoDefinido() {
+    void deveRemoverApenasODispositivoExpirado() {
         // given
-        testUser.setTrustedDeviceFingerprint(testDeviceFingerprint);
-        testUser.setTrustedDeviceTimestamp(null);
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
+        when(trustedDeviceRepository.findExpiraEm(testEmail, fingerprintHash))
+            .thenReturn(Optional.of(LocalDateTime.now().minusMinutes(1)));
 
         // when
         boolean isTrusted = trustedDeviceService.isTrustedDevice(testEmail, testDeviceFingerprint);
 
         // then
         assertThat(isTrusted).isFalse();
+        verify(trustedDeviceRepository).deleteExpirado(eq(testEmail), eq(fingerprintHash), any());
+        verify(trustedDeviceRepository, never()).deleteByProteticoEmail(any());
     }
 
     @Test
-    void deveInvalidarQuandoFingerprintNaoCorresponde() {
+    void deveConsultarDeNovoAposRegistrarDispositivo() {
         // given
-        testUser.setTrustedDeviceFingerprint("different-fingerprint");
-        testUser.setTrustedDeviceTimestamp(System.currentTimeMillis());
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
+        when(trustedDeviceRepository.findExpiraEm(testEmail, fingerprintHash))
+            .thenReturn(Optional.empty(), Optional.of(LocalDateTime.now().plusMinutes(5)));
+        when(proteticoRepository.findIdByEmailAndIsActiveTrue(testEmail)).thenReturn(Optional.of(1L));
+        when(trustedDeviceRepository.renovar(eq(1L), eq(fingerprintHash), anyString(), any(), any())).thenReturn(1);
 
         // when
-        boolean isTrusted = trustedDeviceService.isTrustedDevice(testEmail, testDeviceFingerprint);
+        boolean antes = trustedDeviceService.isTrustedDevice(testEmail, testDeviceFingerprint);
+        trustedDeviceService.generateTrustedDeviceToken(testEmail, testDeviceFingerprint);
+        boolean depois = trustedDeviceService.isTrustedDevice(testEmail, testDeviceFingerprint);
 
         // then
-        assertThat(isTrusted).isFalse();
+        assertThat(antes).isFalse();
+        assertThat(depois).isTrue();
     }
 
     @Test
-    void deveInvalidarDispositivoExpirado() {
+    void deveConsultarDeNovoAposRemoverDispositivos() {
         // given
-        testUser.setTrustedDeviceFingerprint(testDeviceFingerprint);
-        testUser.setTrustedDeviceTimestamp(System.currentTimeMillis() - (11 * 60 * 1000)); // 11 minutos atrás
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
+        when(trustedDeviceRepository.findExpiraEm(testEmail, fingerprintHash))
+            .thenReturn(Optional.of(LocalDateTime.now().plusMinutes(5)), Optional.empty());
 
         // when
-        boolean isTrusted = trustedDeviceService.isTrustedDevice(testEmail, testDeviceFingerprint);
+        boolean antes = trustedDeviceService.isTrustedDevice(testEmail, testDeviceFingerprint);
+        trustedDeviceService.removeAllTrustedDevicesForUser(testEmail);
+        boolean depois = trustedDeviceService.isTrustedDevice(testEmail, testDeviceFingerprint);
 
         // then
-        assertThat(isTrusted).isFalse();
-        verify(proteticoService, times(1)).save(testUser); // Deve remover dispositivo expirado
-        
-        // Verificar se o dispositivo foi removido
-        assertThat(testUser.getTrustedDeviceFingerprint()).isNull();
-        assertThat(testUser.getTrustedDeviceToken()).isNull();
-        assertThat(testUser.getTrustedDeviceTimestamp()).isNull();
+        assertThat(antes).isTrue();
+        assertThat(depois).isFalse();
+        verify(trustedDeviceRepository).deleteByProteticoEmail(testEmail);
     }
 
     // Testes do método validateTrustedDeviceToken
     @Test
     void deveValidarTokenDispositivoCorreto() {
         // given
-        String token = "valid-token";
-        testUser.setTrustedDeviceToken(token);
-        testUser.setTrustedDeviceFingerprint(testDeviceFingerprint);
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-
-        // when
-        boolean isValid = trustedDeviceService.validateTrustedDeviceToken(testEmail, testDeviceFingerprint, token);
-
-        // then
-        assertThat(isValid).isTrue();
-        verify(proteticoService, times(1)).findByEmail(testEmail);
-    }
-
-    @Test
-    void deveInvalidarTokenQuandoUsuarioNaoEncontrado() {
-        // given
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.empty());
-
-        // when
-        boolean isValid = trustedDeviceService.validateTrustedDeviceToken(testEmail, testDeviceFingerprint, "any-token");
-
-        // then
-        assertThat(isValid).isFalse();
-        verify(proteticoService, times(1)).findByEmail(testEmail);
-    }
-
-    @Test
-    void deveInvalidarQuandoTokenNaoDefinido() {
-        // given
-        testUser.setTrustedDeviceToken(null);
-        testUser.setTrustedDeviceFingerprint(testDeviceFingerprint);
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-
-        // when
-        boolean isValid = trustedDeviceService.validateTrustedDeviceToken(testEmail, testDeviceFingerprint, "any-token");
-
-        // then
-        assertThat(isValid).isFalse();
-    }
-
-    @Test
-    void deveInvalidarQuandoFingerprintTokenNaoDefinido() {
-        // given
-        testUser.setTrustedDeviceToken("valid-token");
-        testUser.setTrustedDeviceFingerprint(null);
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-
-        // when
-        boolean isValid = trustedDeviceService.validateTrustedDeviceToken(testEmail, testDeviceFingerprint, "valid-token");
-
-        // then
-        assertThat(isValid).isFalse();
-    }
-
-    @Test
-    void deveInvalidarTokenIncorreto() {
-        // given
-        testUser.setTrustedDeviceToken("correct-token");
-        testUser.setTrustedDeviceFingerprint(testDeviceFingerprint);
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-
-        // when
-        boolean isValid = trustedDeviceService.validateTrustedDeviceToken(testEmail, testDeviceFingerprint, "wrong-token");
-
-        // then
-        assertThat(isValid).isFalse();
-    }
-
-    @Test
-    void deveInvalidarFingerprintIncorreto() {
-        // given
-        String token = "valid-token";
-        testUser.setTrustedDeviceToken(token);
-        testUser.setTrustedDeviceFingerprint("different-fingerprint");
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-
-        // when
-        boolean isValid = trustedDeviceService.validateTrustedDeviceToken(testEmail, testDeviceFingerprint, token);
-
-        // then
-        assertThat(isValid).isFalse();
-    }
-
-    // Testes do método removeTrustedDevice
-    @Test
-    void deveRemoverDispositivoConfiavel() {
-        // given
-        testUser.setTrustedDeviceFingerprint("fingerprint-to-remove");
-        testUser.setTrustedDeviceToken("token-to-remove");
-        testUser.setTrustedDeviceTimestamp(System.currentTimeMillis());
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-
-        // when
-        trustedDeviceService.removeTrustedDevice(testEmail);
-
-        // then
-        verify(proteticoService, times(1)).findByEmail(testEmail);
-        verify(proteticoService, times(1)).save(testUser);
-        
-        assertThat(testUser.getTrustedDeviceFingerprint()).isNull();
-        assertThat(testUser.getTrustedDeviceToken()).isNull();
-        assertThat(testUser.getTrustedDeviceTimestamp()).isNull();
-    }
-
-    @Test
-    void deveIgnorarRemocaoQuandoUsuarioNaoEncontrado() {
-        // given
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.empty());
-
-        // when
-        trustedDeviceService.removeTrustedDevice(testEmail);
+        String token = "token-do-dispositivo";
+        when(trustedDeviceRepository.findTokenHashesValidos(eq(testEmail), eq(fingerprintHash), any()))
+            .thenReturn(List.of(HashUtil.sha256Hex("outro-token"), HashUtil.sha256Hex(token)));
 
-        // then
-        verify(proteticoService, times(1)).findByEmail(testEmail);
-        verify(proteticoService, never()).save(any(Protetico.class));
+        // when & then
+        assertThat(trustedDeviceService.validateTrustedDeviceToken(testEmail, testDeviceFingerprint, token)).isTrue();
+        assertThat(trustedDeviceService.validateTrustedDeviceToken(testEmail, testDeviceFingerprint, "incorreto")).isFalse();
     }
 
-    // Testes do método removeAllTrustedDevicesForUser
     @Test
-    void deveRemoverTodosDispositivosDoUsuario() {
-        // given
-        testUser.setTrustedDeviceFingerprint("fingerprint");
-        testUser.setTrustedDeviceToken("token");
-        testUser.setTrustedDeviceTimestamp(System.currentTimeMillis());
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-
-        // when
-        trustedDeviceService.removeAllTrustedDevicesForUser(testEmail);
-
-        // then
-        verify(proteticoService, times(1)).findByEmail(testEmail);
-        verify(proteticoService, times(1)).save(testUser);
-        
-        assertThat(testUser.getTrustedDeviceFingerprint()).isNull();
-        assertThat(testUser.getTrustedDeviceToken()).isNull();
-        assertThat(testUser.getTrustedDeviceTimestamp()).isNull();
+    void deveInvalidarTokenNulo() {
+        // when & then
+        assertThat(trustedDeviceService.validateTrustedDeviceToken(testEmail, testDeviceFingerprint, null)).isFalse();
+        verifyNoInteractions(trustedDeviceRepository);
     }
 
     // Testes do método getTrustedDevicesInfo
     @Test
     void deveRetornarInformacoesQuandoNaoHaDispositivos() {
         // given
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.empty());
-
-        // when
-        Map<String, Object> info = trustedDeviceService.getTrustedDevicesInfo(testEmail);
-
-        // then
-        assertThat(info.get("count")).isEqualTo(0);
-        assertThat(info.get("oldestDeviceAge")).isEqualTo(0);
-        assertThat(info.get("maxDurationMinutes")).isEqualTo(testDurationMinutes);
-    }
-
-    @Test
-    void deveRetornarInformacoesQuandoUsuarioSemDispositivo() {
-        // given
-        testUser.setTrustedDeviceTimestamp(null);
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
+        when(trustedDeviceRepository.findByProteticoEmail(testEmail)).thenReturn(List.of());
 
         // when
         Map<String, Object> info = trustedDeviceService.getTrustedDevicesInfo(testEmail);
 
         // then
         assertThat(info.get("count")).isEqualTo(0);
-        assertThat(info.get("oldestDeviceAge")).isEqualTo(0);
+        assertThat(info.get("oldestDeviceAge")).isEqualTo(0L);
         assertThat(info.get("maxDurationMinutes")).isEqualTo(testDurationMinutes);
         assertThat(info.get("isExpired")).isEqualTo(false);
     }
 
     @Test
-    void deveRetornarInformacoesComDispositivoValido() {
+    void deveContarApenasDispositivosValidos() {
         // given
-        long timestamp = System.currentTimeMillis() - (5 * 60 * 1000); // 5 minutos atrás
-        testUser.setTrustedDeviceTimestamp(timestamp);
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
+        LocalDateTime agora = LocalDateTime.now();
+        when(trustedDeviceRepository.findByProteticoEmail(testEmail)).thenReturn(List.of(
+            dispositivo(agora.minusMinutes(4), agora.plusMinutes(6)),
+            dispositivo(agora.minusMinutes(2), agora.plusMinutes(8)),
+            dispositivo(agora.minusMinutes(15), agora.minusMinutes(5))));
 
         // when
         Map<String, Object> info = trustedDeviceService.getTrustedDevicesInfo(testEmail);
 
         // then
-        assertThat(info.get("count")).isEqualTo(1);
-        assertThat((Long) info.get("oldestDeviceAge")).isGreaterThanOrEqualTo(5L);
-        assertThat(info.get("maxDurationMinutes")).isEqualTo(testDurationMinutes);
+        assertThat(info.get("count")).isEqualTo(2);
+        assertThat(info.get("oldestDeviceAge")).isEqualTo(4L);
         assertThat(info.get("isExpired")).isEqualTo(false);
     }
 
     @Test
-    void deveRetornarInformacoesComDispositivoExpirado() {
+    void deveIndicarQuandoTodosOsDispositivosExpiraram() {
         // given
-        long timestamp = System.currentTimeMillis() - (11 * 60 * 1000); // 11 minutos atrás
-        testUser.setTrustedDeviceTimestamp(timestamp);
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
+        LocalDateTime agora = LocalDateTime.now();
+        when(trustedDeviceRepository.findByProteticoEmail(testEmail))
+            .thenReturn(List.of(dispositivo(agora.minusMinutes(15), agora.minusMinutes(5))));
 
         // when
         Map<String, Object> info = trustedDeviceService.getTrustedDevicesInfo(testEmail);
 
         // then
-        assertThat(info.get("count")).isEqualTo(1);
-        assertThat((Long) info.get("oldestDeviceAge")).isGreaterThanOrEqualTo(11L);
-        assertThat(info.get("maxDurationMinutes")).isEqualTo(testDurationMinutes);
+        assertThat(info.get("count")).isEqualTo(0);
         assertThat(info.get("isExpired")).isEqualTo(true);
     }
 
-    // Testes do método cleanExpiredDevicesForAllUsers
-    @Test
-    void deveLimparDispositivosExpirados() {
-        // given
-        Protetico expiredUser = new Protetico();
-        expiredUser.setEmail("expired@example.com");
-        expiredUser.setTrustedDeviceFingerprint("expired-fingerprint");
-        expiredUser.setTrustedDeviceToken("expired-token");
-        expiredUser.setTrustedDeviceTimestamp(System.currentTimeMillis() - (11 * 60 * 1000)); // 11 minutos atrás
-        
-        Protetico validUser = new Protetico();
-        validUser.setEmail("valid@example.com");
-        validUser.setTrustedDeviceFingerprint("valid-fingerprint");
-        validUser.setTrustedDeviceToken("valid-token");
-        validUser.setTrustedDeviceTimestamp(System.currentTimeMillis());
-        
-        when(proteticoService.findAll()).thenReturn(Arrays.asList(expiredUser, validUser));
-
-        // when
-        trustedDeviceService.cleanExpiredDevicesForAllUsers();
-
-        // then
-        verify(proteticoService, times(1)).findAll();
-        verify(proteticoService, times(1)).save(expiredUser); // Apenas o usuário expirado deve ser salvo
-        verify(proteticoService, never()).save(validUser);
-        
-        // Verificar se o dispositivo expirado foi removido
-        assertThat(expiredUser.getTrustedDeviceFingerprint()).isNull();
-        assertThat(expiredUser.getTrustedDeviceToken()).isNull();
-        assertThat(expiredUser.getTrustedDeviceTimestamp()).isNull();
-        
-        // Verificar se o dispositivo válido permanece
-        assertThat(validUser.getTrustedDeviceFingerprint()).isEqualTo("valid-fingerprint");
-        assertThat(validUser.getTrustedDeviceToken()).isEqualTo("valid-token");
-        assertThat(validUser.getTrustedDeviceTimestamp()).isNotNull();
-    }
-
+    // Teste da limpeza periódica
     @Test
-    void deveIgnorarUsuariosSemDispositivosNaLimpeza() {
+    void deveLimparDispositivosExpiradosComUmDelete() {
         // given
-        Protetico userWithoutDevice = new Protetico();
-        userWithoutDevice.setEmail("no-device@example.com");
-        userWithoutDevice.setTrustedDeviceTimestamp(null);
-        
-        when(proteticoService.findAll()).thenReturn(Arrays.asList(userWithoutDevice));
+        when(trustedDeviceRepository.deleteExpirados(any(LocalDateTime.class))).thenReturn(3);
 
         // when
         trustedDeviceService.cleanExpiredDevicesForAllUsers();
 
         // then
-        verify(proteticoService, times(1)).findAll();
-        verify(proteticoService, never()).save(any(Protetico.class));
+        verify(trustedDeviceRepository).deleteExpirados(any(LocalDateTime.class));
+        verifyNoInteractions(proteticoRepository);
     }
 
     // Testes do método generateDeviceFingerprint
@@ -498,37 +315,7 @@ public class TrustedDeviceServiceTest {
         assertThat(fingerprint1).isEqualTo(fingerprint2);
     }
 
-    // Teste de integração completo
-    @Test
-    void deveExecutarFluxoCompletoDispositivoConfiavel() {
-        // given
-        when(proteticoService.findByEmail(testEmail)).thenReturn(Optional.of(testUser));
-        when(proteticoService.save(any(Protetico.class))).thenReturn(testUser);
-
-        // when - Gerar token
-        String token = trustedDeviceService.generateTrustedDeviceToken(testEmail, testDeviceFingerprint);
-        
-        // when - Validar dispositivo
-        boolean isTrusted = trustedDeviceService.isTrustedDevice(testEmail, testDeviceFingerprint);
-        
-        // when - Validar token
-        boolean tokenValid = trustedDeviceService.validateTrustedDeviceToken(testEmail, testDeviceFingerprint, token);
-        
-        // when - Obter informações
-        Map<String, Object> info = trustedDeviceService.getTrustedDevicesInfo(testEmail);
-        
-        // when - Remover dispositivo
-        trustedDeviceService.removeTrustedDevice(testEmail);
-
-        // then
-        assertThat(token).isNotNull();
-        assertThat(isTrusted).isTrue();
-        assertThat(tokenValid).isTrue();
-        assertThat(info.get("count")).isEqualTo(1);
-        
-        // Verificar se foi removido
-        assertThat(testUser.getTrustedDeviceFingerprint()).isNull();
-        assertThat(testUser.getTrustedDeviceToken()).isNull();
-        assertThat(testUser.getTrustedDeviceTimestamp()).isNull();
+    private TrustedDevice dispositivo(LocalDateTime criadoEm, LocalDateTime expiraEm) {
+        return new TrustedDevice(null, testUser, fingerprintHash, HashUtil.sha256Hex("token"), expiraEm, criadoEm);
     }
-} 
\ No newline at end of file
+}
@@ -13,6 +13,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -363,4 +366,114 @@ public class TwoFactorServiceTest {
         assertThat(setupData.getQrCodeUrl()).contains(testEmail);
         assertThat(setupData.getQrCodeImage()).startsWith("data:image/png;base64,");
     }
-} 
\ No newline at end of file
+
+    @Test
+    void deveRecusarCodigoTotpReutilizadoDentroDaJanela() {
+        // given
+        AtomicLong agora = new AtomicLong();
+        twoFactorService.relogio = agora::get;
+        String secretKey = twoFactorService.generateSecretKey();
+        int codigo = new GoogleAuthenticator().getTotpPassword(secretKey);
+
+        // when/then
+        assertThat(twoFactorService.validateTotpCode(secretKey, codigo)).isTrue();
+        assertThat(twoFactorService.validateTotpCode(secretKey, codigo))
+            .as("O mesmo código não pode ser usado duas vezes")
+            .isFalse();
+
+        agora.addAndGet(TimeUnit.SECONDS.toNanos(91));
+        assertThat(twoFactorService.validateTotpCode(secretKey, codigo))
+            .as("Fora da janela de validade o registro de uso já expirou")
+            .isTrue();
+    }
+
+    @Test
+    void naoDeveRegistrarUsoDeCodigoInvalido() {
+        // given
+        String secretKey = twoFactorService.generateSecretKey();
+        int codigo = new GoogleAuthenticator().getTotpPassword(secretKey);
+        int codigoErrado = (codigo + 1) % 1_000_000;
+
+        // when/then
+        twoFactorService.validateTotpCode(secretKey, codigoErrado);
+        assertThat(twoFactorService.validateTotpCode(secretKey, codigo)).isTrue();
+    }
+
+    @Test
+    void deveDevolverConfiguracaoPendenteSomenteParaOMesmoEmailESegredo() {
+        // given
+        AtomicLong agora = new AtomicLong();
+        twoFactorService.relogio = agora::get;
+        TwoFactorService.TwoFactorSetupData setupData = twoFactorService.generateSetupData(testEmail, testIssuer);
+
+        // when/then
+        assertThat(twoFactorService.buscarSetupPendente(testEmail, setupData.getSecretKey())).containsSame(setupData);
+        assertThat(twoFactorService.buscarSetupPendente("outro@email.com", setupData.getSecretKey())).isEmpty();
+        assertThat(twoFactorService.buscarSetupPendente(testEmail, testSecretKey)).isEmpty();
+        assertThat(twoFactorService.buscarSetupPendente(testEmail, null)).isEmpty();
+
+        agora.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        assertThat(twoFactorService.buscarSetupPendente(testEmail, setupData.getSecretKey())).isEmpty();
+    }
+
+    @Test
+    void deveDescartarConfiguracoesPendentesDoEmail() {
+        // given
+        TwoFactorService.TwoFactorSetupData setupData = twoFactorService.generateSetupData(testEmail, testIssuer);
+        TwoFactorService.TwoFactorSetupData outroSetup = twoFactorService.generateSetupData("outro@email.com", testIssuer);
+
+        // when
+        twoFactorService.descartarSetupsPendentes(testEmail);
+
+        // then
+        assertThat(twoFactorService.buscarSetupPendente(testEmail, setupData.getSecretKey())).isEmpty();
+        assertThat(twoFactorService.buscarSetupPendente("outro@email.com", outroSetup.getSecretKey())).isPresent();
+    }
+
+    @Test
+    void deveLimitarQuantidadeDeConfiguracoesPendentes() {
+        // given
+        ReflectionTestUtils.setField(twoFactorService, "setupMaxEntradas", 2);
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            twoFactorService.generateSetupData("usuario" + i + "@email.com", testIssuer);
+        }
+
+        // then
+        assertThat(twoFactorService.setupsPendentes()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void deveRemoverEntradasExpiradasNaLimpeza() {
+        // given
+        AtomicLong agora = new AtomicLong();
+        twoFactorService.relogio = agora::get;
+        String secretKey = twoFactorService.generateSecretKey();
+        twoFactorService.validateTotpCode(secretKey, new GoogleAuthenticator().getTotpPassword(secretKey));
+        twoFactorService.generateSetupData(testEmail, testIssuer);
+
+        // when
+        agora.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        twoFactorService.removerExpirados();
+
+        // then
+        assertThat(twoFactorService.setupsPendentes()).isZero();
+        assertThat(twoFactorService.codigosUsados()).isZero();
+    }
+
+    @Test
+    void deveGerarMesmaImagemAoReaproveitarBuffer() throws WriterException, IOException {
+        // given
+        String qrCodeUrl = twoFactorService.generateQRCodeUrl(testEmail, testSecretKey, testIssuer);
+
+        // when
+        String primeira = twoFactorService.generateQRCodeImage(qrCodeUrl);
+        String segunda = twoFactorService.generateQRCodeImage(qrCodeUrl);
+
+        // then
+        assertThat(segunda).isEqualTo(primeira);
+        byte[] png = Base64.getDecoder().decode(primeira.substring("data:image/png;base64,".length()));
+        assertThat(png).startsWith((byte) 0x89, (byte) 'P', (byte) 'N', (byte) 'G');
+    }
+}
@@ -0,0 +1,50 @@
+package com.senac.dentalsync.core.util;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ArvorePrefixosTest {
+
+    private final ArvorePrefixos arvore = new ArvorePrefixos(
+        List.of("/login", "/login/verify-2fa", "/auth/check"),
+        List.of("/laboratorios", "/v3/api-docs"));
+
+    @Test
+    void deveCasarCaminhoExatoSomente() {
+        assertThat(arvore.contem("/login")).isTrue();
+        assertThat(arvore.contem("/login/verify-2fa")).isTrue();
+        assertThat(arvore.contem("/auth/check")).isTrue();
+        assertThat(arvore.contem("/log")).isFalse();
+        assertThat(arvore.contem("/loginx")).isFalse();
+        assertThat(arvore.contem("/login/")).isFalse();
+        assertThat(arvore.contem("/login/remember-me")).isFalse();
+        assertThat(arvore.contem("/auth/check/extra")).isFalse();
+    }
+
+    @Test
+    void deveCasarSubarvoreInteira() {
+        assertThat(arvore.contem("/laboratorios")).isTrue();
+        assertThat(arvore.contem("/laboratorios/")).isTrue();
+        assertThat(arvore.contem("/laboratorios/10/enderecos")).isTrue();
+        assertThat(arvore.contem("/v3/api-docs/swagger-config")).isTrue();
+        assertThat(arvore.contem("/laboratoriosx")).isFalse();
+        assertThat(arvore.contem("/v3/api")).isFalse();
+    }
+
+    @Test
+    void deveCasarAPartirDoInicioInformado() {
+        assertThat(arvore.contem("/api/login", 4)).isTrue();
+        assertThat(arvore.contem("/api/laboratorios/1", 4)).isTrue();
+        assertThat(arvore.contem("/api/login", 0)).isFalse();
+    }
+
+    @Test
+    void naoDeveCasarCaminhoVazioOuRaiz() {
+        assertThat(arvore.contem("")).isFalse();
+        assertThat(arvore.contem("/")).isFalse();
+        assertThat(new ArvorePrefixos(List.of(), List.of()).contem("/login")).isFalse();
+    }
+}
@@ -0,0 +1,84 @@
+package com.senac.dentalsync.core.util;
+
+import com.senac.dentalsync.core.persistency.model.Paciente;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CursorPaginacaoUtilTest {
+
+    @Test
+    void deveCodificarEDecodificarCursorPorId() {
+        // given
+        Paciente ultimo = new Paciente();
+        ultimo.setId(42L);
+        CursorPaginacaoUtil.Cursor inicio = CursorPaginacaoUtil.inicio("id", Sort.Direction.DESC);
+
+        // when
+        String token = CursorPaginacaoUtil.codificar(inicio, ultimo);
+        CursorPaginacaoUtil.Cursor cursor = CursorPaginacaoUtil.decodificar(token);
+
+        // then
+        assertThat(token).doesNotContain("42");
+        assertThat(cursor.campo()).isEqualTo("id");
+        assertThat(cursor.direcao()).isEqualTo(Sort.Direction.DESC);
+        assertThat(cursor.posicao().getKeys()).containsEntry("id", 42L);
+    }
+
+    @Test
+    void deveCodificarCursorPorCreatedAtComIdComoDesempate() {
+        // given
+        LocalDateTime criadoEm = LocalDateTime.of(2025, 3, 10, 14, 30, 15);
+        Paciente ultimo = new Paciente();
+        ultimo.setId(7L);
+        ultimo.setCreatedAt(criadoEm);
+        CursorPaginacaoUtil.Cursor inicio = CursorPaginacaoUtil.inicio("createdAt", Sort.Direction.ASC);
+
+        // when
+        CursorPaginacaoUtil.Cursor cursor = CursorPaginacaoUtil.decodificar(CursorPaginacaoUtil.codificar(inicio, ultimo));
+
+        // then
+        assertThat(cursor.posicao().getKeys())
+            .containsEntry("createdAt", criadoEm)
+            .containsEntry("id", 7L);
+        assertThat(CursorPaginacaoUtil.ordenacao(cursor))
+            .isEqualTo(Sort.by(Sort.Direction.ASC, "createdAt").and(Sort.by(Sort.Direction.ASC, "id")));
+    }
+
+    @Test
+    void deveContinuarPeloIdNoTrechoDosRegistrosSemCreatedAt() {
+        // given
+        CursorPaginacaoUtil.Cursor inicioSemData = CursorPaginacaoUtil.decodificar(
+            CursorPaginacaoUtil.codificarInicioSemData(Sort.Direction.DESC));
+        Paciente ultimo = new Paciente();
+        ultimo.setId(5L);
+
+        // when
+        CursorPaginacaoUtil.Cursor cursor = CursorPaginacaoUtil.decodificar(
+            CursorPaginacaoUtil.codificar(inicioSemData, ultimo));
+
+        // then
+        assertThat(inicioSemData.semData()).isTrue();
+        assertThat(inicioSemData.posicao().isInitial()).isTrue();
+        assertThat(cursor.semData()).isTrue();
+        assertThat(cursor.posicao().getKeys()).containsExactly(Map.entry("id", 5L));
+        assertThat(CursorPaginacaoUtil.ordenacao(cursor)).isEqualTo(Sort.by(Sort.Direction.DESC, "id"));
+    }
+
+    @Test
+    void naoDeveAceitarCursorInvalido() {
+        assertThatThrownBy(() -> CursorPaginacaoUtil.decodificar("nao-e-um-cursor"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void naoDeveAceitarCampoDeOrdenacaoNaoSuportado() {
+        assertThatThrownBy(() -> CursorPaginacaoUtil.inicio("nome", Sort.Direction.ASC))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
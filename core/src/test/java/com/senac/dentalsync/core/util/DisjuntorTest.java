@@ -0,0 +1,74 @@
+package com.senac.dentalsync.core.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DisjuntorTest {
+
+    private final AtomicLong relogio = new AtomicLong();
+    private final Disjuntor disjuntor = new Disjuntor(3, 1000, relogio::get);
+
+    @Test
+    void deveAbrirSomenteAposFalhasSeguidas() {
+        disjuntor.registrarFalha();
+        disjuntor.registrarFalha();
+        disjuntor.registrarSucesso();
+        disjuntor.registrarFalha();
+        disjuntor.registrarFalha();
+
+        assertThat(disjuntor.permitir()).isTrue();
+
+        disjuntor.registrarFalha();
+
+        assertThat(disjuntor.getEstado()).isEqualTo(Disjuntor.Estado.ABERTO);
+        assertThat(disjuntor.permitir()).isFalse();
+    }
+
+    @Test
+    void deveLiberarUmaUnicaChamadaDeTesteDepoisDoPrazo() {
+        abrir();
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertThat(disjuntor.permitir()).isFalse();
+
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertThat(disjuntor.permitir()).isTrue();
+        assertThat(disjuntor.getEstado()).isEqualTo(Disjuntor.Estado.MEIO_ABERTO);
+        assertThat(disjuntor.permitir()).isFalse();
+    }
+
+    @Test
+    void deveFecharQuandoAChamadaDeTesteDerCerto() {
+        abrir();
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        disjuntor.permitir();
+
+        disjuntor.registrarSucesso();
+
+        assertThat(disjuntor.getEstado()).isEqualTo(Disjuntor.Estado.FECHADO);
+        assertThat(disjuntor.permitir()).isTrue();
+    }
+
+    @Test
+    void deveReabrirPeloPrazoInteiroQuandoAChamadaDeTesteFalhar() {
+        abrir();
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        disjuntor.permitir();
+
+        disjuntor.registrarFalha();
+
+        assertThat(disjuntor.getEstado()).isEqualTo(Disjuntor.Estado.ABERTO);
+        relogio.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(disjuntor.permitir()).isFalse();
+    }
+
+    private void abrir() {
+        for (int i = 0; i < 3; i++) {
+            disjuntor.registrarFalha();
+        }
+    }
+}
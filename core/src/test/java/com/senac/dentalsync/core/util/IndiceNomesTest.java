@@ -0,0 +1,76 @@
+package com.senac.dentalsync.core.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IndiceNomesTest {
+
+    private IndiceNomes indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceNomes();
+        indice.atualizar(1L, "Marcos Viana");
+        indice.atualizar(2L, "Marcia Vieira");
+        indice.atualizar(3L, "Luiz Teresa Conceição");
+        indice.atualizar(4L, "Pedro Folster");
+    }
+
+    @Test
+    void deveUnificarGrafiasDoMesmoSom() {
+        assertThat(IndiceNomes.chaveFonetica("luiz")).isEqualTo(IndiceNomes.chaveFonetica("luis"));
+        assertThat(IndiceNomes.chaveFonetica("tereza")).isEqualTo(IndiceNomes.chaveFonetica("teresa"));
+        assertThat(IndiceNomes.chaveFonetica("felipe")).isEqualTo(IndiceNomes.chaveFonetica("phelipe"));
+        assertThat(IndiceNomes.chaveFonetica("vianna")).isEqualTo(IndiceNomes.chaveFonetica("viana"));
+        assertThat(IndiceNomes.chaveFonetica("coroas")).isEqualTo(IndiceNomes.chaveFonetica("koroa"));
+        assertThat(IndiceNomes.chaveFonetica("marcos")).isNotEqualTo(IndiceNomes.chaveFonetica("pedro"));
+    }
+
+    @Test
+    void deveIgnorarAcentosCaixaEPontuacao() {
+        assertThat(IndiceNomes.normalizar("  Sra. CONCEIÇÃO-Álvares ")).isEqualTo("sra conceicao alvares");
+    }
+
+    @Test
+    void deveAcharONomeMesmoComErroDeGrafiaETratamento() {
+        assertThat(indice.buscar("Dr. Marcos Vianna", 3, 0.35))
+            .first()
+            .satisfies(resultado -> {
+                assertThat(resultado.id()).isEqualTo(1L);
+                assertThat(resultado.nome()).isEqualTo("Marcos Viana");
+            });
+        assertThat(indice.buscar("luis tereza", 3, 0.35)).first()
+            .extracting(IndiceNomes.Resultado::id).isEqualTo(3L);
+    }
+
+    @Test
+    void deveOrdenarDoMaisParaOMenosParecidoERespeitarOLimite() {
+        var resultados = indice.buscar("marcia vieira", 5, 0.0);
+
+        assertThat(resultados.get(0).id()).isEqualTo(2L);
+        assertThat(resultados).extracting(IndiceNomes.Resultado::pontuacao).isSortedAccordingTo((a, b) -> Double.compare(b, a));
+        assertThat(indice.buscar("marcia vieira", 1, 0.0)).hasSize(1);
+    }
+
+    @Test
+    void naoDeveDevolverNomesPoucoParecidos() {
+        assertThat(indice.buscar("Joana Prado", 5, 0.35)).isEmpty();
+        assertThat(indice.buscar("  ", 5, 0.0)).isEmpty();
+    }
+
+    @Test
+    void deveRefletirAlteracoesERemocoes() {
+        indice.atualizar(4L, "Pedro Folster Neto");
+        indice.remover(1L);
+
+        assertThat(indice.buscar("marcos viana", 5, 0.35)).extracting(IndiceNomes.Resultado::id).doesNotContain(1L);
+        assertThat(indice.buscar("pedro folster neto", 1, 0.35)).first()
+            .extracting(IndiceNomes.Resultado::nome).isEqualTo("Pedro Folster Neto");
+        assertThat(indice.tamanho()).isEqualTo(3);
+
+        indice.atualizar(2L, " ");
+        assertThat(indice.tamanho()).isEqualTo(2);
+    }
+}
@@ -7,6 +7,9 @@ import PasswordRequirements from '../PasswordRequirements/PasswordRequirements';
 import PasswordStrengthIndicator from '../PasswordStrengthIndicator/PasswordStrengthIndicator';
 import './styles.css';
 
+// Segredo da configuração de 2FA gerada e ainda não ativada nesta aba
+const SETUP_2FA_PENDENTE = 'dentalsync.2fa.setupPendente';
+
 const SegurancaSection = () => {
   const [formData, setFormData] = useState({
     senhaAtual: '',
@@ -155,10 +158,20 @@ const SegurancaSection = () => {
   const setupTwoFactor = async () => {
     setTwoFactorLoading(true);
     try {
-      const response = await api.post('/security/2fa/setup');
+      // Configuração ainda não confirmada nesta aba (ex.: tela recarregada): o backend devolve o mesmo QR Code
+      const params = new URLSearchParams();
+      const secretKeyPendente = sessionStorage.getItem(SETUP_2FA_PENDENTE);
+      if (secretKeyPendente) {
+        params.append('secretKey', secretKeyPendente);
+      }
+
+      const response = await api.post('/security/2fa/setup', params, {
+        headers: { 'Content-Type': 'application/x-www-form-urlencoded' }
+      });
       if (response.data.success) {
         setQrCodeImage(response.data.qrCodeImage);
         setSecretKey(response.data.secretKey);
+        sessionStorage.setItem(SETUP_2FA_PENDENTE, response.data.secretKey);
         setShowQrCode(true);
       } else {
         toast.error(response.data.message || 'Erro ao configurar 2FA');
@@ -197,6 +210,7 @@ const SegurancaSection = () => {
         setTotpCode('');
         setQrCodeImage('');
         setSecretKey('');
+        sessionStorage.removeItem(SETUP_2FA_PENDENTE);
       } else {
         toast.error(response.data.message || 'Código inválido');
       }
@@ -1,5 +1,6 @@
 import React, { createContext, useContext, useState, useEffect } from 'react';
 import notificationService from '../services/notificationService';
+import { useAuth } from './AuthContext';
 
 const NotificationContext = createContext();
 
@@ -20,6 +21,7 @@ export const NotificationProvider = ({ children }) => {
     materiaisSemEstoque: []
   });
   const [loading, setLoading] = useState(false);
+  const { isAuthenticated } = useAuth();
 
   const fetchNotifications = async () => {
     setLoading(true);
@@ -50,9 +52,60 @@ export const NotificationProvider = ({ children }) => {
     fetchNotifications();
   };
 
+  // Aplica a mudança de faixa de um material: sai das duas listas e entra na da faixa atual
+  const aplicarDelta = (delta) => {
+    setNotifications(prev => {
+      const semId = (lista) => lista.filter(material => material.id !== delta.materialId);
+      const materiaisBaixoEstoque = semId(prev.materiaisBaixoEstoque);
+      const materiaisSemEstoque = semId(prev.materiaisSemEstoque);
+      if (delta.atual === 'BAIXO_ESTOQUE') {
+        materiaisBaixoEstoque.push(delta.material);
+        materiaisBaixoEstoque.sort((a, b) => (a.nome || '').localeCompare(b.nome || ''));
+      } else if (delta.atual === 'SEM_ESTOQUE') {
+        materiaisSemEstoque.push(delta.material);
+        materiaisSemEstoque.sort((a, b) => (a.nome || '').localeCompare(b.nome || ''));
+      }
+      return {
+        total: materiaisBaixoEstoque.length + materiaisSemEstoque.length,
+        baixoEstoque: materiaisBaixoEstoque.length,
+        semEstoque: materiaisSemEstoque.length,
+        materiaisBaixoEstoque,
+        materiaisSemEstoque
+      };
+    });
+  };
+
   useEffect(() => {
-    fetchNotifications();
-  }, []);
+    // O canal exige sessão: sem login não abre (o EventSource ficaria reconectando com 401)
+    if (!isAuthenticated) {
+      return undefined;
+    }
+
+    // Sem suporte a SSE no navegador: consulta única, como antes
+    if (typeof EventSource === 'undefined') {
+      fetchNotifications();
+      return undefined;
+    }
+
+    // O servidor envia um snapshot ao conectar e depois só as mudanças de faixa;
+    // o EventSource reconecta sozinho e recebe um snapshot novo
+    const eventSource = new EventSource('/api/material/notificacoes/estoque/stream', { withCredentials: true });
+    eventSource.addEventListener('snapshot', (event) => {
+      const data = JSON.parse(event.data);
+      setNotifications({
+        total: data.total || 0,
+        baixoEstoque: data.baixoEstoque || 0,
+        semEstoque: data.semEstoque || 0,
+        materiaisBaixoEstoque: data.materiaisBaixoEstoque || [],
+        materiaisSemEstoque: data.materiaisSemEstoque || []
+      });
+    });
+    eventSource.addEventListener('delta', (event) => {
+      aplicarDelta(JSON.parse(event.data));
+    });
+
+    return () => eventSource.close();
+  }, [isAuthenticated]);
 
   const value = {
     notifications,
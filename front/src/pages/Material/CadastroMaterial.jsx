@@ -60,7 +60,8 @@ const CadastroMaterial = () => {
     valorUnitario: '',
     estoqueMinimo: '',
     status: '',
-    isActive: true
+    isActive: true,
+    versao: null
   });
 
   const unidadesMedida = [
@@ -99,7 +100,8 @@ const CadastroMaterial = () => {
             categoriaMaterial: material.categoriaMaterial || null,
             estoqueMinimo: material.estoqueMinimo ? material.estoqueMinimo.toString().replace('.', ',') : '',
             status: material.status || '',
-            isActive: material.isActive || true
+            isActive: material.isActive || true,
+            versao: material.versao
           });
         } catch (error) {
           console.error('Erro ao buscar material:', error);
@@ -239,6 +241,8 @@ const CadastroMaterial = () => {
       // Adicionar o ID para edição (evitar criar novo registro)
       if (id) {
         materialData.id = parseInt(id);
+        // Versão lida ao abrir o formulário: se outro usuário salvou antes, o backend responde 409
+        materialData.versao = material.versao;
       }
 
       if (id) {
@@ -254,6 +258,10 @@ const CadastroMaterial = () => {
       navigate('/material');
     } catch (error) {
       console.error('Erro ao salvar material:', error);
+      if (error.response?.status === 409) {
+        toast.error('Este material foi alterado por outro usuário. Recarregue a página e tente novamente.');
+        return;
+      }
       const errorMessage = error.response?.data?.message || 
         `Erro ao ${id ? 'atualizar' : 'cadastrar'} material`;
       toast.error(errorMessage);
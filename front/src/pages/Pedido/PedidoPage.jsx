@@ -12,6 +12,9 @@ import api from '../../axios-config';
 import useToast from '../../hooks/useToast';
 import useNotifications from '../../hooks/useNotifications';
 
+// Quantidade de pedidos carregada por vez na listagem
+const TAMANHO_PAGINA = 50;
+
 const PedidoPage = () => {
   const [searchQuery, setSearchQuery] = useState('');
   const [isFilterOpen, setIsFilterOpen] = useState(false);
@@ -29,6 +32,8 @@ const PedidoPage = () => {
   });
   const [pedidos, setPedidos] = useState([]);
   const [loading, setLoading] = useState(true);
+  const [proximoCursor, setProximoCursor] = useState(null);
+  const [carregandoMais, setCarregandoMais] = useState(false);
   
   const filterRef = useRef(null);
   const navigate = useNavigate();
@@ -54,39 +59,49 @@ const PedidoPage = () => {
     fetchReferenceData();
   }, []);
   
-  // Buscar todos os pedidos ao montar o componente
+  // Buscar a primeira página de pedidos ao montar o componente
   useEffect(() => {
-    const fetchPedidos = async () => {
-      setLoading(true);
-      try {
-        const response = await api.get('/pedidos');
-        
-        const pedidosFormatados = response.data.map(pedido => ({
-          id: pedido.id,
-          paciente: pedido.cliente,
-          dentista: pedido.dentista,
-          protetico: pedido.protetico,
-          servicos: pedido.servicos,
-          dataEntrega: pedido.dataEntrega,
-          createdAt: pedido.createdAt || pedido.created_at,
-          prioridade: pedido.prioridade,
-          odontograma: pedido.odontograma,
-          observacao: pedido.observacao,
-          status: pedido.status,
-          valorTotal: Array.isArray(pedido.servicos) ? pedido.servicos.reduce((acc, s) => {
-            return acc + (s.valorTotal || s.preco || 0);
-          }, 0) : 0
-        }));
-        
-        setPedidos(pedidosFormatados);
-      } catch (error) {
-        toast.error('Erro ao buscar pedidos. Por favor, tente novamente.');
-      } finally {
-        setLoading(false);
-      }
-    };
     fetchPedidos();
   }, []);
+
+  // Busca pedidos paginados por cursor; sem cursor carrega a primeira página
+  const fetchPedidos = async (cursor = null) => {
+    if (cursor) {
+      setCarregandoMais(true);
+    } else {
+      setLoading(true);
+    }
+    try {
+      const response = await api.get('/pedidos/cursor', {
+        params: { cursor: cursor || undefined, tamanho: TAMANHO_PAGINA }
+      });
+
+      const pedidosFormatados = response.data.itens.map(pedido => ({
+        id: pedido.id,
+        paciente: pedido.cliente,
+        dentista: pedido.dentista,
+        protetico: pedido.protetico,
+        servicos: pedido.servicos,
+        dataEntrega: pedido.dataEntrega,
+        createdAt: pedido.createdAt || pedido.created_at,
+        prioridade: pedido.prioridade,
+        odontograma: pedido.odontograma,
+        observacao: pedido.observacao,
+        status: pedido.status,
+        valorTotal: Array.isArray(pedido.servicos) ? pedido.servicos.reduce((acc, s) => {
+          return acc + (s.valorTotal || s.preco || 0);
+        }, 0) : 0
+      }));
+
+      setPedidos(prev => cursor ? [...prev, ...pedidosFormatados] : pedidosFormatados);
+      setProximoCursor(response.data.proximoCursor);
+    } catch (error) {
+      toast.error('Erro ao buscar pedidos. Por favor, tente novamente.');
+    } finally {
+      setLoading(false);
+      setCarregandoMais(false);
+    }
+  };
   
   // Esconder dropdown de filtro ao clicar fora dele
   useEffect(() => {
@@ -465,6 +480,17 @@ const PedidoPage = () => {
           sortConfig={sortConfig}
           onSort={handleSort}
         />
+        {proximoCursor && (
+          <div className="load-more-container">
+            <button
+              onClick={() => fetchPedidos(proximoCursor)}
+              className="load-more-button"
+              disabled={carregandoMais}
+            >
+              {carregandoMais ? 'Carregando...' : 'Carregar mais pedidos'}
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );
@@ -0,0 +1,133 @@
+import http from 'k6/http';
+import { check } from 'k6';
+import { Rate, Trend } from 'k6/metrics';
+
+// 🧵 Comparação entre os modos de execução do backend (perfil "performance"):
+//   plataforma -> SPRING_THREADS_VIRTUAL_ENABLED=false (pool de 200 threads do Tomcat)
+//   virtual    -> SPRING_THREADS_VIRTUAL_ENABLED=true  (uma thread virtual por requisição)
+// Rode uma vez com cada modo, reiniciando a aplicação entre as execuções:
+//   k6 run -e MODO=plataforma k6-tests/threads-virtuais-comparacao-test.js
+//   k6 run -e MODO=virtual    k6-tests/threads-virtuais-comparacao-test.js
+// e compare com: ./scripts/comparar-threads-virtuais.sh
+// Os endpoints escolhidos ficam bloqueados em I/O externo: n8n (/stt/process),
+// banco (/relatorios/dashboard) e fila de emails (/password/forgot)
+
+const MODO = __ENV.MODO || 'plataforma';
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const TAXA = parseInt(__ENV.TAXA || '150');        // iterações por segundo (carga fixa, independente da latência)
+const DURACAO = __ENV.DURACAO || '2m';
+
+// 📊 Métricas por endpoint
+const sttDuration = new Trend('stt_duration');
+const relatorioDuration = new Trend('relatorio_duration');
+const emailDuration = new Trend('email_duration');
+const sucessoRate = new Rate('sucesso_rate');
+const recusadaRate = new Rate('recusada_503_rate');
+
+export const options = {
+  scenarios: {
+    io_bloqueante: {
+      executor: 'constant-arrival-rate',
+      rate: TAXA,
+      timeUnit: '1s',
+      duration: DURACAO,
+      preAllocatedVUs: 200,
+      maxVUs: 1000,
+    },
+  },
+  tags: { modo: MODO },
+  thresholds: {
+    sucesso_rate: ['rate>0.95'],
+    http_req_duration: ['p(95)<3000'],
+  },
+};
+
+// 🔑 Usuário de teste (cadastrar com scripts/cadastrar-proteticos.sh)
+const testUser = {
+  email: __ENV.EMAIL || 'joao.silva@dentalsync.com',
+  password: __ENV.SENHA || 'senha123',
+};
+
+const jsonHeaders = {
+  'Content-Type': 'application/json',
+  'Accept': 'application/json',
+  'User-Agent': 'K6-DentalSync-ThreadsVirtuais/1.0',
+};
+
+// Login uma vez por VU: o cookie de sessão fica no cookie jar do próprio VU
+let logado = false;
+
+function login() {
+  const response = http.post(`${BASE_URL}/login`,
+    `username=${testUser.email}&password=${testUser.password}&rememberMe=false`, {
+      headers: { 'Content-Type': 'application/x-www-form-urlencoded', 'Accept': 'application/json' },
+      tags: { name: 'login' },
+    });
+  logado = response.status === 200;
+}
+
+function registrar(response, trend, nome) {
+  trend.add(response.timings.duration);
+  recusadaRate.add(response.status === 503);
+  sucessoRate.add(check(response, {
+    [`${nome}: status 2xx`]: (r) => r.status >= 200 && r.status < 300,
+  }));
+}
+
+export default function () {
+  if (!logado) {
+    login();
+    if (!logado) {
+      sucessoRate.add(false);
+      return;
+    }
+  }
+
+  // Distribuição: 40% STT, 40% relatório, 20% email
+  const sorteio = Math.random();
+  if (sorteio < 0.4) {
+    const response = http.post(`${BASE_URL}/stt/process`, JSON.stringify({
+      text: 'Coroa de porcelana no dente 15 para a paciente Muni Besen, dentista Marcos Viana, prioridade alta',
+    }), { headers: jsonHeaders, tags: { name: 'stt-process' }, timeout: '60s' });
+    registrar(response, sttDuration, 'STT');
+  } else if (sorteio < 0.8) {
+    const response = http.get(`${BASE_URL}/relatorios/dashboard`, {
+      headers: jsonHeaders,
+      tags: { name: 'relatorio-dashboard' },
+    });
+    registrar(response, relatorioDuration, 'Relatório');
+  } else {
+    const response = http.post(`${BASE_URL}/password/forgot?email=${encodeURIComponent(testUser.email)}`, null, {
+      headers: jsonHeaders,
+      tags: { name: 'password-forgot' },
+    });
+    registrar(response, emailDuration, 'Email');
+  }
+}
+
+function valor(data, metrica, campo) {
+  const m = data.metrics[metrica];
+  return m && m.values[campo] !== undefined ? m.values[campo] : null;
+}
+
+export function handleSummary(data) {
+  const resumo = {
+    modo: MODO,
+    taxaAlvo: TAXA,
+    duracao: DURACAO,
+    requisicoesPorSegundo: valor(data, 'http_reqs', 'rate'),
+    iteracoesDescartadas: valor(data, 'dropped_iterations', 'count') || 0,
+    sucesso: valor(data, 'sucesso_rate', 'rate'),
+    recusadas503: valor(data, 'recusada_503_rate', 'rate'),
+    p95Geral: valor(data, 'http_req_duration', 'p(95)'),
+    p95Stt: valor(data, 'stt_duration', 'p(95)'),
+    p95Relatorio: valor(data, 'relatorio_duration', 'p(95)'),
+    p95Email: valor(data, 'email_duration', 'p(95)'),
+    vusMaximos: valor(data, 'vus_max', 'max'),
+  };
+
+  return {
+    stdout: `\n🧵 Modo ${MODO}: ${JSON.stringify(resumo, null, 2)}\n`,
+    [`results/threads-${MODO}.json`]: JSON.stringify(resumo, null, 2),
+  };
+}
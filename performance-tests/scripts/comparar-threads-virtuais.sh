@@ -0,0 +1,48 @@
+#!/bin/bash
+
+# 🧵 Compara os resultados de k6-tests/threads-virtuais-comparacao-test.js
+# entre o modo de threads de plataforma e o de threads virtuais.
+# Uso: ./scripts/comparar-threads-virtuais.sh [results/threads-plataforma.json] [results/threads-virtual.json]
+
+set -e
+
+PLATAFORMA="${1:-results/threads-plataforma.json}"
+VIRTUAL="${2:-results/threads-virtual.json}"
+
+if ! command -v jq &> /dev/null; then
+    echo "[ERROR] jq não está instalado (necessário para ler os resultados)"
+    exit 1
+fi
+
+for arquivo in "$PLATAFORMA" "$VIRTUAL"; do
+    if [[ ! -f "$arquivo" ]]; then
+        echo "[ERROR] Resultado não encontrado: $arquivo"
+        echo "Rode antes: k6 run -e MODO=plataforma|virtual k6-tests/threads-virtuais-comparacao-test.js"
+        exit 1
+    fi
+done
+
+linha() {
+    local rotulo="$1"
+    local campo="$2"
+    local formato="$3"
+    local p v
+    p=$(jq -r ".$campo // 0" "$PLATAFORMA")
+    v=$(jq -r ".$campo // 0" "$VIRTUAL")
+    printf "%-28s %14s %14s\n" "$rotulo" "$(printf "$formato" "$p")" "$(printf "$formato" "$v")"
+}
+
+echo "=================================================================="
+echo "🧵 THREADS DE PLATAFORMA x THREADS VIRTUAIS"
+echo "=================================================================="
+printf "%-28s %14s %14s\n" "" "plataforma" "virtual"
+linha "Requisições/s" "requisicoesPorSegundo" "%.1f"
+linha "Iterações descartadas" "iteracoesDescartadas" "%.0f"
+linha "Taxa de sucesso" "sucesso" "%.3f"
+linha "Recusadas (503)" "recusadas503" "%.3f"
+linha "p95 geral (ms)" "p95Geral" "%.0f"
+linha "p95 /stt/process (ms)" "p95Stt" "%.0f"
+linha "p95 /relatorios (ms)" "p95Relatorio" "%.0f"
+linha "p95 /password/forgot (ms)" "p95Email" "%.0f"
+linha "VUs alocados" "vusMaximos" "%.0f"
+echo "=================================================================="